@@ -0,0 +1,102 @@
+/*
+ * file:       BenchmarkHelper.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       16/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.writer.ProjectWriter;
+
+/**
+ * Utility methods used to prepare benchmark data.
+ */
+final class BenchmarkHelper
+{
+   /**
+    * Private constructor to prevent instantiation.
+    */
+   private BenchmarkHelper()
+   {
+      // Private constructor to prevent instantiation
+   }
+
+   /**
+    * Write a project to a byte array.
+    *
+    * @param writer project writer
+    * @param file project to write
+    * @return file data
+    */
+   public static byte[] write(ProjectWriter writer, ProjectFile file) throws IOException
+   {
+      ByteArrayOutputStream os = new ByteArrayOutputStream();
+      writer.write(file, os);
+      return os.toByteArray();
+   }
+
+   /**
+    * Read the content of a file. Relative file names are resolved
+    * against the current directory, which is normally the benchmark
+    * module directory.
+    *
+    * @param fileName file name
+    * @return file data
+    */
+   public static byte[] readFile(String fileName) throws IOException
+   {
+      File file = new File(fileName);
+      if (!file.isFile())
+      {
+         throw new IOException("Benchmark input file not found: " + file.getAbsolutePath());
+      }
+
+      ByteArrayOutputStream os = new ByteArrayOutputStream();
+      InputStream is = new FileInputStream(file);
+      try
+      {
+         byte[] buffer = new byte[65536];
+         int length;
+         while ((length = is.read(buffer)) != -1)
+         {
+            os.write(buffer, 0, length);
+         }
+      }
+
+      finally
+      {
+         is.close();
+      }
+
+      return os.toByteArray();
+   }
+
+   /**
+    * Default sample MPP file, taken from the MPXJ test data.
+    */
+   public static final String DEFAULT_MPP_FILE = "../junit/data/generated/task-durations/task-durations-project2016-mpp14.mpp";
+}
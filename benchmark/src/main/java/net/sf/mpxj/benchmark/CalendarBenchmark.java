@@ -0,0 +1,116 @@
+/*
+ * file:       CalendarBenchmark.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       16/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.benchmark;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import net.sf.mpxj.Duration;
+import net.sf.mpxj.ProjectCalendar;
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.Task;
+
+/**
+ * Benchmark the ProjectCalendar date and work calculations, using the
+ * start and finish dates of the tasks in a synthetic project.
+ */
+@State(Scope.Benchmark) @BenchmarkMode(Mode.AverageTime) @OutputTimeUnit(TimeUnit.MICROSECONDS) @Warmup(iterations = 3) @Measurement(iterations = 5) @Fork(1) public class CalendarBenchmark
+{
+   /**
+    * Generate the synthetic project, and collect the task dates.
+    */
+   @Setup public void setup()
+   {
+      ProjectFile project = SyntheticProject.createProject(taskCount);
+      m_calendar = project.getDefaultCalendar();
+
+      int count = project.getTasks().size();
+      m_starts = new Date[count];
+      m_finishes = new Date[count];
+      m_durations = new Duration[count];
+
+      int index = 0;
+      for (Task task : project.getTasks())
+      {
+         m_starts[index] = task.getStart();
+         m_finishes[index] = task.getFinish();
+         m_durations[index] = task.getDuration();
+         ++index;
+      }
+   }
+
+   /**
+    * Calculate the finish date of each task from its start and duration.
+    *
+    * @param blackhole consumes the results
+    */
+   @Benchmark public void getDate(Blackhole blackhole)
+   {
+      for (int index = 0; index < m_starts.length; index++)
+      {
+         if (m_durations[index] != null)
+         {
+            blackhole.consume(m_calendar.getDate(m_starts[index], m_durations[index], false));
+         }
+      }
+   }
+
+   /**
+    * Calculate the working time between the start and finish of each task.
+    *
+    * @param blackhole consumes the results
+    */
+   @Benchmark public void getWork(Blackhole blackhole)
+   {
+      for (int index = 0; index < m_starts.length; index++)
+      {
+         blackhole.consume(m_calendar.getWork(m_starts[index], m_finishes[index], net.sf.mpxj.TimeUnit.HOURS));
+      }
+   }
+
+   @Param(
+   {
+      "100",
+      "1000",
+      "10000"
+   }) public int taskCount;
+
+   private ProjectCalendar m_calendar;
+   private Date[] m_starts;
+   private Date[] m_finishes;
+   private Duration[] m_durations;
+}
@@ -0,0 +1,80 @@
+/*
+ * file:       MppReaderBenchmark.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       16/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.mpp.MPPReader;
+
+/**
+ * Benchmark MPPReader.read. MPXJ cannot write MPP files, so rather than
+ * using a synthetic project this benchmark reads an existing file, which
+ * can be selected using the mppFile parameter.
+ */
+@State(Scope.Benchmark) @BenchmarkMode(Mode.AverageTime) @OutputTimeUnit(TimeUnit.MILLISECONDS) @Warmup(iterations = 3) @Measurement(iterations = 5) @Fork(1) public class MppReaderBenchmark
+{
+   /**
+    * Load the MPP file.
+    */
+   @Setup public void setup() throws Exception
+   {
+      m_data = BenchmarkHelper.readFile(mppFile);
+   }
+
+   /**
+    * Read the MPP file.
+    *
+    * @return project
+    */
+   @Benchmark public ProjectFile read() throws Exception
+   {
+      MPPReader reader = new MPPReader();
+      reader.setLazyFieldDecoding(lazyFieldDecoding);
+      return reader.read(new ByteArrayInputStream(m_data));
+   }
+
+   @Param(BenchmarkHelper.DEFAULT_MPP_FILE) public String mppFile;
+
+   @Param(
+   {
+      "false",
+      "true"
+   }) public boolean lazyFieldDecoding;
+
+   private byte[] m_data;
+}
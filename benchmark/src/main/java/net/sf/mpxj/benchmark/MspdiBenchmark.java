@@ -0,0 +1,121 @@
+/*
+ * file:       MspdiBenchmark.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       16/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.mspdi.MSPDIReader;
+import net.sf.mpxj.mspdi.MSPDIWriter;
+
+/**
+ * Benchmark reading and writing MSPDI files, using synthetic projects.
+ */
+@State(Scope.Benchmark) @BenchmarkMode(Mode.AverageTime) @OutputTimeUnit(TimeUnit.MILLISECONDS) @Warmup(iterations = 3) @Measurement(iterations = 5) @Fork(1) public class MspdiBenchmark
+{
+   /**
+    * Generate the synthetic project, and its MSPDI representation.
+    */
+   @Setup public void setup() throws Exception
+   {
+      m_project = SyntheticProject.createProject(taskCount);
+      m_data = BenchmarkHelper.write(new MSPDIWriter(), m_project);
+   }
+
+   /**
+    * Write the project.
+    *
+    * @return file data
+    */
+   @Benchmark public byte[] write() throws Exception
+   {
+      return BenchmarkHelper.write(createWriter(), m_project);
+   }
+
+   /**
+    * Read the project.
+    *
+    * @return project
+    */
+   @Benchmark public ProjectFile read() throws Exception
+   {
+      MSPDIReader reader = new MSPDIReader();
+      reader.setStreaming(streaming);
+      return reader.read(new ByteArrayInputStream(m_data));
+   }
+
+   /**
+    * Read the project, then write it again.
+    *
+    * @return file data
+    */
+   @Benchmark public byte[] roundTrip() throws Exception
+   {
+      MSPDIReader reader = new MSPDIReader();
+      reader.setStreaming(streaming);
+      ProjectFile project = reader.read(new ByteArrayInputStream(m_data));
+      return BenchmarkHelper.write(createWriter(), project);
+   }
+
+   /**
+    * Create a writer configured to match the current parameters.
+    *
+    * @return MSPDI writer
+    */
+   private MSPDIWriter createWriter()
+   {
+      MSPDIWriter writer = new MSPDIWriter();
+      writer.setStreaming(streaming);
+      return writer;
+   }
+
+   @Param(
+   {
+      "100",
+      "1000",
+      "10000"
+   }) public int taskCount;
+
+   @Param(
+   {
+      "false",
+      "true"
+   }) public boolean streaming;
+
+   private ProjectFile m_project;
+   private byte[] m_data;
+}
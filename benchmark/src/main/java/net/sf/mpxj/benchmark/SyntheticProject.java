@@ -0,0 +1,209 @@
+/*
+ * file:       SyntheticProject.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       16/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.benchmark;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+import net.sf.mpxj.Duration;
+import net.sf.mpxj.ProjectCalendar;
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.Rate;
+import net.sf.mpxj.RelationType;
+import net.sf.mpxj.Resource;
+import net.sf.mpxj.ResourceAssignment;
+import net.sf.mpxj.Task;
+import net.sf.mpxj.TimeUnit;
+import net.sf.mpxj.TimephasedWork;
+
+/**
+ * Generates synthetic projects of a given size using the ProjectFile API.
+ * The same size always generates the same project, so results from
+ * different runs can be compared.
+ */
+public final class SyntheticProject
+{
+   /**
+    * Private constructor to prevent instantiation.
+    */
+   private SyntheticProject()
+   {
+      // Private constructor to prevent instantiation
+   }
+
+   /**
+    * Create a project containing the requested number of tasks. Tasks are
+    * arranged in groups of ten beneath a summary task. Each task is linked to
+    * its predecessor within the group, and the first task in each group is
+    * linked to the last task in the previous group. One resource is created
+    * for every ten tasks, and each task is assigned a single resource.
+    *
+    * @param taskCount number of tasks to create
+    * @return new project
+    */
+   public static ProjectFile createProject(int taskCount)
+   {
+      ProjectFile file = new ProjectFile();
+      ProjectCalendar calendar = file.addDefaultBaseCalendar();
+      addHolidays(calendar);
+      file.getProjectProperties().setStartDate(PROJECT_START);
+
+      List<Resource> resources = new ArrayList<Resource>();
+      int resourceCount = Math.max(1, taskCount / GROUP_SIZE);
+      for (int index = 0; index < resourceCount; index++)
+      {
+         Resource resource = file.addResource();
+         resource.setName("Resource " + (index + 1));
+         resource.setMaxUnits(Double.valueOf(100));
+         resource.setStandardRate(new Rate(50 + index % 50, TimeUnit.HOURS));
+         resources.add(resource);
+      }
+
+      Task summary = null;
+      Task previous = null;
+      Date start = PROJECT_START;
+
+      for (int index = 0; index < taskCount; index++)
+      {
+         if (index % GROUP_SIZE == 0)
+         {
+            summary = file.addTask();
+            summary.setName("Summary " + (index / GROUP_SIZE + 1));
+            summary.setSummary(true);
+            summary.setStart(start);
+         }
+
+         Task task = summary.addTask();
+         task.setName("Task " + (index + 1));
+         task.setText(1, "Code " + (index % 97));
+         task.setNumber(1, Integer.valueOf(index));
+         task.setFlag(1, index % 3 == 0);
+
+         Duration duration = Duration.getInstance(1 + index % 10, TimeUnit.DAYS);
+         Date finish = calendar.getDate(start, duration, false);
+         task.setDuration(duration);
+         task.setStart(start);
+         task.setFinish(finish);
+         task.setPercentageComplete(Double.valueOf(index % 5 * 25));
+
+         if (previous != null)
+         {
+            task.addPredecessor(previous, RelationType.FINISH_START, Duration.getInstance(0, TimeUnit.DAYS));
+         }
+
+         Resource resource = resources.get(index % resources.size());
+         ResourceAssignment assignment = task.addResourceAssignment(resource);
+         assignment.setUnits(Double.valueOf(100));
+         assignment.setStart(start);
+         assignment.setFinish(finish);
+         assignment.setWork(Duration.getInstance(duration.getDuration() * 8, TimeUnit.HOURS));
+         assignment.setRemainingWork(assignment.getWork());
+
+         summary.setFinish(finish);
+         previous = task;
+         start = calendar.getDate(finish, Duration.getInstance(0, TimeUnit.DAYS), true);
+      }
+
+      file.getProjectProperties().setFinishDate(start);
+      return file;
+   }
+
+   /**
+    * Create timephased work for an assignment of the given number of
+    * working days, starting at the project start date. Each item
+    * represents a single working day of eight hours.
+    *
+    * @param calendar calendar used to determine working days
+    * @param days number of working days
+    * @return timephased work
+    */
+   public static List<TimephasedWork> createTimephasedWork(ProjectCalendar calendar, int days)
+   {
+      List<TimephasedWork> result = new ArrayList<TimephasedWork>(days);
+      Duration day = Duration.getInstance(1, TimeUnit.DAYS);
+      Duration hours = Duration.getInstance(8, TimeUnit.HOURS);
+      Date start = calendar.getDate(PROJECT_START, Duration.getInstance(0, TimeUnit.DAYS), true);
+
+      for (int index = 0; index < days; index++)
+      {
+         Date finish = calendar.getDate(start, day, false);
+         TimephasedWork item = new TimephasedWork();
+         item.setStart(start);
+         item.setFinish(finish);
+         item.setAmountPerDay(hours);
+         item.setTotalAmount(hours);
+         result.add(item);
+         start = calendar.getDate(finish, Duration.getInstance(0, TimeUnit.DAYS), true);
+      }
+
+      return result;
+   }
+
+   /**
+    * Add a set of holidays to a calendar, spanning the years covered by
+    * the largest synthetic projects.
+    *
+    * @param calendar target calendar
+    */
+   private static void addHolidays(ProjectCalendar calendar)
+   {
+      Calendar cal = Calendar.getInstance();
+      for (int year = 2020; year < 2060; year++)
+      {
+         cal.clear();
+         cal.set(year, Calendar.JANUARY, 1);
+         calendar.addCalendarException(cal.getTime(), cal.getTime());
+         cal.set(year, Calendar.DECEMBER, 25);
+         Date christmas = cal.getTime();
+         cal.set(year, Calendar.DECEMBER, 26);
+         calendar.addCalendarException(christmas, cal.getTime());
+      }
+   }
+
+   /**
+    * Create a date.
+    *
+    * @param year year
+    * @param month month, zero based
+    * @param day day of month
+    * @param hour hour of day
+    * @return new date
+    */
+   private static Date getDate(int year, int month, int day, int hour)
+   {
+      Calendar cal = Calendar.getInstance();
+      cal.clear();
+      cal.set(year, month, day, hour, 0);
+      return cal.getTime();
+   }
+
+   /**
+    * Start date of each synthetic project.
+    */
+   public static final Date PROJECT_START = getDate(2020, Calendar.JANUARY, 6, 8);
+
+   private static final int GROUP_SIZE = 10;
+}
@@ -0,0 +1,204 @@
+/*
+ * file:       SyntheticXer.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       16/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.benchmark;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * Generates synthetic Primavera XER files. The XER format has no writer
+ * in MPXJ, so the file is written directly, using the tables and columns
+ * read by PrimaveraXERFileReader. Each project has the same structure as
+ * the projects generated by SyntheticProject: tasks in groups of ten
+ * beneath a WBS entry, linked finish to start, with a single resource
+ * assignment per task.
+ */
+public final class SyntheticXer
+{
+   /**
+    * Private constructor to prevent instantiation.
+    */
+   private SyntheticXer()
+   {
+      // Private constructor to prevent instantiation
+   }
+
+   /**
+    * Create the text of an XER file.
+    *
+    * @param projectCount number of projects in the file
+    * @param taskCount number of tasks in each project
+    * @return XER file text
+    */
+   public static String createXer(int projectCount, int taskCount)
+   {
+      SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+      StringBuilder sb = new StringBuilder();
+      int resourceCount = Math.max(1, taskCount / GROUP_SIZE);
+      Date projectStart = SyntheticProject.PROJECT_START;
+
+      sb.append("ERMHDR\t8.4\t2020-01-01\tProject\tadmin\tadmin\tdbxDatabaseNoName\tProject Management\tUSD\n");
+
+      table(sb, "CURRTYPE", "curr_id", "decimal_digit_cnt", "curr_symbol", "decimal_symbol", "digit_group_symbol", "pos_curr_fmt_type", "neg_curr_fmt_type", "curr_type", "curr_short_name", "group_digit_cnt", "base_exch_rate");
+      row(sb, "1", "2", "$", ".", ",", "#1.1", "(#1.1)", "US Dollar", "USD", "3", "1");
+
+      table(sb, "PROJECT", "proj_id", "fy_start_month_num", "proj_short_name", "clndr_id", "plan_start_date", "def_duration_type", "def_complete_pct_type", "export_flag");
+      for (int project = 1; project <= projectCount; project++)
+      {
+         row(sb, String.valueOf(project), "1", "PROJECT" + project, "1", df.format(projectStart), "DT_FixedDUR2", "CP_Drtn", "Y");
+      }
+
+      table(sb, "CALENDAR", "clndr_id", "default_flag", "clndr_name", "proj_id", "base_clndr_id", "clndr_type", "day_hr_cnt", "week_hr_cnt", "month_hr_cnt", "year_hr_cnt", "clndr_data");
+      row(sb, "1", "Y", "Standard", "", "", "CA_Base", "8", "40", "172", "2000", CALENDAR_DATA);
+
+      table(sb, "RSRC", "rsrc_id", "parent_rsrc_id", "clndr_id", "rsrc_name", "rsrc_short_name", "rsrc_type");
+      for (int resource = 1; resource <= resourceCount; resource++)
+      {
+         row(sb, String.valueOf(resource), "", "1", "Resource " + resource, "R" + resource, "RT_Labor");
+      }
+
+      table(sb, "PROJWBS", "wbs_id", "proj_id", "seq_num", "proj_node_flag", "wbs_short_name", "wbs_name", "parent_wbs_id");
+      for (int project = 1; project <= projectCount; project++)
+      {
+         int rootID = getWbsID(project, 0);
+         row(sb, String.valueOf(rootID), String.valueOf(project), "0", "Y", "PROJECT" + project, "Project " + project, "");
+         for (int group = 1; group <= (taskCount + GROUP_SIZE - 1) / GROUP_SIZE; group++)
+         {
+            row(sb, String.valueOf(getWbsID(project, group)), String.valueOf(project), String.valueOf(group), "N", "W" + group, "Summary " + group, String.valueOf(rootID));
+         }
+      }
+
+      table(sb, "TASK", "task_id", "proj_id", "wbs_id", "clndr_id", "phys_complete_pct", "complete_pct_type", "task_type", "duration_type", "status_code", "task_code", "task_name", "remain_drtn_hr_cnt", "target_drtn_hr_cnt", "remain_work_qty", "target_work_qty", "early_start_date", "early_end_date", "late_start_date", "late_end_date", "target_start_date", "target_end_date", "create_date");
+      for (int project = 1; project <= projectCount; project++)
+      {
+         Calendar cal = Calendar.getInstance();
+         cal.setTime(projectStart);
+         for (int index = 0; index < taskCount; index++)
+         {
+            int days = 1 + index % 10;
+            String start = df.format(cal.getTime());
+            cal.add(Calendar.DAY_OF_YEAR, days - 1);
+            cal.set(Calendar.HOUR_OF_DAY, 16);
+            String finish = df.format(cal.getTime());
+            cal.add(Calendar.DAY_OF_YEAR, 1);
+            cal.set(Calendar.HOUR_OF_DAY, 8);
+
+            String hours = String.valueOf(days * 8);
+            row(sb, String.valueOf(getTaskID(project, index)), String.valueOf(project), String.valueOf(getWbsID(project, index / GROUP_SIZE + 1)), "1", "0", "CP_Drtn", "TT_Task", "DT_FixedDUR2", "TK_NotStart", "A" + (1000 + index * 10), "Task " + (index + 1), hours, hours, hours, hours, start, finish, start, finish, start, finish, df.format(projectStart));
+         }
+      }
+
+      table(sb, "TASKPRED", "task_pred_id", "task_id", "pred_task_id", "proj_id", "pred_proj_id", "pred_type", "lag_hr_cnt");
+      for (int project = 1; project <= projectCount; project++)
+      {
+         for (int index = 1; index < taskCount; index++)
+         {
+            row(sb, String.valueOf(getTaskID(project, index)), String.valueOf(getTaskID(project, index)), String.valueOf(getTaskID(project, index - 1)), String.valueOf(project), String.valueOf(project), "PR_FS", "0");
+         }
+      }
+
+      table(sb, "TASKRSRC", "taskrsrc_id", "task_id", "proj_id", "rsrc_id", "remain_qty", "target_qty", "act_reg_qty", "act_ot_qty", "target_cost", "remain_cost", "act_reg_cost", "act_ot_cost", "rsrc_type");
+      for (int project = 1; project <= projectCount; project++)
+      {
+         for (int index = 0; index < taskCount; index++)
+         {
+            String hours = String.valueOf((1 + index % 10) * 8);
+            row(sb, String.valueOf(getTaskID(project, index)), String.valueOf(getTaskID(project, index)), String.valueOf(project), String.valueOf(1 + index % resourceCount), hours, hours, "0", "0", "0", "0", "0", "0", "RT_Labor");
+         }
+      }
+
+      sb.append("%E\n");
+      return sb.toString();
+   }
+
+   /**
+    * Write a table header.
+    *
+    * @param sb target buffer
+    * @param name table name
+    * @param columns column names
+    */
+   private static void table(StringBuilder sb, String name, String... columns)
+   {
+      sb.append("%T\t").append(name).append('\n');
+      record(sb, "%F", columns);
+   }
+
+   /**
+    * Write a table row.
+    *
+    * @param sb target buffer
+    * @param values column values
+    */
+   private static void row(StringBuilder sb, String... values)
+   {
+      record(sb, "%R", values);
+   }
+
+   /**
+    * Write a single record.
+    *
+    * @param sb target buffer
+    * @param type record type
+    * @param values record values
+    */
+   private static void record(StringBuilder sb, String type, String[] values)
+   {
+      sb.append(type);
+      for (String value : values)
+      {
+         sb.append('\t').append(value);
+      }
+      sb.append('\n');
+   }
+
+   /**
+    * Generate a unique WBS ID.
+    *
+    * @param project project number
+    * @param group task group number, zero for the project root
+    * @return WBS ID
+    */
+   private static int getWbsID(int project, int group)
+   {
+      return project * 100000 + group;
+   }
+
+   /**
+    * Generate a unique task ID.
+    *
+    * @param project project number
+    * @param index task index
+    * @return task ID
+    */
+   private static int getTaskID(int project, int index)
+   {
+      return project * 1000000 + index;
+   }
+
+   private static final int GROUP_SIZE = 10;
+
+   private static final String CALENDAR_DATA = "(0||CalendarData()((0||DaysOfWeek()((0||1()())(0||2()((0||0(f|16:00|s|08:00)())))(0||3()((0||0(f|16:00|s|08:00)())))(0||4()((0||0(f|16:00|s|08:00)())))(0||5()((0||0(f|16:00|s|08:00)())))(0||6()((0||0(f|16:00|s|08:00)())))(0||7()())))))";
+}
@@ -0,0 +1,120 @@
+/*
+ * file:       TimephasedBenchmark.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       16/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sf.mpxj.DateRange;
+import net.sf.mpxj.Duration;
+import net.sf.mpxj.ProjectCalendar;
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.TimephasedWork;
+import net.sf.mpxj.mpp.TimescaleUnits;
+import net.sf.mpxj.utility.TimephasedUtility;
+import net.sf.mpxj.utility.TimescaleUtility;
+
+/**
+ * Benchmark TimephasedUtility.segmentWork, splitting synthetic
+ * timephased work into timescale segments.
+ */
+@State(Scope.Benchmark) @BenchmarkMode(Mode.AverageTime) @OutputTimeUnit(TimeUnit.MICROSECONDS) @Warmup(iterations = 3) @Measurement(iterations = 5) @Fork(1) public class TimephasedBenchmark
+{
+   /**
+    * Generate the timephased work and the timescale.
+    */
+   @Setup public void setup()
+   {
+      ProjectFile project = SyntheticProject.createProject(1);
+      m_calendar = project.getDefaultCalendar();
+      m_work = SyntheticProject.createTimephasedWork(m_calendar, days);
+      m_units = TimescaleUnits.valueOf(units);
+
+      int segments;
+      switch (m_units)
+      {
+         case WEEKS:
+         {
+            segments = days / 5 + 2;
+            break;
+         }
+
+         case MONTHS:
+         {
+            segments = days / 20 + 2;
+            break;
+         }
+
+         default:
+         {
+            segments = days * 7 / 5 + 2;
+            break;
+         }
+      }
+
+      m_timescale = new TimescaleUtility().createTimescale(m_work.get(0).getStart(), m_units, segments);
+   }
+
+   /**
+    * Split the timephased work into timescale segments.
+    *
+    * @return work per segment
+    */
+   @Benchmark public ArrayList<Duration> segmentWork()
+   {
+      return new TimephasedUtility().segmentWork(m_calendar, m_work, m_units, m_timescale);
+   }
+
+   @Param(
+   {
+      "20",
+      "250",
+      "2500"
+   }) public int days;
+
+   @Param(
+   {
+      "DAYS",
+      "WEEKS",
+      "MONTHS"
+   }) public String units;
+
+   private ProjectCalendar m_calendar;
+   private List<TimephasedWork> m_work;
+   private TimescaleUnits m_units;
+   private List<DateRange> m_timescale;
+}
@@ -0,0 +1,178 @@
+/*
+ * file:       UniversalReaderBenchmark.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       16/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.mpp.MPPReader;
+import net.sf.mpxj.mpx.MPXReader;
+import net.sf.mpxj.mpx.MPXWriter;
+import net.sf.mpxj.mspdi.MSPDIReader;
+import net.sf.mpxj.mspdi.MSPDIWriter;
+import net.sf.mpxj.primavera.PrimaveraPMFileReader;
+import net.sf.mpxj.primavera.PrimaveraPMFileWriter;
+import net.sf.mpxj.primavera.PrimaveraXERFileReader;
+import net.sf.mpxj.reader.ProjectReader;
+import net.sf.mpxj.reader.UniversalProjectReader;
+
+/**
+ * Benchmark UniversalProjectReader. Each format is read both by
+ * UniversalProjectReader and by the format's own reader, the difference
+ * between the two being the cost of format detection.
+ */
+@State(Scope.Benchmark) @BenchmarkMode(Mode.AverageTime) @OutputTimeUnit(TimeUnit.MILLISECONDS) @Warmup(iterations = 3) @Measurement(iterations = 5) @Fork(1) public class UniversalReaderBenchmark
+{
+   /**
+    * Generate the data for the selected format.
+    */
+   @Setup public void setup() throws Exception
+   {
+      switch (Format.valueOf(format))
+      {
+         case MPP:
+         {
+            m_data = BenchmarkHelper.readFile(mppFile);
+            break;
+         }
+
+         case MPX:
+         {
+            m_data = BenchmarkHelper.write(new MPXWriter(), SyntheticProject.createProject(taskCount));
+            break;
+         }
+
+         case MSPDI:
+         {
+            m_data = BenchmarkHelper.write(new MSPDIWriter(), SyntheticProject.createProject(taskCount));
+            break;
+         }
+
+         case PMXML:
+         {
+            m_data = BenchmarkHelper.write(new PrimaveraPMFileWriter(), SyntheticProject.createProject(taskCount));
+            break;
+         }
+
+         case XER:
+         {
+            m_data = SyntheticXer.createXer(1, taskCount).getBytes("UTF-8");
+            break;
+         }
+      }
+   }
+
+   /**
+    * Read the data using UniversalProjectReader.
+    *
+    * @return project
+    */
+   @Benchmark public ProjectFile universalReader() throws Exception
+   {
+      return new UniversalProjectReader().read(new ByteArrayInputStream(m_data));
+   }
+
+   /**
+    * Read the data using the reader for the selected format.
+    *
+    * @return project
+    */
+   @Benchmark public ProjectFile formatReader() throws Exception
+   {
+      ProjectReader reader;
+      switch (Format.valueOf(format))
+      {
+         case MPP:
+         {
+            reader = new MPPReader();
+            break;
+         }
+
+         case MPX:
+         {
+            reader = new MPXReader();
+            break;
+         }
+
+         case MSPDI:
+         {
+            reader = new MSPDIReader();
+            break;
+         }
+
+         case PMXML:
+         {
+            reader = new PrimaveraPMFileReader();
+            break;
+         }
+
+         default:
+         {
+            reader = new PrimaveraXERFileReader();
+            break;
+         }
+      }
+      return reader.read(new ByteArrayInputStream(m_data));
+   }
+
+   /**
+    * Formats which can be benchmarked.
+    */
+   private enum Format
+   {
+      MPP,
+      MPX,
+      MSPDI,
+      PMXML,
+      XER
+   }
+
+   @Param(
+   {
+      "MPP",
+      "MPX",
+      "MSPDI",
+      "PMXML",
+      "XER"
+   }) public String format;
+
+   @Param("1000") public int taskCount;
+
+   @Param(BenchmarkHelper.DEFAULT_MPP_FILE) public String mppFile;
+
+   private byte[] m_data;
+}
@@ -0,0 +1,190 @@
+/*
+ * file:       BytePatternMatcherTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       17/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import net.sf.mpxj.common.BytePatternMatcher;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for the BytePatternMatcher class.
+ */
+public class BytePatternMatcherTest
+{
+   /**
+    * Compare the matcher with a naive scan of random buffers. The buffers
+    * use a small alphabet, and the patterns overlap and are prefixes and
+    * suffixes of each other, so many matches overlap and many start at
+    * the same index.
+    */
+   @Test public void testRandomBuffers()
+   {
+      BytePatternMatcher matcher = new BytePatternMatcher(PATTERNS);
+      Random random = new Random(1);
+
+      for (int iteration = 0; iteration < 500; iteration++)
+      {
+         byte[] buffer = new byte[random.nextInt(64)];
+         for (int index = 0; index < buffer.length; index++)
+         {
+            buffer[index] = (byte) (random.nextInt(4) == 0 ? 0xFF : 'a' + random.nextInt(3));
+         }
+
+         //
+         // The end index may fall before, inside or after the buffer,
+         // so matches can straddle it or run past the end of the buffer.
+         //
+         int startIndex = buffer.length == 0 ? 0 : random.nextInt(buffer.length);
+         int endIndex = startIndex + random.nextInt(buffer.length + 4) - 2;
+         String message = Arrays.toString(buffer) + " " + startIndex + " " + endIndex;
+
+         List<Integer> expected = naiveFindAll(buffer, startIndex, endIndex);
+         assertEquals(message, expected, matcher.findAll(buffer, startIndex, endIndex));
+         assertEquals(message, expected.isEmpty() ? -1 : expected.get(0).intValue(), matcher.findFirst(buffer, startIndex, endIndex));
+
+         int[] first = new int[PATTERNS.length];
+         int[] last = new int[PATTERNS.length];
+         Arrays.fill(first, -1);
+         Arrays.fill(last, -1);
+         matcher.findFirstAndLast(buffer, buffer.length, first, last);
+         for (int pattern = 0; pattern < PATTERNS.length; pattern++)
+         {
+            List<Integer> matches = naiveFind(buffer, PATTERNS[pattern]);
+            assertEquals(message, matches.isEmpty() ? -1 : matches.get(0).intValue(), first[pattern]);
+            assertEquals(message, matches.isEmpty() ? -1 : matches.get(matches.size() - 1).intValue(), last[pattern]);
+         }
+      }
+   }
+
+   /**
+    * Ensure that a match which starts before the end index is found
+    * even though it finishes after the end index, and that a match
+    * which runs past the end of the buffer is not.
+    */
+   @Test public void testEndIndex()
+   {
+      BytePatternMatcher matcher = new BytePatternMatcher(PATTERNS);
+      byte[] buffer = "xxabcab".getBytes();
+
+      assertEquals(Arrays.asList(Integer.valueOf(2), Integer.valueOf(3), Integer.valueOf(5)), matcher.findAll(buffer, 0, buffer.length));
+      assertEquals(Arrays.asList(Integer.valueOf(2), Integer.valueOf(3)), matcher.findAll(buffer, 0, 4));
+      assertEquals(Arrays.asList(Integer.valueOf(2)), matcher.findAll(buffer, 0, 3));
+      assertEquals(2, matcher.findFirst(buffer, 0, 3));
+      assertEquals(-1, matcher.findFirst(buffer, 0, 2));
+      assertEquals(Arrays.asList(Integer.valueOf(5)), matcher.findAll(buffer, 5, 10));
+      assertEquals(-1, matcher.findFirst(buffer, 6, 10));
+   }
+
+   /**
+    * Find the indexes at which any pattern begins by comparing each
+    * pattern at each candidate index.
+    *
+    * @param buffer buffer to search
+    * @param startIndex first candidate start index
+    * @param endIndex candidate start indexes are less than this value
+    * @return start indexes in ascending order
+    */
+   private List<Integer> naiveFindAll(byte[] buffer, int startIndex, int endIndex)
+   {
+      List<Integer> result = new ArrayList<Integer>();
+      for (int index = startIndex; index < endIndex; index++)
+      {
+         for (byte[] pattern : PATTERNS)
+         {
+            if (matches(buffer, index, pattern))
+            {
+               result.add(Integer.valueOf(index));
+               break;
+            }
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Find every index at which a single pattern begins.
+    *
+    * @param buffer buffer to search
+    * @param pattern pattern to find
+    * @return start indexes in ascending order
+    */
+   private List<Integer> naiveFind(byte[] buffer, byte[] pattern)
+   {
+      List<Integer> result = new ArrayList<Integer>();
+      for (int index = 0; index < buffer.length; index++)
+      {
+         if (matches(buffer, index, pattern))
+         {
+            result.add(Integer.valueOf(index));
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Determine if a pattern appears in full at the given index.
+    *
+    * @param buffer buffer to search
+    * @param index start index
+    * @param pattern pattern to compare
+    * @return true if the pattern matches
+    */
+   private boolean matches(byte[] buffer, int index, byte[] pattern)
+   {
+      if (index < 0 || index + pattern.length > buffer.length)
+      {
+         return false;
+      }
+
+      for (int offset = 0; offset < pattern.length; offset++)
+      {
+         if (buffer[index + offset] != pattern[offset])
+         {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private static final byte[][] PATTERNS =
+   {
+      "abc".getBytes(),
+      "bca".getBytes(),
+      "ab".getBytes(),
+      "cabca".getBytes(),
+      new byte[]
+      {
+         (byte) 0xFF,
+         'a',
+         (byte) 0xFF
+      }
+   };
+}
@@ -0,0 +1,364 @@
+/*
+ * file:       CriticalPathSchedulerTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       17/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import net.sf.mpxj.ConstraintType;
+import net.sf.mpxj.Duration;
+import net.sf.mpxj.MPXJException;
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.RelationType;
+import net.sf.mpxj.Task;
+import net.sf.mpxj.TaskField;
+import net.sf.mpxj.TimeUnit;
+import net.sf.mpxj.reader.UniversalProjectReader;
+import net.sf.mpxj.scheduler.CriticalPathScheduler;
+
+import org.junit.Test;
+
+/**
+ * The tests contained in this class exercise the critical path scheduler.
+ */
+public class CriticalPathSchedulerTest
+{
+   /**
+    * Ensure that the early and late dates, slack and criticality calculated
+    * by the scheduler match the values calculated by Microsoft Project.
+    * MPP14 files are excluded as they represent some late finish dates
+    * as the start of the following working day.
+    *
+    * @throws Exception
+    */
+   @Test public void testSchedule() throws Exception
+   {
+      testSchedule(new File(MpxjTestData.filePath("slack9.mpp")));
+
+      for (File file : MpxjTestData.listFiles("generated/task-links", "task-links-project2013"))
+      {
+         if (!file.getName().endsWith("mpp14.mpp"))
+         {
+            testSchedule(file);
+         }
+      }
+   }
+
+   /**
+    * Ensure that scheduling a project concurrently produces the same
+    * results as scheduling it sequentially. The project is large enough
+    * for each level of tasks to be split into batches processed by the
+    * executor.
+    *
+    * @throws Exception
+    */
+   @Test public void testConcurrentSchedule() throws Exception
+   {
+      ProjectFile file = createLayeredProject();
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 0, java.util.concurrent.TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>());
+      try
+      {
+         new CriticalPathScheduler().schedule(file, executor);
+         assertTrue(executor.getCompletedTaskCount() > 0);
+      }
+
+      finally
+      {
+         executor.shutdown();
+      }
+
+      List<Object[]> concurrent = new ArrayList<Object[]>();
+      for (Task task : file.getTasks())
+      {
+         Object[] values = new Object[CONCURRENT_FIELDS.length];
+         for (int index = 0; index < CONCURRENT_FIELDS.length; index++)
+         {
+            values[index] = task.getCurrentValue(CONCURRENT_FIELDS[index]);
+         }
+         concurrent.add(values);
+      }
+
+      for (Task task : file.getTasks())
+      {
+         for (TaskField field : CONCURRENT_FIELDS)
+         {
+            task.set(field, null);
+         }
+      }
+
+      new CriticalPathScheduler().schedule(file);
+
+      int taskIndex = 0;
+      for (Task task : file.getTasks())
+      {
+         Object[] values = concurrent.get(taskIndex++);
+         for (int index = 0; index < CONCURRENT_FIELDS.length; index++)
+         {
+            Object expected = task.getCurrentValue(CONCURRENT_FIELDS[index]);
+            assertNotNull(task.getName() + " " + CONCURRENT_FIELDS[index], expected);
+            assertEquals(task.getName() + " " + CONCURRENT_FIELDS[index], expected, values[index]);
+         }
+      }
+   }
+
+   /**
+    * Ensure that a cycle in the task dependencies is reported.
+    *
+    * @throws Exception
+    */
+   @Test public void testCyclicDependency() throws Exception
+   {
+      ProjectFile file = new UniversalProjectReader().read(MpxjTestData.filePath("slack9.mpp"));
+      Task task1 = file.getTaskByID(Integer.valueOf(1));
+      Task task2 = file.getTaskByID(Integer.valueOf(2));
+      task2.addPredecessor(task1, RelationType.FINISH_START, null);
+      task1.addPredecessor(task2, RelationType.FINISH_START, null);
+
+      try
+      {
+         new CriticalPathScheduler().schedule(file);
+         fail("Expected exception");
+      }
+
+      catch (MPXJException ex)
+      {
+         assertEquals(MPXJException.CYCLIC_DEPENDENCY, ex.getMessage());
+      }
+   }
+
+   /**
+    * Ensure that updating an attached project after changes to durations,
+    * constraints and relations produces the same results as scheduling
+    * the whole project.
+    *
+    * @throws Exception
+    */
+   @Test public void testIncrementalUpdate() throws Exception
+   {
+      ProjectFile file = new UniversalProjectReader().read(MpxjTestData.filePath("slack9.mpp"));
+      CriticalPathScheduler scheduler = new CriticalPathScheduler();
+      scheduler.attach(file);
+
+      Task task1 = file.getTaskByID(Integer.valueOf(1));
+      task1.setDuration(Duration.getInstance(3, TimeUnit.DAYS));
+      scheduler.update();
+      assertIncrementalUpdate(file);
+
+      Task task3 = file.getTaskByID(Integer.valueOf(3));
+      task3.setConstraintType(ConstraintType.START_NO_EARLIER_THAN);
+      task3.setConstraintDate(file.getTaskByID(Integer.valueOf(4)).getFinish());
+      scheduler.update();
+      assertIncrementalUpdate(file);
+
+      Task task9 = file.getTaskByID(Integer.valueOf(9));
+      task9.addPredecessor(task1, RelationType.FINISH_START, Duration.getInstance(2, TimeUnit.DAYS));
+      scheduler.relationsChanged(task9);
+      scheduler.update();
+      assertIncrementalUpdate(file);
+
+      //
+      // Move the project finish later, then earlier, by changing
+      // the duration of the last task to finish
+      //
+      Task lastTask = null;
+      for (Task task : file.getTasks())
+      {
+         if (!task.getSummary() && (lastTask == null || task.getEarlyFinish().getTime() > lastTask.getEarlyFinish().getTime()))
+         {
+            lastTask = task;
+         }
+      }
+      Duration duration = lastTask.getDuration();
+      lastTask.setDuration(Duration.getInstance(duration.getDuration() + 5, duration.getUnits()));
+      scheduler.update();
+      assertIncrementalUpdate(file);
+
+      lastTask.setDuration(Duration.getInstance(0, duration.getUnits()));
+      scheduler.update();
+      assertIncrementalUpdate(file);
+
+      scheduler.detach();
+   }
+
+   /**
+    * Compare the values calculated by an incremental update with
+    * those calculated by scheduling the whole project.
+    *
+    * @param file project file
+    */
+   private void assertIncrementalUpdate(ProjectFile file) throws MPXJException
+   {
+      List<Object[]> actual = new ArrayList<Object[]>();
+      for (Task task : file.getTasks())
+      {
+         Object[] values = new Object[FIELDS.length];
+         for (int index = 0; index < FIELDS.length; index++)
+         {
+            values[index] = task.getCurrentValue(FIELDS[index]);
+         }
+         actual.add(values);
+      }
+
+      new CriticalPathScheduler().schedule(file);
+
+      int taskIndex = 0;
+      for (Task task : file.getTasks())
+      {
+         Object[] values = actual.get(taskIndex++);
+         for (int index = 0; index < FIELDS.length; index++)
+         {
+            Object expected = task.getCurrentValue(FIELDS[index]);
+            assertEquals(task.getName() + " " + FIELDS[index], expected, values[index]);
+         }
+      }
+   }
+
+   /**
+    * Clear the calculated values for each task in a project, schedule it,
+    * and compare the results with the values read from the file.
+    *
+    * @param file file to test
+    */
+   private void testSchedule(File file) throws MPXJException
+   {
+      ProjectFile project = new UniversalProjectReader().read(file);
+      List<Object[]> expected = new ArrayList<Object[]>();
+      for (Task task : project.getTasks())
+      {
+         Object[] values = new Object[FIELDS.length];
+         for (int index = 0; index < FIELDS.length; index++)
+         {
+            values[index] = task.getCurrentValue(FIELDS[index]);
+         }
+         expected.add(values);
+      }
+
+      for (Task task : project.getTasks())
+      {
+         for (TaskField field : FIELDS)
+         {
+            task.set(field, null);
+         }
+      }
+
+      new CriticalPathScheduler().schedule(project);
+
+      int taskIndex = 0;
+      for (Task task : project.getTasks())
+      {
+         Object[] values = expected.get(taskIndex++);
+         if (task.getUniqueID().intValue() == 0 || values[0] == null)
+         {
+            continue;
+         }
+
+         for (int index = 0; index < FIELDS.length; index++)
+         {
+            Object expectedValue = values[index];
+            Object actualValue = task.getCurrentValue(FIELDS[index]);
+            if (expectedValue instanceof Duration && actualValue instanceof Duration)
+            {
+               expectedValue = ((Duration) expectedValue).convertUnits(TimeUnit.MINUTES, project.getProjectProperties());
+               actualValue = ((Duration) actualValue).convertUnits(TimeUnit.MINUTES, project.getProjectProperties());
+            }
+            assertEquals(file.getName() + " " + task.getName() + " " + FIELDS[index], expectedValue, actualValue);
+         }
+      }
+   }
+
+   /**
+    * Create a project containing levels of tasks, where each task has
+    * predecessors in the previous level using a mix of relation
+    * types and lags.
+    *
+    * @return new project
+    */
+   private ProjectFile createLayeredProject()
+   {
+      ProjectFile file = new ProjectFile();
+      file.addDefaultBaseCalendar();
+      Calendar cal = Calendar.getInstance();
+      cal.clear();
+      cal.set(2020, Calendar.JANUARY, 6, 8, 0);
+      file.getProjectProperties().setStartDate(cal.getTime());
+
+      Task[] previousLevel = null;
+      for (int level = 0; level < LEVEL_COUNT; level++)
+      {
+         Task[] currentLevel = new Task[LEVEL_WIDTH];
+         for (int index = 0; index < LEVEL_WIDTH; index++)
+         {
+            Task task = file.addTask();
+            task.setName("Task " + level + "." + index);
+            task.setDuration(Duration.getInstance((level * 7 + index) % 9, TimeUnit.DAYS));
+            currentLevel[index] = task;
+
+            if (previousLevel != null)
+            {
+               task.addPredecessor(previousLevel[index], RelationType.FINISH_START, null);
+               task.addPredecessor(previousLevel[(index * 7 + 3) % LEVEL_WIDTH], RelationType.START_START, Duration.getInstance(index % 3, TimeUnit.DAYS));
+               if (index % 5 == 0)
+               {
+                  task.addPredecessor(previousLevel[(index + 11) % LEVEL_WIDTH], RelationType.FINISH_FINISH, Duration.getInstance(1, TimeUnit.DAYS));
+               }
+            }
+         }
+         previousLevel = currentLevel;
+      }
+
+      return file;
+   }
+
+   private static final int LEVEL_COUNT = 10;
+   private static final int LEVEL_WIDTH = 300;
+
+   private static final TaskField[] CONCURRENT_FIELDS =
+   {
+      TaskField.EARLY_START,
+      TaskField.EARLY_FINISH,
+      TaskField.LATE_START,
+      TaskField.LATE_FINISH,
+      TaskField.START_SLACK,
+      TaskField.FINISH_SLACK,
+      TaskField.TOTAL_SLACK,
+      TaskField.FREE_SLACK,
+      TaskField.CRITICAL
+   };
+
+   private static final TaskField[] FIELDS =
+   {
+      TaskField.EARLY_START,
+      TaskField.EARLY_FINISH,
+      TaskField.LATE_START,
+      TaskField.LATE_FINISH,
+      TaskField.TOTAL_SLACK,
+      TaskField.CRITICAL
+   };
+}
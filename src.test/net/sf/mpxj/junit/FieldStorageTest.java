@@ -0,0 +1,281 @@
+/*
+ * file:       FieldStorageTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       16/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.Date;
+
+import net.sf.mpxj.ArrayFieldStorage;
+import net.sf.mpxj.CompactFieldStorage;
+import net.sf.mpxj.Duration;
+import net.sf.mpxj.FieldStorage;
+import net.sf.mpxj.FieldTypeClass;
+import net.sf.mpxj.ProjectCalendar;
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.Task;
+import net.sf.mpxj.TaskField;
+import net.sf.mpxj.TimeUnit;
+import net.sf.mpxj.reader.UniversalProjectReader;
+
+import org.junit.Test;
+
+/**
+ * Tests to exercise the field storage implementations.
+ */
+public class FieldStorageTest
+{
+   /**
+    * Test the array field storage.
+    */
+   @Test public void testArrayFieldStorage()
+   {
+      testFieldStorage(ArrayFieldStorage.FACTORY.newFieldStorage(FieldTypeClass.TASK, TaskField.MAX_VALUE));
+   }
+
+   /**
+    * Test the compact field storage.
+    */
+   @Test public void testCompactFieldStorage()
+   {
+      testFieldStorage(CompactFieldStorage.FACTORY.newFieldStorage(FieldTypeClass.TASK, TaskField.MAX_VALUE));
+   }
+
+   /**
+    * Ensure that tasks behave in the same way regardless of the
+    * field storage used.
+    */
+   @Test public void testTaskFieldStorage()
+   {
+      ProjectFile arrayFile = new ProjectFile();
+      arrayFile.getProjectConfig().setFieldStorageFactory(ArrayFieldStorage.FACTORY);
+      Task arrayTask = arrayFile.addTask();
+
+      ProjectFile compactFile = new ProjectFile();
+      compactFile.getProjectConfig().setFieldStorageFactory(CompactFieldStorage.FACTORY);
+      Task compactTask = compactFile.addTask();
+
+      for (Task task : new Task[]
+      {
+         arrayTask,
+         compactTask
+      })
+      {
+         task.setName("Task");
+         task.setStart(new Date(1000000L));
+         task.setDuration(Duration.getInstance(2, TimeUnit.DAYS));
+         task.setCost(Double.valueOf(12.5));
+         task.setMilestone(true);
+      }
+
+      for (TaskField field : TaskField.values())
+      {
+         assertEquals(field.name(), arrayTask.getCachedValue(field), compactTask.getCachedValue(field));
+      }
+   }
+
+   /**
+    * Ensure that array storage is used unless compact storage is
+    * requested, and that projects read using either form of storage
+    * contain the same values.
+    */
+   @Test public void testReaderFieldStorage() throws Exception
+   {
+      ProjectFile file = new ProjectFile();
+      assertSame(ArrayFieldStorage.FACTORY, file.getProjectConfig().getFieldStorageFactory());
+
+      Task task = file.addTask();
+      task.setStart(new Date(1000000L));
+      assertSame(task.getStart(), task.getStart());
+
+      File[] files =
+      {
+         new File(MpxjTestData.filePath("generated/task-text/task-text-project2013-mpp14.mpp")),
+         new File(MpxjTestData.filePath("generated/task-text/task-text-project2007-mspdi.xml")),
+         new File(MpxjTestData.filePath("generated/task-percentcomplete/percent-complete-8.4.xer"))
+      };
+
+      for (File testFile : files)
+      {
+         UniversalProjectReader reader = new UniversalProjectReader();
+         ProjectFile arrayProject = reader.read(testFile);
+         assertSame(ArrayFieldStorage.FACTORY, arrayProject.getProjectConfig().getFieldStorageFactory());
+
+         reader.setFieldStorageFactory(CompactFieldStorage.FACTORY);
+         ProjectFile compactProject = reader.read(testFile);
+         assertSame(CompactFieldStorage.FACTORY, compactProject.getProjectConfig().getFieldStorageFactory());
+
+         assertEquals(testFile.getName(), arrayProject.getTasks().size(), compactProject.getTasks().size());
+         for (Task arrayTask : arrayProject.getTasks())
+         {
+            Task compactTask = compactProject.getTaskByUniqueID(arrayTask.getUniqueID());
+            for (TaskField field : TaskField.values())
+            {
+               assertEquals(testFile.getName() + " " + field.name(), getComparableValue(arrayTask, field), getComparableValue(compactTask, field));
+            }
+         }
+      }
+   }
+
+   /**
+    * Retrieve a task field value in a form which can be compared
+    * between projects. Calendars are compared by unique ID.
+    *
+    * @param task parent task
+    * @param field field to retrieve
+    * @return field value
+    */
+   private Object getComparableValue(Task task, TaskField field)
+   {
+      Object value = task.getCachedValue(field);
+      if (value instanceof ProjectCalendar)
+      {
+         value = ((ProjectCalendar) value).getUniqueID();
+      }
+      return value;
+   }
+
+   /**
+    * Exercise a field storage instance, populating, replacing and
+    * removing values of each kind.
+    *
+    * @param storage field storage to test
+    */
+   private void testFieldStorage(FieldStorage storage)
+   {
+      int size = TaskField.MAX_VALUE;
+      for (int index = 0; index < size; index++)
+      {
+         assertNull(storage.get(index));
+      }
+
+      //
+      // Populate every third field, descending, with a mix of value types
+      //
+      for (int index = size - 1; index >= 0; index -= 3)
+      {
+         storage.set(index, getValue(index, 0));
+      }
+
+      for (int index = 0; index < size; index++)
+      {
+         assertEquals(isPopulated(index) ? getValue(index, 0) : null, storage.get(index));
+      }
+
+      //
+      // Replace each value with a value of a different type
+      //
+      for (int index = size - 1; index >= 0; index -= 3)
+      {
+         storage.set(index, getValue(index, 1));
+      }
+
+      for (int index = 0; index < size; index++)
+      {
+         assertEquals(isPopulated(index) ? getValue(index, 1) : null, storage.get(index));
+      }
+
+      //
+      // Remove the values
+      //
+      for (int index = 0; index < size; index++)
+      {
+         storage.set(index, null);
+      }
+
+      for (int index = 0; index < size; index++)
+      {
+         assertNull(storage.get(index));
+      }
+
+      //
+      // Ensure special values survive a round trip
+      //
+      storage.set(0, Double.valueOf(Double.NaN));
+      storage.set(1, Double.valueOf(-0.0));
+      storage.set(2, new Date(-1));
+      storage.set(3, Boolean.FALSE);
+      assertEquals(Double.valueOf(Double.NaN), storage.get(0));
+      assertEquals(Double.valueOf(-0.0), storage.get(1));
+      assertEquals(new Date(-1), storage.get(2));
+      assertEquals(Boolean.FALSE, storage.get(3));
+   }
+
+   /**
+    * Determine if a field will be populated by the test.
+    *
+    * @param index field index
+    * @return true if populated
+    */
+   private boolean isPopulated(int index)
+   {
+      return (TaskField.MAX_VALUE - 1 - index) % 3 == 0;
+   }
+
+   /**
+    * Generate a test value for a field.
+    *
+    * @param index field index
+    * @param offset offset used to vary the value type
+    * @return test value
+    */
+   private Object getValue(int index, int offset)
+   {
+      Object result;
+      switch ((index + offset) % 5)
+      {
+         case 0:
+         {
+            result = new Date(index * 60000L);
+            break;
+         }
+
+         case 1:
+         {
+            result = Double.valueOf(index * 1.5);
+            break;
+         }
+
+         case 2:
+         {
+            result = Boolean.valueOf(index % 2 == 0);
+            break;
+         }
+
+         case 3:
+         {
+            result = Duration.getInstance(index, TimeUnit.HOURS);
+            break;
+         }
+
+         default:
+         {
+            result = "Value " + index;
+            break;
+         }
+      }
+      return result;
+   }
+}
@@ -0,0 +1,110 @@
+/*
+ * file:       MppNotesTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       17/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.Resource;
+import net.sf.mpxj.ResourceAssignment;
+import net.sf.mpxj.Task;
+import net.sf.mpxj.common.RtfHelper;
+import net.sf.mpxj.mpp.MPPReader;
+
+/**
+ * Tests to ensure that notes read from MPP files are correctly converted
+ * to plain text when they are retrieved.
+ */
+public class MppNotesTest
+{
+   /**
+    * Test task, resource and assignment notes from a range of MPP files.
+    *
+    * @throws Exception
+    */
+   @Test public void testNotes() throws Exception
+   {
+      String[] files =
+      {
+         "mpp9task.mpp",
+         "mpp9resource.mpp",
+         "mpp9assignmentfields.mpp",
+         "mpp12task.mpp",
+         "mpp12resource.mpp",
+         "mpp12assignmentfields.mpp",
+         "mpp14task.mpp",
+         "mpp14resource.mpp",
+         "mpp14assignmentfields.mpp"
+      };
+
+      int count = 0;
+      for (String file : files)
+      {
+         count += testNotes(file);
+      }
+      assertTrue(count > 0);
+   }
+
+   /**
+    * Read a file with and without note formatting preserved, and compare
+    * the plain text notes with the result of stripping the formatted notes.
+    *
+    * @param file file name
+    * @return number of non-empty notes found
+    */
+   private int testNotes(String file) throws Exception
+   {
+      MPPReader reader = new MPPReader();
+      ProjectFile plain = reader.read(MpxjTestData.filePath(file));
+      reader.setPreserveNoteFormatting(true);
+      ProjectFile formatted = reader.read(MpxjTestData.filePath(file));
+
+      int count = 0;
+      for (Task task : formatted.getTasks())
+      {
+         String notes = task.getNotes();
+         assertEquals(file, RtfHelper.strip(notes), plain.getTaskByUniqueID(task.getUniqueID()).getNotes());
+         count += notes.isEmpty() ? 0 : 1;
+      }
+
+      for (Resource resource : formatted.getResources())
+      {
+         String notes = resource.getNotes();
+         assertEquals(file, RtfHelper.strip(notes), plain.getResourceByUniqueID(resource.getUniqueID()).getNotes());
+         count += notes.isEmpty() ? 0 : 1;
+      }
+
+      for (int index = 0; index < formatted.getResourceAssignments().size(); index++)
+      {
+         ResourceAssignment assignment = formatted.getResourceAssignments().get(index);
+         String notes = assignment.getNotes();
+         assertEquals(file, RtfHelper.strip(notes), plain.getResourceAssignments().get(index).getNotes());
+         count += notes.isEmpty() ? 0 : 1;
+      }
+
+      return count;
+   }
+}
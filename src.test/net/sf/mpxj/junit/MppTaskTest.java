@@ -32,6 +32,7 @@ import java.util.List;
 
 import net.sf.mpxj.AccrueType;
 import net.sf.mpxj.ConstraintType;
+import net.sf.mpxj.DataType;
 import net.sf.mpxj.DateRange;
 import net.sf.mpxj.Duration;
 import net.sf.mpxj.Priority;
@@ -41,6 +42,7 @@ import net.sf.mpxj.Relation;
 import net.sf.mpxj.RelationType;
 import net.sf.mpxj.Resource;
 import net.sf.mpxj.Task;
+import net.sf.mpxj.TaskField;
 import net.sf.mpxj.TaskType;
 import net.sf.mpxj.TimeUnit;
 import net.sf.mpxj.mpd.MPDDatabaseReader;
@@ -133,6 +135,45 @@ public class MppTaskTest
       testBasicTask(mpp);
    }
 
+   /**
+    * Test task data read from MPP9, MPP12 and MPP14 files
+    * with lazy field decoding enabled.
+    *
+    * @throws Exception
+    */
+   @Test public void testLazyTask() throws Exception
+   {
+      for (String name : new String[]
+      {
+         "mpp9task.mpp",
+         "mpp12task.mpp",
+         "mpp14task.mpp"
+      })
+      {
+         MPPReader reader = new MPPReader();
+         reader.setLazyFieldDecoding(true);
+         testBasicTask(reader.read(MpxjTestData.filePath(name)));
+
+         reader.setLazyFieldDecoding(false);
+         ProjectFile eager = reader.read(MpxjTestData.filePath(name));
+         reader.setLazyFieldDecoding(true);
+         ProjectFile lazy = reader.read(MpxjTestData.filePath(name));
+
+         Task eagerTask = eager.getTaskByUniqueID(Integer.valueOf(1));
+         Task lazyTask = lazy.getTaskByUniqueID(Integer.valueOf(1));
+         lazyTask.setName("Renamed");
+         assertEquals("Renamed", lazyTask.getName());
+
+         for (TaskField field : TaskField.values())
+         {
+            if (field != TaskField.NAME && field.getDataType() != DataType.RELATION_LIST)
+            {
+               assertEquals(field.toString(), eagerTask.getCachedValue(field), lazyTask.getCachedValue(field));
+            }
+         }
+      }
+   }
+
    /**
     * Test task data read from an MPD9 file.
     *
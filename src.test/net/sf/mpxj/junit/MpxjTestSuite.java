@@ -28,15 +28,22 @@ import org.junit.runners.Suite;
 
 import net.sf.mpxj.junit.assignment.AssignmentAssignmentsTest;
 import net.sf.mpxj.junit.assignment.DeletedAssignmentTest;
+import net.sf.mpxj.junit.asta.AstaDatabaseReaderTest;
 import net.sf.mpxj.junit.calendar.CalendarCalendarsTest;
 import net.sf.mpxj.junit.calendar.InvalidCalendarTest;
 import net.sf.mpxj.junit.calendar.RecurringExceptionsTest;
 import net.sf.mpxj.junit.legacy.BasicTest;
+import net.sf.mpxj.junit.merlin.MerlinReaderTest;
 import net.sf.mpxj.junit.primavera.PrimaveraDatabaseReaderTest;
+import net.sf.mpxj.junit.primavera.PrimaveraXERReadAllTest;
 import net.sf.mpxj.junit.project.DefaultDurationFormatTest;
+import net.sf.mpxj.junit.project.FieldFilterTest;
+import net.sf.mpxj.junit.project.MspdiStreamingTest;
+import net.sf.mpxj.junit.project.ProjectBatchProcessorTest;
 import net.sf.mpxj.junit.project.ProjectPropertiesOnlyTest;
 import net.sf.mpxj.junit.project.ProjectPropertiesTest;
 import net.sf.mpxj.junit.project.ProjectValueListsTest;
+import net.sf.mpxj.junit.project.SharedReaderWriterTest;
 import net.sf.mpxj.junit.project.TaskContainerTest;
 import net.sf.mpxj.junit.resource.MppResourceTypeTest;
 import net.sf.mpxj.junit.resource.ResourceFlagsTest;
@@ -105,6 +112,7 @@ import net.sf.mpxj.junit.task.TaskTextValuesTest;
    MppTaskFlags.class,
    MppResourceFlags.class,
    DateUtilityTest.class,
+   BytePatternMatcherTest.class,
    DeletedAssignmentTest.class,
    MppResourceTypeTest.class,
    TaskFlagsTest.class,
@@ -122,6 +130,11 @@ import net.sf.mpxj.junit.task.TaskTextValuesTest;
    TaskTextValuesTest.class,
    ProjectPropertiesTest.class,
    ProjectPropertiesOnlyTest.class,
+   FieldFilterTest.class,
+   ProjectBatchProcessorTest.class,
+   SharedReaderWriterTest.class,
+   FieldStorageTest.class,
+   MspdiStreamingTest.class,
    TaskBaselinesTest.class,
    TaskPercentCompleteTest.class,
    InvalidCalendarTest.class,
@@ -130,6 +143,9 @@ import net.sf.mpxj.junit.task.TaskTextValuesTest;
    ProjectValueListsTest.class,
    CalendarCalendarsTest.class,
    PrimaveraDatabaseReaderTest.class,
+   PrimaveraXERReadAllTest.class,
+   AstaDatabaseReaderTest.class,
+   MerlinReaderTest.class,
    TaskContainerTest.class,
    AvailabilityTableTest.class,
    AssignmentAssignmentsTest.class,
@@ -139,7 +155,12 @@ import net.sf.mpxj.junit.task.TaskTextValuesTest;
    ResourceTextTest.class,
    RecurringExceptionsTest.class,
    RecurringDataTest.class,
-   CustomerDataTest.class
+   CustomerDataTest.class,
+   CriticalPathSchedulerTest.class,
+   TimephasedSeriesTest.class,
+   ProjectFileFormatDetectorTest.class,
+   UniversalProjectReaderTest.class,
+   MppNotesTest.class
 }) public class MpxjTestSuite
 {
    // No class body required
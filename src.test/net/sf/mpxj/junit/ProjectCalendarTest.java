@@ -28,6 +28,7 @@ import static org.junit.Assert.*;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import net.sf.mpxj.DateRange;
 import net.sf.mpxj.Duration;
@@ -710,4 +711,163 @@ public class ProjectCalendarTest
       //
       assertNull(cal.getStartTime(df.parse("11/10/2003 00:00")));
    }
+
+   /**
+    * Exercise the ProjectCalendar.getPreviousWorkFinish and
+    * ProjectCalendar.getLatestWorkFinish methods.
+    *
+    * @throws Exception
+    */
+   @Test public void testPreviousWorkFinish() throws Exception
+   {
+      ProjectFile file = new ProjectFile();
+      ProjectCalendar cal = file.addDefaultBaseCalendar();
+      SimpleDateFormat df = new SimpleDateFormat("dd/MM/yyyy HH:mm");
+
+      //
+      // Monday 13th, before the first working period has finished
+      //
+      assertEquals("10/10/2003 17:00", df.format(cal.getPreviousWorkFinish(df.parse("13/10/2003 10:00"))));
+      assertEquals("13/10/2003 10:00", df.format(cal.getLatestWorkFinish(df.parse("13/10/2003 10:00"))));
+
+      //
+      // Lunch break
+      //
+      assertEquals("13/10/2003 12:00", df.format(cal.getPreviousWorkFinish(df.parse("13/10/2003 12:30"))));
+      assertEquals("13/10/2003 12:00", df.format(cal.getLatestWorkFinish(df.parse("13/10/2003 12:30"))));
+
+      //
+      // Monday afternoon
+      //
+      assertEquals("13/10/2003 12:00", df.format(cal.getPreviousWorkFinish(df.parse("13/10/2003 14:30"))));
+      assertEquals("13/10/2003 14:30", df.format(cal.getLatestWorkFinish(df.parse("13/10/2003 14:30"))));
+      assertEquals("13/10/2003 17:00", df.format(cal.getLatestWorkFinish(df.parse("13/10/2003 17:00"))));
+
+      //
+      // Non-working days
+      //
+      assertEquals("10/10/2003 17:00", df.format(cal.getPreviousWorkFinish(df.parse("11/10/2003 10:00"))));
+      assertEquals("10/10/2003 17:00", df.format(cal.getLatestWorkFinish(df.parse("11/10/2003 10:00"))));
+      assertEquals("10/10/2003 17:00", df.format(cal.getLatestWorkFinish(df.parse("13/10/2003 07:00"))));
+   }
+
+   /**
+    * Exercise date calculations which cross an extended non-working period.
+    *
+    * @throws Exception
+    */
+   @Test public void testLongNonWorkingPeriod() throws Exception
+   {
+      ProjectFile file = new ProjectFile();
+      ProjectCalendar cal = file.addDefaultBaseCalendar();
+      SimpleDateFormat df = new SimpleDateFormat("dd/MM/yyyy HH:mm");
+
+      //
+      // Three weeks shutdown from Monday 13th
+      //
+      cal.addCalendarException(df.parse("13/10/2003 00:00"), df.parse("31/10/2003 23:59"));
+
+      Duration duration = Duration.getInstance(16, TimeUnit.HOURS);
+      Date endDate = cal.getDate(df.parse("10/10/2003 08:00"), duration, false);
+      assertEquals("03/11/2003 17:00", df.format(endDate));
+
+      Date startDate = cal.getStartDate(df.parse("03/11/2003 17:00"), duration);
+      assertEquals("10/10/2003 08:00", df.format(startDate));
+
+      assertEquals(16.0, cal.getWork(df.parse("10/10/2003 08:00"), df.parse("03/11/2003 17:00"), TimeUnit.HOURS).getDuration(), 0.01);
+      assertEquals(-16.0, cal.getWork(df.parse("03/11/2003 17:00"), df.parse("10/10/2003 08:00"), TimeUnit.HOURS).getDuration(), 0.01);
+
+      //
+      // Dates a long way apart
+      //
+      Duration work = cal.getWork(df.parse("09/10/2003 08:00"), df.parse("10/10/2013 17:00"), TimeUnit.HOURS);
+      assertEquals("10/10/2013 17:00", df.format(cal.getDate(df.parse("09/10/2003 08:00"), work, false)));
+      assertEquals("09/10/2003 08:00", df.format(cal.getStartDate(df.parse("10/10/2013 17:00"), work)));
+   }
+
+   /**
+    * Ensure that date calculations give consistent results when a
+    * calendar is shared between threads.
+    *
+    * @throws Exception
+    */
+   @Test public void testConcurrentDateCalculations() throws Exception
+   {
+      ProjectFile file = new ProjectFile();
+      final ProjectCalendar cal = file.addDefaultBaseCalendar();
+      final SimpleDateFormat df = new SimpleDateFormat("dd/MM/yyyy HH:mm");
+      final Date startDate = df.parse("09/10/2003 08:00");
+      final String[] expected = new String[200];
+      for (int index = 0; index < expected.length; index++)
+      {
+         expected[index] = df.format(cal.getDate(startDate, Duration.getInstance(index * 7, TimeUnit.HOURS), false));
+      }
+
+      final AtomicInteger failures = new AtomicInteger();
+      Thread[] threads = new Thread[4];
+      for (int threadIndex = 0; threadIndex < threads.length; threadIndex++)
+      {
+         final int offset = threadIndex;
+         threads[threadIndex] = new Thread()
+         {
+            @Override public void run()
+            {
+               DateFormat format = new SimpleDateFormat("dd/MM/yyyy HH:mm");
+               for (int loop = 0; loop < 20; loop++)
+               {
+                  for (int index = offset; index < expected.length; index += 3)
+                  {
+                     Date endDate = cal.getDate(startDate, Duration.getInstance(index * 7, TimeUnit.HOURS), false);
+                     if (!expected[index].equals(format.format(endDate)))
+                     {
+                        failures.incrementAndGet();
+                     }
+                  }
+               }
+            }
+         };
+      }
+
+      for (Thread thread : threads)
+      {
+         thread.start();
+      }
+
+      for (Thread thread : threads)
+      {
+         thread.join();
+      }
+
+      assertEquals(0, failures.get());
+   }
+
+   /**
+    * Ensure that calendar name lookups reflect calendars being
+    * added, renamed and removed.
+    */
+   @Test public void testGetByName()
+   {
+      ProjectFile file = new ProjectFile();
+      ProjectCalendar standard = file.addDefaultBaseCalendar();
+      assertEquals(standard, file.getCalendarByName("STANDARD"));
+      assertNull(file.getCalendarByName("Night Shift"));
+
+      ProjectCalendar night = file.addCalendar();
+      night.setName("Night Shift");
+      assertEquals(night, file.getCalendarByName("night shift"));
+
+      night.setName("Late Shift");
+      assertNull(file.getCalendarByName("Night Shift"));
+      assertEquals(night, file.getCalendarByName("Late Shift"));
+
+      ProjectCalendar duplicate = file.addCalendar();
+      duplicate.setName("Standard");
+      assertEquals(standard, file.getCalendarByName("Standard"));
+
+      file.removeCalendar(standard);
+      assertEquals(duplicate, file.getCalendarByName("Standard"));
+
+      file.removeCalendar(night);
+      assertNull(file.getCalendarByName("Late Shift"));
+   }
 }
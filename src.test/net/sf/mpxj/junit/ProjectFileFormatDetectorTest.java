@@ -0,0 +1,128 @@
+/*
+ * file:       ProjectFileFormatDetectorTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       17/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Test;
+
+import net.sf.mpxj.common.CharsetHelper;
+import net.sf.mpxj.reader.ProjectFileFormat;
+import net.sf.mpxj.reader.ProjectFileFormatDetector;
+
+/**
+ * Validate the behaviour of the file format detector.
+ */
+public class ProjectFileFormatDetectorTest
+{
+   /**
+    * Test detection of sample files.
+    */
+   @Test public void testFiles() throws IOException
+   {
+      testFile("generated/task-text/task-text-project2010-mpp14.mpp", ProjectFileFormat.OLE_COMPOUND_DOCUMENT);
+      testFile("generated/task-text/task-text-project2007-mspdi.xml", ProjectFileFormat.MSPDI);
+      testFile("generated/task-text/task-text-project98.mpx", ProjectFileFormat.MPX);
+      testFile("generated/task-percentcomplete/percent-complete-8.4.xer", ProjectFileFormat.XER);
+      testFile("generated/task-percentcomplete/percent-complete-8.4.pmxml", ProjectFileFormat.PMXML);
+      testFile("project1.planner", ProjectFileFormat.PLANNER);
+      testFile("mpdduration.mpd", ProjectFileFormat.MDB);
+      testFile("empty.mpx", ProjectFileFormat.MPX);
+      assertEquals(ProjectFileFormat.UNKNOWN, ProjectFileFormatDetector.detect(new ByteArrayInputStream("MPX".getBytes(CharsetHelper.UTF8))));
+   }
+
+   /**
+    * Test detection of text formats, including those with a byte order mark,
+    * and ensure that the stream is returned to its original position.
+    */
+   @Test public void testText() throws IOException
+   {
+      testText("<?xml version=\"1.0\"?><project name=\"Test\" mrproject-version=\"2\">", ProjectFileFormat.PLANNER);
+      testText("<?xml version=\"1.0\"?><project name=\"Test\" version=\"4.3\" update_mode=\"true\">", ProjectFileFormat.PHOENIX_XML);
+      testText("<?xml version=\"1.0\"?><project name=\"Test\" version=\"Test\" update_mode=\"true\">", ProjectFileFormat.UNKNOWN);
+      testText("<?xml version=\"1.0\"?><project name=\"Test\" webLink=\"\">", ProjectFileFormat.GANTTPROJECT);
+      testText("<?xml version=\"1.0\"?><Project xmlns=\"http://schemas.microsoft.com/project\">", ProjectFileFormat.MSPDI);
+      testText("<?xml version=\"1.0\"?>mrproject-version<project>", ProjectFileFormat.UNKNOWN);
+   }
+
+   /**
+    * Test a single file.
+    *
+    * @param name file name
+    * @param expected expected format
+    */
+   private void testFile(String name, ProjectFileFormat expected) throws IOException
+   {
+      InputStream stream = new FileInputStream(MpxjTestData.filePath(name));
+      try
+      {
+         assertEquals(name, expected, ProjectFileFormatDetector.detect(stream));
+      }
+
+      finally
+      {
+         stream.close();
+      }
+   }
+
+   /**
+    * Test some text in a range of encodings.
+    *
+    * @param text sample text
+    * @param expected expected format
+    */
+   private void testText(String text, ProjectFileFormat expected) throws IOException
+   {
+      StringBuilder sb = new StringBuilder(text);
+      while (sb.length() < ProjectFileFormatDetector.BUFFER_SIZE)
+      {
+         sb.append(' ');
+      }
+      text = sb.toString();
+
+      testText(text.getBytes(CharsetHelper.UTF8), expected);
+      testText(("\uFEFF" + text).getBytes(CharsetHelper.UTF8), expected);
+      testText(("\uFEFF" + text).getBytes(CharsetHelper.UTF16LE), expected);
+      testText(text.getBytes(CharsetHelper.UTF16), expected);
+   }
+
+   /**
+    * Test a single sample.
+    *
+    * @param data sample data
+    * @param expected expected format
+    */
+   private void testText(byte[] data, ProjectFileFormat expected) throws IOException
+   {
+      InputStream stream = new BufferedInputStream(new ByteArrayInputStream(data));
+      assertEquals(expected, ProjectFileFormatDetector.detect(stream));
+      assertEquals(data[0] & 0xFF, stream.read());
+   }
+}
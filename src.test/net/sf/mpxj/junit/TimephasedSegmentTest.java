@@ -29,14 +29,24 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 
+import net.sf.mpxj.CostRateTable;
+import net.sf.mpxj.CostRateTableEntry;
 import net.sf.mpxj.DateRange;
 import net.sf.mpxj.Duration;
 import net.sf.mpxj.ProjectCalendar;
 import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.Rate;
+import net.sf.mpxj.Resource;
 import net.sf.mpxj.ResourceAssignment;
 import net.sf.mpxj.Task;
+import net.sf.mpxj.TimeUnit;
+import net.sf.mpxj.TimephasedCost;
 import net.sf.mpxj.TimephasedWork;
+import net.sf.mpxj.common.DateHelper;
+import net.sf.mpxj.common.NumberHelper;
 import net.sf.mpxj.mpp.MPPReader;
 import net.sf.mpxj.mpp.TimescaleUnits;
 import net.sf.mpxj.utility.TimephasedUtility;
@@ -116,6 +126,27 @@ public class TimephasedSegmentTest
       testSegments(file);
    }
 
+   /**
+    * Timephased segment test for MPP9, MPP12 and MPP14 files
+    * with timephased data decoded on demand.
+    *
+    * @throws Exception
+    */
+   @Test public void testLazyTimephasedData() throws Exception
+   {
+      for (String name : new String[]
+      {
+         "mpp9timephasedsegments.mpp",
+         "mpp12timephasedsegments.mpp",
+         "mpp14timephasedsegments.mpp"
+      })
+      {
+         MPPReader reader = new MPPReader();
+         reader.setLazyTimephasedData(true);
+         testSegments(reader.read(MpxjTestData.filePath(name)));
+      }
+   }
+
    /**
     * Timephased segment test for MSPDI files.
     *
@@ -1099,6 +1130,115 @@ public class TimephasedSegmentTest
          1160,
          0
       }, false);
+
+      //
+      // Give each resource a different rate so that the assignments have costs
+      //
+      int rate = 10;
+      for (Resource resource : file.getResources())
+      {
+         CostRateTable table = new CostRateTable();
+         table.add(new CostRateTableEntry(new Rate(rate, TimeUnit.HOURS), TimeUnit.HOURS, new Rate(0, TimeUnit.HOURS), TimeUnit.HOURS, NumberHelper.DOUBLE_ZERO, DateHelper.LAST_DATE));
+         resource.setCostRateTable(0, table);
+         rate += 5;
+      }
+
+      testResourceSegments(file, startDate, TimescaleUnits.DAYS);
+      testResourceSegments(file, startDate, TimescaleUnits.WEEKS);
+      testResourceSegments(file, startDate, TimescaleUnits.MONTHS);
+   }
+
+   /**
+    * Ensure that the work and cost segmented for all resources at once match
+    * the total of the segments calculated for each of their assignments,
+    * both sequentially and with an executor. The test files contain only a
+    * handful of resources, so each resource is repeated in the list to make
+    * it long enough to be split into batches for the executor.
+    *
+    * @param file ProjectFile instance
+    * @param startDate start date for segments
+    * @param units units of duration for each segment
+    */
+   private void testResourceSegments(ProjectFile file, Date startDate, TimescaleUnits units) throws Exception
+   {
+      ArrayList<DateRange> dateList = m_timescale.createTimescale(startDate, units, 30);
+      List<Resource> resources = new ArrayList<Resource>();
+      while (resources.size() < CONCURRENT_RESOURCE_COUNT)
+      {
+         resources.addAll(file.getResources());
+      }
+
+      double[][] work = m_timephased.segmentResourceWork(resources, units, dateList);
+      double[][] cost = m_timephased.segmentResourceCost(resources, units, dateList);
+
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 0, java.util.concurrent.TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>());
+      double[][] concurrentWork;
+      double[][] concurrentCost;
+      try
+      {
+         concurrentWork = m_timephased.segmentResourceWork(resources, units, dateList, executor);
+         concurrentCost = m_timephased.segmentResourceCost(resources, units, dateList, executor);
+         assertTrue(executor.getCompletedTaskCount() > 2);
+      }
+      finally
+      {
+         executor.shutdown();
+      }
+
+      assertEquals(resources.size(), work.length);
+      for (int resourceIndex = 0; resourceIndex < resources.size(); resourceIndex++)
+      {
+         double[] expected = new double[dateList.size()];
+         for (ResourceAssignment assignment : resources.get(resourceIndex).getTaskAssignments())
+         {
+            List<TimephasedWork> timephasedWork = assignment.getTimephasedWork();
+            if (timephasedWork == null || timephasedWork.isEmpty())
+            {
+               continue;
+            }
+
+            ArrayList<Duration> durationList = m_timephased.segmentWork(assignment.getCalendar(), timephasedWork, units, dateList);
+            for (int loop = 0; loop < expected.length; loop++)
+            {
+               expected[loop] += durationList.get(loop).convertUnits(TimeUnit.HOURS, file.getProjectProperties()).getDuration();
+            }
+         }
+
+         for (int loop = 0; loop < expected.length; loop++)
+         {
+            assertEquals("Failed at index " + loop, expected[loop], work[resourceIndex][loop], 0.009);
+            assertEquals("Failed at index " + loop, work[resourceIndex][loop], concurrentWork[resourceIndex][loop], 0.0);
+         }
+      }
+
+      assertEquals(resources.size(), cost.length);
+      double totalCost = 0;
+      for (int resourceIndex = 0; resourceIndex < resources.size(); resourceIndex++)
+      {
+         double[] expected = new double[dateList.size()];
+         for (ResourceAssignment assignment : resources.get(resourceIndex).getTaskAssignments())
+         {
+            List<TimephasedCost> timephasedCost = assignment.getTimephasedCost();
+            if (timephasedCost == null || timephasedCost.isEmpty())
+            {
+               continue;
+            }
+
+            ArrayList<Double> costList = m_timephased.segmentCost(assignment.getCalendar(), timephasedCost, units, dateList);
+            for (int loop = 0; loop < expected.length; loop++)
+            {
+               expected[loop] += costList.get(loop).doubleValue();
+            }
+         }
+
+         for (int loop = 0; loop < expected.length; loop++)
+         {
+            assertEquals("Failed at index " + loop, expected[loop], cost[resourceIndex][loop], 0.009);
+            assertEquals("Failed at index " + loop, cost[resourceIndex][loop], concurrentCost[resourceIndex][loop], 0.0);
+            totalCost += expected[loop];
+         }
+      }
+      assertTrue(totalCost > 0);
    }
 
    /**
@@ -1156,4 +1296,6 @@ public class TimephasedSegmentTest
 
    private TimescaleUtility m_timescale = new TimescaleUtility();
    private TimephasedUtility m_timephased = new TimephasedUtility();
+
+   private static final int CONCURRENT_RESOURCE_COUNT = 40;
 }
@@ -0,0 +1,146 @@
+/*
+ * file:       TimephasedSeriesTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       17/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit;
+
+import static org.junit.Assert.*;
+
+import java.util.Date;
+import java.util.LinkedList;
+import java.util.List;
+
+import net.sf.mpxj.Duration;
+import net.sf.mpxj.TimeUnit;
+import net.sf.mpxj.TimephasedCost;
+import net.sf.mpxj.TimephasedCostSeries;
+import net.sf.mpxj.TimephasedWork;
+import net.sf.mpxj.TimephasedWorkSeries;
+
+import org.junit.Test;
+
+/**
+ * Tests to exercise the compact timephased data series.
+ */
+public class TimephasedSeriesTest
+{
+   /**
+    * Ensure that timephased work items stored in a series can be
+    * retrieved unchanged, both by index and as list items.
+    */
+   @Test public void testWorkSeries()
+   {
+      List<TimephasedWork> items = new LinkedList<TimephasedWork>();
+      items.add(createWork(0, 8, 8, TimeUnit.HOURS, false));
+      items.add(createWork(8, 16, 480, TimeUnit.MINUTES, true));
+      items.add(createWork(16, 24, 1, TimeUnit.DAYS, false));
+
+      TimephasedWorkSeries series = new TimephasedWorkSeries(items);
+      assertEquals(items, series);
+      assertEquals(3, series.size());
+      assertTrue(series.getModified(1));
+      assertEquals(TimeUnit.DAYS, series.getTotalAmountUnits(2));
+      assertEquals(8 * HOUR, series.getFinishTime(0));
+
+      TimephasedWork item = createWork(24, 32, 4, TimeUnit.HOURS, false);
+      item.setAmountPerDay(null);
+      series.add(item);
+      assertNull(series.get(3).getAmountPerDay());
+      assertTrue(Double.isNaN(series.getAmountPerDayValue(3)));
+
+      series.remove(1);
+      series.add(1, items.get(1));
+      assertEquals(items.get(1), series.get(1));
+      assertEquals(items.get(2), series.get(2));
+
+      series.removeLast();
+      assertEquals(items, series);
+
+      series.setTotalAmount(0, 30, TimeUnit.MINUTES);
+      assertEquals(Duration.getInstance(30, TimeUnit.MINUTES), series.get(0).getTotalAmount());
+   }
+
+   /**
+    * Ensure that timephased cost items stored in a series can be
+    * retrieved unchanged.
+    */
+   @Test public void testCostSeries()
+   {
+      TimephasedCostSeries series = new TimephasedCostSeries();
+      int index = series.add(0, 8 * HOUR, 100, Double.NaN);
+      series.setModified(index, true);
+
+      TimephasedCost item = series.get(index);
+      assertEquals(new Date(0), item.getStart());
+      assertEquals(new Date(8 * HOUR), item.getFinish());
+      assertEquals(Double.valueOf(100), item.getTotalAmount());
+      assertNull(item.getAmountPerDay());
+      assertTrue(item.getModified());
+
+      item.setAmountPerDay(Double.valueOf(100));
+      series.set(index, item);
+      assertEquals(100, series.getAmountPerDayValue(index), 0);
+   }
+
+   /**
+    * Ensure that the binary search locates the item containing a date,
+    * or the insertion point if no item contains the date.
+    */
+   @Test public void testBinarySearch()
+   {
+      TimephasedWorkSeries series = new TimephasedWorkSeries();
+      series.add(8 * HOUR, 16 * HOUR, 8, 8, TimeUnit.HOURS);
+      series.add(32 * HOUR, 40 * HOUR, 8, 8, TimeUnit.HOURS);
+      series.add(56 * HOUR, 64 * HOUR, 8, 8, TimeUnit.HOURS);
+
+      assertEquals(-1, series.binarySearch(0));
+      assertEquals(0, series.binarySearch(8 * HOUR));
+      assertEquals(0, series.binarySearch(16 * HOUR));
+      assertEquals(-2, series.binarySearch(20 * HOUR));
+      assertEquals(1, series.binarySearch(36 * HOUR));
+      assertEquals(2, series.binarySearch(64 * HOUR));
+      assertEquals(-4, series.binarySearch(70 * HOUR));
+   }
+
+   /**
+    * Create a timephased work item.
+    *
+    * @param startHour start, in hours from the epoch
+    * @param finishHour finish, in hours from the epoch
+    * @param amount total amount and amount per day
+    * @param units amount units
+    * @param modified modified flag
+    * @return timephased work item
+    */
+   private TimephasedWork createWork(int startHour, int finishHour, double amount, TimeUnit units, boolean modified)
+   {
+      TimephasedWork work = new TimephasedWork();
+      work.setStart(new Date(startHour * HOUR));
+      work.setFinish(new Date(finishHour * HOUR));
+      work.setTotalAmount(Duration.getInstance(amount, units));
+      work.setAmountPerDay(Duration.getInstance(amount, units));
+      work.setModified(modified);
+      return work;
+   }
+
+   private static final long HOUR = 60 * 60 * 1000;
+}
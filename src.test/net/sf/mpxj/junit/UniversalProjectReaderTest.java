@@ -0,0 +1,138 @@
+/*
+ * file:       UniversalProjectReaderTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       17/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Test;
+
+import net.sf.mpxj.MPXJException;
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.common.FileHelper;
+import net.sf.mpxj.reader.UniversalProjectReader;
+
+/**
+ * Validate the behaviour of the universal project reader.
+ */
+public class UniversalProjectReaderTest
+{
+   /**
+    * Ensure that we can read a schedule from a zip file, whether the zip
+    * file is supplied as a file, as a stream held in memory, or as a stream
+    * which is written to a temporary file.
+    */
+   @Test public void testZipFile() throws Exception
+   {
+      File source = new File(MpxjTestData.filePath("generated/task-text/task-text-project2010-mpp14.mpp"));
+      int expectedTaskCount = new UniversalProjectReader().read(source).getTasks().size();
+
+      File zipFile = File.createTempFile("junit", ".zip");
+      File tempDir = FileHelper.createTempDir();
+
+      try
+      {
+         ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(zipFile));
+         zip.putNextEntry(new ZipEntry("readme.txt"));
+         zip.write("Not a schedule".getBytes());
+         zip.closeEntry();
+         zip.putNextEntry(new ZipEntry("schedules/"));
+         zip.closeEntry();
+         zip.putNextEntry(new ZipEntry("schedules/" + source.getName()));
+         copy(source, zip);
+         zip.closeEntry();
+         zip.close();
+
+         UniversalProjectReader reader = new UniversalProjectReader();
+         assertEquals(expectedTaskCount, reader.read(zipFile).getTasks().size());
+         assertTrue(zipFile.exists());
+
+         assertEquals(expectedTaskCount, readStream(reader, zipFile).getTasks().size());
+
+         reader.setTempDirectory(tempDir);
+         reader.setMaxInMemorySize(0);
+         assertEquals(expectedTaskCount, readStream(reader, zipFile).getTasks().size());
+         assertEquals(0, tempDir.listFiles().length);
+      }
+
+      finally
+      {
+         FileHelper.deleteQuietly(zipFile);
+         FileHelper.deleteQuietly(tempDir);
+      }
+   }
+
+   /**
+    * Read a schedule from a stream.
+    *
+    * @param reader reader
+    * @param file schedule file
+    * @return ProjectFile instance
+    */
+   private ProjectFile readStream(UniversalProjectReader reader, File file) throws IOException, MPXJException
+   {
+      InputStream stream = new FileInputStream(file);
+      try
+      {
+         return reader.read(stream);
+      }
+
+      finally
+      {
+         stream.close();
+      }
+   }
+
+   /**
+    * Copy the content of a file to a zip file.
+    *
+    * @param file source file
+    * @param zip zip file
+    */
+   private void copy(File file, ZipOutputStream zip) throws IOException
+   {
+      InputStream stream = new FileInputStream(file);
+      try
+      {
+         byte[] buffer = new byte[8192];
+         int length;
+         while ((length = stream.read(buffer)) != -1)
+         {
+            zip.write(buffer, 0, length);
+         }
+      }
+
+      finally
+      {
+         stream.close();
+      }
+   }
+}
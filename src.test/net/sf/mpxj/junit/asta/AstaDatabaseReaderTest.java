@@ -0,0 +1,218 @@
+/*
+ * file:       AstaDatabaseReaderTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       17/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit.asta;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.Relation;
+import net.sf.mpxj.Resource;
+import net.sf.mpxj.Task;
+import net.sf.mpxj.asta.AstaDatabaseReader;
+
+/**
+ * Tests reading projects from an Asta database.
+ *
+ * Note that there is no equivalent automated test for the batched reads
+ * performed by MPD9DatabaseReader: its rows reject columns which are not
+ * present, so a fixture would need the full MSP_* schema. MPD9 batching
+ * is therefore not covered by this test suite.
+ */
+public class AstaDatabaseReaderTest
+{
+   /**
+    * Create a SQLite database containing several projects, then ensure
+    * that reading the projects in batches gives the same results as reading
+    * each project on its own, and that no data leaks between projects.
+    */
+   @Test public void testReadAll() throws Exception
+   {
+      Class.forName("org.sqlite.JDBC");
+      File file = File.createTempFile("asta", ".db");
+      try
+      {
+         Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+         try
+         {
+            createDatabase(connection);
+
+            AstaDatabaseReader reader = new AstaDatabaseReader();
+            reader.setConnection(connection);
+            Map<Integer, String> projects = reader.listProjects();
+            assertEquals(PROJECT_COUNT, projects.size());
+
+            reader = new AstaDatabaseReader();
+            reader.setConnection(connection);
+            reader.setBatchSize(2);
+            reader.setFetchSize(10);
+            List<ProjectFile> batched = reader.readAll();
+            assertEquals(PROJECT_COUNT, batched.size());
+
+            for (int projectID = 1; projectID <= PROJECT_COUNT; projectID++)
+            {
+               ProjectFile expected = batched.get(projectID - 1);
+               assertEquals("Project " + projectID, expected.getProjectProperties().getName());
+               assertEquals(projects.get(Integer.valueOf(projectID)), expected.getProjectProperties().getName());
+
+               reader = new AstaDatabaseReader();
+               reader.setConnection(connection);
+               reader.setProjectID(projectID);
+               compareProjects(projectID, expected, reader.read());
+            }
+
+            List<ProjectFile> selected = reader.readAll(Arrays.asList(Integer.valueOf(4), Integer.valueOf(2)));
+            assertEquals(2, selected.size());
+            assertEquals("Project 4", selected.get(0).getProjectProperties().getName());
+            assertEquals("Project 2", selected.get(1).getProjectProperties().getName());
+         }
+
+         finally
+         {
+            connection.close();
+         }
+      }
+
+      finally
+      {
+         file.delete();
+      }
+   }
+
+   /**
+    * Ensure that a project read as part of a batch matches the
+    * same project read on its own, and contains only its own data.
+    *
+    * @param projectID project ID
+    * @param expected project read as part of a batch
+    * @param actual project read on its own
+    */
+   private void compareProjects(int projectID, ProjectFile expected, ProjectFile actual)
+   {
+      assertEquals(expected.getProjectProperties().getName(), actual.getProjectProperties().getName());
+
+      assertEquals(RESOURCE_COUNT + 1, expected.getResources().size());
+      assertEquals(expected.getResources().size(), actual.getResources().size());
+      for (Resource resource : expected.getResources())
+      {
+         assertTrue(resource.getName(), resource.getName().startsWith("Resource " + projectID + "."));
+         assertEquals(resource.getName(), actual.getResourceByUniqueID(resource.getUniqueID()).getName());
+      }
+
+      assertEquals(TASK_COUNT, expected.getTasks().size());
+      assertEquals(expected.getTasks().size(), actual.getTasks().size());
+      int predecessorCount = 0;
+      for (Task task : expected.getTasks())
+      {
+         predecessorCount += task.getPredecessors().size();
+         assertTrue(task.getName(), task.getName().startsWith("Task " + projectID + "."));
+         Task actualTask = actual.getTaskByUniqueID(task.getUniqueID());
+         assertEquals(task.getName(), actualTask.getName());
+         assertEquals(task.getPredecessors().size(), actualTask.getPredecessors().size());
+         for (Relation relation : task.getPredecessors())
+         {
+            assertTrue(relation.getTargetTask().getName().startsWith("Task " + projectID + "."));
+         }
+      }
+      assertEquals(TASK_COUNT - 1, predecessorCount);
+   }
+
+   /**
+    * Create the tables read by the reader, and populate them with
+    * interleaved rows from several projects.
+    *
+    * @param connection database connection
+    */
+   private void createDatabase(Connection connection) throws Exception
+   {
+      Statement statement = connection.createStatement();
+      try
+      {
+         statement.executeUpdate("create table project_summary (projid integer, short_name varchar(50))");
+         statement.executeUpdate("create table calendar (calendarid integer, projid integer, namk varchar(50))");
+         statement.executeUpdate("create table permanent_resource (permanent_resourceid integer, projid integer, nase varchar(50), availability double)");
+         statement.executeUpdate("create table consumable_resource (consumable_resourceid integer, projid integer, nase varchar(50), availability double)");
+         statement.executeUpdate("create table bar (barid integer, projid integer, namh varchar(50), expanded_task integer)");
+         statement.executeUpdate("create table expanded_task (expanded_taskid integer, projid integer, bar integer)");
+         statement.executeUpdate("create table task (taskid integer, projid integer, bar integer, nare varchar(50))");
+         statement.executeUpdate("create table milestone (milestoneid integer, projid integer, bar integer, nare varchar(50))");
+         statement.executeUpdate("create table link (linkid integer, projid integer, start_task integer, end_task integer)");
+         statement.executeUpdate("create table permanent_schedul_allocation (permanent_schedul_allocationid integer, projid integer, allocatiop_of integer)");
+         statement.executeUpdate("create table perm_resource_skill (perm_resource_skillid integer)");
+         statement.executeUpdate("create table exceptionn (exceptionnid integer)");
+         statement.executeUpdate("create table work_pattern (work_patternid integer)");
+         statement.executeUpdate("create table work_pattern_assignment (work_pattern_assignmentid integer)");
+         statement.executeUpdate("create table exception_assignment (exception_assignmentid integer, ordf integer)");
+         statement.executeUpdate("create table time_entry (time_entryid integer, ordf integer)");
+
+         //
+         // Rows for each project are interleaved, so each query
+         // returns rows for several projects in turn.
+         //
+         for (int index = 1; index <= TASK_COUNT; index++)
+         {
+            for (int projectID = 1; projectID <= PROJECT_COUNT; projectID++)
+            {
+               int id = projectID * 100 + index;
+               if (index == 1)
+               {
+                  statement.executeUpdate("insert into project_summary values (" + projectID + ", 'Project " + projectID + "')");
+                  statement.executeUpdate("insert into bar values (" + id + ", " + projectID + ", 'Bar " + projectID + "', null)");
+                  statement.executeUpdate("insert into consumable_resource values (" + (id + 50) + ", " + projectID + ", 'Resource " + projectID + ".C', 1)");
+               }
+
+               if (index <= RESOURCE_COUNT)
+               {
+                  statement.executeUpdate("insert into permanent_resource values (" + id + ", " + projectID + ", 'Resource " + projectID + "." + index + "', 1)");
+               }
+
+               statement.executeUpdate("insert into task values (" + id + ", " + projectID + ", " + (projectID * 100 + 1) + ", 'Task " + projectID + "." + index + "')");
+
+               if (index > 1)
+               {
+                  statement.executeUpdate("insert into link values (" + id + ", " + projectID + ", " + (id - 1) + ", " + id + ")");
+               }
+            }
+         }
+      }
+
+      finally
+      {
+         statement.close();
+      }
+   }
+
+   private static final int PROJECT_COUNT = 5;
+   private static final int RESOURCE_COUNT = 2;
+   private static final int TASK_COUNT = 3;
+}
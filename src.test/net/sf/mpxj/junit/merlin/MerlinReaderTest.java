@@ -0,0 +1,286 @@
+/*
+ * file:       MerlinReaderTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       17/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit.merlin;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.sf.mpxj.Day;
+import net.sf.mpxj.ProjectCalendar;
+import net.sf.mpxj.ProjectCalendarDateRanges;
+import net.sf.mpxj.ProjectCalendarException;
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.Relation;
+import net.sf.mpxj.Task;
+import net.sf.mpxj.common.DateHelper;
+import net.sf.mpxj.merlin.MerlinReader;
+
+/**
+ * Tests reading a Merlin database.
+ */
+public class MerlinReaderTest
+{
+   /**
+    * Create a SQLite database containing two projects, with rows from
+    * each interleaved and stored out of order, then ensure that the task
+    * hierarchy, child order, calendar hours and calendar exceptions are
+    * read correctly for the first project, and that none of the second
+    * project's data is included.
+    */
+   @Test public void testRead() throws Exception
+   {
+      Class.forName("org.sqlite.JDBC");
+      File file = File.createTempFile("merlin", ".sql");
+      try
+      {
+         Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+         try
+         {
+            createDatabase(connection);
+         }
+
+         finally
+         {
+            connection.close();
+         }
+
+         ProjectFile project = new MerlinReader().read(file);
+         assertEquals("Project 1", project.getProjectProperties().getName());
+         testTasks(project);
+         testCalendar(project);
+      }
+
+      finally
+      {
+         file.delete();
+      }
+   }
+
+   /**
+    * Validate the task hierarchy, child order and relations.
+    *
+    * @param project project read from the database
+    */
+   private void testTasks(ProjectFile project)
+   {
+      assertEquals(5, project.getTasks().size());
+
+      List<Task> topLevel = project.getChildTasks();
+      assertEquals(2, topLevel.size());
+      assertEquals("Task B", topLevel.get(0).getName());
+      assertEquals(0, topLevel.get(0).getChildTasks().size());
+
+      Task taskA = topLevel.get(1);
+      assertEquals("Task A", taskA.getName());
+      assertEquals(2, taskA.getChildTasks().size());
+      assertEquals("Task A.1", taskA.getChildTasks().get(0).getName());
+      assertEquals("Task A.2", taskA.getChildTasks().get(1).getName());
+
+      Task taskA1 = taskA.getChildTasks().get(0);
+      assertEquals(1, taskA1.getChildTasks().size());
+      assertEquals("Task A.1.1", taskA1.getChildTasks().get(0).getName());
+      assertEquals(0, taskA1.getChildTasks().get(0).getChildTasks().size());
+
+      List<Relation> predecessors = taskA.getChildTasks().get(1).getPredecessors();
+      assertEquals(1, predecessors.size());
+      assertEquals("Task A.1", predecessors.get(0).getTargetTask().getName());
+
+      assertEquals(1, project.getResources().size());
+      assertEquals("Resource 1", project.getResources().get(0).getName());
+      assertEquals(1, taskA1.getChildTasks().get(0).getResourceAssignments().size());
+   }
+
+   /**
+    * Validate the calendar working hours and exceptions.
+    *
+    * @param project project read from the database
+    */
+   private void testCalendar(ProjectFile project)
+   {
+      assertEquals(1, project.getCalendars().size());
+      ProjectCalendar calendar = project.getCalendars().get(0);
+      assertEquals("Standard", calendar.getName());
+
+      assertTrue(calendar.isWorkingDay(Day.MONDAY));
+      assertRanges(calendar.getCalendarHours(Day.MONDAY), "09:00-12:00", "13:00-17:00");
+
+      //
+      // A range which ends before it starts finishes on the following day
+      //
+      assertTrue(calendar.isWorkingDay(Day.TUESDAY));
+      assertRanges(calendar.getCalendarHours(Day.TUESDAY), "22:00-06:00");
+      assertTrue(calendar.getCalendarHours(Day.TUESDAY).getRange(0).getEnd().getTime() > calendar.getCalendarHours(Day.TUESDAY).getRange(0).getStart().getTime());
+
+      assertFalse(calendar.isWorkingDay(Day.WEDNESDAY));
+      assertFalse(calendar.isWorkingDay(Day.THURSDAY));
+      assertFalse(calendar.isWorkingDay(Day.SUNDAY));
+
+      List<ProjectCalendarException> exceptions = calendar.getCalendarExceptions();
+      assertEquals(2, exceptions.size());
+
+      ProjectCalendarException exception = exceptions.get(0);
+      assertEquals(getDate(100), exception.getFromDate());
+      assertEquals(DateHelper.getDayEndDate(getDate(100)), exception.getToDate());
+      assertTrue(exception.getWorking());
+      assertRanges(exception, "10:00-14:00");
+
+      exception = exceptions.get(1);
+      assertEquals(getDate(300), exception.getFromDate());
+      assertEquals(DateHelper.getDayEndDate(getDate(301)), exception.getToDate());
+      assertFalse(exception.getWorking());
+   }
+
+   /**
+    * Ensure that a set of ranges contains the expected times.
+    *
+    * @param ranges ranges to test
+    * @param expected expected ranges in the form HH:mm-HH:mm
+    */
+   private void assertRanges(ProjectCalendarDateRanges ranges, String... expected)
+   {
+      SimpleDateFormat format = new SimpleDateFormat("HH:mm");
+      assertEquals(expected.length, ranges.getRangeCount());
+      for (int index = 0; index < expected.length; index++)
+      {
+         assertEquals(expected[index], format.format(ranges.getRange(index).getStart()) + "-" + format.format(ranges.getRange(index).getEnd()));
+      }
+   }
+
+   /**
+    * Convert a Merlin day number, counted from 07/01/2001, to a date.
+    *
+    * @param day day number
+    * @return date
+    */
+   private Date getDate(int day)
+   {
+      Calendar cal = Calendar.getInstance();
+      cal.setTimeInMillis(978825600000L);
+      cal.add(Calendar.DAY_OF_YEAR, day);
+      return cal.getTime();
+   }
+
+   /**
+    * Create the tables read by the reader, and populate them with
+    * interleaved rows from two projects.
+    *
+    * @param connection database connection
+    */
+   private void createDatabase(Connection connection) throws Exception
+   {
+      Statement statement = connection.createStatement();
+      try
+      {
+         statement.executeUpdate("create table zproject (z_pk integer, zfirstdayofweek integer, zschedulingdirection integer, zhoursperday integer, zdayspermonth integer, zhoursperweek integer, zgivenstatusdate integer, zcurrencysymbol varchar(10), ztitle varchar(50), zuniqueid varchar(30))");
+         statement.executeUpdate("create table zcalendar (z_pk integer, zproject integer, ztitle varchar(50))");
+         statement.executeUpdate("create table zcalendarrule (z_pk integer, z_ent integer, zcalendar integer, zcalendar1 integer, zweekday integer, ztimeintervals varchar(500), zstartday integer, zendday integer)");
+         statement.executeUpdate("create table zresource (z_pk integer, zproject integer, zorderinproject integer, ztitle_ varchar(50), zuniqueid varchar(30), zavailableunits_ double, zresourcecalendar integer)");
+         statement.executeUpdate("create table zscheduleitem (z_pk integer, z_ent integer, zproject integer, zparentactivity_ integer, zorderinparentactivity integer, ztitle varchar(50), zuniqueid varchar(30), zactivity_ integer, zresource integer, zorderinactivity integer, zgivenwork_ varchar(20), zresourceunits_ double)");
+         statement.executeUpdate("create table zdependency (z_pk integer, zproject integer, znextactivity_ integer, zpreviousactivity_ integer, zlag_ varchar(20), ztype integer)");
+
+         statement.executeUpdate("insert into zproject values (2, 1, 1, 8, 20, 40, null, '$', 'Project 2', '" + getUniqueID(2) + "')");
+         statement.executeUpdate("insert into zproject values (1, 1, 1, 8, 20, 40, null, '$', 'Project 1', '" + getUniqueID(1) + "')");
+
+         statement.executeUpdate("insert into zcalendar values (2, 2, 'Other')");
+         statement.executeUpdate("insert into zcalendar values (1, 1, 'Standard')");
+
+         //
+         // Day rules: Z_ENT 13, linked by ZCALENDAR1. Exceptions: Z_ENT 12, linked by ZCALENDAR.
+         //
+         statement.executeUpdate("insert into zcalendarrule values (1, 13, null, 1, 1, '" + getIntervals("09:00:00", "12:00:00", "13:00:00", "17:00:00") + "', null, null)");
+         statement.executeUpdate("insert into zcalendarrule values (2, 13, null, 2, 1, '" + getIntervals("06:00:00", "10:00:00") + "', null, null)");
+         statement.executeUpdate("insert into zcalendarrule values (3, 13, null, 1, 2, '" + getIntervals("22:00:00", "06:00:00") + "', null, null)");
+         statement.executeUpdate("insert into zcalendarrule values (4, 13, null, 2, 4, '" + getIntervals("08:00:00", "16:00:00") + "', null, null)");
+         statement.executeUpdate("insert into zcalendarrule values (5, 13, null, 1, 0, null, null, null)");
+         statement.executeUpdate("insert into zcalendarrule values (6, 13, null, 1, 3, '<array/>', null, null)");
+         statement.executeUpdate("insert into zcalendarrule values (7, 12, 1, null, null, '" + getIntervals("10:00:00", "14:00:00") + "', 100, 100)");
+         statement.executeUpdate("insert into zcalendarrule values (8, 12, 2, null, null, null, 200, 200)");
+         statement.executeUpdate("insert into zcalendarrule values (9, 12, 1, null, null, null, 300, 301)");
+
+         statement.executeUpdate("insert into zresource values (2, 2, 1, 'Resource 2', '" + getUniqueID(22) + "', 1, null)");
+         statement.executeUpdate("insert into zresource values (1, 1, 1, 'Resource 1', '" + getUniqueID(21) + "', 1, null)");
+
+         //
+         // Activities: Z_ENT 45. Rows are stored out of order, so the
+         // hierarchy and child order depend on the parent links and
+         // ZORDERINPARENTACTIVITY. Assignments: Z_ENT 47.
+         //
+         statement.executeUpdate("insert into zscheduleitem values (10, 45, 1, null, 2, 'Task A', '" + getUniqueID(10) + "', null, null, null, null, null)");
+         statement.executeUpdate("insert into zscheduleitem values (11, 45, 2, null, 1, 'Other Task', '" + getUniqueID(11) + "', null, null, null, null, null)");
+         statement.executeUpdate("insert into zscheduleitem values (12, 45, 1, 10, 2, 'Task A.2', '" + getUniqueID(12) + "', null, null, null, null, null)");
+         statement.executeUpdate("insert into zscheduleitem values (13, 45, 1, null, 1, 'Task B', '" + getUniqueID(13) + "', null, null, null, null, null)");
+         statement.executeUpdate("insert into zscheduleitem values (14, 45, 1, 10, 1, 'Task A.1', '" + getUniqueID(14) + "', null, null, null, null, null)");
+         statement.executeUpdate("insert into zscheduleitem values (15, 45, 2, 11, 1, 'Other Child', '" + getUniqueID(15) + "', null, null, null, null, null)");
+         statement.executeUpdate("insert into zscheduleitem values (16, 45, 1, 14, 1, 'Task A.1.1', '" + getUniqueID(16) + "', null, null, null, null, null)");
+         statement.executeUpdate("insert into zscheduleitem values (17, 47, 1, null, null, null, '" + getUniqueID(17) + "', 16, 1, 1, '8h', 1)");
+         statement.executeUpdate("insert into zscheduleitem values (18, 47, 2, null, null, null, '" + getUniqueID(18) + "', 15, 2, 1, '8h', 1)");
+
+         statement.executeUpdate("insert into zdependency values (1, 2, 15, 11, '0d', 0)");
+         statement.executeUpdate("insert into zdependency values (2, 1, 12, 14, '0d', 0)");
+      }
+
+      finally
+      {
+         statement.close();
+      }
+   }
+
+   /**
+    * Create the XML representation of a list of working time intervals.
+    *
+    * @param times start and end times of each interval
+    * @return XML document
+    */
+   private String getIntervals(String... times)
+   {
+      StringBuilder sb = new StringBuilder("<array>");
+      for (int index = 0; index < times.length; index += 2)
+      {
+         sb.append("<dayTimeInterval startTime=\"" + times[index] + "\" endTime=\"" + times[index + 1] + "\"/>");
+      }
+      sb.append("</array>");
+      return sb.toString();
+   }
+
+   /**
+    * Create a unique ID in the URL safe base64 form used by Merlin.
+    *
+    * @param value value used to make the ID unique
+    * @return unique ID
+    */
+   private String getUniqueID(int value)
+   {
+      return "AAAAAAAAAAAAAAAAAAAA" + (char) ('A' + value / 26) + (char) ('A' + value % 26);
+   }
+}
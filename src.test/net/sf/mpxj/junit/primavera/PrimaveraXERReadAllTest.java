@@ -0,0 +1,212 @@
+/*
+ * file:       PrimaveraXERReadAllTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       17/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit.primavera;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import net.sf.mpxj.Availability;
+import net.sf.mpxj.CostRateTable;
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.Resource;
+import net.sf.mpxj.common.CharsetHelper;
+import net.sf.mpxj.junit.MpxjTestData;
+import net.sf.mpxj.primavera.PrimaveraXERFileReader;
+
+/**
+ * Tests reading all projects from an XER file.
+ */
+public class PrimaveraXERReadAllTest
+{
+   /**
+    * Read a file containing many projects which share resources with
+    * several rates, both sequentially and using an executor,
+    * and ensure that the results match.
+    */
+   @Test public void testParallelReadAll() throws Exception
+   {
+      byte[] data = createFile(200);
+      PrimaveraXERFileReader reader = new PrimaveraXERFileReader();
+      List<ProjectFile> expected = reader.readAll(new ByteArrayInputStream(data));
+      assertEquals(200, expected.size());
+
+      ExecutorService executor = Executors.newFixedThreadPool(8);
+      try
+      {
+         for (int loop = 0; loop < 5; loop++)
+         {
+            List<ProjectFile> actual = reader.readAll(new ByteArrayInputStream(data), false, executor);
+            assertEquals(expected.size(), actual.size());
+            for (int index = 0; index < expected.size(); index++)
+            {
+               compareProjects(expected.get(index), actual.get(index));
+            }
+         }
+      }
+
+      finally
+      {
+         executor.shutdown();
+      }
+   }
+
+   /**
+    * Ensure that two projects have the same resources and resource rates.
+    *
+    * @param expected project read sequentially
+    * @param actual project read using an executor
+    */
+   private void compareProjects(ProjectFile expected, ProjectFile actual)
+   {
+      assertEquals(expected.getProjectProperties().getUniqueID(), actual.getProjectProperties().getUniqueID());
+      assertEquals(expected.getResources().size(), actual.getResources().size());
+
+      for (Resource expectedResource : expected.getResources())
+      {
+         Resource actualResource = actual.getResourceByUniqueID(expectedResource.getUniqueID());
+         assertNotNull(actualResource);
+
+         CostRateTable expectedRates = expectedResource.getCostRateTable(0);
+         CostRateTable actualRates = actualResource.getCostRateTable(0);
+         assertEquals(RATES_PER_RESOURCE, expectedRates.size());
+         assertEquals(expectedRates.size(), actualRates.size());
+         for (int index = 0; index < expectedRates.size(); index++)
+         {
+            assertEquals(expectedRates.get(index).getStandardRate(), actualRates.get(index).getStandardRate());
+            assertEquals(expectedRates.get(index).getEndDate(), actualRates.get(index).getEndDate());
+         }
+
+         List<Availability> expectedAvailability = expectedResource.getAvailability();
+         List<Availability> actualAvailability = actualResource.getAvailability();
+         assertEquals(expectedAvailability.size(), actualAvailability.size());
+         for (int index = 0; index < expectedAvailability.size(); index++)
+         {
+            assertEquals(expectedAvailability.get(index).getRange(), actualAvailability.get(index).getRange());
+         }
+      }
+   }
+
+   /**
+    * Create an XER file by adding further projects, resources and resource
+    * rates to an existing single project file. The rate rows are written
+    * out of order, so each project will sort them as it is read.
+    *
+    * @param projectCount number of projects
+    * @return XER file data
+    */
+   private byte[] createFile(int projectCount) throws Exception
+   {
+      StringBuilder sb = new StringBuilder();
+      BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(MpxjTestData.filePath("generated/task-percentcomplete/percent-complete-8.4.xer")), CharsetHelper.UTF8));
+      try
+      {
+         boolean projectTable = false;
+         String line;
+         while ((line = reader.readLine()) != null)
+         {
+            if (line.equals("%E"))
+            {
+               break;
+            }
+
+            if (line.startsWith("%T\t"))
+            {
+               projectTable = line.equals("%T\tPROJECT");
+            }
+
+            sb.append(line);
+            sb.append("\r\n");
+
+            if (projectTable && line.startsWith("%R\t"))
+            {
+               String[] fields = line.split("\t", -1);
+               int projectID = Integer.parseInt(fields[1]);
+               for (int index = 1; index < projectCount; index++)
+               {
+                  fields[1] = Integer.toString(projectID + index);
+                  appendRow(sb, fields);
+               }
+            }
+         }
+      }
+
+      finally
+      {
+         reader.close();
+      }
+
+      sb.append("%T\tRSRC\r\n");
+      sb.append("%F\trsrc_id\trsrc_name\trsrc_short_name\trsrc_type\r\n");
+      for (int resourceID = 1; resourceID <= RESOURCE_COUNT; resourceID++)
+      {
+         sb.append("%R\t" + resourceID + "\tResource " + resourceID + "\tR" + resourceID + "\tRT_Labor\r\n");
+      }
+
+      sb.append("%T\tRSRCRATE\r\n");
+      sb.append("%F\trsrc_rate_id\trsrc_id\tcost_per_qty\tmax_qty_per_hr\tstart_date\r\n");
+      int rateID = 1;
+      for (int rate = RATES_PER_RESOURCE; rate > 0; rate--)
+      {
+         for (int resourceID = RESOURCE_COUNT; resourceID > 0; resourceID--)
+         {
+            sb.append("%R\t" + rateID++ + "\t" + resourceID + "\t" + (resourceID * 10 + rate) + "\t1\t2015-0" + rate + "-01 00:00\r\n");
+         }
+      }
+
+      sb.append("%E\r\n");
+
+      return sb.toString().getBytes(CharsetHelper.UTF8);
+   }
+
+   /**
+    * Append a row to the file.
+    *
+    * @param sb file data
+    * @param fields row fields
+    */
+   private void appendRow(StringBuilder sb, String[] fields)
+   {
+      for (int index = 0; index < fields.length; index++)
+      {
+         if (index != 0)
+         {
+            sb.append('\t');
+         }
+         sb.append(fields[index]);
+      }
+      sb.append("\r\n");
+   }
+
+   private static final int RESOURCE_COUNT = 10;
+   private static final int RATES_PER_RESOURCE = 3;
+}
@@ -0,0 +1,96 @@
+/*
+ * file:       FieldFilterTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       16/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit.project;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import net.sf.mpxj.FieldType;
+import net.sf.mpxj.MPXJException;
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.Task;
+import net.sf.mpxj.TaskField;
+import net.sf.mpxj.junit.MpxjTestData;
+import net.sf.mpxj.reader.UniversalProjectReader;
+
+/**
+ * Validate the behaviour of the reader field filter.
+ */
+public class FieldFilterTest
+{
+   /**
+    * Test to validate that only the requested fields are populated when a
+    * field filter is set on the reader. We'll hijack the existing generated
+    * task text sample files, along with an XER file.
+    */
+   @Test public void testFieldFilter() throws MPXJException
+   {
+      for (File file : MpxjTestData.listFiles("generated/task-text", "task-text"))
+      {
+         if (file.getName().endsWith(".mpp") || file.getName().endsWith(".xml") || file.getName().endsWith(".mpx"))
+         {
+            testFieldFilter(file);
+         }
+      }
+
+      testFieldFilter(new File(MpxjTestData.filePath("generated/task-percentcomplete/percent-complete-8.4.xer")));
+   }
+
+   /**
+    * Test a single file to ensure that filtered fields match those read
+    * without a filter, and that all other fields are empty.
+    *
+    * @param file file to test
+    */
+   private void testFieldFilter(File file) throws MPXJException
+   {
+      UniversalProjectReader reader = new UniversalProjectReader();
+      ProjectFile project = reader.read(file);
+
+      Set<FieldType> filter = new HashSet<FieldType>();
+      filter.add(TaskField.NAME);
+      filter.add(TaskField.TEXT1);
+      reader.setFieldFilter(filter);
+      ProjectFile filtered = reader.read(file);
+
+      assertEquals(file.getName(), project.getTasks().size(), filtered.getTasks().size());
+
+      for (Task task : project.getTasks())
+      {
+         Task filteredTask = filtered.getTaskByUniqueID(task.getUniqueID());
+         assertNotNull(file.getName(), filteredTask);
+         assertEquals(file.getName(), task.getID(), filteredTask.getID());
+         assertEquals(file.getName(), task.getName(), filteredTask.getName());
+         assertEquals(file.getName(), task.getText(1), filteredTask.getText(1));
+         assertNull(file.getName(), filteredTask.getText(2));
+         assertNull(file.getName(), filteredTask.getStart());
+         assertNull(file.getName(), filteredTask.getDuration());
+      }
+   }
+}
@@ -0,0 +1,192 @@
+/*
+ * file:       MspdiStreamingTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       16/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit.project;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.sf.mpxj.AssignmentField;
+import net.sf.mpxj.FieldContainer;
+import net.sf.mpxj.FieldType;
+import net.sf.mpxj.MPXJException;
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.ResourceField;
+import net.sf.mpxj.TaskField;
+import net.sf.mpxj.junit.MpxjTestData;
+import net.sf.mpxj.mspdi.MSPDIReader;
+import net.sf.mpxj.mspdi.MSPDIWriter;
+
+/**
+ * Validate that MSPDI files read or written in streaming mode match those
+ * read or written using the complete document.
+ */
+public class MspdiStreamingTest
+{
+   /**
+    * Test the MSPDI files from the generated test data which include
+    * tasks, resources, assignments and predecessors.
+    */
+   @Test public void testStreaming() throws MPXJException
+   {
+      for (String name : new String[]
+      {
+         "assignment-assignments",
+         "task-links",
+         "task-text"
+      })
+      {
+         for (File file : MpxjTestData.listFiles("generated/" + name, name))
+         {
+            if (file.getName().endsWith(".xml"))
+            {
+               testStreaming(file);
+            }
+         }
+      }
+   }
+
+   /**
+    * Test that MSPDI files written in streaming mode are identical to
+    * those written without streaming, and that they can be read back
+    * to give the same data.
+    */
+   @Test public void testStreamingWriter() throws MPXJException, IOException
+   {
+      for (String name : new String[]
+      {
+         "assignment-assignments",
+         "task-links",
+         "task-text"
+      })
+      {
+         for (File file : MpxjTestData.listFiles("generated/" + name, name))
+         {
+            if (file.getName().endsWith(".xml"))
+            {
+               testStreamingWriter(file);
+            }
+         }
+      }
+
+      //
+      // These files use several extended attributes, which must be
+      // defined in the same order by both writers.
+      //
+      testStreamingWriter(new File(MpxjTestData.filePath("enterprise.xml")));
+      testStreamingWriter(new File(MpxjTestData.filePath("mspdiassignmentcustom.xml")));
+   }
+
+   /**
+    * Read a file with and without streaming, and compare the results.
+    *
+    * @param file file to test
+    */
+   private void testStreaming(File file) throws MPXJException
+   {
+      ProjectFile expected = new MSPDIReader().read(file);
+
+      MSPDIReader reader = new MSPDIReader();
+      reader.setStreaming(true);
+      ProjectFile actual = reader.read(file);
+
+      assertEquals(file.getName(), expected.getProjectProperties().getDefaultCalendarName(), actual.getProjectProperties().getDefaultCalendarName());
+      assertEquals(file.getName(), expected.getCalendars().size(), actual.getCalendars().size());
+      compare(file, expected.getTasks(), actual.getTasks(), TaskField.values());
+      compare(file, expected.getResources(), actual.getResources(), ResourceField.values());
+      compare(file, expected.getResourceAssignments(), actual.getResourceAssignments(), AssignmentField.values());
+   }
+
+   /**
+    * Write a file with and without streaming, with and without indented
+    * output, and check that the bytes written match. The results are then
+    * read back and compared. The source file is read separately for each
+    * write as writing a project may allocate unique IDs for dummy assignments.
+    *
+    * @param file file to test
+    */
+   private void testStreamingWriter(File file) throws MPXJException, IOException
+   {
+      byte[] expectedData = write(new MSPDIReader().read(file), false, true);
+      byte[] actualData = write(new MSPDIReader().read(file), true, true);
+      assertTrue(file.getName(), Arrays.equals(expectedData, actualData));
+      assertTrue(file.getName(), Arrays.equals(write(new MSPDIReader().read(file), false, false), write(new MSPDIReader().read(file), true, false)));
+
+      ProjectFile expected = new MSPDIReader().read(new ByteArrayInputStream(expectedData));
+      ProjectFile actual = new MSPDIReader().read(new ByteArrayInputStream(actualData));
+
+      assertEquals(file.getName(), expected.getProjectProperties().getDefaultCalendarName(), actual.getProjectProperties().getDefaultCalendarName());
+      assertEquals(file.getName(), expected.getCalendars().size(), actual.getCalendars().size());
+      compare(file, expected.getTasks(), actual.getTasks(), TaskField.values());
+      compare(file, expected.getResources(), actual.getResources(), ResourceField.values());
+      compare(file, expected.getResourceAssignments(), actual.getResourceAssignments(), AssignmentField.values());
+   }
+
+   /**
+    * Write a project to a byte array.
+    *
+    * @param project project to write
+    * @param streaming true if the writer should use streaming mode
+    * @param formatOutput true if the output should be indented
+    * @return MSPDI data
+    */
+   private byte[] write(ProjectFile project, boolean streaming, boolean formatOutput) throws IOException
+   {
+      MSPDIWriter writer = new MSPDIWriter();
+      writer.setStreaming(streaming);
+      writer.setFormatOutput(formatOutput);
+      ByteArrayOutputStream os = new ByteArrayOutputStream();
+      writer.write(project, os);
+      return os.toByteArray();
+   }
+
+   /**
+    * Compare field values from two lists of entities.
+    *
+    * @param file file being tested
+    * @param expected expected entities
+    * @param actual actual entities
+    * @param fields fields to compare
+    */
+   private void compare(File file, List<? extends FieldContainer> expected, List<? extends FieldContainer> actual, FieldType[] fields)
+   {
+      assertEquals(file.getName(), expected.size(), actual.size());
+      for (int index = 0; index < expected.size(); index++)
+      {
+         FieldContainer expectedEntity = expected.get(index);
+         FieldContainer actualEntity = actual.get(index);
+         for (FieldType field : fields)
+         {
+            assertEquals(file.getName() + " " + field, String.valueOf(expectedEntity.getCachedValue(field)), String.valueOf(actualEntity.getCachedValue(field)));
+         }
+      }
+   }
+}
@@ -0,0 +1,116 @@
+/*
+ * file:       ProjectBatchProcessorTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       17/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit.project;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import net.sf.mpxj.MPXJException;
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.junit.MpxjTestData;
+import net.sf.mpxj.reader.ProjectBatchHandler;
+import net.sf.mpxj.reader.ProjectBatchProcessor;
+import net.sf.mpxj.reader.ProjectBatchResult;
+
+/**
+ * Validate the behaviour of the project batch processor.
+ */
+public class ProjectBatchProcessorTest
+{
+   /**
+    * Ensure that the same results are produced when files are
+    * processed sequentially and concurrently, and that failures
+    * are reported without preventing other files being processed.
+    */
+   @Test public void testBatchProcessor() throws MPXJException
+   {
+      List<File> files = new ArrayList<File>();
+      for (File file : MpxjTestData.listFiles("generated/task-text", "task-text"))
+      {
+         if (file.getName().endsWith(".mpp") || file.getName().endsWith(".xml") || file.getName().endsWith(".mpx"))
+         {
+            files.add(file);
+         }
+      }
+      Collections.sort(files);
+      files.add(1, new File(MpxjTestData.filePath("generated/task-text/missing-file.mpp")));
+
+      Map<File, Integer> sequential = new ConcurrentHashMap<File, Integer>();
+      testBatchProcessor(files, sequential, null);
+
+      ExecutorService executor = Executors.newFixedThreadPool(2);
+      try
+      {
+         Map<File, Integer> concurrent = new ConcurrentHashMap<File, Integer>();
+         testBatchProcessor(files, concurrent, executor);
+         assertEquals(sequential, concurrent);
+      }
+
+      finally
+      {
+         executor.shutdown();
+      }
+   }
+
+   /**
+    * Process the test files and validate the results.
+    *
+    * @param files files to process
+    * @param taskCounts populated with the number of tasks read from each file
+    * @param executor optional executor
+    */
+   private void testBatchProcessor(List<File> files, final Map<File, Integer> taskCounts, ExecutorService executor) throws MPXJException
+   {
+      ProjectBatchProcessor processor = new ProjectBatchProcessor();
+      processor.setMaximumPendingFiles(2);
+
+      List<ProjectBatchResult> results = processor.process(files.iterator(), new ProjectBatchHandler()
+      {
+         @Override public void process(File file, ProjectFile project)
+         {
+            taskCounts.put(file, Integer.valueOf(project.getTasks().size()));
+         }
+      }, executor);
+
+      assertEquals(files.size(), results.size());
+      for (int index = 0; index < files.size(); index++)
+      {
+         ProjectBatchResult result = results.get(index);
+         File file = files.get(index);
+         assertEquals(file, result.getFile());
+         assertEquals(file.getName(), file.exists(), result.getSuccess());
+         assertEquals(file.getName(), file.exists(), taskCounts.containsKey(file));
+      }
+   }
+}
@@ -0,0 +1,200 @@
+/*
+ * file:       SharedReaderWriterTest.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       17/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.junit.project;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.junit.MpxjTestData;
+import net.sf.mpxj.mpx.MPXReader;
+import net.sf.mpxj.mpx.MPXWriter;
+import net.sf.mpxj.mspdi.MSPDIReader;
+import net.sf.mpxj.mspdi.MSPDIWriter;
+import net.sf.mpxj.primavera.PrimaveraXERFileReader;
+import net.sf.mpxj.reader.ProjectReader;
+import net.sf.mpxj.writer.ProjectWriter;
+
+/**
+ * Ensure that a single reader or writer instance can be used by several threads at once.
+ */
+public class SharedReaderWriterTest
+{
+   /**
+    * Read and write files concurrently using shared reader and writer
+    * instances, and compare the output with that produced sequentially.
+    */
+   @Test public void testSharedReaderWriter() throws Exception
+   {
+      testSharedReaderWriter(new MPXReader(), new MPXWriter(), "generated/task-text/task-text-project98.mpx");
+      testSharedReaderWriter(new MSPDIReader(), new MSPDIWriter(), "generated/task-text/task-text-project2007-mspdi.xml");
+      testSharedReaderWriter(new PrimaveraXERFileReader(), new MSPDIWriter(), "generated/task-percentcomplete/percent-complete-8.4.xer");
+   }
+
+   /**
+    * List the projects in an XER file from several threads at once while
+    * the same reader is also reading the file, and compare the project
+    * list and the tasks read with those produced sequentially.
+    */
+   @Test public void testSharedListProjects() throws Exception
+   {
+      final PrimaveraXERFileReader reader = new PrimaveraXERFileReader();
+      final File file = new File(MpxjTestData.filePath("generated/task-percentcomplete/percent-complete-8.4.xer"));
+      Map<Integer, String> expected = listProjects(reader, file);
+      assertFalse(expected.isEmpty());
+      int expectedTaskCount = reader.read(file).getTasks().size();
+      assertTrue(expectedTaskCount > 0);
+
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try
+      {
+         List<Future<Map<Integer, String>>> futures = new ArrayList<Future<Map<Integer, String>>>();
+         List<Future<ProjectFile>> projects = new ArrayList<Future<ProjectFile>>();
+         for (int index = 0; index < 16; index++)
+         {
+            futures.add(executor.submit(new Callable<Map<Integer, String>>()
+            {
+               @Override public Map<Integer, String> call() throws Exception
+               {
+                  return listProjects(reader, file);
+               }
+            }));
+
+            projects.add(executor.submit(new Callable<ProjectFile>()
+            {
+               @Override public ProjectFile call() throws Exception
+               {
+                  return reader.read(file);
+               }
+            }));
+         }
+
+         for (Future<Map<Integer, String>> future : futures)
+         {
+            assertEquals(expected, future.get());
+         }
+
+         for (Future<ProjectFile> future : projects)
+         {
+            assertEquals(expectedTaskCount, future.get().getTasks().size());
+         }
+      }
+
+      finally
+      {
+         executor.shutdown();
+      }
+   }
+
+   /**
+    * List the projects in an XER file.
+    *
+    * @param reader reader
+    * @param file file to read
+    * @return project IDs and names
+    */
+   private Map<Integer, String> listProjects(PrimaveraXERFileReader reader, File file) throws Exception
+   {
+      InputStream is = new FileInputStream(file);
+      try
+      {
+         return reader.listProjects(is);
+      }
+
+      finally
+      {
+         is.close();
+      }
+   }
+
+   /**
+    * Read a file and write the result sequentially, then repeat the
+    * operation from several threads at once using the same instances.
+    *
+    * @param reader shared reader
+    * @param writer shared writer
+    * @param name test file name
+    */
+   private void testSharedReaderWriter(final ProjectReader reader, final ProjectWriter writer, String name) throws Exception
+   {
+      final File file = new File(MpxjTestData.filePath(name));
+      byte[] expected = readAndWrite(reader, writer, file);
+
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try
+      {
+         List<Future<byte[]>> futures = new ArrayList<Future<byte[]>>();
+         for (int index = 0; index < 16; index++)
+         {
+            futures.add(executor.submit(new Callable<byte[]>()
+            {
+               @Override public byte[] call() throws Exception
+               {
+                  return readAndWrite(reader, writer, file);
+               }
+            }));
+         }
+
+         for (Future<byte[]> future : futures)
+         {
+            assertTrue(name, Arrays.equals(expected, future.get()));
+         }
+      }
+
+      finally
+      {
+         executor.shutdown();
+      }
+   }
+
+   /**
+    * Read a file, then write the project to a byte array.
+    *
+    * @param reader reader
+    * @param writer writer
+    * @param file file to read
+    * @return bytes written
+    */
+   private byte[] readAndWrite(ProjectReader reader, ProjectWriter writer, File file) throws Exception
+   {
+      ProjectFile project = reader.read(file);
+      ByteArrayOutputStream stream = new ByteArrayOutputStream();
+      writer.write(project, stream);
+      return stream.toByteArray();
+   }
+}
@@ -24,8 +24,14 @@
 package net.sf.mpxj.junit.project;
 
 import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.UUID;
+
 import net.sf.mpxj.ProjectFile;
 import net.sf.mpxj.Task;
+import net.sf.mpxj.TaskContainer;
+import net.sf.mpxj.TaskField;
 
 import org.junit.Test;
 
@@ -68,4 +74,54 @@ public class TaskContainerTest
       assertEquals(task3, task2.getChildTasks().get(0));
       assertEquals(task4, task3.getChildTasks().get(0));
    }
+
+   /**
+    * Ensure that field indexes reflect tasks being added, removed
+    * and modified.
+    */
+   @Test public void testFieldIndex() throws Exception
+   {
+      ProjectFile file = new ProjectFile();
+      Task task1 = file.addTask();
+      task1.setName("Design");
+      task1.setText(1, "A");
+      Task task2 = file.addTask();
+      task2.setName("Build");
+      task2.setText(1, "A");
+
+      TaskContainer tasks = file.getTasks();
+      assertEquals(Collections.singletonList(task2), tasks.getByFieldValue(TaskField.NAME, "build"));
+      assertTrue(tasks.getByFieldValue(TaskField.NAME, "Test").isEmpty());
+
+      tasks.addIndex(TaskField.NAME);
+      tasks.addIndex(TaskField.TEXT1);
+
+      assertEquals(Collections.singletonList(task1), tasks.getByFieldValue(TaskField.NAME, "DESIGN"));
+      assertEquals(2, tasks.getByFieldValue(TaskField.TEXT1, "a").size());
+
+      task1.setName("Specify");
+      assertTrue(tasks.getByFieldValue(TaskField.NAME, "Design").isEmpty());
+      assertEquals(Collections.singletonList(task1), tasks.getByFieldValue(TaskField.NAME, "specify"));
+
+      Task task3 = file.addTask();
+      task3.setName("Test");
+      assertEquals(Collections.singletonList(task3), tasks.getByFieldValue(TaskField.NAME, "Test"));
+
+      file.removeTask(task2);
+      assertTrue(tasks.getByFieldValue(TaskField.NAME, "Build").isEmpty());
+      assertEquals(Collections.singletonList(task1), tasks.getByFieldValue(TaskField.TEXT1, "A"));
+
+      tasks.removeIndex(TaskField.NAME);
+      task3.setName("Verify");
+      assertEquals(Collections.singletonList(task3), tasks.getByFieldValue(TaskField.NAME, "verify"));
+
+      UUID guid = UUID.randomUUID();
+      task3.setGUID(guid);
+      tasks.addIndex(TaskField.GUID);
+      assertEquals(Collections.singletonList(task3), tasks.getByFieldValue(TaskField.GUID, guid));
+
+      tasks.set(tasks.indexOf(task3), task2);
+      assertTrue(tasks.getByFieldValue(TaskField.GUID, guid).isEmpty());
+      assertEquals(2, tasks.getByFieldValue(TaskField.TEXT1, "A").size());
+   }
 }
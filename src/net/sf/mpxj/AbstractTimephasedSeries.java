@@ -0,0 +1,488 @@
+/*
+ * file:       AbstractTimephasedSeries.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       17/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.RandomAccess;
+
+/**
+ * Compact storage for a series of timephased items. Rather than holding
+ * an object for each item, the start and finish dates, amounts and
+ * modified flags are held in parallel arrays of primitive values, which
+ * can be read and updated by index. The series can also be used as a
+ * list of timephased items: items retrieved from the list are
+ * created on demand, so changes made to them are not reflected in
+ * the series unless they are stored back using the set method.
+ *
+ * Amounts which have not been set are represented as Double.NaN,
+ * and missing dates are represented as Long.MIN_VALUE.
+ *
+ * @param <T> timephased item type
+ */
+public abstract class AbstractTimephasedSeries<T extends TimephasedItem<?>> extends AbstractList<T> implements RandomAccess
+{
+   /**
+    * Constructor.
+    *
+    * @param capacity initial capacity
+    */
+   protected AbstractTimephasedSeries(int capacity)
+   {
+      resize(Math.max(capacity, 1));
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public int size()
+   {
+      return m_size;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public T get(int index)
+   {
+      checkIndex(index);
+      return createItem(index);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public T set(int index, T item)
+   {
+      T result = get(index);
+      storeItem(index, item);
+      return result;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void add(int index, T item)
+   {
+      if (index < 0 || index > m_size)
+      {
+         throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + m_size);
+      }
+
+      insertItem(index);
+      storeItem(index, item);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public T remove(int index)
+   {
+      T result = get(index);
+      removeRange(index, index + 1);
+      return result;
+   }
+
+   /**
+    * Remove the last item from the series.
+    */
+   public void removeLast()
+   {
+      if (m_size == 0)
+      {
+         throw new IndexOutOfBoundsException("Series is empty");
+      }
+      removeRange(m_size - 1, m_size);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void clear()
+   {
+      removeRange(0, m_size);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override protected void removeRange(int fromIndex, int toIndex)
+   {
+      if (fromIndex < toIndex)
+      {
+         move(toIndex, fromIndex, m_size - toIndex);
+         m_size -= (toIndex - fromIndex);
+         ++modCount;
+      }
+   }
+
+   /**
+    * Retrieve the start of an item.
+    *
+    * @param index item index
+    * @return start date in milliseconds
+    */
+   public long getStartTime(int index)
+   {
+      checkIndex(index);
+      return m_start[index];
+   }
+
+   /**
+    * Set the start of an item.
+    *
+    * @param index item index
+    * @param start start date in milliseconds
+    */
+   public void setStartTime(int index, long start)
+   {
+      checkIndex(index);
+      m_start[index] = start;
+   }
+
+   /**
+    * Retrieve the finish of an item.
+    *
+    * @param index item index
+    * @return finish date in milliseconds
+    */
+   public long getFinishTime(int index)
+   {
+      checkIndex(index);
+      return m_finish[index];
+   }
+
+   /**
+    * Set the finish of an item.
+    *
+    * @param index item index
+    * @param finish finish date in milliseconds
+    */
+   public void setFinishTime(int index, long finish)
+   {
+      checkIndex(index);
+      m_finish[index] = finish;
+   }
+
+   /**
+    * Retrieve the total amount of an item.
+    *
+    * @param index item index
+    * @return total amount, or Double.NaN if not set
+    */
+   public double getTotalAmountValue(int index)
+   {
+      checkIndex(index);
+      return m_totalAmount[index];
+   }
+
+   /**
+    * Retrieve the amount per day of an item.
+    *
+    * @param index item index
+    * @return amount per day, or Double.NaN if not set
+    */
+   public double getAmountPerDayValue(int index)
+   {
+      checkIndex(index);
+      return m_amountPerDay[index];
+   }
+
+   /**
+    * Retrieve the modified flag of an item.
+    *
+    * @param index item index
+    * @return modified flag
+    */
+   public boolean getModified(int index)
+   {
+      checkIndex(index);
+      return m_modified[index];
+   }
+
+   /**
+    * Set the modified flag of an item.
+    *
+    * @param index item index
+    * @param modified modified flag
+    */
+   public void setModified(int index, boolean modified)
+   {
+      checkIndex(index);
+      m_modified[index] = modified;
+   }
+
+   /**
+    * Locate the item which includes a date. The items are expected to be
+    * in date order and not to overlap, as is the case once timephased data
+    * has been normalised. Where a date falls on the boundary between two
+    * items, the earlier item is returned.
+    *
+    * @param date date in milliseconds
+    * @return index of the item including the date, otherwise (-(insertion point) - 1)
+    * where the insertion point is the index of the first item starting after the date
+    */
+   public int binarySearch(long date)
+   {
+      int low = 0;
+      int high = m_size;
+      while (low < high)
+      {
+         int mid = (low + high) >>> 1;
+         if (m_finish[mid] < date)
+         {
+            low = mid + 1;
+         }
+         else
+         {
+            high = mid;
+         }
+      }
+
+      return low < m_size && m_start[low] <= date ? low : -(low + 1);
+   }
+
+   /**
+    * Reduce the storage used by the series to the number of items it holds.
+    */
+   public void trimToSize()
+   {
+      if (m_start.length > m_size)
+      {
+         resize(Math.max(m_size, 1));
+      }
+   }
+
+   /**
+    * Replace the contents of this series with the contents of another.
+    * The other series should not be used once this method has been called.
+    *
+    * @param series source series
+    */
+   protected void replaceWith(AbstractTimephasedSeries<T> series)
+   {
+      m_start = series.m_start;
+      m_finish = series.m_finish;
+      m_totalAmount = series.m_totalAmount;
+      m_amountPerDay = series.m_amountPerDay;
+      m_modified = series.m_modified;
+      m_size = series.m_size;
+      ++modCount;
+   }
+
+   /**
+    * Add an item to the end of the series.
+    *
+    * @param start start date in milliseconds
+    * @param finish finish date in milliseconds
+    * @return index of the new item
+    */
+   protected int addItem(long start, long finish)
+   {
+      int index = m_size;
+      insertItem(index);
+      m_start[index] = start;
+      m_finish[index] = finish;
+      return index;
+   }
+
+   /**
+    * Add an item to the end of the series, copying the values of an item
+    * from another series.
+    *
+    * @param series source series
+    * @param sourceIndex index of the item to copy
+    * @return index of the new item
+    */
+   protected int addItem(AbstractTimephasedSeries<T> series, int sourceIndex)
+   {
+      int index = addItem(series.getStartTime(sourceIndex), series.getFinishTime(sourceIndex));
+      m_totalAmount[index] = series.m_totalAmount[sourceIndex];
+      m_amountPerDay[index] = series.m_amountPerDay[sourceIndex];
+      m_modified[index] = series.m_modified[sourceIndex];
+      return index;
+   }
+
+   /**
+    * Set the total amount of an item.
+    *
+    * @param index item index
+    * @param value total amount, or Double.NaN if not set
+    */
+   protected void setTotalAmountValue(int index, double value)
+   {
+      m_totalAmount[index] = value;
+   }
+
+   /**
+    * Set the amount per day of an item.
+    *
+    * @param index item index
+    * @param value amount per day, or Double.NaN if not set
+    */
+   protected void setAmountPerDayValue(int index, double value)
+   {
+      m_amountPerDay[index] = value;
+   }
+
+   /**
+    * Populate a timephased item with the dates and modified flag
+    * of an item in the series.
+    *
+    * @param index item index
+    * @param item timephased item
+    */
+   protected void populateItem(int index, T item)
+   {
+      item.setStart(getDate(m_start[index]));
+      item.setFinish(getDate(m_finish[index]));
+      item.setModified(m_modified[index]);
+   }
+
+   /**
+    * Store the dates and modified flag of a timephased item.
+    *
+    * @param index item index
+    * @param item timephased item
+    */
+   protected void storeDates(int index, T item)
+   {
+      m_start[index] = getTime(item.getStart());
+      m_finish[index] = getTime(item.getFinish());
+      m_modified[index] = item.getModified();
+   }
+
+   /**
+    * Create a timephased item representing an item in the series.
+    *
+    * @param index item index
+    * @return timephased item
+    */
+   protected abstract T createItem(int index);
+
+   /**
+    * Store the values of a timephased item in the series.
+    *
+    * @param index item index
+    * @param item timephased item
+    */
+   protected abstract void storeItem(int index, T item);
+
+   /**
+    * Change the capacity of the arrays used to hold the series.
+    * Subclasses holding additional arrays should override this method.
+    *
+    * @param capacity new capacity
+    */
+   protected void resize(int capacity)
+   {
+      m_start = m_start == null ? new long[capacity] : Arrays.copyOf(m_start, capacity);
+      m_finish = m_finish == null ? new long[capacity] : Arrays.copyOf(m_finish, capacity);
+      m_totalAmount = m_totalAmount == null ? new double[capacity] : Arrays.copyOf(m_totalAmount, capacity);
+      m_amountPerDay = m_amountPerDay == null ? new double[capacity] : Arrays.copyOf(m_amountPerDay, capacity);
+      m_modified = m_modified == null ? new boolean[capacity] : Arrays.copyOf(m_modified, capacity);
+   }
+
+   /**
+    * Move a block of items within the arrays used to hold the series.
+    * Subclasses holding additional arrays should override this method.
+    *
+    * @param from index of the first item to move
+    * @param to destination index
+    * @param length number of items to move
+    */
+   protected void move(int from, int to, int length)
+   {
+      System.arraycopy(m_start, from, m_start, to, length);
+      System.arraycopy(m_finish, from, m_finish, to, length);
+      System.arraycopy(m_totalAmount, from, m_totalAmount, to, length);
+      System.arraycopy(m_amountPerDay, from, m_amountPerDay, to, length);
+      System.arraycopy(m_modified, from, m_modified, to, length);
+   }
+
+   /**
+    * Open a gap in the series for a new item, with no amounts set.
+    *
+    * @param index index of the new item
+    */
+   private void insertItem(int index)
+   {
+      if (m_size == m_start.length)
+      {
+         resize(m_size + (m_size >> 1) + 1);
+      }
+
+      move(index, index + 1, m_size - index);
+      m_totalAmount[index] = Double.NaN;
+      m_amountPerDay[index] = Double.NaN;
+      m_modified[index] = false;
+      ++m_size;
+      ++modCount;
+   }
+
+   /**
+    * Convert a stored date to a Date instance.
+    *
+    * @param time date in milliseconds
+    * @return Date instance, or null if the date is missing
+    */
+   private Date getDate(long time)
+   {
+      return time == NULL_DATE ? null : new Date(time);
+   }
+
+   /**
+    * Convert a Date instance to a stored date.
+    *
+    * @param date Date instance
+    * @return date in milliseconds
+    */
+   private long getTime(Date date)
+   {
+      return date == null ? NULL_DATE : date.getTime();
+   }
+
+   /**
+    * Ensure that an index refers to an item in the series.
+    *
+    * @param index item index
+    */
+   private void checkIndex(int index)
+   {
+      if (index < 0 || index >= m_size)
+      {
+         throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + m_size);
+      }
+   }
+
+   private int m_size;
+   private long[] m_start;
+   private long[] m_finish;
+   private double[] m_totalAmount;
+   private double[] m_amountPerDay;
+   private boolean[] m_modified;
+
+   private static final long NULL_DATE = Long.MIN_VALUE;
+}
@@ -0,0 +1,71 @@
+/*
+ * file:       ArrayFieldStorage.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       16/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj;
+
+/**
+ * Field storage which holds values in an array with a slot for every field.
+ * This provides the fastest access to field values, at the cost of memory
+ * for every field whether it is populated or not.
+ */
+public final class ArrayFieldStorage implements FieldStorage
+{
+   /**
+    * Constructor.
+    *
+    * @param size number of fields
+    */
+   public ArrayFieldStorage(int size)
+   {
+      m_array = new Object[size];
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public Object get(int index)
+   {
+      return m_array[index];
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void set(int index, Object value)
+   {
+      m_array[index] = value;
+   }
+
+   private final Object[] m_array;
+
+   /**
+    * Factory used to create ArrayFieldStorage instances.
+    */
+   public static final FieldStorageFactory FACTORY = new FieldStorageFactory()
+   {
+      @Override public FieldStorage newFieldStorage(FieldTypeClass type, int size)
+      {
+         return new ArrayFieldStorage(size);
+      }
+   };
+}
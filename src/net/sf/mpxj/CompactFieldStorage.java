@@ -0,0 +1,388 @@
+/*
+ * file:       CompactFieldStorage.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       16/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj;
+
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * Field storage which only holds the fields which are populated. Field
+ * indexes are held in sorted arrays which are searched to locate a value.
+ * Date, Double and Boolean values are held as primitive values and are only
+ * boxed when they are retrieved, all other values are held as objects.
+ * Note that this means a new Date or Double instance is returned each
+ * time one of these values is retrieved.
+ */
+public final class CompactFieldStorage implements FieldStorage
+{
+   /**
+    * {@inheritDoc}
+    */
+   @Override public Object get(int index)
+   {
+      Object result = null;
+      int position = search(m_objectKeys, m_objectCount, index, 0);
+      if (position >= 0)
+      {
+         result = m_objectValues[position];
+      }
+      else
+      {
+         position = search(m_primitiveKeys, m_primitiveCount, index, KIND_BITS);
+         if (position >= 0)
+         {
+            result = getObjectValue(m_primitiveKeys[position] & KIND_MASK, m_primitiveValues[position]);
+         }
+      }
+      return result;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void set(int index, Object value)
+   {
+      int kind = getKind(value);
+      int objectPosition = search(m_objectKeys, m_objectCount, index, 0);
+      int primitivePosition = search(m_primitiveKeys, m_primitiveCount, index, KIND_BITS);
+
+      if (kind == OBJECT)
+      {
+         if (primitivePosition >= 0)
+         {
+            removePrimitive(primitivePosition);
+         }
+
+         if (objectPosition >= 0)
+         {
+            m_objectValues[objectPosition] = value;
+         }
+         else
+         {
+            insertObject(-(objectPosition + 1), index, value);
+         }
+      }
+      else
+      {
+         if (objectPosition >= 0)
+         {
+            removeObject(objectPosition);
+         }
+
+         if (kind == NONE)
+         {
+            if (primitivePosition >= 0)
+            {
+               removePrimitive(primitivePosition);
+            }
+         }
+         else
+         {
+            int key = (index << KIND_BITS) | kind;
+            long bits = getPrimitiveValue(kind, value);
+            if (primitivePosition >= 0)
+            {
+               m_primitiveKeys[primitivePosition] = key;
+               m_primitiveValues[primitivePosition] = bits;
+            }
+            else
+            {
+               insertPrimitive(-(primitivePosition + 1), key, bits);
+            }
+         }
+      }
+   }
+
+   /**
+    * Determine how a value will be stored.
+    *
+    * @param value field value
+    * @return value kind
+    */
+   private int getKind(Object value)
+   {
+      int result;
+      if (value == null)
+      {
+         result = NONE;
+      }
+      else
+      {
+         Class<?> c = value.getClass();
+         if (c == Date.class)
+         {
+            result = DATE;
+         }
+         else
+         {
+            if (c == Double.class)
+            {
+               result = DOUBLE;
+            }
+            else
+            {
+               if (c == Boolean.class)
+               {
+                  result = BOOLEAN;
+               }
+               else
+               {
+                  result = OBJECT;
+               }
+            }
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Convert a value to its primitive representation.
+    *
+    * @param kind value kind
+    * @param value field value
+    * @return primitive representation
+    */
+   private long getPrimitiveValue(int kind, Object value)
+   {
+      long result;
+      switch (kind)
+      {
+         case DATE:
+         {
+            result = ((Date) value).getTime();
+            break;
+         }
+
+         case DOUBLE:
+         {
+            result = Double.doubleToRawLongBits(((Double) value).doubleValue());
+            break;
+         }
+
+         default:
+         {
+            result = ((Boolean) value).booleanValue() ? 1 : 0;
+            break;
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Convert a primitive representation back to an object.
+    *
+    * @param kind value kind
+    * @param value primitive representation
+    * @return field value
+    */
+   private Object getObjectValue(int kind, long value)
+   {
+      Object result;
+      switch (kind)
+      {
+         case DATE:
+         {
+            result = new Date(value);
+            break;
+         }
+
+         case DOUBLE:
+         {
+            result = Double.valueOf(Double.longBitsToDouble(value));
+            break;
+         }
+
+         default:
+         {
+            result = Boolean.valueOf(value != 0);
+            break;
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Binary search for a field index.
+    *
+    * @param keys sorted keys
+    * @param count number of keys in use
+    * @param index field index
+    * @param shift number of bits to shift each key to obtain the field index
+    * @return position of the field, or (-(insertion point) - 1) if not present
+    */
+   private int search(int[] keys, int count, int index, int shift)
+   {
+      int low = 0;
+      int high = count - 1;
+      while (low <= high)
+      {
+         int mid = (low + high) >>> 1;
+         int midIndex = keys[mid] >>> shift;
+         if (midIndex < index)
+         {
+            low = mid + 1;
+         }
+         else
+         {
+            if (midIndex > index)
+            {
+               high = mid - 1;
+            }
+            else
+            {
+               return mid;
+            }
+         }
+      }
+      return -(low + 1);
+   }
+
+   /**
+    * Insert an object value.
+    *
+    * @param position insertion point
+    * @param index field index
+    * @param value field value
+    */
+   private void insertObject(int position, int index, Object value)
+   {
+      if (m_objectKeys == null)
+      {
+         m_objectKeys = new int[INITIAL_CAPACITY];
+         m_objectValues = new Object[INITIAL_CAPACITY];
+      }
+      else
+      {
+         if (m_objectCount == m_objectKeys.length)
+         {
+            int capacity = getNewCapacity(m_objectCount);
+            m_objectKeys = Arrays.copyOf(m_objectKeys, capacity);
+            m_objectValues = Arrays.copyOf(m_objectValues, capacity);
+         }
+      }
+
+      System.arraycopy(m_objectKeys, position, m_objectKeys, position + 1, m_objectCount - position);
+      System.arraycopy(m_objectValues, position, m_objectValues, position + 1, m_objectCount - position);
+      m_objectKeys[position] = index;
+      m_objectValues[position] = value;
+      ++m_objectCount;
+   }
+
+   /**
+    * Remove an object value.
+    *
+    * @param position value position
+    */
+   private void removeObject(int position)
+   {
+      --m_objectCount;
+      System.arraycopy(m_objectKeys, position + 1, m_objectKeys, position, m_objectCount - position);
+      System.arraycopy(m_objectValues, position + 1, m_objectValues, position, m_objectCount - position);
+      m_objectValues[m_objectCount] = null;
+   }
+
+   /**
+    * Insert a primitive value.
+    *
+    * @param position insertion point
+    * @param key field index and value kind
+    * @param value primitive representation
+    */
+   private void insertPrimitive(int position, int key, long value)
+   {
+      if (m_primitiveKeys == null)
+      {
+         m_primitiveKeys = new int[INITIAL_CAPACITY];
+         m_primitiveValues = new long[INITIAL_CAPACITY];
+      }
+      else
+      {
+         if (m_primitiveCount == m_primitiveKeys.length)
+         {
+            int capacity = getNewCapacity(m_primitiveCount);
+            m_primitiveKeys = Arrays.copyOf(m_primitiveKeys, capacity);
+            m_primitiveValues = Arrays.copyOf(m_primitiveValues, capacity);
+         }
+      }
+
+      System.arraycopy(m_primitiveKeys, position, m_primitiveKeys, position + 1, m_primitiveCount - position);
+      System.arraycopy(m_primitiveValues, position, m_primitiveValues, position + 1, m_primitiveCount - position);
+      m_primitiveKeys[position] = key;
+      m_primitiveValues[position] = value;
+      ++m_primitiveCount;
+   }
+
+   /**
+    * Remove a primitive value.
+    *
+    * @param position value position
+    */
+   private void removePrimitive(int position)
+   {
+      --m_primitiveCount;
+      System.arraycopy(m_primitiveKeys, position + 1, m_primitiveKeys, position, m_primitiveCount - position);
+      System.arraycopy(m_primitiveValues, position + 1, m_primitiveValues, position, m_primitiveCount - position);
+   }
+
+   /**
+    * Calculate the new capacity when an array is full.
+    *
+    * @param capacity current capacity
+    * @return new capacity
+    */
+   private int getNewCapacity(int capacity)
+   {
+      return capacity + (capacity >> 1) + 1;
+   }
+
+   private int[] m_objectKeys;
+   private Object[] m_objectValues;
+   private int m_objectCount;
+
+   private int[] m_primitiveKeys;
+   private long[] m_primitiveValues;
+   private int m_primitiveCount;
+
+   private static final int INITIAL_CAPACITY = 8;
+
+   private static final int NONE = -1;
+   private static final int OBJECT = 0;
+   private static final int DATE = 1;
+   private static final int DOUBLE = 2;
+   private static final int BOOLEAN = 3;
+
+   private static final int KIND_BITS = 2;
+   private static final int KIND_MASK = 0x03;
+
+   /**
+    * Factory used to create CompactFieldStorage instances.
+    */
+   public static final FieldStorageFactory FACTORY = new FieldStorageFactory()
+   {
+      @Override public FieldStorage newFieldStorage(FieldTypeClass type, int size)
+      {
+         return new CompactFieldStorage();
+      }
+   };
+}
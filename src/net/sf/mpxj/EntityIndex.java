@@ -0,0 +1,157 @@
+/*
+ * file:       EntityIndex.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       17/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps values to the entities which have that value. String values are
+ * matched without regard to case, consistent with String.equalsIgnoreCase.
+ *
+ * @param <T> entity type
+ */
+final class EntityIndex<T>
+{
+   /**
+    * Add an entity to the index.
+    *
+    * @param value value to index the entity by
+    * @param entity entity
+    */
+   public void add(Object value, T entity)
+   {
+      Object key = getKey(value);
+      List<T> list = m_map.get(key);
+      if (list == null)
+      {
+         list = new ArrayList<T>(1);
+         m_map.put(key, list);
+      }
+      list.add(entity);
+   }
+
+   /**
+    * Remove an entity from the index.
+    *
+    * @param value value the entity is indexed by
+    * @param entity entity
+    * @return true if the entity was present in the index
+    */
+   public boolean remove(Object value, T entity)
+   {
+      boolean result = false;
+      Object key = getKey(value);
+      List<T> list = m_map.get(key);
+      if (list != null)
+      {
+         for (int index = 0; index < list.size(); index++)
+         {
+            if (list.get(index) == entity)
+            {
+               list.remove(index);
+               result = true;
+               break;
+            }
+         }
+
+         if (list.isEmpty())
+         {
+            m_map.remove(key);
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Retrieve the entities with the supplied value.
+    *
+    * @param value value
+    * @return list of entities, empty if no entities have this value
+    */
+   public List<T> get(Object value)
+   {
+      List<T> list = m_map.get(getKey(value));
+      return list == null ? Collections.<T> emptyList() : Collections.unmodifiableList(list);
+   }
+
+   /**
+    * Determine if two values would be found under the same key in an index.
+    *
+    * @param value value being looked up
+    * @param entityValue value held by an entity
+    * @return true if the values match
+    */
+   public static boolean matches(Object value, Object entityValue)
+   {
+      if (value == null)
+      {
+         return entityValue == null;
+      }
+
+      if (value instanceof String && entityValue instanceof String)
+      {
+         return ((String) value).equalsIgnoreCase((String) entityValue);
+      }
+
+      return value.equals(entityValue);
+   }
+
+   /**
+    * Remove all entities from the index.
+    */
+   public void clear()
+   {
+      m_map.clear();
+   }
+
+   /**
+    * Retrieve the key used to index a value. Each character of a string is
+    * folded to a single case in the same way as String.equalsIgnoreCase,
+    * so two strings produce the same key if they are equal ignoring case.
+    *
+    * @param value value
+    * @return key
+    */
+   private static Object getKey(Object value)
+   {
+      Object result = value;
+      if (value instanceof String)
+      {
+         String text = (String) value;
+         char[] chars = new char[text.length()];
+         for (int index = 0; index < chars.length; index++)
+         {
+            chars[index] = Character.toLowerCase(Character.toUpperCase(text.charAt(index)));
+         }
+         result = new String(chars);
+      }
+      return result;
+   }
+
+   private final Map<Object, List<T>> m_map = new HashMap<Object, List<T>>();
+}
@@ -0,0 +1,232 @@
+/*
+ * file:       FieldIndexes.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       17/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.mpxj.listener.FieldListener;
+
+/**
+ * Maintains the field indexes for a container of tasks, resources
+ * or assignments. The container is responsible for passing on entities
+ * as they are added and removed. A field listener is registered on each
+ * entity while any index exists, so the indexes follow changes to the
+ * indexed field values.
+ *
+ * @param <T> entity type, which must implement FieldContainer
+ */
+final class FieldIndexes<T>
+{
+   /**
+    * Create an index for the supplied field, if one is not already present.
+    *
+    * @param entities entities currently held by the container
+    * @param field field to index
+    */
+   public void addIndex(Iterable<T> entities, FieldType field)
+   {
+      if (m_indexes == null)
+      {
+         m_indexes = new HashMap<FieldType, EntityIndex<T>>();
+         for (T entity : entities)
+         {
+            getContainer(entity).addFieldListener(m_listener);
+         }
+      }
+
+      if (!m_indexes.containsKey(field))
+      {
+         m_indexes.put(field, createIndex(entities, field));
+      }
+   }
+
+   /**
+    * Discard the index for the supplied field, if one is present.
+    *
+    * @param entities entities currently held by the container
+    * @param field indexed field
+    */
+   public void removeIndex(Iterable<T> entities, FieldType field)
+   {
+      if (m_indexes != null)
+      {
+         m_indexes.remove(field);
+         if (m_indexes.isEmpty())
+         {
+            m_indexes = null;
+            for (T entity : entities)
+            {
+               getContainer(entity).removeFieldListener(m_listener);
+            }
+         }
+      }
+   }
+
+   /**
+    * Retrieve the entities with the supplied field value, using an index
+    * if one exists for the field, otherwise examining each entity in turn.
+    *
+    * @param entities entities currently held by the container
+    * @param field field type
+    * @param value field value
+    * @return list of matching entities, empty if none match
+    */
+   public List<T> getByFieldValue(Iterable<T> entities, FieldType field, Object value)
+   {
+      EntityIndex<T> index = m_indexes == null ? null : m_indexes.get(field);
+      if (index != null)
+      {
+         return index.get(value);
+      }
+
+      List<T> result = new ArrayList<T>();
+      for (T entity : entities)
+      {
+         if (EntityIndex.matches(value, getContainer(entity).getCachedValue(field)))
+         {
+            result.add(entity);
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Add an entity to any indexes.
+    *
+    * @param entity entity added to the container
+    */
+   public void add(T entity)
+   {
+      if (m_indexes != null)
+      {
+         FieldContainer container = getContainer(entity);
+         container.addFieldListener(m_listener);
+         for (Map.Entry<FieldType, EntityIndex<T>> entry : m_indexes.entrySet())
+         {
+            entry.getValue().add(container.getCachedValue(entry.getKey()), entity);
+         }
+      }
+   }
+
+   /**
+    * Remove an entity from any indexes.
+    *
+    * @param entity entity removed from the container
+    */
+   public void remove(T entity)
+   {
+      if (m_indexes != null)
+      {
+         FieldContainer container = getContainer(entity);
+         container.removeFieldListener(m_listener);
+         for (Map.Entry<FieldType, EntityIndex<T>> entry : m_indexes.entrySet())
+         {
+            entry.getValue().remove(container.getCachedValue(entry.getKey()), entity);
+         }
+      }
+   }
+
+   /**
+    * Empty the indexes when the container is cleared. The indexes
+    * remain in place for entities which are subsequently added.
+    *
+    * @param entities entities currently held by the container
+    */
+   public void clear(Iterable<T> entities)
+   {
+      if (m_indexes != null)
+      {
+         for (T entity : entities)
+         {
+            getContainer(entity).removeFieldListener(m_listener);
+         }
+
+         for (EntityIndex<T> index : m_indexes.values())
+         {
+            index.clear();
+         }
+      }
+   }
+
+   /**
+    * Build an index of the supplied entities by field value.
+    *
+    * @param entities entities to index
+    * @param field field type
+    * @return new index
+    */
+   private EntityIndex<T> createIndex(Iterable<T> entities, FieldType field)
+   {
+      EntityIndex<T> index = new EntityIndex<T>();
+      for (T entity : entities)
+      {
+         index.add(getContainer(entity).getCachedValue(field), entity);
+      }
+      return index;
+   }
+
+   /**
+    * Retrieve the field values of an entity.
+    *
+    * @param entity entity
+    * @return entity as a field container
+    */
+   private FieldContainer getContainer(T entity)
+   {
+      return (FieldContainer) entity;
+   }
+
+   /**
+    * Update the indexes when an indexed field changes.
+    *
+    * @param container entity whose field has changed
+    * @param field field type
+    * @param oldValue old field value
+    * @param newValue new field value
+    */
+   @SuppressWarnings("unchecked") private void fieldChanged(FieldContainer container, FieldType field, Object oldValue, Object newValue)
+   {
+      if (m_indexes != null)
+      {
+         EntityIndex<T> index = m_indexes.get(field);
+         if (index != null && index.remove(oldValue, (T) container))
+         {
+            index.add(newValue, (T) container);
+         }
+      }
+   }
+
+   private Map<FieldType, EntityIndex<T>> m_indexes;
+
+   private final FieldListener m_listener = new FieldListener()
+   {
+      @Override public void fieldChange(FieldContainer container, FieldType type, Object oldValue, Object newValue)
+      {
+         fieldChanged(container, type, oldValue, newValue);
+      }
+   };
+}
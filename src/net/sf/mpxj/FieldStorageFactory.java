@@ -0,0 +1,41 @@
+/*
+ * file:       FieldStorageFactory.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       16/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj;
+
+/**
+ * Implementations of this interface create the storage used to hold
+ * field values for each new task, resource and resource assignment.
+ * The factory used by a project is set via the ProjectConfig class.
+ */
+public interface FieldStorageFactory
+{
+   /**
+    * Create storage for a new entity.
+    *
+    * @param type type of entity the storage is for
+    * @param size number of fields defined for this type of entity
+    * @return new FieldStorage instance
+    */
+   public FieldStorage newFieldStorage(FieldTypeClass type, int size);
+}
@@ -0,0 +1,42 @@
+/*
+ * file:       LazyFieldValue.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       16/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj;
+
+/**
+ * A reader may store an instance of this interface in a field container
+ * in place of a field value which has not yet been decoded. The container
+ * replaces the placeholder with the real value the first time the field
+ * is retrieved. A single instance may stand in for several fields
+ * belonging to the same entity.
+ */
+public interface LazyFieldValue
+{
+   /**
+    * Decode the value of the requested field.
+    *
+    * @param field field identifier
+    * @return field value
+    */
+   public Object getValue(FieldType field);
+}
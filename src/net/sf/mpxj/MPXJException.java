@@ -111,6 +111,21 @@ public final class MPXJException extends Exception
     */
    public static final String INVALID_RESOURCE_FIELD_NAME = "Invalid resource field name";
 
+   /**
+    * Cyclic task dependency error message.
+    */
+   public static final String CYCLIC_DEPENDENCY = "Task dependencies contain a cycle";
+
+   /**
+    * Scheduling error message.
+    */
+   public static final String SCHEDULE_ERROR = "Error scheduling project";
+
+   /**
+    * Timephased data processing error message.
+    */
+   public static final String TIMEPHASED_ERROR = "Error processing timephased data";
+
    /**
     * Password protected file error message.
     */
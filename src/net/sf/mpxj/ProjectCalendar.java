@@ -30,8 +30,7 @@ import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
-import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.TimeZone;
 
 import net.sf.mpxj.common.DateHelper;
 import net.sf.mpxj.common.NumberHelper;
@@ -356,22 +355,17 @@ public final class ProjectCalendar extends ProjectCalendarWeek implements Projec
     */
    public Date getStartTime(Date date)
    {
-      Date result = m_startTimeCache.get(date);
-      if (result == null)
+      Date result;
+      ProjectCalendarDateRanges ranges = getRanges(date, null, null);
+      if (ranges == null)
       {
-         ProjectCalendarDateRanges ranges = getRanges(date, null, null);
-         if (ranges == null)
-         {
-            result = getParentFile().getProjectProperties().getDefaultStartTime();
-         }
-         else
-         {
-            result = ranges.getRange(0).getStart();
-         }
-         result = DateHelper.getCanonicalTime(result);
-         m_startTimeCache.put(new Date(date.getTime()), result);
+         result = getParentFile().getProjectProperties().getDefaultStartTime();
       }
-      return result;
+      else
+      {
+         result = ranges.getRange(0).getStart();
+      }
+      return DateHelper.getCanonicalTime(result);
    }
 
    /**
@@ -432,180 +426,54 @@ public final class ProjectCalendar extends ProjectCalendarWeek implements Projec
     */
    public Date getDate(Date startDate, Duration duration, boolean returnNextWorkStart)
    {
-      ProjectProperties properties = getParentFile().getProjectProperties();
-      // Note: Using a double allows us to handle date values that are accurate up to seconds.
-      //       However, it also means we need to truncate the value to 2 decimals to make the
-      //       comparisons work as sometimes the double ends up with some extra e.g. .0000000000003
-      //       that wreak havoc on the comparisons.
-      double remainingMinutes = NumberHelper.round(duration.convertUnits(TimeUnit.MINUTES, properties).getDuration(), 2);
-
-      //
-      // Can we skip come computation by working forward from the
-      // last call to this method?
-      //
-      Date getDateLastStartDate = m_getDateLastStartDate;
-      double getDateLastRemainingMinutes = m_getDateLastRemainingMinutes;
-
-      m_getDateLastStartDate = startDate;
-      m_getDateLastRemainingMinutes = remainingMinutes;
-
-      if (m_getDateLastResult != null && DateHelper.compare(startDate, getDateLastStartDate) == 0 && remainingMinutes >= getDateLastRemainingMinutes)
+      long remainingTime = getRemainingTime(duration);
+      if (remainingTime <= 0)
       {
-         startDate = m_getDateLastResult;
-         remainingMinutes = remainingMinutes - getDateLastRemainingMinutes;
+         return returnNextWorkStart ? getNextWorkStart(startDate) : new Date(startDate.getTime());
       }
 
-      Calendar cal = Calendar.getInstance();
-      cal.setTime(startDate);
-      Calendar endCal = Calendar.getInstance();
+      TimeZone timeZone = TimeZone.getDefault();
+      long start = ProjectCalendarTimeline.toLocal(timeZone, startDate);
+      int firstDay = ProjectCalendarTimeline.getDay(start);
+      int days = INITIAL_TIMELINE_DAYS;
+      long previousWork = -1;
 
-      while (remainingMinutes > 0)
+      while (true)
       {
+         ProjectCalendarTimeline timeline = getTimeline(timeZone, firstDay, firstDay + days);
+         long startWork = timeline.getWork(start);
+         long target = startWork + remainingTime;
+         long totalWork = timeline.getTotalWork();
+
          //
-         // Get the current date and time and determine how many
-         // working hours remain
+         // If we're returning the start of the next working period,
+         // make sure the timeline extends far enough to include it
          //
-         Date currentDate = cal.getTime();
-         endCal.setTime(currentDate);
-         endCal.add(Calendar.DAY_OF_YEAR, 1);
-         Date currentDateEnd = DateHelper.getDayStartDate(endCal.getTime());
-         double currentDateWorkingMinutes = getWork(currentDate, currentDateEnd, TimeUnit.MINUTES).getDuration();
+         if (returnNextWorkStart ? totalWork > target : totalWork >= target)
+         {
+            return timeline.toDate(returnNextWorkStart ? timeline.getLatestTime(target) : timeline.getEarliestTime(target));
+         }
 
          //
-         // We have more than enough hours left
+         // Protect against a calendar with no more working time
          //
-         if (remainingMinutes > currentDateWorkingMinutes)
+         long availableWork = totalWork - startWork;
+         if (availableWork == previousWork && days / 2 >= MAX_NONWORKING_DAYS)
          {
-            //
-            // Deduct this day's hours from our total
-            //
-            remainingMinutes = NumberHelper.round(remainingMinutes - currentDateWorkingMinutes, 2);
-
-            //
-            // Move the calendar forward to the next working day
-            //
-            Day day;
-            int nonWorkingDayCount = 0;
-            do
+            if (totalWork >= target)
             {
-               cal.add(Calendar.DAY_OF_YEAR, 1);
-               day = Day.getInstance(cal.get(Calendar.DAY_OF_WEEK));
-               ++nonWorkingDayCount;
-               if (nonWorkingDayCount > MAX_NONWORKING_DAYS)
-               {
-                  cal.setTime(startDate);
-                  cal.add(Calendar.DAY_OF_YEAR, 1);
-                  remainingMinutes = 0;
-                  break;
-               }
+               return timeline.toDate(timeline.getEarliestTime(target));
             }
-            while (!isWorkingDate(cal.getTime(), day));
 
-            //
-            // Retrieve the start time for this day
-            //
-            Date startTime = getStartTime(cal.getTime());
-            DateHelper.setTime(cal, startTime);
-         }
-         else
-         {
-            //
-            // We have less hours to allocate than there are working hours
-            // in this day. We need to calculate the time of day at which
-            // our work ends.
-            //
-            ProjectCalendarDateRanges ranges = getRanges(cal.getTime(), cal, null);
-
-            //
-            // Now we have the range of working hours for this day,
-            // step through it to work out the end point
-            //
-            Date endTime = null;
-            Date currentDateStartTime = DateHelper.getCanonicalTime(currentDate);
-            boolean firstRange = true;
-            for (DateRange range : ranges)
-            {
-               //
-               // Skip this range if its end is before our start time
-               //
-               Date rangeStart = range.getStart();
-               Date rangeEnd = range.getEnd();
-
-               if (rangeStart == null || rangeEnd == null)
-               {
-                  continue;
-               }
-
-               Date canonicalRangeEnd = DateHelper.getCanonicalTime(rangeEnd);
-               Date canonicalRangeStart = DateHelper.getCanonicalTime(rangeStart);
-
-               Date rangeStartDay = DateHelper.getDayStartDate(rangeStart);
-               Date rangeEndDay = DateHelper.getDayStartDate(rangeEnd);
-
-               if (rangeStartDay.getTime() != rangeEndDay.getTime())
-               {
-                  Calendar calendar = Calendar.getInstance();
-                  calendar.setTime(canonicalRangeEnd);
-                  calendar.add(Calendar.DAY_OF_YEAR, 1);
-                  canonicalRangeEnd = calendar.getTime();
-               }
-
-               if (firstRange && canonicalRangeEnd.getTime() < currentDateStartTime.getTime())
-               {
-                  continue;
-               }
-
-               //
-               // Move the start of the range if our current start is
-               // past the range start
-               //
-               if (firstRange && canonicalRangeStart.getTime() < currentDateStartTime.getTime())
-               {
-                  canonicalRangeStart = currentDateStartTime;
-               }
-               firstRange = false;
-
-               double rangeMinutes;
-
-               rangeMinutes = canonicalRangeEnd.getTime() - canonicalRangeStart.getTime();
-               rangeMinutes /= (1000 * 60);
-
-               if (remainingMinutes > rangeMinutes)
-               {
-                  remainingMinutes = NumberHelper.round(remainingMinutes - rangeMinutes, 2);
-               }
-               else
-               {
-                  if (Duration.durationValueEquals(remainingMinutes, rangeMinutes))
-                  {
-                     endTime = canonicalRangeEnd;
-                     if (rangeStartDay.getTime() != rangeEndDay.getTime())
-                     {
-                        // The range ends the next day, so let's adjust our date accordingly.
-                        cal.add(Calendar.DAY_OF_YEAR, 1);
-                     }
-                  }
-                  else
-                  {
-                     endTime = new Date((long) (canonicalRangeStart.getTime() + (remainingMinutes * (60 * 1000))));
-                     returnNextWorkStart = false;
-                  }
-                  remainingMinutes = 0;
-                  break;
-               }
-            }
-
-            DateHelper.setTime(cal, endTime);
+            Calendar cal = Calendar.getInstance();
+            cal.setTime(startDate);
+            cal.add(Calendar.DAY_OF_YEAR, 1);
+            return cal.getTime();
          }
-      }
 
-      m_getDateLastResult = cal.getTime();
-      if (returnNextWorkStart)
-      {
-         updateToNextWorkStart(cal);
+         previousWork = availableWork;
+         days *= 2;
       }
-
-      return cal.getTime();
    }
 
    /**
@@ -618,6 +486,49 @@ public final class ProjectCalendar extends ProjectCalendarWeek implements Projec
     * @return start date
     */
    public Date getStartDate(Date finishDate, Duration duration)
+   {
+      long remainingTime = getRemainingTime(duration);
+      if (remainingTime <= 0)
+      {
+         return new Date(finishDate.getTime());
+      }
+
+      TimeZone timeZone = TimeZone.getDefault();
+      long finish = ProjectCalendarTimeline.toLocal(timeZone, finishDate);
+      int lastDay = ProjectCalendarTimeline.getDay(finish) + 1;
+      int days = INITIAL_TIMELINE_DAYS;
+      long previousWork = -1;
+
+      while (true)
+      {
+         ProjectCalendarTimeline timeline = getTimeline(timeZone, lastDay - days, lastDay);
+         long finishWork = timeline.getWork(finish);
+         if (finishWork >= remainingTime)
+         {
+            return timeline.toDate(timeline.getLatestTime(finishWork - remainingTime));
+         }
+
+         //
+         // Protect against a calendar with no working days
+         //
+         if (finishWork == previousWork && days / 2 >= MAX_NONWORKING_DAYS)
+         {
+            return null;
+         }
+
+         previousWork = finishWork;
+         days *= 2;
+      }
+   }
+
+   /**
+    * Convert a duration into the amount of working time in milliseconds
+    * used to drive date calculations.
+    *
+    * @param duration duration
+    * @return working time in milliseconds
+    */
+   private long getRemainingTime(Duration duration)
    {
       ProjectProperties properties = getParentFile().getProjectProperties();
       // Note: Using a double allows us to handle date values that are accurate up to seconds.
@@ -625,227 +536,94 @@ public final class ProjectCalendar extends ProjectCalendarWeek implements Projec
       //       comparisons work as sometimes the double ends up with some extra e.g. .0000000000003
       //       that wreak havoc on the comparisons.
       double remainingMinutes = NumberHelper.round(duration.convertUnits(TimeUnit.MINUTES, properties).getDuration(), 2);
-      Calendar cal = Calendar.getInstance();
-      cal.setTime(finishDate);
-      Calendar startCal = Calendar.getInstance();
+      return Math.round(remainingMinutes * 60000);
+   }
 
-      while (remainingMinutes > 0)
+   /**
+    * Utility method to retrieve the next working date start time, given
+    * a date and time as a starting point.
+    *
+    * @param date date and time start point
+    * @return date and time of next work start
+    */
+   public Date getNextWorkStart(Date date)
+   {
+      TimeZone timeZone = TimeZone.getDefault();
+      long local = ProjectCalendarTimeline.toLocal(timeZone, date);
+      int firstDay = ProjectCalendarTimeline.getDay(local);
+      int days = INITIAL_TIMELINE_DAYS;
+
+      while (true)
       {
-         //
-         // Get the current date and time and determine how many
-         // working hours remain
-         //
-         Date currentDate = cal.getTime();
-         startCal.setTime(currentDate);
-         startCal.add(Calendar.DAY_OF_YEAR, -1);
-         Date currentDateEnd = DateHelper.getDayEndDate(startCal.getTime());
-         double currentDateWorkingMinutes = getWork(currentDateEnd, currentDate, TimeUnit.MINUTES).getDuration();
+         ProjectCalendarTimeline timeline = getTimeline(timeZone, firstDay, firstDay + days);
+         long work = timeline.getWork(local);
+         if (timeline.getTotalWork() > work)
+         {
+            return timeline.toDate(timeline.getLatestTime(work));
+         }
 
          //
-         // We have more than enough hours left
+         // Protect against a calendar with no more working time
          //
-         if (remainingMinutes > currentDateWorkingMinutes)
+         if (days >= MAX_NONWORKING_DAYS)
          {
-            //
-            // Deduct this day's hours from our total
-            //
-            remainingMinutes = NumberHelper.round(remainingMinutes - currentDateWorkingMinutes, 2);
-
-            //
-            // Move the calendar backward to the previous working day
-            //
-            int count = 0;
-            Day day;
-            do
-            {
-               if (count > 7)
-               {
-                  break; // Protect against a calendar with all days non-working
-               }
-               count++;
-               cal.add(Calendar.DAY_OF_YEAR, -1);
-               day = Day.getInstance(cal.get(Calendar.DAY_OF_WEEK));
-            }
-            while (!isWorkingDate(cal.getTime(), day));
-
-            if (count > 7)
-            {
-               // We have a calendar with no working days.
-               return null;
-            }
-
-            //
-            // Retrieve the finish time for this day
-            //
-            Date finishTime = getFinishTime(cal.getTime());
-            DateHelper.setTime(cal, finishTime);
+            return new Date(date.getTime());
          }
-         else
-         {
-            //
-            // We have less hours to allocate than there are working hours
-            // in this day. We need to calculate the time of day at which
-            // our work starts.
-            //
-            ProjectCalendarDateRanges ranges = getRanges(cal.getTime(), cal, null);
-
-            //
-            // Now we have the range of working hours for this day,
-            // step through it to work out the start point
-            //
-            Date startTime = null;
-            Date currentDateFinishTime = DateHelper.getCanonicalTime(currentDate);
-            boolean firstRange = true;
-            // Traverse from end to start
-            for (int i = ranges.getRangeCount() - 1; i >= 0; i--)
-            {
-               DateRange range = ranges.getRange(i);
-               //
-               // Skip this range if its start is after our end time
-               //
-               Date rangeStart = range.getStart();
-               Date rangeEnd = range.getEnd();
-
-               if (rangeStart == null || rangeEnd == null)
-               {
-                  continue;
-               }
-
-               Date canonicalRangeEnd = DateHelper.getCanonicalTime(rangeEnd);
-               Date canonicalRangeStart = DateHelper.getCanonicalTime(rangeStart);
-
-               Date rangeStartDay = DateHelper.getDayStartDate(rangeStart);
-               Date rangeEndDay = DateHelper.getDayStartDate(rangeEnd);
-
-               if (rangeStartDay.getTime() != rangeEndDay.getTime())
-               {
-                  Calendar calendar = Calendar.getInstance();
-                  calendar.setTime(canonicalRangeEnd);
-                  calendar.add(Calendar.DAY_OF_YEAR, 1);
-                  canonicalRangeEnd = calendar.getTime();
-               }
-
-               if (firstRange && canonicalRangeStart.getTime() > currentDateFinishTime.getTime())
-               {
-                  continue;
-               }
-
-               //
-               // Move the end of the range if our current end is
-               // before the range end
-               //
-               if (firstRange && canonicalRangeEnd.getTime() > currentDateFinishTime.getTime())
-               {
-                  canonicalRangeEnd = currentDateFinishTime;
-               }
-               firstRange = false;
-
-               double rangeMinutes;
-
-               rangeMinutes = canonicalRangeEnd.getTime() - canonicalRangeStart.getTime();
-               rangeMinutes /= (1000 * 60);
-
-               if (remainingMinutes > rangeMinutes)
-               {
-                  remainingMinutes = NumberHelper.round(remainingMinutes - rangeMinutes, 2);
-               }
-               else
-               {
-                  if (Duration.durationValueEquals(remainingMinutes, rangeMinutes))
-                  {
-                     startTime = canonicalRangeStart;
-                  }
-                  else
-                  {
-                     startTime = new Date((long) (canonicalRangeEnd.getTime() - (remainingMinutes * (60 * 1000))));
-                  }
-                  remainingMinutes = 0;
-                  break;
-               }
-            }
 
-            DateHelper.setTime(cal, startTime);
-         }
+         days *= 2;
       }
+   }
 
+   /**
+    * Utility method to retrieve the previous working date finish time, given
+    * a date and time as a starting point.
+    *
+    * @param date date and time start point
+    * @return date and time of previous work finish
+    */
+   public Date getPreviousWorkFinish(Date date)
+   {
+      Calendar cal = Calendar.getInstance();
+      cal.setTime(date);
+      updateToPreviousWorkFinish(cal);
       return cal.getTime();
    }
 
    /**
-    * This method finds the start of the next working period.
+    * Retrieve the latest point in working time at or before the supplied
+    * date. If the date falls within a working period it is returned
+    * unchanged, otherwise the end of the previous working period is
+    * returned. Unlike getPreviousWorkFinish, a date at the end of a working
+    * period is treated as the finish of that period.
     *
-    * @param cal current Calendar instance
+    * @param date date and time start point
+    * @return latest working time at or before the date
     */
-   private void updateToNextWorkStart(Calendar cal)
+   public Date getLatestWorkFinish(Date date)
    {
-      Date originalDate = cal.getTime();
+      TimeZone timeZone = TimeZone.getDefault();
+      long local = ProjectCalendarTimeline.toLocal(timeZone, date);
+      int lastDay = ProjectCalendarTimeline.getDay(local) + 1;
+      int days = INITIAL_TIMELINE_DAYS;
 
-      //
-      // Find the date ranges for the current day
-      //
-      ProjectCalendarDateRanges ranges = getRanges(originalDate, cal, null);
-
-      if (ranges != null)
+      while (true)
       {
-         //
-         // Do we have a start time today?
-         //
-         Date calTime = DateHelper.getCanonicalTime(cal.getTime());
-         Date startTime = null;
-         for (DateRange range : ranges)
+         ProjectCalendarTimeline timeline = getTimeline(timeZone, lastDay - days, lastDay);
+         long work = timeline.getWork(local);
+         if (work > 0)
          {
-            Date rangeStart = DateHelper.getCanonicalTime(range.getStart());
-            Date rangeEnd = DateHelper.getCanonicalTime(range.getEnd());
-            Date rangeStartDay = DateHelper.getDayStartDate(range.getStart());
-            Date rangeEndDay = DateHelper.getDayStartDate(range.getEnd());
-
-            if (rangeStartDay.getTime() != rangeEndDay.getTime())
-            {
-               Calendar calendar = Calendar.getInstance();
-               calendar.setTime(rangeEnd);
-               calendar.add(Calendar.DAY_OF_YEAR, 1);
-               rangeEnd = calendar.getTime();
-            }
-
-            if (calTime.getTime() < rangeEnd.getTime())
-            {
-               if (calTime.getTime() > rangeStart.getTime())
-               {
-                  startTime = calTime;
-               }
-               else
-               {
-                  startTime = rangeStart;
-               }
-               break;
-            }
+            return timeline.toDate(timeline.getEarliestTime(work));
          }
 
          //
-         // If we don't have a start time today - find the next working day
-         // then retrieve the start time.
+         // Protect against a calendar with no previous working time
          //
-         if (startTime == null)
+         if (days >= MAX_NONWORKING_DAYS)
          {
-            Day day;
-            int nonWorkingDayCount = 0;
-            do
-            {
-               cal.set(Calendar.DAY_OF_YEAR, cal.get(Calendar.DAY_OF_YEAR) + 1);
-               day = Day.getInstance(cal.get(Calendar.DAY_OF_WEEK));
-               ++nonWorkingDayCount;
-               if (nonWorkingDayCount > MAX_NONWORKING_DAYS)
-               {
-                  cal.setTime(originalDate);
-                  break;
-               }
-            }
-            while (!isWorkingDate(cal.getTime(), day));
-
-            startTime = getStartTime(cal.getTime());
+            return new Date(date.getTime());
          }
 
-         DateHelper.setTime(cal, startTime);
+         days *= 2;
       }
    }
 
@@ -918,36 +696,6 @@ public final class ProjectCalendar extends ProjectCalendarWeek implements Projec
       }
    }
 
-   /**
-    * Utility method to retrieve the next working date start time, given
-    * a date and time as a starting point.
-    *
-    * @param date date and time start point
-    * @return date and time of next work start
-    */
-   public Date getNextWorkStart(Date date)
-   {
-      Calendar cal = Calendar.getInstance();
-      cal.setTime(date);
-      updateToNextWorkStart(cal);
-      return cal.getTime();
-   }
-
-   /**
-    * Utility method to retrieve the previous working date finish time, given
-    * a date and time as a starting point.
-    *
-    * @param date date and time start point
-    * @return date and time of previous work finish
-    */
-   public Date getPreviousWorkFinish(Date date)
-   {
-      Calendar cal = Calendar.getInstance();
-      cal.setTime(date);
-      updateToPreviousWorkFinish(cal);
-      return cal.getTime();
-   }
-
    /**
     * This method allows the caller to determine if a given date is a
     * working day. This method takes account of calendar exceptions.
@@ -1020,6 +768,15 @@ public final class ProjectCalendar extends ProjectCalendarWeek implements Projec
       return (result);
    }
 
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void setName(String name)
+   {
+      getParentFile().getCalendars().renamed(this, getName(), name);
+      super.setName(name);
+   }
+
    /**
     * Modifier method to set the unique ID of this calendar.
     *
@@ -1216,113 +973,29 @@ public final class ProjectCalendar extends ProjectCalendarWeek implements Projec
     */
    public Duration getWork(Date startDate, Date endDate, TimeUnit format)
    {
-      DateRange range = new DateRange(startDate, endDate);
-      Long cachedResult = m_workingDateCache.get(range);
-      long totalTime = 0;
-
-      if (cachedResult == null)
+      //
+      // We want the start date to be the earliest date, and the end date
+      // to be the latest date. Set a flag here to indicate if we have swapped
+      // the order of the supplied date.
+      //
+      boolean invert = false;
+      if (startDate.getTime() > endDate.getTime())
       {
-         //
-         // We want the start date to be the earliest date, and the end date
-         // to be the latest date. Set a flag here to indicate if we have swapped
-         // the order of the supplied date.
-         //
-         boolean invert = false;
-         if (startDate.getTime() > endDate.getTime())
-         {
-            invert = true;
-            Date temp = startDate;
-            startDate = endDate;
-            endDate = temp;
-         }
-
-         Date canonicalStartDate = DateHelper.getDayStartDate(startDate);
-         Date canonicalEndDate = DateHelper.getDayStartDate(endDate);
-
-         if (canonicalStartDate.getTime() == canonicalEndDate.getTime())
-         {
-            ProjectCalendarDateRanges ranges = getRanges(startDate, null, null);
-            if (ranges.getRangeCount() != 0)
-            {
-               totalTime = getTotalTime(ranges, startDate, endDate);
-            }
-         }
-         else
-         {
-            //
-            // Find the first working day in the range
-            //
-            Date currentDate = startDate;
-            Calendar cal = Calendar.getInstance();
-            cal.setTime(startDate);
-            Day day = Day.getInstance(cal.get(Calendar.DAY_OF_WEEK));
-            while (isWorkingDate(currentDate, day) == false && currentDate.getTime() < canonicalEndDate.getTime())
-            {
-               cal.add(Calendar.DAY_OF_YEAR, 1);
-               currentDate = cal.getTime();
-               day = day.getNextDay();
-            }
-
-            if (currentDate.getTime() < canonicalEndDate.getTime())
-            {
-               //
-               // Calculate the amount of working time for this day
-               //
-               totalTime += getTotalTime(getRanges(currentDate, null, day), currentDate, true);
-
-               //
-               // Process each working day until we reach the last day
-               //
-               while (true)
-               {
-                  cal.add(Calendar.DAY_OF_YEAR, 1);
-                  currentDate = cal.getTime();
-                  day = day.getNextDay();
-
-                  //
-                  // We have reached the last day
-                  //
-                  if (currentDate.getTime() >= canonicalEndDate.getTime())
-                  {
-                     break;
-                  }
-
-                  //
-                  // Skip this day if it has no working time
-                  //
-                  ProjectCalendarDateRanges ranges = getRanges(currentDate, null, day);
-                  if (ranges.getRangeCount() == 0)
-                  {
-                     continue;
-                  }
-
-                  //
-                  // Add the working time for the whole day
-                  //
-                  totalTime += getTotalTime(ranges);
-               }
-            }
-
-            //
-            // We are now at the last day
-            //
-            ProjectCalendarDateRanges ranges = getRanges(endDate, null, day);
-            if (ranges.getRangeCount() != 0)
-            {
-               totalTime += getTotalTime(ranges, DateHelper.getDayStartDate(endDate), endDate);
-            }
-         }
+         invert = true;
+         Date temp = startDate;
+         startDate = endDate;
+         endDate = temp;
+      }
 
-         if (invert)
-         {
-            totalTime = -totalTime;
-         }
+      TimeZone timeZone = TimeZone.getDefault();
+      long start = ProjectCalendarTimeline.toLocal(timeZone, startDate);
+      long end = ProjectCalendarTimeline.toLocal(timeZone, endDate);
+      ProjectCalendarTimeline timeline = getTimeline(timeZone, ProjectCalendarTimeline.getDay(start), ProjectCalendarTimeline.getDay(end) + 1);
+      long totalTime = timeline.getWork(end) - timeline.getWork(start);
 
-         m_workingDateCache.put(range, Long.valueOf(totalTime));
-      }
-      else
+      if (invert)
       {
-         totalTime = cachedResult.longValue();
+         totalTime = -totalTime;
       }
 
       return convertFormat(totalTime, format);
@@ -1426,26 +1099,6 @@ public final class ProjectCalendar extends ProjectCalendarWeek implements Projec
       return (Duration.getInstance(duration, format));
    }
 
-   /**
-    * Retrieves the amount of time represented by a calendar exception
-    * before or after an intersection point.
-    *
-    * @param exception calendar exception
-    * @param date intersection time
-    * @param after true to report time after intersection, false to report time before
-    * @return length of time in milliseconds
-    */
-   private long getTotalTime(ProjectCalendarDateRanges exception, Date date, boolean after)
-   {
-      long currentTime = DateHelper.getCanonicalTime(date).getTime();
-      long total = 0;
-      for (DateRange range : exception)
-      {
-         total += getTime(range.getStart(), range.getEnd(), currentTime, after);
-      }
-      return (total);
-   }
-
    /**
     * Retrieves the amount of working time represented by
     * a calendar exception.
@@ -1463,118 +1116,6 @@ public final class ProjectCalendar extends ProjectCalendarWeek implements Projec
       return (total);
    }
 
-   /**
-    * This method calculates the total amount of working time in a single
-    * day, which intersects with the supplied time range.
-    *
-    * @param hours collection of working hours in a day
-    * @param startDate time range start
-    * @param endDate time range end
-    * @return length of time in milliseconds
-    */
-   private long getTotalTime(ProjectCalendarDateRanges hours, Date startDate, Date endDate)
-   {
-      long total = 0;
-      if (startDate.getTime() != endDate.getTime())
-      {
-         Date start = DateHelper.getCanonicalTime(startDate);
-         Date end = DateHelper.getCanonicalTime(endDate);
-
-         for (DateRange range : hours)
-         {
-            Date rangeStart = range.getStart();
-            Date rangeEnd = range.getEnd();
-            if (rangeStart != null && rangeEnd != null)
-            {
-               Date canoncialRangeStart = DateHelper.getCanonicalTime(rangeStart);
-               Date canonicalRangeEnd = DateHelper.getCanonicalTime(rangeEnd);
-
-               Date startDay = DateHelper.getDayStartDate(rangeStart);
-               Date finishDay = DateHelper.getDayStartDate(rangeEnd);
-
-               //
-               // Handle the case where the end of the range is at midnight -
-               // this will show up as the start and end days not matching
-               //
-               if (startDay.getTime() != finishDay.getTime())
-               {
-                  Calendar calendar = Calendar.getInstance();
-                  calendar.setTime(canonicalRangeEnd);
-                  calendar.add(Calendar.DAY_OF_YEAR, 1);
-                  canonicalRangeEnd = calendar.getTime();
-               }
-
-               if (canoncialRangeStart.getTime() == canonicalRangeEnd.getTime() && rangeEnd.getTime() > rangeStart.getTime())
-               {
-                  total += (24 * 60 * 60 * 1000);
-               }
-               else
-               {
-                  total += getTime(start, end, canoncialRangeStart, canonicalRangeEnd);
-               }
-            }
-         }
-      }
-
-      return (total);
-   }
-
-   /**
-    * Calculates how much of a time range is before or after a
-    * target intersection point.
-    *
-    * @param start time range start
-    * @param end time range end
-    * @param target target intersection point
-    * @param after true if time after target required, false for time before
-    * @return length of time in milliseconds
-    */
-   private long getTime(Date start, Date end, long target, boolean after)
-   {
-      long total = 0;
-      if (start != null && end != null)
-      {
-         Date startTime = DateHelper.getCanonicalTime(start);
-         Date endTime = DateHelper.getCanonicalTime(end);
-
-         Date startDay = DateHelper.getDayStartDate(start);
-         Date finishDay = DateHelper.getDayStartDate(end);
-
-         //
-         // Handle the case where the end of the range is at midnight -
-         // this will show up as the start and end days not matching
-         //
-         if (startDay.getTime() != finishDay.getTime())
-         {
-            Calendar calendar = Calendar.getInstance();
-            calendar.setTime(endTime);
-            calendar.add(Calendar.DAY_OF_YEAR, 1);
-            endTime = calendar.getTime();
-         }
-
-         int diff = DateHelper.compare(startTime, endTime, target);
-         if (diff == 0)
-         {
-            if (after == true)
-            {
-               total = (endTime.getTime() - target);
-            }
-            else
-            {
-               total = (target - startTime.getTime());
-            }
-         }
-         else
-         {
-            if ((after == true && diff < 0) || (after == false && diff > 0))
-            {
-               total = (endTime.getTime() - startTime.getTime());
-            }
-         }
-      }
-      return (total);
-   }
-
    /**
     * Retrieves the amount of time between two date time values. Note that
     * these values are converted into canonical values to remove the
@@ -1612,52 +1153,6 @@ public final class ProjectCalendar extends ProjectCalendarWeek implements Projec
       return (total);
    }
 
-   /**
-    * This method returns the length of overlapping time between two time
-    * ranges.
-    *
-    * @param start1 start of first range
-    * @param end1 end of first range
-    * @param start2 start start of second range
-    * @param end2 end of second range
-    * @return overlapping time in milliseconds
-    */
-   private long getTime(Date start1, Date end1, Date start2, Date end2)
-   {
-      long total = 0;
-
-      if (start1 != null && end1 != null && start2 != null && end2 != null)
-      {
-         long start;
-         long end;
-
-         if (start1.getTime() < start2.getTime())
-         {
-            start = start2.getTime();
-         }
-         else
-         {
-            start = start1.getTime();
-         }
-
-         if (end1.getTime() < end2.getTime())
-         {
-            end = end1.getTime();
-         }
-         else
-         {
-            end = end2.getTime();
-         }
-
-         if (start < end)
-         {
-            total = end - start;
-         }
-      }
-
-      return (total);
-   }
-
    /**
     * Add a reference to a calendar derived from this one.
     *
@@ -1885,14 +1380,61 @@ public final class ProjectCalendar extends ProjectCalendarWeek implements Projec
       }
    }
 
+   /**
+    * Retrieve a compiled timeline which covers at least the supplied range
+    * of days. The current timeline is returned if it is suitable, otherwise
+    * a new timeline is compiled, covering both the previous and the
+    * requested range, and published for use by subsequent calls.
+    *
+    * @param timeZone time zone used to interpret dates
+    * @param firstDay first day, as a count of days since the epoch
+    * @param lastDay last day (exclusive), as a count of days since the epoch
+    * @return timeline instance
+    */
+   private ProjectCalendarTimeline getTimeline(TimeZone timeZone, int firstDay, int lastDay)
+   {
+      ProjectCalendarTimeline timeline = m_timeline;
+      if (timeline == null || !timeline.covers(firstDay, lastDay) || !timeline.getTimeZone().equals(timeZone))
+      {
+         //
+         // Reading the calendar structure may sort or populate lists on demand,
+         // including those of any base calendars, so we serialise compilation
+         // on the base calendar at the top of the hierarchy.
+         //
+         ProjectCalendar baseCalendar = this;
+         while (baseCalendar.getParent() != null)
+         {
+            baseCalendar = baseCalendar.getParent();
+         }
+
+         synchronized (baseCalendar)
+         {
+            timeline = m_timeline;
+            if (timeline == null || !timeline.covers(firstDay, lastDay) || !timeline.getTimeZone().equals(timeZone))
+            {
+               if (timeline != null && timeline.getTimeZone().equals(timeZone))
+               {
+                  firstDay = Math.min(firstDay, timeline.getFirstDay());
+                  lastDay = Math.max(lastDay, timeline.getLastDay());
+               }
+
+               firstDay = (int) Math.floor((double) firstDay / TIMELINE_BLOCK_DAYS) * TIMELINE_BLOCK_DAYS;
+               lastDay = (int) Math.ceil((double) lastDay / TIMELINE_BLOCK_DAYS) * TIMELINE_BLOCK_DAYS;
+
+               timeline = new ProjectCalendarTimeline(this, timeZone, firstDay, lastDay);
+               m_timeline = timeline;
+            }
+         }
+      }
+      return timeline;
+   }
+
    /**
     * Utility method to clear cached calendar data.
     */
    private void clearWorkingDateCache()
    {
-      m_workingDateCache.clear();
-      m_startTimeCache.clear();
-      m_getDateLastResult = null;
+      m_timeline = null;
       for (ProjectCalendar calendar : m_derivedCalendars)
       {
          calendar.clearWorkingDateCache();
@@ -1907,7 +1449,7 @@ public final class ProjectCalendar extends ProjectCalendarWeek implements Projec
     * @param day optional day instance
     * @return working hours
     */
-   private ProjectCalendarDateRanges getRanges(Date date, Calendar cal, Day day)
+   ProjectCalendarDateRanges getRanges(Date date, Calendar cal, Day day)
    {
       ProjectCalendarDateRanges ranges = getException(date);
       if (ranges == null)
@@ -2044,13 +1586,9 @@ public final class ProjectCalendar extends ProjectCalendarWeek implements Projec
    private ArrayList<ProjectCalendar> m_derivedCalendars = new ArrayList<ProjectCalendar>();
 
    /**
-    * Caches used to speed up date calculations.
+    * Compiled working time used to speed up date calculations.
     */
-   private Map<DateRange, Long> m_workingDateCache = new WeakHashMap<DateRange, Long>();
-   private Map<Date, Date> m_startTimeCache = new WeakHashMap<Date, Date>();
-   private Date m_getDateLastStartDate;
-   private double m_getDateLastRemainingMinutes;
-   private Date m_getDateLastResult;
+   private volatile ProjectCalendarTimeline m_timeline;
 
    /**
     * Work week definitions.
@@ -2075,4 +1613,16 @@ public final class ProjectCalendar extends ProjectCalendarWeek implements Projec
     * and take an alternative approach.
     */
    private static final int MAX_NONWORKING_DAYS = 1000;
+
+   /**
+    * Number of days initially compiled from the start point of a date
+    * calculation. The timeline is extended as required.
+    */
+   private static final int INITIAL_TIMELINE_DAYS = 32;
+
+   /**
+    * Timelines are compiled in blocks of this many days to avoid
+    * recompiling for each small extension.
+    */
+   private static final int TIMELINE_BLOCK_DAYS = 128;
 }
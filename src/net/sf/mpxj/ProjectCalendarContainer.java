@@ -24,6 +24,7 @@
 package net.sf.mpxj;
 
 import java.util.Iterator;
+import java.util.List;
 
 /**
  * Manages the collection of calendars belonging to a project.
@@ -42,6 +43,11 @@ public class ProjectCalendarContainer extends ProjectEntityContainer<ProjectCale
 
    @Override public void removed(ProjectCalendar calendar)
    {
+      if (m_nameIndex != null)
+      {
+         m_nameIndex.remove(calendar.getName(), calendar);
+      }
+
       Resource resource = calendar.getResource();
       if (resource != null)
       {
@@ -123,21 +129,85 @@ public class ProjectCalendarContainer extends ProjectEntityContainer<ProjectCale
 
       if (calendarName != null && calendarName.length() != 0)
       {
-         Iterator<ProjectCalendar> iter = iterator();
-         while (iter.hasNext() == true)
+         if (m_nameIndex == null)
          {
-            calendar = iter.next();
-            String name = calendar.getName();
-
-            if ((name != null) && (name.equalsIgnoreCase(calendarName) == true))
+            m_nameIndex = new EntityIndex<ProjectCalendar>();
+            for (ProjectCalendar item : this)
             {
-               break;
+               m_nameIndex.add(item.getName(), item);
             }
+         }
 
-            calendar = null;
+         List<ProjectCalendar> calendars = m_nameIndex.get(calendarName);
+         if (calendars.size() == 1)
+         {
+            calendar = calendars.get(0);
+         }
+         else
+         {
+            if (!calendars.isEmpty())
+            {
+               //
+               // More than one calendar has this name,
+               // return the first in the container.
+               //
+               Iterator<ProjectCalendar> iter = iterator();
+               while (iter.hasNext() == true)
+               {
+                  calendar = iter.next();
+                  String name = calendar.getName();
+
+                  if ((name != null) && (name.equalsIgnoreCase(calendarName) == true))
+                  {
+                     break;
+                  }
+
+                  calendar = null;
+               }
+            }
          }
       }
 
       return (calendar);
    }
+
+   @Override protected void added(ProjectCalendar calendar)
+   {
+      if (m_nameIndex != null)
+      {
+         m_nameIndex.add(calendar.getName(), calendar);
+      }
+   }
+
+   @Override protected void replaced(ProjectCalendar oldCalendar, ProjectCalendar newCalendar)
+   {
+      if (m_nameIndex != null)
+      {
+         m_nameIndex.remove(oldCalendar.getName(), oldCalendar);
+         m_nameIndex.add(newCalendar.getName(), newCalendar);
+      }
+   }
+
+   @Override public void clear()
+   {
+      m_nameIndex = null;
+      super.clear();
+   }
+
+   /**
+    * Called by a calendar when its name changes, to update the name index.
+    *
+    * @param calendar calendar
+    * @param oldName old calendar name
+    * @param newName new calendar name
+    */
+   void renamed(ProjectCalendar calendar, String oldName, String newName)
+   {
+      if (m_nameIndex != null && m_nameIndex.remove(oldName, calendar))
+      {
+         m_nameIndex.add(newName, calendar);
+      }
+   }
+
+   private EntityIndex<ProjectCalendar> m_nameIndex;
 }
@@ -0,0 +1,461 @@
+/*
+ * file:       ProjectCalendarTimeline.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       16/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Immutable compiled form of a calendar, covering a contiguous range of days.
+ * Each day refers to a shared pattern of working intervals, and a running
+ * total of working time is held for the start of each day. This allows
+ * working time and date calculations to be answered using binary searches
+ * rather than by stepping through the calendar day by day.
+ *
+ * Times are represented as "local" milliseconds, i.e. the wall clock time
+ * in the time zone used to compile the timeline, expressed as milliseconds
+ * since the epoch. This means that every day is exactly 24 hours long,
+ * matching the canonical time arithmetic used elsewhere in ProjectCalendar.
+ *
+ * Instances of this class are never modified once constructed, so they can
+ * safely be shared between threads.
+ */
+final class ProjectCalendarTimeline
+{
+   /**
+    * Constructor. Compiles the working time for the calendar
+    * between the first day (inclusive) and the last day (exclusive).
+    *
+    * @param calendar source calendar
+    * @param timeZone time zone used to interpret dates
+    * @param firstDay first day, as a count of days since the epoch
+    * @param lastDay last day, as a count of days since the epoch
+    */
+   public ProjectCalendarTimeline(ProjectCalendar calendar, TimeZone timeZone, int firstDay, int lastDay)
+   {
+      m_timeZone = timeZone;
+      m_firstDay = firstDay;
+      m_lastDay = lastDay;
+
+      int dayCount = lastDay - firstDay;
+      m_days = new DayPattern[dayCount];
+      m_cumulativeWork = new long[dayCount + 1];
+
+      Calendar cal = Calendar.getInstance(timeZone);
+      cal.setTimeInMillis(toUTC(firstDay * MS_PER_DAY));
+      Calendar timeOfDay = Calendar.getInstance(timeZone);
+      Map<ProjectCalendarDateRanges, DayPattern> patterns = new IdentityHashMap<ProjectCalendarDateRanges, DayPattern>();
+
+      for (int index = 0; index < dayCount; index++)
+      {
+         Date date = cal.getTime();
+         ProjectCalendarDateRanges ranges = calendar.getRanges(date, cal, null);
+         DayPattern pattern = EMPTY_DAY;
+         if (ranges != null)
+         {
+            pattern = patterns.get(ranges);
+            if (pattern == null)
+            {
+               pattern = new DayPattern(ranges, timeOfDay);
+               patterns.put(ranges, pattern);
+            }
+         }
+
+         m_days[index] = pattern;
+         m_cumulativeWork[index + 1] = m_cumulativeWork[index] + pattern.getTotalWork();
+         cal.add(Calendar.DAY_OF_YEAR, 1);
+      }
+   }
+
+   /**
+    * Retrieve the time zone used to compile this timeline.
+    *
+    * @return time zone
+    */
+   public TimeZone getTimeZone()
+   {
+      return m_timeZone;
+   }
+
+   /**
+    * Retrieve the first day covered by this timeline.
+    *
+    * @return first day, as a count of days since the epoch
+    */
+   public int getFirstDay()
+   {
+      return m_firstDay;
+   }
+
+   /**
+    * Retrieve the day after the last day covered by this timeline.
+    *
+    * @return last day (exclusive), as a count of days since the epoch
+    */
+   public int getLastDay()
+   {
+      return m_lastDay;
+   }
+
+   /**
+    * Determine if this timeline covers the supplied range of days.
+    *
+    * @param firstDay first day
+    * @param lastDay last day (exclusive)
+    * @return true if the range of days is covered by this timeline
+    */
+   public boolean covers(int firstDay, int lastDay)
+   {
+      return firstDay >= m_firstDay && lastDay <= m_lastDay;
+   }
+
+   /**
+    * Retrieve the total working time covered by this timeline.
+    *
+    * @return working time in milliseconds
+    */
+   public long getTotalWork()
+   {
+      return m_cumulativeWork[m_cumulativeWork.length - 1];
+   }
+
+   /**
+    * Retrieve the amount of working time between the start of this
+    * timeline and the supplied local time. Note that consistent with
+    * the day by day calculations in ProjectCalendar, working time
+    * is attributed to the day on which the working period starts.
+    *
+    * @param local local time, which must fall within this timeline
+    * @return working time in milliseconds
+    */
+   public long getWork(long local)
+   {
+      int index = getDay(local) - m_firstDay;
+      long dayStart = (m_firstDay + index) * MS_PER_DAY;
+      return m_cumulativeWork[index] + m_days[index].getWorkBefore(local - dayStart);
+   }
+
+   /**
+    * Find the earliest local time at which the supplied amount of working
+    * time has been completed, measured from the start of this timeline.
+    * The caller must ensure that the amount of work is greater than zero and
+    * does not exceed the total work in this timeline.
+    *
+    * @param work working time in milliseconds
+    * @return local time
+    */
+   public long getEarliestTime(long work)
+   {
+      int index = search(m_cumulativeWork, work, false) - 1;
+      long dayStart = (m_firstDay + index) * MS_PER_DAY;
+      return dayStart + m_days[index].getEarliestOffset(work - m_cumulativeWork[index]);
+   }
+
+   /**
+    * Find the latest local time at which the supplied amount of working
+    * time has been completed, measured from the start of this timeline.
+    * Where the work is completed at the end of a working period, this
+    * will be the start of the next working period. The caller must ensure
+    * that the amount of work is less than the total work in this timeline.
+    *
+    * @param work working time in milliseconds
+    * @return local time
+    */
+   public long getLatestTime(long work)
+   {
+      int index = search(m_cumulativeWork, work, true) - 1;
+      long dayStart = (m_firstDay + index) * MS_PER_DAY;
+      return dayStart + m_days[index].getLatestOffset(work - m_cumulativeWork[index]);
+   }
+
+   /**
+    * Convert a date to local time.
+    *
+    * @param date date
+    * @return local time
+    */
+   public long toLocal(Date date)
+   {
+      return toLocal(m_timeZone, date);
+   }
+
+   /**
+    * Convert a local time to a date.
+    *
+    * @param local local time
+    * @return date
+    */
+   public Date toDate(long local)
+   {
+      return new Date(toUTC(local));
+   }
+
+   /**
+    * Convert a date to local time using the supplied time zone.
+    *
+    * @param timeZone time zone
+    * @param date date
+    * @return local time
+    */
+   public static long toLocal(TimeZone timeZone, Date date)
+   {
+      long time = date.getTime();
+      return time + timeZone.getOffset(time);
+   }
+
+   /**
+    * Retrieve the day on which a local time falls.
+    *
+    * @param local local time
+    * @return day, as a count of days since the epoch
+    */
+   public static int getDay(long local)
+   {
+      long day = local / MS_PER_DAY;
+      if (local < 0 && day * MS_PER_DAY != local)
+      {
+         --day;
+      }
+      return (int) day;
+   }
+
+   /**
+    * Convert a local time to UTC.
+    *
+    * @param local local time
+    * @return time in milliseconds since the epoch
+    */
+   private long toUTC(long local)
+   {
+      long utc = local - m_timeZone.getOffset(local - m_timeZone.getRawOffset());
+      int offset = m_timeZone.getOffset(utc);
+      if (utc + offset != local)
+      {
+         utc = local - offset;
+      }
+      return utc;
+   }
+
+   /**
+    * Find the first position in an ascending array of totals whose
+    * value reaches the target value. The first entry in the array is
+    * assumed to be zero and is not considered.
+    *
+    * @param totals ascending totals
+    * @param target target value
+    * @param strict true if the total must exceed the target value, false if it may equal it
+    * @return array index
+    */
+   static int search(long[] totals, long target, boolean strict)
+   {
+      int low = 1;
+      int high = totals.length - 1;
+      while (low < high)
+      {
+         int mid = (low + high) >>> 1;
+         long value = totals[mid];
+         if (strict ? value > target : value >= target)
+         {
+            high = mid;
+         }
+         else
+         {
+            low = mid + 1;
+         }
+      }
+      return low;
+   }
+
+   /**
+    * Working intervals for a single day, expressed as offsets in
+    * milliseconds from midnight. A working period which ends at or after
+    * midnight has an end offset greater than or equal to a full day.
+    */
+   private static final class DayPattern
+   {
+      /**
+       * Constructor used to create an empty day.
+       */
+      public DayPattern()
+      {
+         m_start = new long[0];
+         m_end = new long[0];
+         m_cumulativeWork = new long[1];
+      }
+
+      /**
+       * Constructor.
+       *
+       * @param ranges working hours for this day
+       * @param cal Calendar instance used to extract times of day
+       */
+      public DayPattern(ProjectCalendarDateRanges ranges, Calendar cal)
+      {
+         int rangeCount = ranges.getRangeCount();
+         long[] start = new long[rangeCount];
+         long[] end = new long[rangeCount];
+         int count = 0;
+
+         for (int index = 0; index < rangeCount; index++)
+         {
+            DateRange range = ranges.getRange(index);
+            Date rangeStart = range.getStart();
+            Date rangeEnd = range.getEnd();
+            if (rangeStart == null || rangeEnd == null)
+            {
+               continue;
+            }
+
+            long startOffset = getTimeOfDay(cal, rangeStart);
+            long endOffset = getTimeOfDay(cal, rangeEnd);
+
+            //
+            // Handle the case where the end of the range is at midnight -
+            // this will show up as the start and end days not matching
+            //
+            if (getDay(toLocal(cal.getTimeZone(), rangeStart)) != getDay(toLocal(cal.getTimeZone(), rangeEnd)))
+            {
+               endOffset += MS_PER_DAY;
+            }
+
+            if (endOffset <= startOffset)
+            {
+               continue;
+            }
+
+            //
+            // Insert the interval, keeping them in start order
+            //
+            int position = count;
+            while (position > 0 && start[position - 1] > startOffset)
+            {
+               start[position] = start[position - 1];
+               end[position] = end[position - 1];
+               --position;
+            }
+            start[position] = startOffset;
+            end[position] = endOffset;
+            ++count;
+         }
+
+         m_start = Arrays.copyOf(start, count);
+         m_end = Arrays.copyOf(end, count);
+         m_cumulativeWork = new long[count + 1];
+         for (int index = 0; index < count; index++)
+         {
+            m_cumulativeWork[index + 1] = m_cumulativeWork[index] + (end[index] - start[index]);
+         }
+      }
+
+      /**
+       * Retrieve the total working time in this day.
+       *
+       * @return working time in milliseconds
+       */
+      public long getTotalWork()
+      {
+         return m_cumulativeWork[m_cumulativeWork.length - 1];
+      }
+
+      /**
+       * Retrieve the working time in this day before the supplied offset.
+       *
+       * @param offset offset from midnight in milliseconds
+       * @return working time in milliseconds
+       */
+      public long getWorkBefore(long offset)
+      {
+         long result = 0;
+         int index = Arrays.binarySearch(m_start, offset);
+         if (index < 0)
+         {
+            index = -index - 2;
+         }
+
+         if (index >= 0)
+         {
+            result = m_cumulativeWork[index] + Math.min(offset, m_end[index]) - m_start[index];
+         }
+         return result;
+      }
+
+      /**
+       * Retrieve the earliest offset at which the supplied amount
+       * of work in this day has been completed.
+       *
+       * @param work working time in milliseconds
+       * @return offset from midnight in milliseconds
+       */
+      public long getEarliestOffset(long work)
+      {
+         int index = search(m_cumulativeWork, work, false) - 1;
+         return m_start[index] + work - m_cumulativeWork[index];
+      }
+
+      /**
+       * Retrieve the latest offset at which the supplied amount
+       * of work in this day has been completed.
+       *
+       * @param work working time in milliseconds
+       * @return offset from midnight in milliseconds
+       */
+      public long getLatestOffset(long work)
+      {
+         int index = search(m_cumulativeWork, work, true) - 1;
+         return m_start[index] + work - m_cumulativeWork[index];
+      }
+
+      /**
+       * Retrieve the time of day represented by a date as an offset
+       * in milliseconds from midnight. Consistent with canonical
+       * times, milliseconds are ignored.
+       *
+       * @param cal Calendar instance
+       * @param date date
+       * @return offset from midnight in milliseconds
+       */
+      private static long getTimeOfDay(Calendar cal, Date date)
+      {
+         cal.setTime(date);
+         return (cal.get(Calendar.HOUR_OF_DAY) * 60L + cal.get(Calendar.MINUTE)) * 60000L + cal.get(Calendar.SECOND) * 1000L;
+      }
+
+      private final long[] m_start;
+      private final long[] m_end;
+      private final long[] m_cumulativeWork;
+   }
+
+   private final TimeZone m_timeZone;
+   private final int m_firstDay;
+   private final int m_lastDay;
+   private final DayPattern[] m_days;
+   private final long[] m_cumulativeWork;
+
+   static final long MS_PER_DAY = 24L * 60L * 60L * 1000L;
+   private static final DayPattern EMPTY_DAY = new DayPattern();
+}
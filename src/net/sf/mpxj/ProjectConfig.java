@@ -289,6 +289,34 @@ public class ProjectConfig
       return ++m_resourceID;
    }
 
+   /**
+    * Retrieve the factory used to create field storage for new tasks,
+    * resources and assignments.
+    *
+    * @return field storage factory
+    */
+   public FieldStorageFactory getFieldStorageFactory()
+   {
+      return m_fieldStorageFactory;
+   }
+
+   /**
+    * Set the factory used to create field storage for new tasks,
+    * resources and assignments. By default each entity holds an array
+    * with a slot for every field. CompactFieldStorage.FACTORY may be
+    * used instead to reduce memory consumption, as only populated
+    * fields are held. Note that compact storage returns a new Date
+    * or Double instance each time one of these values is retrieved.
+    * Entities which have already been created are not affected by
+    * this setting.
+    *
+    * @param factory field storage factory, or null to use the default
+    */
+   public void setFieldStorageFactory(FieldStorageFactory factory)
+   {
+      m_fieldStorageFactory = factory == null ? ArrayFieldStorage.FACTORY : factory;
+   }
+
    /**
     * This method is called to ensure that after a project file has been
     * read, the cached unique ID values used to generate new unique IDs
@@ -401,6 +429,11 @@ public class ProjectConfig
     */
    private boolean m_autoResourceID = true;
 
+   /**
+    * Factory used to create the field storage for tasks, resources and assignments.
+    */
+   private FieldStorageFactory m_fieldStorageFactory = ArrayFieldStorage.FACTORY;
+
    /**
     * Counter used to populate the unique ID field of a task.
     */
@@ -24,6 +24,7 @@
 package net.sf.mpxj;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import net.sf.mpxj.common.NumberHelper;
@@ -41,8 +42,20 @@ public abstract class ProjectEntityContainer<T extends ProjectEntityWithUniqueID
     * @param projectFile parent project
     */
    public ProjectEntityContainer(ProjectFile projectFile)
+   {
+      this(projectFile, false);
+   }
+
+   /**
+    * Constructor.
+    *
+    * @param projectFile parent project
+    * @param indexed true if the entities implement FieldContainer and may be indexed by field value
+    */
+   protected ProjectEntityContainer(ProjectFile projectFile, boolean indexed)
    {
       m_projectFile = projectFile;
+      m_fieldIndexes = indexed ? new FieldIndexes<T>() : null;
    }
 
    /**
@@ -118,8 +131,96 @@ public abstract class ProjectEntityContainer<T extends ProjectEntityWithUniqueID
       m_uniqueIDMap.put(id, entity);
    }
 
+   /**
+    * Maintain an index of the entities in this container by the value of
+    * the supplied field.
+    *
+    * @param field field to index
+    */
+   protected void addFieldIndex(FieldType field)
+   {
+      m_fieldIndexes.addIndex(this, field);
+   }
+
+   /**
+    * Discard the index for the supplied field, if one is present.
+    *
+    * @param field indexed field
+    */
+   protected void removeFieldIndex(FieldType field)
+   {
+      m_fieldIndexes.removeIndex(this, field);
+   }
+
+   /**
+    * Retrieve the entities with the supplied field value.
+    *
+    * @param field field type
+    * @param value field value
+    * @return list of matching entities, empty if none match
+    */
+   protected List<T> getEntitiesByFieldValue(FieldType field, Object value)
+   {
+      return m_fieldIndexes.getByFieldValue(this, field, value);
+   }
+
+   @Override public T set(int index, T element)
+   {
+      T oldElement = super.set(index, element);
+      if (m_fieldIndexes != null)
+      {
+         m_fieldIndexes.remove(oldElement);
+         m_fieldIndexes.add(element);
+      }
+      return oldElement;
+   }
+
+   @Override public boolean add(T e)
+   {
+      boolean result = super.add(e);
+      if (m_fieldIndexes != null)
+      {
+         m_fieldIndexes.add(e);
+      }
+      return result;
+   }
+
+   @Override public void add(int index, T element)
+   {
+      super.add(index, element);
+      if (m_fieldIndexes != null)
+      {
+         m_fieldIndexes.add(element);
+      }
+   }
+
+   @Override public T remove(int index)
+   {
+      T element = get(index);
+      if (m_fieldIndexes != null)
+      {
+         m_fieldIndexes.remove(element);
+      }
+      return super.remove(index);
+   }
+
+   /**
+    * Clear the list, but don't explicitly "remove" the contents.
+    * Any indexes are emptied, but remain in place for entities which
+    * are subsequently added.
+    */
+   @Override public void clear()
+   {
+      if (m_fieldIndexes != null)
+      {
+         m_fieldIndexes.clear(this);
+      }
+      super.clear();
+   }
+
    protected final ProjectFile m_projectFile;
    protected Map<Integer, T> m_uniqueIDMap = new HashMap<Integer, T>();
+   private final FieldIndexes<T> m_fieldIndexes;
 
    /**
     * Maximum unique ID value MS Project will accept.
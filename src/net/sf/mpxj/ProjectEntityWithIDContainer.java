@@ -46,6 +46,17 @@ public abstract class ProjectEntityWithIDContainer<T extends ProjectEntityWithID
       super(projectFile);
    }
 
+   /**
+    * Constructor.
+    *
+    * @param projectFile parent project
+    * @param indexed true if the entities may be indexed by field value
+    */
+   protected ProjectEntityWithIDContainer(ProjectFile projectFile, boolean indexed)
+   {
+      super(projectFile, indexed);
+   }
+
    /**
     * This method can be called to ensure that the IDs of all
     * entities are sequential, and start from an
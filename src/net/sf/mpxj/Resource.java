@@ -48,6 +48,7 @@ public final class Resource extends ProjectEntity implements Comparable<Resource
    Resource(ProjectFile file)
    {
       super(file);
+      m_fields = file.getProjectConfig().getFieldStorageFactory().newFieldStorage(FieldTypeClass.RESOURCE, ResourceField.MAX_VALUE);
 
       setType(ResourceType.WORK);
       ProjectConfig config = file.getProjectConfig();
@@ -2284,7 +2285,18 @@ public final class Resource extends ProjectEntity implements Comparable<Resource
     */
    @Override public Object getCachedValue(FieldType field)
    {
-      return (field == null ? null : m_array[field.getValue()]);
+      Object result = null;
+      if (field != null)
+      {
+         int index = field.getValue();
+         result = m_fields.get(index);
+         if (result instanceof LazyFieldValue)
+         {
+            result = ((LazyFieldValue) result).getValue(field);
+            m_fields.set(index, result);
+         }
+      }
+      return result;
    }
 
    /**
@@ -2332,7 +2344,7 @@ public final class Resource extends ProjectEntity implements Comparable<Resource
 
             default:
             {
-               result = m_array[field.getValue()];
+               result = getCachedValue(field);
                break;
             }
          }
@@ -2351,9 +2363,9 @@ public final class Resource extends ProjectEntity implements Comparable<Resource
          int index = field.getValue();
          if (m_eventsEnabled)
          {
-            fireFieldChangeEvent((ResourceField) field, m_array[index], value);
+            fireFieldChangeEvent((ResourceField) field, getCachedValue(field), value);
          }
-         m_array[index] = value;
+         m_fields.set(index, value);
       }
    }
 
@@ -2395,35 +2407,35 @@ public final class Resource extends ProjectEntity implements Comparable<Resource
          case COST:
          case BASELINE_COST:
          {
-            m_array[ResourceField.COST_VARIANCE.getValue()] = null;
+            m_fields.set(ResourceField.COST_VARIANCE.getValue(), null);
             break;
          }
 
          case WORK:
          case BASELINE_WORK:
          {
-            m_array[ResourceField.WORK_VARIANCE.getValue()] = null;
+            m_fields.set(ResourceField.WORK_VARIANCE.getValue(), null);
             break;
          }
 
          case BCWP:
          case ACWP:
          {
-            m_array[ResourceField.CV.getValue()] = null;
-            m_array[ResourceField.SV.getValue()] = null;
+            m_fields.set(ResourceField.CV.getValue(), null);
+            m_fields.set(ResourceField.SV.getValue(), null);
             break;
          }
 
          case BCWS:
          {
-            m_array[ResourceField.SV.getValue()] = null;
+            m_fields.set(ResourceField.SV.getValue(), null);
             break;
          }
 
          case PEAK:
          case MAX_UNITS:
          {
-            m_array[ResourceField.OVERALLOCATED.getValue()] = null;
+            m_fields.set(ResourceField.OVERALLOCATED.getValue(), null);
             break;
          }
 
@@ -2545,7 +2557,7 @@ public final class Resource extends ProjectEntity implements Comparable<Resource
    /**
     * Array of field values.
     */
-   private Object[] m_array = new Object[ResourceField.MAX_VALUE];
+   private final FieldStorage m_fields;
 
    /**
     * List of all assignments for this resource.
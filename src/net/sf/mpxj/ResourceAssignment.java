@@ -51,6 +51,7 @@ public final class ResourceAssignment extends ProjectEntity implements ProjectEn
    public ResourceAssignment(ProjectFile file, Task task)
    {
       super(file);
+      m_fields = file.getProjectConfig().getFieldStorageFactory().newFieldStorage(FieldTypeClass.ASSIGNMENT, AssignmentField.MAX_VALUE);
 
       if (file.getProjectConfig().getAutoAssignmentUniqueID() == true)
       {
@@ -536,7 +537,8 @@ public final class ResourceAssignment extends ProjectEntity implements ProjectEn
 
    /**
     * Retrieves the timephased breakdown of the completed work for this
-    * resource assignment.
+    * resource assignment. As with {@link #getTimephasedWork()}, items
+    * are created as they are retrieved from the list.
     *
     * @return timephased completed work
     */
@@ -558,7 +560,10 @@ public final class ResourceAssignment extends ProjectEntity implements ProjectEn
 
    /**
     * Retrieves the timephased breakdown of the planned work for this
-    * resource assignment.
+    * resource assignment. The timephased data is held in a compact form,
+    * and each TimephasedWork instance is created when it is retrieved from
+    * the list. Changes made to a retrieved item are therefore not retained
+    * unless the item is stored back using the list's set method.
     *
     * @return timephased planned work
     */
@@ -580,7 +585,8 @@ public final class ResourceAssignment extends ProjectEntity implements ProjectEn
 
    /**
     * Retrieves the timephased breakdown of the planned overtime work for this
-    * resource assignment.
+    * resource assignment. As with {@link #getTimephasedWork()}, items
+    * are created as they are retrieved from the list.
     *
     * @return timephased planned work
     */
@@ -612,7 +618,8 @@ public final class ResourceAssignment extends ProjectEntity implements ProjectEn
 
    /**
     * Retrieves the timephased breakdown of the actual overtime work for this
-    * resource assignment.
+    * resource assignment. As with {@link #getTimephasedWork()}, items
+    * are created as they are retrieved from the list.
     *
     * @return timephased planned work
     */
@@ -622,7 +629,10 @@ public final class ResourceAssignment extends ProjectEntity implements ProjectEn
    }
 
    /**
-    * Retrieves the timephased breakdown of cost.
+    * Retrieves the timephased breakdown of cost. Each TimephasedCost
+    * instance is created when it is retrieved from the list, so changes
+    * made to an item are only retained if it is stored back using
+    * the list's set method.
     *
     * @return timephased cost
     */
@@ -658,7 +668,9 @@ public final class ResourceAssignment extends ProjectEntity implements ProjectEn
    }
 
    /**
-    * Retrieves the timephased breakdown of actual cost.
+    * Retrieves the timephased breakdown of actual cost. As with
+    * {@link #getTimephasedCost()}, items are created as they are
+    * retrieved from the list.
     *
     * @return timephased actual cost
     */
@@ -704,7 +716,7 @@ public final class ResourceAssignment extends ProjectEntity implements ProjectEn
     */
    private List<TimephasedCost> getTimephasedCostSingleRate(List<TimephasedWork> standardWorkList, List<TimephasedWork> overtimeWorkList)
    {
-      List<TimephasedCost> result = new LinkedList<TimephasedCost>();
+      List<TimephasedCost> result = new TimephasedCostSeries();
 
       //just return an empty list if there is no timephased work passed in
       if (standardWorkList == null)
@@ -845,7 +857,7 @@ public final class ResourceAssignment extends ProjectEntity implements ProjectEn
     */
    private List<TimephasedCost> getTimephasedCostFixedAmount()
    {
-      List<TimephasedCost> result = new LinkedList<TimephasedCost>();
+      List<TimephasedCost> result = new TimephasedCostSeries();
 
       ProjectCalendar cal = getCalendar();
 
@@ -919,7 +931,7 @@ public final class ResourceAssignment extends ProjectEntity implements ProjectEn
     */
    private List<TimephasedCost> getTimephasedActualCostFixedAmount()
    {
-      List<TimephasedCost> result = new LinkedList<TimephasedCost>();
+      List<TimephasedCost> result = new TimephasedCostSeries();
 
       double actualCost = getActualCost().doubleValue();
 
@@ -1212,7 +1224,8 @@ public final class ResourceAssignment extends ProjectEntity implements ProjectEn
 
    /**
     * Retrieve timephased baseline work. Note that index 0 represents "Baseline",
-    * index 1 represents "Baseline1" and so on.
+    * index 1 represents "Baseline1" and so on. As with {@link #getTimephasedWork()},
+    * items are created as they are retrieved from the list.
     *
     * @param index baseline index
     * @return timephased work, or null if no baseline is present
@@ -1224,7 +1237,8 @@ public final class ResourceAssignment extends ProjectEntity implements ProjectEn
 
    /**
     * Retrieve timephased baseline cost. Note that index 0 represents "Baseline",
-    * index 1 represents "Baseline1" and so on.
+    * index 1 represents "Baseline1" and so on. As with {@link #getTimephasedCost()},
+    * items are created as they are retrieved from the list.
     *
     * @param index baseline index
     * @return timephased work, or null if no baseline is present
@@ -2707,9 +2721,9 @@ public final class ResourceAssignment extends ProjectEntity implements ProjectEn
          int index = field.getValue();
          if (m_eventsEnabled)
          {
-            fireFieldChangeEvent((AssignmentField) field, m_array[index], value);
+            fireFieldChangeEvent((AssignmentField) field, getCachedValue(field), value);
          }
-         m_array[index] = value;
+         m_fields.set(index, value);
       }
    }
 
@@ -2743,43 +2757,43 @@ public final class ResourceAssignment extends ProjectEntity implements ProjectEn
          case START:
          case BASELINE_START:
          {
-            m_array[AssignmentField.START_VARIANCE.getValue()] = null;
+            m_fields.set(AssignmentField.START_VARIANCE.getValue(), null);
             break;
          }
 
          case FINISH:
          case BASELINE_FINISH:
          {
-            m_array[AssignmentField.FINISH_VARIANCE.getValue()] = null;
+            m_fields.set(AssignmentField.FINISH_VARIANCE.getValue(), null);
             break;
          }
 
          case BCWP:
          case ACWP:
          {
-            m_array[AssignmentField.CV.getValue()] = null;
-            m_array[AssignmentField.SV.getValue()] = null;
+            m_fields.set(AssignmentField.CV.getValue(), null);
+            m_fields.set(AssignmentField.SV.getValue(), null);
             break;
          }
 
          case COST:
          case BASELINE_COST:
          {
-            m_array[AssignmentField.COST_VARIANCE.getValue()] = null;
+            m_fields.set(AssignmentField.COST_VARIANCE.getValue(), null);
             break;
          }
 
          case WORK:
          case BASELINE_WORK:
          {
-            m_array[AssignmentField.WORK_VARIANCE.getValue()] = null;
+            m_fields.set(AssignmentField.WORK_VARIANCE.getValue(), null);
             break;
          }
 
          case ACTUAL_OVERTIME_COST:
          case REMAINING_OVERTIME_COST:
          {
-            m_array[AssignmentField.OVERTIME_COST.getValue()] = null;
+            m_fields.set(AssignmentField.OVERTIME_COST.getValue(), null);
             break;
          }
 
@@ -2829,7 +2843,18 @@ public final class ResourceAssignment extends ProjectEntity implements ProjectEn
     */
    @Override public Object getCachedValue(FieldType field)
    {
-      return (field == null ? null : m_array[field.getValue()]);
+      Object result = null;
+      if (field != null)
+      {
+         int index = field.getValue();
+         result = m_fields.get(index);
+         if (result instanceof LazyFieldValue)
+         {
+            result = ((LazyFieldValue) result).getValue(field);
+            m_fields.set(index, result);
+         }
+      }
+      return result;
    }
 
    /**
@@ -2841,9 +2866,7 @@ public final class ResourceAssignment extends ProjectEntity implements ProjectEn
 
       if (field != null)
       {
-         int fieldValue = field.getValue();
-
-         result = m_array[fieldValue];
+         result = getCachedValue(field);
       }
 
       return (result);
@@ -2868,7 +2891,7 @@ public final class ResourceAssignment extends ProjectEntity implements ProjectEn
    /**
     * Array of field values.
     */
-   private Object[] m_array = new Object[AssignmentField.MAX_VALUE];
+   private final FieldStorage m_fields;
 
    private boolean m_eventsEnabled = true;
 
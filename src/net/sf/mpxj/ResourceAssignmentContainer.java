@@ -23,6 +23,8 @@
 
 package net.sf.mpxj;
 
+import java.util.List;
+
 /**
  * Manages the collection of resource assignments belonging to a project.
  */
@@ -35,7 +37,7 @@ public class ResourceAssignmentContainer extends ProjectEntityContainer<Resource
     */
    public ResourceAssignmentContainer(ProjectFile projectFile)
    {
-      super(projectFile);
+      super(projectFile, true);
    }
 
    @Override public void removed(ResourceAssignment assignment)
@@ -47,4 +49,40 @@ public class ResourceAssignmentContainer extends ProjectEntityContainer<Resource
          resource.removeResourceAssignment(assignment);
       }
    }
+
+   /**
+    * Maintain an index of assignments by the value of the supplied field,
+    * for example a GUID or custom field. Indexes behave in the same way as
+    * those created by {@link TaskContainer#addIndex(TaskField)}.
+    *
+    * @param field field to index
+    */
+   public void addIndex(AssignmentField field)
+   {
+      addFieldIndex(field);
+   }
+
+   /**
+    * Discard the index for the supplied field, if one is present.
+    *
+    * @param field indexed field
+    */
+   public void removeIndex(AssignmentField field)
+   {
+      removeFieldIndex(field);
+   }
+
+   /**
+    * Retrieve the assignments with the supplied field value. An index is
+    * used if one has been created for the field, otherwise each assignment
+    * is examined. String values are matched without regard to case.
+    *
+    * @param field field type
+    * @param value field value
+    * @return list of matching assignments, empty if none match
+    */
+   public List<ResourceAssignment> getByFieldValue(AssignmentField field, Object value)
+   {
+      return getEntitiesByFieldValue(field, value);
+   }
 }
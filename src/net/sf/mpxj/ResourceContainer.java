@@ -24,6 +24,7 @@
 package net.sf.mpxj;
 
 import java.util.Iterator;
+import java.util.List;
 
 import net.sf.mpxj.common.NumberHelper;
 
@@ -39,7 +40,7 @@ public class ResourceContainer extends ProjectEntityWithIDContainer<Resource>
     */
    public ResourceContainer(ProjectFile projectFile)
    {
-      super(projectFile);
+      super(projectFile, true);
    }
 
    @Override public void removed(Resource resource)
@@ -77,4 +78,40 @@ public class ResourceContainer extends ProjectEntityWithIDContainer<Resource>
       add(resource);
       return (resource);
    }
+
+   /**
+    * Maintain an index of resources by the value of the supplied field.
+    * Indexes behave in the same way as those created by
+    * {@link TaskContainer#addIndex(TaskField)}.
+    *
+    * @param field field to index
+    */
+   public void addIndex(ResourceField field)
+   {
+      addFieldIndex(field);
+   }
+
+   /**
+    * Discard the index for the supplied field, if one is present.
+    *
+    * @param field indexed field
+    */
+   public void removeIndex(ResourceField field)
+   {
+      removeFieldIndex(field);
+   }
+
+   /**
+    * Retrieve the resources with the supplied field value, using an index
+    * if one has been created for the field. String values are matched
+    * without regard to case.
+    *
+    * @param field field type
+    * @param value field value
+    * @return list of matching resources, empty if none match
+    */
+   public List<Resource> getByFieldValue(ResourceField field, Object value)
+   {
+      return getEntitiesByFieldValue(field, value);
+   }
 }
@@ -50,6 +50,7 @@ public final class Task extends ProjectEntity implements Comparable<Task>, Proje
    Task(ProjectFile file, Task parent)
    {
       super(file);
+      m_fields = file.getProjectConfig().getFieldStorageFactory().newFieldStorage(FieldTypeClass.TASK, TaskField.MAX_VALUE);
 
       setType(TaskType.FIXED_UNITS);
       setConstraintType(ConstraintType.AS_SOON_AS_POSSIBLE);
@@ -57,8 +58,6 @@ public final class Task extends ProjectEntity implements Comparable<Task>, Proje
       setActive(true);
       set(TaskField.PREDECESSORS, new LinkedList<Relation>());
       set(TaskField.SUCCESSORS, new LinkedList<Relation>());
-      //      m_array[TaskField.PREDECESSORS.getValue()] = new LinkedList<Relation>();
-      //      m_array[TaskField.SUCCESSORS.getValue()] = new LinkedList<Relation>();
 
       m_parent = parent;
       ProjectConfig config = file.getProjectConfig();
@@ -4621,7 +4620,18 @@ public final class Task extends ProjectEntity implements Comparable<Task>, Proje
     */
    @Override public Object getCachedValue(FieldType field)
    {
-      return (field == null ? null : m_array[field.getValue()]);
+      Object result = null;
+      if (field != null)
+      {
+         int index = field.getValue();
+         result = m_fields.get(index);
+         if (result instanceof LazyFieldValue)
+         {
+            result = ((LazyFieldValue) result).getValue(field);
+            m_fields.set(index, result);
+         }
+      }
+      return result;
    }
 
    /**
@@ -4715,7 +4725,7 @@ public final class Task extends ProjectEntity implements Comparable<Task>, Proje
 
             default:
             {
-               result = m_array[field.getValue()];
+               result = getCachedValue(field);
                break;
             }
          }
@@ -4734,9 +4744,9 @@ public final class Task extends ProjectEntity implements Comparable<Task>, Proje
          int index = field.getValue();
          if (m_eventsEnabled)
          {
-            fireFieldChangeEvent((TaskField) field, m_array[index], value);
+            fireFieldChangeEvent((TaskField) field, getCachedValue(field), value);
          }
-         m_array[index] = value;
+         m_fields.set(index, value);
       }
    }
 
@@ -4770,88 +4780,88 @@ public final class Task extends ProjectEntity implements Comparable<Task>, Proje
          case START:
          case BASELINE_START:
          {
-            m_array[TaskField.START_VARIANCE.getValue()] = null;
+            m_fields.set(TaskField.START_VARIANCE.getValue(), null);
             break;
          }
 
          case FINISH:
          case BASELINE_FINISH:
          {
-            m_array[TaskField.FINISH_VARIANCE.getValue()] = null;
+            m_fields.set(TaskField.FINISH_VARIANCE.getValue(), null);
             break;
          }
 
          case COST:
          case BASELINE_COST:
          {
-            m_array[TaskField.COST_VARIANCE.getValue()] = null;
+            m_fields.set(TaskField.COST_VARIANCE.getValue(), null);
             break;
          }
 
          case DURATION:
          {
-            m_array[TaskField.DURATION_VARIANCE.getValue()] = null;
-            m_array[TaskField.COMPLETE_THROUGH.getValue()] = null;
+            m_fields.set(TaskField.DURATION_VARIANCE.getValue(), null);
+            m_fields.set(TaskField.COMPLETE_THROUGH.getValue(), null);
             break;
          }
 
          case BASELINE_DURATION:
          {
-            m_array[TaskField.DURATION_VARIANCE.getValue()] = null;
+            m_fields.set(TaskField.DURATION_VARIANCE.getValue(), null);
             break;
          }
 
          case WORK:
          case BASELINE_WORK:
          {
-            m_array[TaskField.WORK_VARIANCE.getValue()] = null;
+            m_fields.set(TaskField.WORK_VARIANCE.getValue(), null);
             break;
          }
 
          case BCWP:
          case ACWP:
          {
-            m_array[TaskField.CV.getValue()] = null;
-            m_array[TaskField.SV.getValue()] = null;
+            m_fields.set(TaskField.CV.getValue(), null);
+            m_fields.set(TaskField.SV.getValue(), null);
             break;
          }
 
          case BCWS:
          {
-            m_array[TaskField.SV.getValue()] = null;
+            m_fields.set(TaskField.SV.getValue(), null);
             break;
          }
 
          case START_SLACK:
          case FINISH_SLACK:
          {
-            m_array[TaskField.TOTAL_SLACK.getValue()] = null;
-            m_array[TaskField.CRITICAL.getValue()] = null;
+            m_fields.set(TaskField.TOTAL_SLACK.getValue(), null);
+            m_fields.set(TaskField.CRITICAL.getValue(), null);
             break;
          }
 
          case EARLY_FINISH:
          case LATE_FINISH:
          {
-            m_array[TaskField.FINISH_SLACK.getValue()] = null;
-            m_array[TaskField.TOTAL_SLACK.getValue()] = null;
-            m_array[TaskField.CRITICAL.getValue()] = null;
+            m_fields.set(TaskField.FINISH_SLACK.getValue(), null);
+            m_fields.set(TaskField.TOTAL_SLACK.getValue(), null);
+            m_fields.set(TaskField.CRITICAL.getValue(), null);
             break;
          }
 
          case EARLY_START:
          case LATE_START:
          {
-            m_array[TaskField.START_SLACK.getValue()] = null;
-            m_array[TaskField.TOTAL_SLACK.getValue()] = null;
-            m_array[TaskField.CRITICAL.getValue()] = null;
+            m_fields.set(TaskField.START_SLACK.getValue(), null);
+            m_fields.set(TaskField.TOTAL_SLACK.getValue(), null);
+            m_fields.set(TaskField.CRITICAL.getValue(), null);
             break;
          }
 
          case ACTUAL_START:
          case PERCENT_COMPLETE:
          {
-            m_array[TaskField.COMPLETE_THROUGH.getValue()] = null;
+            m_fields.set(TaskField.COMPLETE_THROUGH.getValue(), null);
             break;
          }
 
@@ -4980,7 +4990,7 @@ public final class Task extends ProjectEntity implements Comparable<Task>, Proje
    /**
     * Array of field values.
     */
-   private Object[] m_array = new Object[TaskField.MAX_VALUE];
+   private final FieldStorage m_fields;
 
    /**
     * This is a reference to the parent task, as specified by the
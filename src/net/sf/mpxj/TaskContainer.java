@@ -41,7 +41,7 @@ public class TaskContainer extends ProjectEntityWithIDContainer<Task>
     */
    public TaskContainer(ProjectFile projectFile)
    {
-      super(projectFile);
+      super(projectFile, true);
    }
 
    /**
@@ -238,4 +238,45 @@ public class TaskContainer extends ProjectEntityWithIDContainer<Task>
       Task firstEntity = getByID(Integer.valueOf(0));
       return firstEntity == null ? 1 : 0;
    }
+
+   /**
+    * Maintain an index of the tasks in this container by the value
+    * of the supplied field, for example a name, GUID or custom field.
+    * String values are matched without regard to case. Once created, the index
+    * is kept up to date as tasks are added, removed or replaced, and as
+    * the value of the field changes. Note that changes made while events
+    * are disabled for a task are not reflected in the index.
+    *
+    * @param field field to index
+    */
+   public void addIndex(TaskField field)
+   {
+      addFieldIndex(field);
+   }
+
+   /**
+    * Discard the index for the supplied field, if one is present.
+    *
+    * @param field indexed field
+    */
+   public void removeIndex(TaskField field)
+   {
+      removeFieldIndex(field);
+   }
+
+   /**
+    * Retrieve the tasks with the supplied field value. If an index has been
+    * created for the field, the index is used, otherwise each task is
+    * examined in turn. String values are matched without regard to case.
+    * Where an index is used, the order of the tasks in the returned list
+    * may not match the order of this container.
+    *
+    * @param field field type
+    * @param value field value
+    * @return list of matching tasks, empty if none match
+    */
+   public List<Task> getByFieldValue(TaskField field, Object value)
+   {
+      return getEntitiesByFieldValue(field, value);
+   }
 }
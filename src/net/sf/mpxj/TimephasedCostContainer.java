@@ -31,7 +31,9 @@ import java.util.List;
 public interface TimephasedCostContainer
 {
    /**
-    * Retrieves the timephased data.
+    * Retrieves the timephased data. Where the data is held as a
+    * TimephasedCostSeries, items are created as they are retrieved from the list,
+    * and changes to an item must be stored back using the list's set method.
     *
     * @return timephased data
     */
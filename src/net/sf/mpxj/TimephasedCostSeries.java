@@ -0,0 +1,170 @@
+/*
+ * file:       TimephasedCostSeries.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       17/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj;
+
+import java.util.Collection;
+
+/**
+ * Compact storage for a series of timephased cost items.
+ */
+public final class TimephasedCostSeries extends AbstractTimephasedSeries<TimephasedCost>
+{
+   /**
+    * Default constructor.
+    */
+   public TimephasedCostSeries()
+   {
+      this(DEFAULT_CAPACITY);
+   }
+
+   /**
+    * Constructor.
+    *
+    * @param capacity initial capacity
+    */
+   public TimephasedCostSeries(int capacity)
+   {
+      super(capacity);
+   }
+
+   /**
+    * Constructor, populating the series from a collection of items.
+    *
+    * @param items timephased cost items
+    */
+   public TimephasedCostSeries(Collection<TimephasedCost> items)
+   {
+      this(items.size());
+      addAll(items);
+   }
+
+   /**
+    * Add an item to the end of the series.
+    *
+    * @param start start date in milliseconds
+    * @param finish finish date in milliseconds
+    * @param totalAmount total amount, or Double.NaN if not known
+    * @param amountPerDay amount per day, or Double.NaN if not known
+    * @return index of the new item
+    */
+   public int add(long start, long finish, double totalAmount, double amountPerDay)
+   {
+      int index = addItem(start, finish);
+      setTotalAmountValue(index, totalAmount);
+      setAmountPerDayValue(index, amountPerDay);
+      return index;
+   }
+
+   /**
+    * Add an item to the end of the series, copying the values of an item
+    * from another series.
+    *
+    * @param series source series
+    * @param sourceIndex index of the item to copy
+    * @return index of the new item
+    */
+   public int add(TimephasedCostSeries series, int sourceIndex)
+   {
+      return addItem(series, sourceIndex);
+   }
+
+   /**
+    * Set the total amount of an item.
+    *
+    * @param index item index
+    * @param value total amount, or Double.NaN if not set
+    */
+   public void setTotalAmount(int index, double value)
+   {
+      setTotalAmountValue(index, value);
+   }
+
+   /**
+    * Set the amount per day of an item.
+    *
+    * @param index item index
+    * @param value amount per day, or Double.NaN if not set
+    */
+   public void setAmountPerDay(int index, double value)
+   {
+      setAmountPerDayValue(index, value);
+   }
+
+   /**
+    * Replace the contents of this series with the contents of another.
+    * The other series should not be used once this method has been called.
+    *
+    * @param series source series
+    */
+   public void replaceWith(TimephasedCostSeries series)
+   {
+      super.replaceWith(series);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override protected TimephasedCost createItem(int index)
+   {
+      TimephasedCost item = new TimephasedCost();
+      populateItem(index, item);
+      item.setTotalAmount(getNumber(getTotalAmountValue(index)));
+      item.setAmountPerDay(getNumber(getAmountPerDayValue(index)));
+      return item;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override protected void storeItem(int index, TimephasedCost item)
+   {
+      storeDates(index, item);
+      setTotalAmountValue(index, getValue(item.getTotalAmount()));
+      setAmountPerDayValue(index, getValue(item.getAmountPerDay()));
+   }
+
+   /**
+    * Convert a stored value to a Number.
+    *
+    * @param value stored value
+    * @return Number instance, or null if the value is not set
+    */
+   private Number getNumber(double value)
+   {
+      return Double.isNaN(value) ? null : Double.valueOf(value);
+   }
+
+   /**
+    * Convert a Number to a stored value.
+    *
+    * @param value Number instance
+    * @return stored value
+    */
+   private double getValue(Number value)
+   {
+      return value == null ? Double.NaN : value.doubleValue();
+   }
+
+   private static final int DEFAULT_CAPACITY = 8;
+}
@@ -0,0 +1,247 @@
+/*
+ * file:       TimephasedWorkSeries.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       17/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Compact storage for a series of timephased work items.
+ */
+public final class TimephasedWorkSeries extends AbstractTimephasedSeries<TimephasedWork>
+{
+   /**
+    * Default constructor.
+    */
+   public TimephasedWorkSeries()
+   {
+      this(DEFAULT_CAPACITY);
+   }
+
+   /**
+    * Constructor.
+    *
+    * @param capacity initial capacity
+    */
+   public TimephasedWorkSeries(int capacity)
+   {
+      super(capacity);
+   }
+
+   /**
+    * Constructor, populating the series from a collection of items.
+    *
+    * @param items timephased work items
+    */
+   public TimephasedWorkSeries(Collection<TimephasedWork> items)
+   {
+      this(items.size());
+      addAll(items);
+   }
+
+   /**
+    * Add an item to the end of the series.
+    *
+    * @param start start date in milliseconds
+    * @param finish finish date in milliseconds
+    * @param totalAmount total amount, or Double.NaN if not known
+    * @param amountPerDay amount per day, or Double.NaN if not known
+    * @param units units of both amounts
+    * @return index of the new item
+    */
+   public int add(long start, long finish, double totalAmount, double amountPerDay, TimeUnit units)
+   {
+      int index = addItem(start, finish);
+      setTotalAmount(index, totalAmount, units);
+      setAmountPerDay(index, amountPerDay, units);
+      return index;
+   }
+
+   /**
+    * Add an item to the end of the series, copying the values of an item
+    * from another series.
+    *
+    * @param series source series
+    * @param sourceIndex index of the item to copy
+    * @return index of the new item
+    */
+   public int add(TimephasedWorkSeries series, int sourceIndex)
+   {
+      int index = addItem(series, sourceIndex);
+      m_totalAmountUnits[index] = series.m_totalAmountUnits[sourceIndex];
+      m_amountPerDayUnits[index] = series.m_amountPerDayUnits[sourceIndex];
+      return index;
+   }
+
+   /**
+    * Retrieve the units of the total amount of an item.
+    *
+    * @param index item index
+    * @return total amount units
+    */
+   public TimeUnit getTotalAmountUnits(int index)
+   {
+      return TIME_UNITS[m_totalAmountUnits[index]];
+   }
+
+   /**
+    * Retrieve the total amount of an item as a duration.
+    *
+    * @param index item index
+    * @return total amount, or null if not set
+    */
+   public Duration getTotalAmount(int index)
+   {
+      double value = getTotalAmountValue(index);
+      return Double.isNaN(value) ? null : Duration.getInstance(value, getTotalAmountUnits(index));
+   }
+
+   /**
+    * Set the total amount of an item.
+    *
+    * @param index item index
+    * @param value total amount, or Double.NaN if not set
+    * @param units total amount units
+    */
+   public void setTotalAmount(int index, double value, TimeUnit units)
+   {
+      setTotalAmountValue(index, value);
+      m_totalAmountUnits[index] = (byte) units.ordinal();
+   }
+
+   /**
+    * Retrieve the units of the amount per day of an item.
+    *
+    * @param index item index
+    * @return amount per day units
+    */
+   public TimeUnit getAmountPerDayUnits(int index)
+   {
+      return TIME_UNITS[m_amountPerDayUnits[index]];
+   }
+
+   /**
+    * Retrieve the amount per day of an item as a duration.
+    *
+    * @param index item index
+    * @return amount per day, or null if not set
+    */
+   public Duration getAmountPerDay(int index)
+   {
+      double value = getAmountPerDayValue(index);
+      return Double.isNaN(value) ? null : Duration.getInstance(value, getAmountPerDayUnits(index));
+   }
+
+   /**
+    * Set the amount per day of an item.
+    *
+    * @param index item index
+    * @param value amount per day, or Double.NaN if not set
+    * @param units amount per day units
+    */
+   public void setAmountPerDay(int index, double value, TimeUnit units)
+   {
+      setAmountPerDayValue(index, value);
+      m_amountPerDayUnits[index] = (byte) units.ordinal();
+   }
+
+   /**
+    * Replace the contents of this series with the contents of another.
+    * The other series should not be used once this method has been called.
+    *
+    * @param series source series
+    */
+   public void replaceWith(TimephasedWorkSeries series)
+   {
+      super.replaceWith(series);
+      m_totalAmountUnits = series.m_totalAmountUnits;
+      m_amountPerDayUnits = series.m_amountPerDayUnits;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override protected TimephasedWork createItem(int index)
+   {
+      TimephasedWork item = new TimephasedWork();
+      populateItem(index, item);
+      item.setTotalAmount(getTotalAmount(index));
+      item.setAmountPerDay(getAmountPerDay(index));
+      return item;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override protected void storeItem(int index, TimephasedWork item)
+   {
+      storeDates(index, item);
+
+      Duration totalAmount = item.getTotalAmount();
+      if (totalAmount == null)
+      {
+         setTotalAmount(index, Double.NaN, TimeUnit.MINUTES);
+      }
+      else
+      {
+         setTotalAmount(index, totalAmount.getDuration(), totalAmount.getUnits());
+      }
+
+      Duration amountPerDay = item.getAmountPerDay();
+      if (amountPerDay == null)
+      {
+         setAmountPerDay(index, Double.NaN, TimeUnit.MINUTES);
+      }
+      else
+      {
+         setAmountPerDay(index, amountPerDay.getDuration(), amountPerDay.getUnits());
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override protected void resize(int capacity)
+   {
+      super.resize(capacity);
+      m_totalAmountUnits = m_totalAmountUnits == null ? new byte[capacity] : Arrays.copyOf(m_totalAmountUnits, capacity);
+      m_amountPerDayUnits = m_amountPerDayUnits == null ? new byte[capacity] : Arrays.copyOf(m_amountPerDayUnits, capacity);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override protected void move(int from, int to, int length)
+   {
+      super.move(from, to, length);
+      System.arraycopy(m_totalAmountUnits, from, m_totalAmountUnits, to, length);
+      System.arraycopy(m_amountPerDayUnits, from, m_amountPerDayUnits, to, length);
+   }
+
+   private byte[] m_totalAmountUnits;
+   private byte[] m_amountPerDayUnits;
+
+   private static final int DEFAULT_CAPACITY = 8;
+   private static final TimeUnit[] TIME_UNITS = TimeUnit.values();
+}
@@ -39,10 +39,14 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 import net.sf.mpxj.DayType;
+import net.sf.mpxj.FieldStorageFactory;
+import net.sf.mpxj.FieldType;
 import net.sf.mpxj.MPXJException;
 import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.common.FieldFilterHelper;
 import net.sf.mpxj.common.FileHelper;
 import net.sf.mpxj.common.InputStreamHelper;
 import net.sf.mpxj.common.NumberHelper;
@@ -67,6 +71,22 @@ public final class AstaDatabaseFileReader implements ProjectReader
       m_projectListeners.add(listener);
    }
 
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void setFieldFilter(Set<FieldType> fields)
+   {
+      m_fieldFilter = fields;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void setFieldStorageFactory(FieldStorageFactory factory)
+   {
+      m_fieldStorageFactory = factory;
+   }
+
    /**
     * {@inheritDoc}
     */
@@ -146,7 +166,7 @@ public final class AstaDatabaseFileReader implements ProjectReader
    {
       try
       {
-         m_reader = new AstaReader();
+         m_reader = new AstaReader(m_fieldStorageFactory);
          ProjectFile project = m_reader.getProject();
          project.getEventManager().addProjectListeners(m_projectListeners);
 
@@ -157,6 +177,7 @@ public final class AstaDatabaseFileReader implements ProjectReader
          processPredecessors();
          processAssignments();
 
+         FieldFilterHelper.applyFilter(project, m_fieldFilter);
          m_reader = null;
 
          return (project);
@@ -529,4 +550,6 @@ public final class AstaDatabaseFileReader implements ProjectReader
    private ResultSet m_rs;
    private Map<String, Integer> m_meta = new HashMap<String, Integer>();
    private List<ProjectListener> m_projectListeners;
+   private Set<FieldType> m_fieldFilter;
+   private FieldStorageFactory m_fieldStorageFactory;
 }
\ No newline at end of file
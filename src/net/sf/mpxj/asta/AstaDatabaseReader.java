@@ -31,16 +31,22 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.sql.DataSource;
 
 import net.sf.mpxj.DayType;
+import net.sf.mpxj.FieldStorageFactory;
+import net.sf.mpxj.FieldType;
 import net.sf.mpxj.MPXJException;
 import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.common.FieldFilterHelper;
 import net.sf.mpxj.common.NumberHelper;
 import net.sf.mpxj.listener.ProjectListener;
 import net.sf.mpxj.reader.ProjectReader;
@@ -63,6 +69,22 @@ public final class AstaDatabaseReader implements ProjectReader
       m_projectListeners.add(listener);
    }
 
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void setFieldFilter(Set<FieldType> fields)
+   {
+      m_fieldFilter = fields;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void setFieldStorageFactory(FieldStorageFactory factory)
+   {
+      m_fieldStorageFactory = factory;
+   }
+
    /**
     * Populates a Map instance representing the IDs and names of
     * projects available in the current database.
@@ -79,8 +101,8 @@ public final class AstaDatabaseReader implements ProjectReader
          List<Row> rows = getRows("select projid, short_name from project_summary");
          for (Row row : rows)
          {
-            Integer id = row.getInteger("projid");
-            String name = row.getString("short_name");
+            Integer id = row.getInteger("PROJID");
+            String name = row.getString("SHORT_NAME");
             result.put(id, name);
          }
 
@@ -101,22 +123,47 @@ public final class AstaDatabaseReader implements ProjectReader
     */
    public ProjectFile read() throws MPXJException
    {
-      try
-      {
-         m_reader = new AstaReader();
-         ProjectFile project = m_reader.getProject();
-         project.getEventManager().addProjectListeners(m_projectListeners);
-
-         processProjectProperties();
-         processCalendars();
-         processResources();
-         processTasks();
-         processPredecessors();
-         processAssignments();
+      return readAll(Collections.singletonList(m_projectID)).get(0);
+   }
 
-         m_reader = null;
+   /**
+    * Read all projects available in the current data source.
+    * The projects are returned in order of their IDs.
+    *
+    * @return list of ProjectFile instances
+    * @throws MPXJException
+    */
+   public List<ProjectFile> readAll() throws MPXJException
+   {
+      List<Integer> projectIDs = new ArrayList<Integer>(listProjects().keySet());
+      Collections.sort(projectIDs);
+      return readAll(projectIDs);
+   }
 
-         return (project);
+   /**
+    * Read a number of projects from the current data source. The
+    * calendar tables shared by all projects are read once, and the
+    * remaining tables are queried once per batch of projects.
+    * The projects are returned in the same order as the supplied IDs.
+    *
+    * @param projectIDs IDs of the projects to read
+    * @return list of ProjectFile instances
+    * @throws MPXJException
+    */
+   public List<ProjectFile> readAll(List<Integer> projectIDs) throws MPXJException
+   {
+      try
+      {
+         List<ProjectFile> result = new ArrayList<ProjectFile>(projectIDs.size());
+         if (!projectIDs.isEmpty())
+         {
+            readCalendarTables();
+            for (int index = 0; index < projectIDs.size(); index += m_batchSize)
+            {
+               result.addAll(readBatch(projectIDs.subList(index, Math.min(index + m_batchSize, projectIDs.size()))));
+            }
+         }
+         return result;
       }
 
       catch (SQLException ex)
@@ -126,6 +173,12 @@ public final class AstaDatabaseReader implements ProjectReader
 
       finally
       {
+         m_exceptionMap = null;
+         m_workPatternMap = null;
+         m_workPatternAssignmentMap = null;
+         m_exceptionAssignmentMap = null;
+         m_timeEntryMap = null;
+
          if (m_allocatedConnection && m_connection != null)
          {
             try
@@ -144,13 +197,81 @@ public final class AstaDatabaseReader implements ProjectReader
    }
 
    /**
-    * Select the project properties row from the database.
+    * Set the number of rows the JDBC driver should fetch from the
+    * database each time more rows are needed. A value of zero,
+    * the default, leaves the choice to the driver.
+    *
+    * @param fetchSize fetch size
+    */
+   public void setFetchSize(int fetchSize)
+   {
+      m_fetchSize = fetchSize;
+   }
+
+   /**
+    * Set the maximum number of projects read together when more than
+    * one project is read.
     *
+    * @param batchSize batch size
+    */
+   public void setBatchSize(int batchSize)
+   {
+      if (batchSize < 1)
+      {
+         throw new IllegalArgumentException("Batch size must be at least 1");
+      }
+      m_batchSize = batchSize;
+   }
+
+   /**
+    * Read a batch of projects.
+    *
+    * @param projectIDs IDs of the projects in this batch
+    * @return list of ProjectFile instances
     * @throws SQLException
     */
-   private void processProjectProperties() throws SQLException
+   private List<ProjectFile> readBatch(List<Integer> projectIDs) throws SQLException
+   {
+      Map<Integer, List<Row>> projectSummaries = getRows("select * from project_summary", "projid", projectIDs, "");
+      Map<Integer, List<Row>> calendars = getRows("select * from calendar", "projid", projectIDs, " order by calendarid");
+      Map<Integer, List<Row>> permanentResources = getRows("select * from permanent_resource", "projid", projectIDs, " order by permanent_resourceid");
+      Map<Integer, List<Row>> consumableResources = getRows("select * from consumable_resource", "projid", projectIDs, " order by consumable_resourceid");
+      Map<Integer, List<Row>> bars = getRows("select * from bar", "projid", projectIDs, "");
+      Map<Integer, List<Row>> expandedTasks = getRows("select * from expanded_task", "projid", projectIDs, "");
+      Map<Integer, List<Row>> tasks = getRows("select * from task", "projid", projectIDs, "");
+      Map<Integer, List<Row>> milestones = getRows("select * from milestone", "projid", projectIDs, "");
+      Map<Integer, List<Row>> links = getRows("select * from link", "projid", projectIDs, " order by linkid");
+      Map<Integer, List<Row>> permanentAssignments = getRows("select * from permanent_schedul_allocation inner join perm_resource_skill on permanent_schedul_allocation.allocatiop_of = perm_resource_skill.perm_resource_skillid", "permanent_schedul_allocation.projid", projectIDs, " order by permanent_schedul_allocation.permanent_schedul_allocationid");
+
+      List<ProjectFile> result = new ArrayList<ProjectFile>(projectIDs.size());
+      for (Integer projectID : projectIDs)
+      {
+         m_reader = new AstaReader(m_fieldStorageFactory);
+         ProjectFile project = m_reader.getProject();
+         project.getEventManager().addProjectListeners(m_projectListeners);
+
+         processProjectProperties(getRows(projectSummaries, projectID));
+         processCalendars(getRows(calendars, projectID));
+         m_reader.processResources(getRows(permanentResources, projectID), getRows(consumableResources, projectID));
+         m_reader.processTasks(getRows(bars, projectID), getRows(expandedTasks, projectID), getRows(tasks, projectID), getRows(milestones, projectID));
+         m_reader.processPredecessors(getRows(links, projectID));
+         m_reader.processAssignments(getRows(permanentAssignments, projectID));
+
+         FieldFilterHelper.applyFilter(project, m_fieldFilter);
+         m_reader = null;
+
+         result.add(project);
+      }
+      return result;
+   }
+
+   /**
+    * Process the project properties row.
+    *
+    * @param rows project summary rows for this project
+    */
+   private void processProjectProperties(List<Row> rows)
    {
-      List<Row> rows = getRows("select * from project_summary where projid=?", m_projectID);
       if (rows.isEmpty() == false)
       {
          m_reader.processProjectProperties(rows.get(0));
@@ -158,31 +279,40 @@ public final class AstaDatabaseReader implements ProjectReader
    }
 
    /**
-    * Process calendars.
+    * Read the calendar tables which are shared by all projects.
     *
     * @throws SQLException
     */
-   private void processCalendars() throws SQLException
+   private void readCalendarTables() throws SQLException
    {
+      AstaReader reader = new AstaReader(m_fieldStorageFactory);
+
       List<Row> rows = getRows("select * from exceptionn");
-      Map<Integer, DayType> exceptionMap = m_reader.createExceptionTypeMap(rows);
+      m_exceptionMap = reader.createExceptionTypeMap(rows);
 
       rows = getRows("select * from work_pattern");
-      Map<Integer, Row> workPatternMap = m_reader.createWorkPatternMap(rows);
+      m_workPatternMap = reader.createWorkPatternMap(rows);
 
       rows = getRows("select * from work_pattern_assignment");
-      Map<Integer, List<Row>> workPatternAssignmentMap = m_reader.createWorkPatternAssignmentMap(rows);
+      m_workPatternAssignmentMap = reader.createWorkPatternAssignmentMap(rows);
 
       rows = getRows("select * from exception_assignment order by exception_assignmentid, ordf");
-      Map<Integer, List<Row>> exceptionAssignmentMap = m_reader.createExceptionAssignmentMap(rows);
+      m_exceptionAssignmentMap = reader.createExceptionAssignmentMap(rows);
 
       rows = getRows("select * from time_entry order by time_entryid, ordf");
-      Map<Integer, List<Row>> timeEntryMap = m_reader.createTimeEntryMap(rows);
+      m_timeEntryMap = reader.createTimeEntryMap(rows);
+   }
 
-      rows = getRows("select * from calendar where projid=? order by calendarid", m_projectID);
+   /**
+    * Process calendars.
+    *
+    * @param rows calendar rows for this project
+    */
+   private void processCalendars(List<Row> rows)
+   {
       for (Row row : rows)
       {
-         m_reader.processCalendar(row, workPatternMap, workPatternAssignmentMap, exceptionAssignmentMap, timeEntryMap, exceptionMap);
+         m_reader.processCalendar(row, m_workPatternMap, m_workPatternAssignmentMap, m_exceptionAssignmentMap, m_timeEntryMap, m_exceptionMap);
       }
 
       //
@@ -209,54 +339,6 @@ public final class AstaDatabaseReader implements ProjectReader
       m_reader.getProject().getProjectConfig().updateUniqueCounters();
    }
 
-   /**
-    * Process resources.
-    *
-    * @throws SQLException
-    */
-   private void processResources() throws SQLException
-   {
-      List<Row> permanentRows = getRows("select * from permanent_resource where projid=? order by permanent_resourceid", m_projectID);
-      List<Row> consumableRows = getRows("select * from consumable_resource where projid=? order by consumable_resourceid", m_projectID);
-      m_reader.processResources(permanentRows, consumableRows);
-   }
-
-   /**
-    * Process tasks.
-    *
-    * @throws SQLException
-    */
-   private void processTasks() throws SQLException
-   {
-      List<Row> bars = getRows("select * from bar where projid=?", m_projectID);
-      List<Row> expandedTasks = getRows("select * from expanded_task where projid=?", m_projectID);
-      List<Row> tasks = getRows("select * from task where projid=?", m_projectID);
-      List<Row> milestones = getRows("select * from milestone where projid=?", m_projectID);
-      m_reader.processTasks(bars, expandedTasks, tasks, milestones);
-   }
-
-   /**
-    * Process predecessors.
-    *
-    * @throws SQLException
-    */
-   private void processPredecessors() throws SQLException
-   {
-      List<Row> rows = getRows("select * from link where projid=? order by linkid", m_projectID);
-      m_reader.processPredecessors(rows);
-   }
-
-   /**
-    * Process resource assignments.
-    *
-    * @throws SQLException
-    */
-   private void processAssignments() throws SQLException
-   {
-      List<Row> permanentAssignments = getRows("select * from permanent_schedul_allocation inner join perm_resource_skill on permanent_schedul_allocation.allocatiop_of = perm_resource_skill.perm_resource_skillid where permanent_schedul_allocation.projid=? order by permanent_schedul_allocation.permanent_schedul_allocationid", m_projectID);
-      m_reader.processAssignments(permanentAssignments);
-   }
-
    /**
     * Set the ID of the project to be read.
     *
@@ -367,6 +449,10 @@ public final class AstaDatabaseReader implements ProjectReader
          List<Row> result = new LinkedList<Row>();
 
          m_ps = m_connection.prepareStatement(sql);
+         if (m_fetchSize > 0)
+         {
+            m_ps.setFetchSize(m_fetchSize);
+         }
          m_rs = m_ps.executeQuery();
          populateMetaData();
          while (m_rs.next())
@@ -384,29 +470,60 @@ public final class AstaDatabaseReader implements ProjectReader
    }
 
    /**
-    * Retrieve a number of rows matching the supplied query
-    * which takes a single parameter.
+    * Retrieve the rows belonging to a batch of projects, grouped by
+    * project ID. The order of the rows within each project is
+    * the order in which they were returned by the query.
     *
-    * @param sql query statement
-    * @param var bind variable value
-    * @return result set
+    * @param sql query statement, without a where clause
+    * @param column name of the project ID column
+    * @param projectIDs project IDs
+    * @param orderBy order by clause, or an empty string
+    * @return rows grouped by project ID
     * @throws SQLException
     */
-   private List<Row> getRows(String sql, Integer var) throws SQLException
+   private Map<Integer, List<Row>> getRows(String sql, String column, List<Integer> projectIDs, String orderBy) throws SQLException
    {
       allocateConnection();
 
       try
       {
-         List<Row> result = new LinkedList<Row>();
+         StringBuilder query = new StringBuilder(sql);
+         query.append(" where ");
+         query.append(column);
+         query.append(" in (");
+         for (int index = 0; index < projectIDs.size(); index++)
+         {
+            query.append(index == 0 ? "?" : ",?");
+         }
+         query.append(')');
+         query.append(orderBy);
 
-         m_ps = m_connection.prepareStatement(sql);
-         m_ps.setInt(1, NumberHelper.getInt(var));
+         m_ps = m_connection.prepareStatement(query.toString());
+         if (m_fetchSize > 0)
+         {
+            m_ps.setFetchSize(m_fetchSize);
+         }
+
+         int index = 1;
+         for (Integer projectID : projectIDs)
+         {
+            m_ps.setInt(index++, NumberHelper.getInt(projectID));
+         }
+
+         Map<Integer, List<Row>> result = new HashMap<Integer, List<Row>>();
          m_rs = m_ps.executeQuery();
          populateMetaData();
          while (m_rs.next())
          {
-            result.add(new MpdResultSetRow(m_rs, m_meta));
+            Row row = new MpdResultSetRow(m_rs, m_meta);
+            Integer projectID = row.getInteger("PROJID");
+            List<Row> rows = result.get(projectID);
+            if (rows == null)
+            {
+               rows = new LinkedList<Row>();
+               result.put(projectID, rows);
+            }
+            rows.add(row);
          }
 
          return (result);
@@ -418,6 +535,19 @@ public final class AstaDatabaseReader implements ProjectReader
       }
    }
 
+   /**
+    * Retrieve the rows for a single project from a set of grouped rows.
+    *
+    * @param rows rows grouped by project ID
+    * @param projectID project ID
+    * @return rows for the project
+    */
+   private List<Row> getRows(Map<Integer, List<Row>> rows, Integer projectID)
+   {
+      List<Row> result = rows.get(projectID);
+      return result == null ? new LinkedList<Row>() : result;
+   }
+
    /**
     * Allocates a database connection.
     *
@@ -522,4 +652,13 @@ public final class AstaDatabaseReader implements ProjectReader
    private ResultSet m_rs;
    private Map<String, Integer> m_meta = new HashMap<String, Integer>();
    private List<ProjectListener> m_projectListeners;
+   private Set<FieldType> m_fieldFilter;
+   private FieldStorageFactory m_fieldStorageFactory;
+   private int m_fetchSize;
+   private int m_batchSize = 50;
+   private Map<Integer, DayType> m_exceptionMap;
+   private Map<Integer, Row> m_workPatternMap;
+   private Map<Integer, List<Row>> m_workPatternAssignmentMap;
+   private Map<Integer, List<Row>> m_exceptionAssignmentMap;
+   private Map<Integer, List<Row>> m_timeEntryMap;
 }
\ No newline at end of file
@@ -86,12 +86,16 @@ public final class AstaFileReader extends AbstractProjectReader
    }
 
    /**
-    * Adds any listeners attached to this reader to the reader created internally.
+    * Passes any listeners and field filter attached to this reader
+    * to the reader created internally.
     *
     * @param reader internal project reader
     */
-   private void addListeners(ProjectReader reader)
+   private void configureReader(ProjectReader reader)
    {
+      reader.setFieldFilter(getFieldFilter());
+      reader.setFieldStorageFactory(getFieldStorageFactory());
+
       if (m_projectListeners != null)
       {
          for (ProjectListener listener : m_projectListeners)
@@ -110,7 +114,7 @@ public final class AstaFileReader extends AbstractProjectReader
    private ProjectFile readTextFile(InputStream inputStream) throws MPXJException
    {
       ProjectReader reader = new AstaTextFileReader();
-      addListeners(reader);
+      configureReader(reader);
       return reader.read(inputStream);
    }
 
@@ -123,7 +127,7 @@ public final class AstaFileReader extends AbstractProjectReader
    private ProjectFile readDatabaseFile(InputStream inputStream) throws MPXJException
    {
       ProjectReader reader = new AstaDatabaseFileReader();
-      addListeners(reader);
+      configureReader(reader);
       return reader.read(inputStream);
    }
 
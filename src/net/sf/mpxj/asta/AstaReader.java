@@ -42,6 +42,7 @@ import net.sf.mpxj.Day;
 import net.sf.mpxj.DayType;
 import net.sf.mpxj.Duration;
 import net.sf.mpxj.EventManager;
+import net.sf.mpxj.FieldStorageFactory;
 import net.sf.mpxj.ProjectCalendar;
 import net.sf.mpxj.ProjectCalendarHours;
 import net.sf.mpxj.ProjectCalendarWeek;
@@ -65,13 +66,16 @@ final class AstaReader
 {
    /**
     * Constructor.
+    *
+    * @param fieldStorageFactory field storage factory, or null to use the default
     */
-   public AstaReader()
+   public AstaReader(FieldStorageFactory fieldStorageFactory)
    {
       m_project = new ProjectFile();
       m_eventManager = m_project.getEventManager();
 
       ProjectConfig config = m_project.getProjectConfig();
+      config.setFieldStorageFactory(fieldStorageFactory);
 
       config.setAutoTaskUniqueID(false);
       config.setAutoResourceUniqueID(false);
@@ -39,6 +39,7 @@ import net.sf.mpxj.DayType;
 import net.sf.mpxj.MPXJException;
 import net.sf.mpxj.ProjectFile;
 import net.sf.mpxj.common.CharsetHelper;
+import net.sf.mpxj.common.FieldFilterHelper;
 import net.sf.mpxj.common.ReaderTokenizer;
 import net.sf.mpxj.common.Tokenizer;
 import net.sf.mpxj.listener.ProjectListener;
@@ -69,7 +70,7 @@ public final class AstaTextFileReader extends AbstractProjectReader
    {
       try
       {
-         m_reader = new AstaReader();
+         m_reader = new AstaReader(getFieldStorageFactory());
          ProjectFile project = m_reader.getProject();
          project.getEventManager().addProjectListeners(m_projectListeners);
 
@@ -84,6 +85,8 @@ public final class AstaTextFileReader extends AbstractProjectReader
          processPredecessors();
          processAssignments();
 
+         FieldFilterHelper.applyFilter(project, getFieldFilter());
+
          return (project);
       }
 
@@ -23,13 +23,9 @@
 
 package net.sf.mpxj.common;
 
-import java.util.Date;
-import java.util.LinkedList;
-
-import net.sf.mpxj.Duration;
 import net.sf.mpxj.ProjectCalendar;
 import net.sf.mpxj.TimeUnit;
-import net.sf.mpxj.TimephasedWork;
+import net.sf.mpxj.TimephasedWorkSeries;
 
 /**
  * Common implementation detail for normalisation.
@@ -44,7 +40,7 @@ public abstract class AbstractTimephasedWorkNormaliser implements TimephasedWork
     * @param calendar current calendar
     * @param list list of assignment data
     */
-   @Override public abstract void normalise(ProjectCalendar calendar, LinkedList<TimephasedWork> list);
+   @Override public abstract void normalise(ProjectCalendar calendar, TimephasedWorkSeries list);
 
    /**
     * Merges individual days together into time spans where the
@@ -52,52 +48,36 @@ public abstract class AbstractTimephasedWorkNormaliser implements TimephasedWork
     *
     * @param list assignment data
     */
-   protected void mergeSameWork(LinkedList<TimephasedWork> list)
+   protected void mergeSameWork(TimephasedWorkSeries list)
    {
-      LinkedList<TimephasedWork> result = new LinkedList<TimephasedWork>();
+      TimephasedWorkSeries result = new TimephasedWorkSeries(list.size());
 
-      TimephasedWork previousAssignment = null;
-      for (TimephasedWork assignment : list)
+      for (int index = 0; index < list.size(); index++)
       {
-         if (previousAssignment == null)
+         double assignmentWork = list.getTotalAmountValue(index);
+         TimeUnit assignmentUnits = list.getTotalAmountUnits(index);
+
+         int previousIndex = result.size() - 1;
+         if (previousIndex != -1 && NumberHelper.equals(result.getAmountPerDayValue(previousIndex), assignmentWork, 0.01))
          {
-            assignment.setAmountPerDay(assignment.getTotalAmount());
-            result.add(assignment);
+            //
+            // The previous span is always the last item in the result,
+            // so we can merge in place.
+            //
+            double total = result.getTotalAmountValue(previousIndex) + assignmentWork;
+            result.setFinishTime(previousIndex, list.getFinishTime(index));
+            result.setTotalAmount(previousIndex, total, TimeUnit.MINUTES);
+            result.setAmountPerDay(previousIndex, assignmentWork, assignmentUnits);
+            result.setModified(previousIndex, false);
          }
          else
          {
-            Duration previousAssignmentWork = previousAssignment.getAmountPerDay();
-            Duration assignmentWork = assignment.getTotalAmount();
-
-            if (NumberHelper.equals(previousAssignmentWork.getDuration(), assignmentWork.getDuration(), 0.01))
-            {
-               Date assignmentStart = previousAssignment.getStart();
-               Date assignmentFinish = assignment.getFinish();
-               double total = previousAssignment.getTotalAmount().getDuration();
-               total += assignmentWork.getDuration();
-               Duration totalWork = Duration.getInstance(total, TimeUnit.MINUTES);
-
-               TimephasedWork merged = new TimephasedWork();
-               merged.setStart(assignmentStart);
-               merged.setFinish(assignmentFinish);
-               merged.setAmountPerDay(assignmentWork);
-               merged.setTotalAmount(totalWork);
-
-               result.removeLast();
-               assignment = merged;
-            }
-            else
-            {
-               assignment.setAmountPerDay(assignment.getTotalAmount());
-            }
-            result.add(assignment);
+            int resultIndex = result.add(list, index);
+            result.setAmountPerDay(resultIndex, assignmentWork, assignmentUnits);
          }
-
-         previousAssignment = assignment;
       }
 
-      list.clear();
-      list.addAll(result);
+      list.replaceWith(result);
    }
 
    /**
@@ -105,16 +85,12 @@ public abstract class AbstractTimephasedWorkNormaliser implements TimephasedWork
     *
     * @param list assignment data
     */
-   protected void convertToHours(LinkedList<TimephasedWork> list)
+   protected void convertToHours(TimephasedWorkSeries list)
    {
-      for (TimephasedWork assignment : list)
+      for (int index = 0; index < list.size(); index++)
       {
-         Duration totalWork = assignment.getTotalAmount();
-         Duration workPerDay = assignment.getAmountPerDay();
-         totalWork = Duration.getInstance(totalWork.getDuration() / 60, TimeUnit.HOURS);
-         workPerDay = Duration.getInstance(workPerDay.getDuration() / 60, TimeUnit.HOURS);
-         assignment.setTotalAmount(totalWork);
-         assignment.setAmountPerDay(workPerDay);
+         list.setTotalAmount(index, list.getTotalAmountValue(index) / 60, TimeUnit.HOURS);
+         list.setAmountPerDay(index, list.getAmountPerDayValue(index) / 60, TimeUnit.HOURS);
       }
    }
 }
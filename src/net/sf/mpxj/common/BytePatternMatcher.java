@@ -0,0 +1,316 @@
+/*
+ * file:       BytePatternMatcher.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       17/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Locates occurrences of a set of byte patterns in a buffer. The patterns
+ * are compiled into an Aho-Corasick automaton, so the buffer is examined
+ * once, one byte at a time, however many patterns there are. The automaton
+ * is immutable once built, so a single instance can be shared between threads.
+ */
+public final class BytePatternMatcher
+{
+   /**
+    * Constructor.
+    *
+    * @param patterns patterns to locate
+    */
+   public BytePatternMatcher(byte[][] patterns)
+   {
+      m_lengths = new int[patterns.length];
+      int maxLength = 0;
+      for (int index = 0; index < patterns.length; index++)
+      {
+         m_lengths[index] = patterns[index].length;
+         maxLength = Math.max(maxLength, m_lengths[index]);
+      }
+      m_maxLength = maxLength;
+
+      //
+      // Map each byte value to a class. Bytes which don't appear
+      // in any pattern share class zero.
+      //
+      m_classes = new int[256];
+      int classCount = 1;
+      for (byte[] pattern : patterns)
+      {
+         for (byte b : pattern)
+         {
+            int value = b & 0xFF;
+            if (m_classes[value] == 0)
+            {
+               m_classes[value] = classCount++;
+            }
+         }
+      }
+      m_classCount = classCount;
+
+      //
+      // Build the trie
+      //
+      List<int[]> transitions = new ArrayList<int[]>();
+      List<List<Integer>> outputs = new ArrayList<List<Integer>>();
+      addState(transitions, outputs);
+
+      for (int index = 0; index < patterns.length; index++)
+      {
+         int state = 0;
+         for (byte b : patterns[index])
+         {
+            int[] row = transitions.get(state);
+            int byteClass = m_classes[b & 0xFF];
+            if (row[byteClass] == -1)
+            {
+               row[byteClass] = transitions.size();
+               addState(transitions, outputs);
+            }
+            state = row[byteClass];
+         }
+         outputs.get(state).add(Integer.valueOf(index));
+      }
+
+      //
+      // Breadth first traversal to populate failure transitions,
+      // turning the trie into a deterministic automaton. Each state
+      // inherits the matches which end at its failure state.
+      //
+      int[] failure = new int[transitions.size()];
+      LinkedList<Integer> queue = new LinkedList<Integer>();
+      int[] root = transitions.get(0);
+      for (int byteClass = 0; byteClass < m_classCount; byteClass++)
+      {
+         if (root[byteClass] == -1)
+         {
+            root[byteClass] = 0;
+         }
+         else
+         {
+            queue.add(Integer.valueOf(root[byteClass]));
+         }
+      }
+
+      while (!queue.isEmpty())
+      {
+         int state = queue.removeFirst().intValue();
+         int[] row = transitions.get(state);
+         outputs.get(state).addAll(outputs.get(failure[state]));
+
+         for (int byteClass = 0; byteClass < m_classCount; byteClass++)
+         {
+            int fallback = transitions.get(failure[state])[byteClass];
+            if (row[byteClass] == -1)
+            {
+               row[byteClass] = fallback;
+            }
+            else
+            {
+               failure[row[byteClass]] = fallback;
+               queue.add(Integer.valueOf(row[byteClass]));
+            }
+         }
+      }
+
+      m_transitions = new int[transitions.size() * m_classCount];
+      m_outputs = new int[transitions.size()][];
+      for (int state = 0; state < transitions.size(); state++)
+      {
+         System.arraycopy(transitions.get(state), 0, m_transitions, state * m_classCount, m_classCount);
+         List<Integer> stateOutputs = outputs.get(state);
+         if (!stateOutputs.isEmpty())
+         {
+            int[] array = new int[stateOutputs.size()];
+            for (int index = 0; index < array.length; index++)
+            {
+               array[index] = stateOutputs.get(index).intValue();
+            }
+            m_outputs[state] = array;
+         }
+      }
+   }
+
+   /**
+    * Find each index at or after startIndex and before endIndex at which
+    * any of the patterns begins. A match may extend beyond endIndex, but
+    * not beyond the end of the buffer.
+    *
+    * @param buffer buffer to search
+    * @param startIndex first candidate start index
+    * @param endIndex candidate start indexes are less than this value
+    * @return distinct start indexes in ascending order
+    */
+   public List<Integer> findAll(byte[] buffer, int startIndex, int endIndex)
+   {
+      List<Integer> result = new ArrayList<Integer>();
+      int limit = Math.min(buffer.length, endIndex + m_maxLength - 1);
+      int state = 0;
+      boolean sorted = true;
+      int lastMatch = -1;
+
+      for (int index = startIndex; index < limit; index++)
+      {
+         state = m_transitions[state * m_classCount + m_classes[buffer[index] & 0xFF]];
+         int[] stateOutputs = m_outputs[state];
+         if (stateOutputs != null)
+         {
+            for (int pattern : stateOutputs)
+            {
+               int matchStart = index - m_lengths[pattern] + 1;
+               if (matchStart < endIndex && matchStart != lastMatch)
+               {
+                  result.add(Integer.valueOf(matchStart));
+                  sorted = sorted && matchStart > lastMatch;
+                  lastMatch = matchStart;
+               }
+            }
+         }
+      }
+
+      //
+      // Matches are found in order of their end index, so patterns
+      // of differing lengths can be reported out of order, and
+      // the same start index can be reported more than once.
+      //
+      if (!sorted)
+      {
+         Collections.sort(result);
+         int count = 0;
+         for (Integer value : result)
+         {
+            if (count == 0 || !result.get(count - 1).equals(value))
+            {
+               result.set(count++, value);
+            }
+         }
+         result.subList(count, result.size()).clear();
+      }
+
+      return result;
+   }
+
+   /**
+    * Find the first index at or after startIndex and before endIndex at
+    * which any of the patterns begins. A match may extend beyond endIndex,
+    * but not beyond the end of the buffer.
+    *
+    * @param buffer buffer to search
+    * @param startIndex first candidate start index
+    * @param endIndex candidate start indexes are less than this value
+    * @return start index of the first match, or -1 if there is no match
+    */
+   public int findFirst(byte[] buffer, int startIndex, int endIndex)
+   {
+      int result = -1;
+      int limit = Math.min(buffer.length, endIndex + m_maxLength - 1);
+      int state = 0;
+
+      for (int index = startIndex; index < limit; index++)
+      {
+         //
+         // Once we are past the end of the longest pattern which could
+         // start at the best match so far, nothing earlier can be found.
+         //
+         if (result != -1 && index - m_maxLength >= result)
+         {
+            break;
+         }
+
+         state = m_transitions[state * m_classCount + m_classes[buffer[index] & 0xFF]];
+         int[] stateOutputs = m_outputs[state];
+         if (stateOutputs != null)
+         {
+            for (int pattern : stateOutputs)
+            {
+               int matchStart = index - m_lengths[pattern] + 1;
+               if (matchStart < endIndex && (result == -1 || matchStart < result))
+               {
+                  result = matchStart;
+               }
+            }
+         }
+      }
+
+      return result;
+   }
+
+   /**
+    * Scan the start of a buffer, recording the start index of the first
+    * and last occurrence of each pattern. Entries for patterns which are
+    * not found are left unchanged.
+    *
+    * @param buffer buffer to search
+    * @param length number of bytes to scan
+    * @param first populated with the start index of the first occurrence of each pattern
+    * @param last populated with the start index of the last occurrence of each pattern
+    */
+   public void findFirstAndLast(byte[] buffer, int length, int[] first, int[] last)
+   {
+      boolean[] found = new boolean[m_lengths.length];
+      int state = 0;
+      for (int index = 0; index < length; index++)
+      {
+         state = m_transitions[state * m_classCount + m_classes[buffer[index] & 0xFF]];
+         int[] stateOutputs = m_outputs[state];
+         if (stateOutputs != null)
+         {
+            for (int pattern : stateOutputs)
+            {
+               int matchStart = index - m_lengths[pattern] + 1;
+               if (!found[pattern])
+               {
+                  found[pattern] = true;
+                  first[pattern] = matchStart;
+               }
+               last[pattern] = matchStart;
+            }
+         }
+      }
+   }
+
+   /**
+    * Create a new empty state.
+    *
+    * @param transitions transitions for each state
+    * @param outputs outputs for each state
+    */
+   private void addState(List<int[]> transitions, List<List<Integer>> outputs)
+   {
+      int[] row = new int[m_classCount];
+      Arrays.fill(row, -1);
+      transitions.add(row);
+      outputs.add(new ArrayList<Integer>());
+   }
+
+   private final int[] m_lengths;
+   private final int m_maxLength;
+   private final int[] m_classes;
+   private final int m_classCount;
+   private final int[] m_transitions;
+   private final int[][] m_outputs;
+}
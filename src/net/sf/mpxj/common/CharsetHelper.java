@@ -33,6 +33,7 @@ public class CharsetHelper
    public static final Charset UTF8 = Charset.forName("UTF-8");
    public static final Charset UTF16 = Charset.forName("UTF-16");
    public static final Charset UTF16LE = Charset.forName("UTF-16LE");
+   public static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
    public static final Charset CP1252 = Charset.forName("Cp1252");
    public static final Charset MAC_ROMAN = Charset.forName("MacRoman");
    public static final Charset CP850 = Charset.forName("Cp850");
@@ -23,12 +23,12 @@
 
 package net.sf.mpxj.common;
 
-import java.util.LinkedList;
 import java.util.List;
 
 import net.sf.mpxj.ProjectCalendar;
 import net.sf.mpxj.TimephasedCost;
 import net.sf.mpxj.TimephasedCostContainer;
+import net.sf.mpxj.TimephasedCostSeries;
 
 /**
  * Class used to manage timephased data.
@@ -45,14 +45,32 @@ public class DefaultTimephasedCostContainer implements TimephasedCostContainer
     */
    public DefaultTimephasedCostContainer(ProjectCalendar calendar, TimephasedCostNormaliser normaliser, List<TimephasedCost> data, boolean raw)
    {
-      if (data instanceof LinkedList<?>)
+      if (data instanceof TimephasedCostSeries)
       {
-         m_data = (LinkedList<TimephasedCost>) data;
+         m_data = (TimephasedCostSeries) data;
       }
       else
       {
-         m_data = new LinkedList<TimephasedCost>(data);
+         m_data = new TimephasedCostSeries(data);
       }
+      m_data.trimToSize();
+      m_raw = raw;
+      m_calendar = calendar;
+      m_normaliser = normaliser;
+   }
+
+   /**
+    * Constructor used where decoding the timephased data is deferred
+    * until the data is first required.
+    *
+    * @param calendar calendar to which the timephased data relates
+    * @param normaliser normaliser used to process this data
+    * @param decoder decoder used to retrieve the timephased data
+    * @param raw flag indicating if this data is raw
+    */
+   public DefaultTimephasedCostContainer(ProjectCalendar calendar, TimephasedCostNormaliser normaliser, TimephasedCostDecoder decoder, boolean raw)
+   {
+      m_decoder = decoder;
       m_raw = raw;
       m_calendar = calendar;
       m_normaliser = normaliser;
@@ -63,9 +81,11 @@ public class DefaultTimephasedCostContainer implements TimephasedCostContainer
     */
    @Override public List<TimephasedCost> getData()
    {
+      getSeries();
       if (m_raw)
       {
          m_normaliser.normalise(m_calendar, m_data);
+         m_data.trimToSize();
          m_raw = false;
       }
       return m_data;
@@ -78,10 +98,27 @@ public class DefaultTimephasedCostContainer implements TimephasedCostContainer
     */
    @Override public boolean hasData()
    {
-      return !m_data.isEmpty();
+      return !getSeries().isEmpty();
+   }
+
+   /**
+    * Retrieve the timephased data, decoding it first if necessary.
+    *
+    * @return timephased data
+    */
+   private TimephasedCostSeries getSeries()
+   {
+      if (m_decoder != null)
+      {
+         m_data = m_decoder.decode();
+         m_data.trimToSize();
+         m_decoder = null;
+      }
+      return m_data;
    }
 
-   private LinkedList<TimephasedCost> m_data;
+   private TimephasedCostSeries m_data;
+   private TimephasedCostDecoder m_decoder;
    private boolean m_raw;
    private TimephasedCostNormaliser m_normaliser;
    private ProjectCalendar m_calendar;
@@ -23,12 +23,12 @@
 
 package net.sf.mpxj.common;
 
-import java.util.LinkedList;
 import java.util.List;
 
 import net.sf.mpxj.ProjectCalendar;
 import net.sf.mpxj.TimephasedWork;
 import net.sf.mpxj.TimephasedWorkContainer;
+import net.sf.mpxj.TimephasedWorkSeries;
 
 /**
  * Class used to manage timephased data.
@@ -45,14 +45,32 @@ public class DefaultTimephasedWorkContainer implements TimephasedWorkContainer
     */
    public DefaultTimephasedWorkContainer(ProjectCalendar calendar, TimephasedWorkNormaliser normaliser, List<TimephasedWork> data, boolean raw)
    {
-      if (data instanceof LinkedList<?>)
+      if (data instanceof TimephasedWorkSeries)
       {
-         m_data = (LinkedList<TimephasedWork>) data;
+         m_data = (TimephasedWorkSeries) data;
       }
       else
       {
-         m_data = new LinkedList<TimephasedWork>(data);
+         m_data = new TimephasedWorkSeries(data);
       }
+      m_data.trimToSize();
+      m_raw = raw;
+      m_calendar = calendar;
+      m_normaliser = normaliser;
+   }
+
+   /**
+    * Constructor used where decoding the timephased data is deferred
+    * until the data is first required.
+    *
+    * @param calendar calendar to which the timephased data relates
+    * @param normaliser normaliser used to process this data
+    * @param decoder decoder used to retrieve the timephased data
+    * @param raw flag indicating if this data is raw
+    */
+   public DefaultTimephasedWorkContainer(ProjectCalendar calendar, TimephasedWorkNormaliser normaliser, TimephasedWorkDecoder decoder, boolean raw)
+   {
+      m_decoder = decoder;
       m_raw = raw;
       m_calendar = calendar;
       m_normaliser = normaliser;
@@ -68,14 +86,17 @@ public class DefaultTimephasedWorkContainer implements TimephasedWorkContainer
     */
    public DefaultTimephasedWorkContainer(DefaultTimephasedWorkContainer source, double perDayFactor, double totalFactor)
    {
-      m_data = new LinkedList<TimephasedWork>();
+      TimephasedWorkSeries sourceData = source.getSeries();
+      m_data = new TimephasedWorkSeries(sourceData.size());
       m_raw = source.m_raw;
       m_calendar = source.m_calendar;
       m_normaliser = source.m_normaliser;
 
-      for (TimephasedWork sourceItem : source.m_data)
+      for (int index = 0; index < sourceData.size(); index++)
       {
-         m_data.add(new TimephasedWork(sourceItem, totalFactor, perDayFactor));
+         int targetIndex = m_data.add(sourceData, index);
+         m_data.setTotalAmount(targetIndex, sourceData.getTotalAmountValue(index) * totalFactor, sourceData.getTotalAmountUnits(index));
+         m_data.setAmountPerDay(targetIndex, sourceData.getAmountPerDayValue(index) * perDayFactor, sourceData.getAmountPerDayUnits(index));
       }
    }
 
@@ -84,9 +105,11 @@ public class DefaultTimephasedWorkContainer implements TimephasedWorkContainer
     */
    @Override public List<TimephasedWork> getData()
    {
+      getSeries();
       if (m_raw)
       {
          m_normaliser.normalise(m_calendar, m_data);
+         m_data.trimToSize();
          m_raw = false;
       }
       return m_data;
@@ -99,10 +122,27 @@ public class DefaultTimephasedWorkContainer implements TimephasedWorkContainer
     */
    @Override public boolean hasData()
    {
-      return !m_data.isEmpty();
+      return !getSeries().isEmpty();
+   }
+
+   /**
+    * Retrieve the timephased data, decoding it first if necessary.
+    *
+    * @return timephased data
+    */
+   private TimephasedWorkSeries getSeries()
+   {
+      if (m_decoder != null)
+      {
+         m_data = m_decoder.decode();
+         m_data.trimToSize();
+         m_decoder = null;
+      }
+      return m_data;
    }
 
-   private LinkedList<TimephasedWork> m_data;
+   private TimephasedWorkSeries m_data;
+   private TimephasedWorkDecoder m_decoder;
    private boolean m_raw;
    private TimephasedWorkNormaliser m_normaliser;
    private ProjectCalendar m_calendar;
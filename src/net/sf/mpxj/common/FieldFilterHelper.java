@@ -0,0 +1,161 @@
+/*
+ * file:       FieldFilterHelper.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       16/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.common;
+
+import java.util.Set;
+
+import net.sf.mpxj.AssignmentField;
+import net.sf.mpxj.DataType;
+import net.sf.mpxj.FieldContainer;
+import net.sf.mpxj.FieldType;
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.Resource;
+import net.sf.mpxj.ResourceAssignment;
+import net.sf.mpxj.ResourceField;
+import net.sf.mpxj.Task;
+import net.sf.mpxj.TaskField;
+
+/**
+ * Utility methods used by readers to apply a field filter. A field filter
+ * is a set of task, resource and assignment fields which the caller is
+ * interested in. Identifiers and relationships are always retained
+ * as the structure of the project depends on them.
+ */
+public final class FieldFilterHelper
+{
+   /**
+    * Private constructor to prevent instantiation.
+    */
+   private FieldFilterHelper()
+   {
+      // Private constructor to prevent instantiation
+   }
+
+   /**
+    * Determine if a field should be read.
+    *
+    * @param filter field filter, null if all fields are to be read
+    * @param field field type
+    * @return true if the field should be read
+    */
+   public static boolean includeField(Set<FieldType> filter, FieldType field)
+   {
+      return filter == null || filter.contains(field) || isRequiredField(field);
+   }
+
+   /**
+    * Determine if a field is always retained, regardless of the filter.
+    *
+    * @param field field type
+    * @return true if the field is always retained
+    */
+   public static boolean isRequiredField(FieldType field)
+   {
+      return field == TaskField.UNIQUE_ID || field == TaskField.ID || field == ResourceField.UNIQUE_ID || field == ResourceField.ID || field == AssignmentField.UNIQUE_ID || field == AssignmentField.TASK_UNIQUE_ID || field == AssignmentField.RESOURCE_UNIQUE_ID || (field != null && field.getDataType() == DataType.RELATION_LIST);
+   }
+
+   /**
+    * Clear the values of any task, resource or assignment fields
+    * which are not included in the filter. This is called once a reader
+    * has finished populating the project. Events are disabled while the
+    * values are cleared, so no listeners are notified and no values
+    * are decoded in order to discard them.
+    *
+    * @param file parent project
+    * @param filter field filter, null if all fields are to be retained
+    */
+   public static void applyFilter(ProjectFile file, Set<FieldType> filter)
+   {
+      if (filter == null)
+      {
+         return;
+      }
+
+      FieldType[] taskFields = getExcludedFields(filter, TASK_FIELDS);
+      for (Task task : file.getTasks())
+      {
+         task.disableEvents();
+         clearFields(task, taskFields);
+         task.enableEvents();
+      }
+
+      FieldType[] resourceFields = getExcludedFields(filter, RESOURCE_FIELDS);
+      for (Resource resource : file.getResources())
+      {
+         resource.disableEvents();
+         clearFields(resource, resourceFields);
+         resource.enableEvents();
+      }
+
+      FieldType[] assignmentFields = getExcludedFields(filter, ASSIGNMENT_FIELDS);
+      for (ResourceAssignment assignment : file.getResourceAssignments())
+      {
+         assignment.disableEvents();
+         clearFields(assignment, assignmentFields);
+         assignment.enableEvents();
+      }
+   }
+
+   /**
+    * Determine which of the supplied fields are excluded by the filter.
+    *
+    * @param filter field filter
+    * @param fields candidate fields
+    * @return excluded fields
+    */
+   private static FieldType[] getExcludedFields(Set<FieldType> filter, FieldType[] fields)
+   {
+      int count = 0;
+      FieldType[] result = new FieldType[fields.length];
+      for (FieldType field : fields)
+      {
+         if (!includeField(filter, field))
+         {
+            result[count++] = field;
+         }
+      }
+
+      FieldType[] trimmed = new FieldType[count];
+      System.arraycopy(result, 0, trimmed, 0, count);
+      return trimmed;
+   }
+
+   /**
+    * Clear the supplied fields in a container.
+    *
+    * @param container field container
+    * @param fields fields to clear
+    */
+   private static void clearFields(FieldContainer container, FieldType[] fields)
+   {
+      for (FieldType field : fields)
+      {
+         container.set(field, null);
+      }
+   }
+
+   private static final FieldType[] TASK_FIELDS = TaskField.values();
+   private static final FieldType[] RESOURCE_FIELDS = ResourceField.values();
+   private static final FieldType[] ASSIGNMENT_FIELDS = AssignmentField.values();
+}
@@ -107,7 +107,18 @@ public final class FileHelper
     */
    public static final File createTempDir() throws IOException
    {
-      File dir = File.createTempFile("mpxj", "tmp");
+      return createTempDir(null);
+   }
+
+   /**
+    * Create a temporary directory within the specified directory.
+    *
+    * @param directory parent directory, null for the system default
+    * @return File instance representing temporary directory
+    */
+   public static final File createTempDir(File directory) throws IOException
+   {
+      File dir = File.createTempFile("mpxj", "tmp", directory);
       delete(dir);
       mkdirs(dir);
       return dir;
@@ -23,6 +23,7 @@
 
 package net.sf.mpxj.common;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -43,12 +44,25 @@ public class InputStreamHelper
     * @return File instance
     */
    public static File writeStreamToTempFile(InputStream inputStream, String tempFileSuffix) throws IOException
+   {
+      return writeStreamToTempFile(inputStream, tempFileSuffix, null);
+   }
+
+   /**
+    * Copy the data from an InputStream to a temp file in the specified directory.
+    *
+    * @param inputStream data source
+    * @param tempFileSuffix suffix to use for temp file
+    * @param directory directory in which to create the temp file, null for the system default
+    * @return File instance
+    */
+   public static File writeStreamToTempFile(InputStream inputStream, String tempFileSuffix, File directory) throws IOException
    {
       FileOutputStream outputStream = null;
 
       try
       {
-         File file = File.createTempFile("mpxj", tempFileSuffix);
+         File file = File.createTempFile("mpxj", tempFileSuffix, directory);
          outputStream = new FileOutputStream(file);
          byte[] buffer = new byte[1024];
          while (true)
@@ -80,7 +94,20 @@ public class InputStreamHelper
     */
    public static File writeZipStreamToTempDir(InputStream inputStream) throws IOException
    {
-      File dir = FileHelper.createTempDir();
+      return writeZipStreamToTempDir(inputStream, null);
+   }
+
+   /**
+    * Expands a zip file input stream into a temporary directory
+    * created within the specified directory.
+    *
+    * @param inputStream zip file input stream
+    * @param directory directory in which to create the temporary directory, null for the system default
+    * @return File instance representing the temporary directory
+    */
+   public static File writeZipStreamToTempDir(InputStream inputStream, File directory) throws IOException
+   {
+      File dir = FileHelper.createTempDir(directory);
 
       ZipInputStream zip = new ZipInputStream(inputStream);
       while (true)
@@ -116,4 +143,31 @@ public class InputStreamHelper
 
       return dir;
    }
+
+   /**
+    * Read data from an InputStream into a byte array, stopping once
+    * the maximum number of bytes have been read or the end of the
+    * stream is reached.
+    *
+    * @param inputStream data source
+    * @param maxLength maximum number of bytes to read
+    * @return bytes read
+    */
+   public static byte[] read(InputStream inputStream, int maxLength) throws IOException
+   {
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int remaining = maxLength;
+      while (remaining > 0)
+      {
+         int bytesRead = inputStream.read(buffer, 0, Math.min(buffer.length, remaining));
+         if (bytesRead == -1)
+         {
+            break;
+         }
+         outputStream.write(buffer, 0, bytesRead);
+         remaining -= bytesRead;
+      }
+      return outputStream.toByteArray();
+   }
 }
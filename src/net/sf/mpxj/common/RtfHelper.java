@@ -28,6 +28,9 @@ import java.io.IOException;
 import com.rtfparserkit.converter.text.StringTextConverter;
 import com.rtfparserkit.parser.RtfStringSource;
 
+import net.sf.mpxj.FieldType;
+import net.sf.mpxj.LazyFieldValue;
+
 /**
  * This class is used to collect together utility functions for manipulating
  * RTF encoded text.
@@ -72,6 +75,21 @@ public final class RtfHelper
       return result;
    }
 
+   /**
+    * Creates a placeholder which can be stored in a field container in place
+    * of RTF text. The RTF formatting is removed when the field is first
+    * retrieved, and the container then holds the plain text. This avoids
+    * parsing the RTF for fields which are never read. Note that the container
+    * must have events disabled when the placeholder is stored.
+    *
+    * @param text Text from which the RTF formatting is to be removed.
+    * @return placeholder, or the original text if it is null or empty
+    */
+   public static Object deferStrip(String text)
+   {
+      return text == null || text.isEmpty() ? text : new DeferredStrip(text);
+   }
+
    /**
     * Remove the trailing line end from an RTF block.
     *
@@ -87,4 +105,30 @@ public final class RtfHelper
       }
       return text;
    }
+
+   /**
+    * Placeholder holding RTF text until the plain text is required.
+    */
+   private static final class DeferredStrip implements LazyFieldValue
+   {
+      /**
+       * Constructor.
+       *
+       * @param text RTF text
+       */
+      public DeferredStrip(String text)
+      {
+         m_text = text;
+      }
+
+      /**
+       * {@inheritDoc}
+       */
+      @Override public Object getValue(FieldType field)
+      {
+         return strip(m_text);
+      }
+
+      private final String m_text;
+   }
 }
@@ -0,0 +1,41 @@
+/*
+ * file:       TimephasedWorkDecoder.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       17/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.common;
+
+import net.sf.mpxj.TimephasedWorkSeries;
+
+/**
+ * Classes implementing this interface are used to defer decoding
+ * timephased work data until it is first required.
+ */
+public interface TimephasedWorkDecoder
+{
+   /**
+    * Decode the timephased work data. This method is called at most
+    * once, the first time the data is required.
+    *
+    * @return timephased work data
+    */
+   public TimephasedWorkSeries decode();
+}
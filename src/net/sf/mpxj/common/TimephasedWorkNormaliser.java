@@ -23,10 +23,8 @@
 
 package net.sf.mpxj.common;
 
-import java.util.LinkedList;
-
 import net.sf.mpxj.ProjectCalendar;
-import net.sf.mpxj.TimephasedWork;
+import net.sf.mpxj.TimephasedWorkSeries;
 
 /**
  * Classes implementing this interface are used to normalise timephased
@@ -43,5 +41,5 @@ public interface TimephasedWorkNormaliser
     * @param calendar current calendar
     * @param list list of assignment data
     */
-   public void normalise(ProjectCalendar calendar, LinkedList<TimephasedWork> list);
+   public void normalise(ProjectCalendar calendar, TimephasedWorkSeries list);
 }
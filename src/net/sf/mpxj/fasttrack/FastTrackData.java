@@ -37,6 +37,7 @@ import java.util.Set;
 import java.util.TreeSet;
 
 import net.sf.mpxj.TimeUnit;
+import net.sf.mpxj.common.BytePatternMatcher;
 import net.sf.mpxj.common.CharsetHelper;
 
 /**
@@ -59,10 +60,15 @@ class FastTrackData
       FileInputStream is = new FileInputStream(file);
       try
       {
-         int bytesRead = is.read(m_buffer);
-         if (bytesRead != length)
+         int offset = 0;
+         while (offset < length)
          {
-            throw new RuntimeException("Read count different");
+            int bytesRead = is.read(m_buffer, offset, length - offset);
+            if (bytesRead == -1)
+            {
+               throw new RuntimeException("Read count different");
+            }
+            offset += bytesRead;
          }
       }
       finally
@@ -70,14 +76,7 @@ class FastTrackData
          is.close();
       }
 
-      List<Integer> blocks = new ArrayList<Integer>();
-      for (int index = 64; index < m_buffer.length - 11; index++)
-      {
-         if (matchPattern(PARENT_BLOCK_PATTERNS, index))
-         {
-            blocks.add(Integer.valueOf(index));
-         }
-      }
+      List<Integer> blocks = PARENT_BLOCK_SCANNER.findAll(m_buffer, 64, m_buffer.length - 11);
 
       int startIndex = 0;
       for (int endIndex : blocks)
@@ -160,27 +159,24 @@ class FastTrackData
     */
    private void readTableBlock(int startIndex, int blockLength)
    {
-      for (int index = startIndex; index < (startIndex + blockLength - 11); index++)
+      int index = TABLE_BLOCK_SCANNER.findFirst(m_buffer, startIndex, startIndex + blockLength - 11);
+      if (index != -1)
       {
-         if (matchPattern(TABLE_BLOCK_PATTERNS, index))
+         int offset = index + 7;
+         int nameLength = FastTrackUtility.getInt(m_buffer, offset);
+         offset += 4;
+         String name = new String(m_buffer, offset, nameLength, CharsetHelper.UTF16LE).toUpperCase();
+         FastTrackTableType type = REQUIRED_TABLES.get(name);
+         if (type != null)
          {
-            int offset = index + 7;
-            int nameLength = FastTrackUtility.getInt(m_buffer, offset);
-            offset += 4;
-            String name = new String(m_buffer, offset, nameLength, CharsetHelper.UTF16LE).toUpperCase();
-            FastTrackTableType type = REQUIRED_TABLES.get(name);
-            if (type != null)
-            {
-               m_currentTable = new FastTrackTable(type, this);
-               m_tables.put(type, m_currentTable);
-            }
-            else
-            {
-               m_currentTable = null;
-            }
-            m_currentFields.clear();
-            break;
+            m_currentTable = new FastTrackTable(type, this);
+            m_tables.put(type, m_currentTable);
+         }
+         else
+         {
+            m_currentTable = null;
          }
+         m_currentFields.clear();
       }
    }
 
@@ -192,15 +188,21 @@ class FastTrackData
     */
    private void readColumnBlock(int startIndex, int blockLength) throws Exception
    {
+      //
+      // If these columns belong to a table we don't read,
+      // there is no point locating the individual columns.
+      //
+      if (m_currentTable == null)
+      {
+         return;
+      }
+
       int endIndex = startIndex + blockLength;
       List<Integer> blocks = new ArrayList<Integer>();
-      for (int index = startIndex; index < endIndex - 11; index++)
+      for (Integer index : CHILD_BLOCK_SCANNER.findAll(m_buffer, startIndex, endIndex - 11))
       {
-         if (matchPattern(CHILD_BLOCK_PATTERNS, index))
-         {
-            int childBlockStart = index - 2;
-            blocks.add(Integer.valueOf(childBlockStart));
-         }
+         int childBlockStart = index.intValue() - 2;
+         blocks.add(Integer.valueOf(childBlockStart));
       }
       blocks.add(Integer.valueOf(endIndex));
 
@@ -265,37 +267,6 @@ class FastTrackData
       }
    }
 
-   /**
-    * Locate a feature in the file by match a byte pattern.
-    *
-    * @param patterns patterns to match
-    * @param bufferIndex start index
-    * @return true if the bytes at the position match a pattern
-    */
-   private final boolean matchPattern(byte[][] patterns, int bufferIndex)
-   {
-      boolean match = false;
-      for (byte[] pattern : patterns)
-      {
-         int index = 0;
-         match = true;
-         for (byte b : pattern)
-         {
-            if (b != m_buffer[bufferIndex + index])
-            {
-               match = false;
-               break;
-            }
-            ++index;
-         }
-         if (match)
-         {
-            break;
-         }
-      }
-      return match;
-   }
-
    /**
     * Update the default time unit for durations based on data read from the file.
     *
@@ -538,6 +509,10 @@ class FastTrackData
       }
    };
 
+   private static final BytePatternMatcher PARENT_BLOCK_SCANNER = new BytePatternMatcher(PARENT_BLOCK_PATTERNS);
+   private static final BytePatternMatcher CHILD_BLOCK_SCANNER = new BytePatternMatcher(CHILD_BLOCK_PATTERNS);
+   private static final BytePatternMatcher TABLE_BLOCK_SCANNER = new BytePatternMatcher(TABLE_BLOCK_PATTERNS);
+
    private static final Class<?>[] COLUMN_MAP = new Class<?>[256];
    static
    {
@@ -37,6 +37,8 @@ import java.util.regex.Pattern;
 
 import net.sf.mpxj.Duration;
 import net.sf.mpxj.EventManager;
+import net.sf.mpxj.FieldStorageFactory;
+import net.sf.mpxj.FieldType;
 import net.sf.mpxj.MPXJException;
 import net.sf.mpxj.ProjectConfig;
 import net.sf.mpxj.ProjectFile;
@@ -45,6 +47,7 @@ import net.sf.mpxj.RelationType;
 import net.sf.mpxj.Resource;
 import net.sf.mpxj.ResourceAssignment;
 import net.sf.mpxj.Task;
+import net.sf.mpxj.common.FieldFilterHelper;
 import net.sf.mpxj.common.FileHelper;
 import net.sf.mpxj.common.InputStreamHelper;
 import net.sf.mpxj.common.NumberHelper;
@@ -78,6 +81,22 @@ public class FastTrackReader implements ProjectReader
       m_projectListeners.add(listener);
    }
 
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void setFieldFilter(Set<FieldType> fields)
+   {
+      m_fieldFilter = fields;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void setFieldStorageFactory(FieldStorageFactory factory)
+   {
+      m_fieldStorageFactory = factory;
+   }
+
    /**
     * {@inheritDoc}
     */
@@ -139,6 +158,7 @@ public class FastTrackReader implements ProjectReader
    private ProjectFile read() throws Exception
    {
       m_project = new ProjectFile();
+      m_project.getProjectConfig().setFieldStorageFactory(m_fieldStorageFactory);
       m_eventManager = m_project.getEventManager();
 
       ProjectConfig config = m_project.getProjectConfig();
@@ -161,6 +181,8 @@ public class FastTrackReader implements ProjectReader
       processDependencies();
       processAssignments();
 
+      FieldFilterHelper.applyFilter(m_project, m_fieldFilter);
+
       return m_project;
    }
 
@@ -653,6 +675,8 @@ public class FastTrackReader implements ProjectReader
    private ProjectFile m_project;
    private EventManager m_eventManager;
    private List<ProjectListener> m_projectListeners;
+   private Set<FieldType> m_fieldFilter;
+   private FieldStorageFactory m_fieldStorageFactory;
 
    private static final Pattern WBS_SPLIT_REGEX = Pattern.compile("(\\.|\\-|\\+|\\/|\\,|\\:|\\;|\\~|\\\\|\\| )");
    private static final Pattern RELATION_REGEX = Pattern.compile("(\\d+)(:\\d+)?(FS|SF|SS|FF)*(\\-|\\+)*(\\d+\\.\\d+)*");
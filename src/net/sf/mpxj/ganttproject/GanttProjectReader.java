@@ -71,6 +71,7 @@ import net.sf.mpxj.ResourceAssignment;
 import net.sf.mpxj.ResourceField;
 import net.sf.mpxj.Task;
 import net.sf.mpxj.TimeUnit;
+import net.sf.mpxj.common.FieldFilterHelper;
 import net.sf.mpxj.common.NumberHelper;
 import net.sf.mpxj.common.Pair;
 import net.sf.mpxj.common.ResourceFieldLists;
@@ -118,6 +119,7 @@ public final class GanttProjectReader extends AbstractProjectReader
       try
       {
          m_projectFile = new ProjectFile();
+         m_projectFile.getProjectConfig().setFieldStorageFactory(getFieldStorageFactory());
          m_eventManager = m_projectFile.getEventManager();
          m_resourcePropertyDefinitions = new HashMap<String, Pair<FieldType, String>>();
          m_taskPropertyDefinitions = new HashMap<String, Pair<FieldType, String>>();
@@ -162,6 +164,11 @@ public final class GanttProjectReader extends AbstractProjectReader
          //
          config.updateUniqueCounters();
 
+         //
+         // Discard any fields which have been filtered out
+         //
+         FieldFilterHelper.applyFilter(m_projectFile, getFieldFilter());
+
          return m_projectFile;
       }
 
@@ -41,27 +41,23 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathExpression;
-import javax.xml.xpath.XPathFactory;
-
-import org.w3c.dom.Document;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
 
 import net.sf.mpxj.ConstraintType;
 import net.sf.mpxj.DateRange;
 import net.sf.mpxj.Day;
 import net.sf.mpxj.Duration;
 import net.sf.mpxj.EventManager;
+import net.sf.mpxj.FieldStorageFactory;
+import net.sf.mpxj.FieldType;
 import net.sf.mpxj.MPXJException;
 import net.sf.mpxj.Priority;
 import net.sf.mpxj.ProjectCalendar;
+import net.sf.mpxj.ProjectCalendarDateRanges;
 import net.sf.mpxj.ProjectCalendarException;
 import net.sf.mpxj.ProjectCalendarHours;
 import net.sf.mpxj.ProjectConfig;
@@ -74,6 +70,7 @@ import net.sf.mpxj.ResourceType;
 import net.sf.mpxj.ScheduleFrom;
 import net.sf.mpxj.Task;
 import net.sf.mpxj.TimeUnit;
+import net.sf.mpxj.common.FieldFilterHelper;
 import net.sf.mpxj.common.FileHelper;
 import net.sf.mpxj.common.InputStreamHelper;
 import net.sf.mpxj.common.NumberHelper;
@@ -101,6 +98,22 @@ public class MerlinReader implements ProjectReader
       m_projectListeners.add(listener);
    }
 
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void setFieldFilter(Set<FieldType> fields)
+   {
+      m_fieldFilter = fields;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void setFieldStorageFactory(FieldStorageFactory factory)
+   {
+      m_fieldStorageFactory = factory;
+   }
+
    /**
     * {@inheritDoc}
     */
@@ -164,11 +177,8 @@ public class MerlinReader implements ProjectReader
          Properties props = new Properties();
          m_connection = org.sqlite.JDBC.createConnection(url, props);
 
-         m_documentBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-
-         XPathFactory xPathfactory = XPathFactory.newInstance();
-         XPath xpath = xPathfactory.newXPath();
-         m_dayTimeIntervals = xpath.compile("/array/dayTimeInterval");
+         m_xmlInputFactory = XMLInputFactory.newInstance();
+         m_xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
 
          return read();
       }
@@ -193,8 +203,7 @@ public class MerlinReader implements ProjectReader
             }
          }
 
-         m_documentBuilder = null;
-         m_dayTimeIntervals = null;
+         m_xmlInputFactory = null;
       }
    }
 
@@ -206,6 +215,7 @@ public class MerlinReader implements ProjectReader
    private ProjectFile read() throws Exception
    {
       m_project = new ProjectFile();
+      m_project.getProjectConfig().setFieldStorageFactory(m_fieldStorageFactory);
       m_eventManager = m_project.getEventManager();
 
       ProjectConfig config = m_project.getProjectConfig();
@@ -225,6 +235,8 @@ public class MerlinReader implements ProjectReader
       processAssignments();
       processDependencies();
 
+      FieldFilterHelper.applyFilter(m_project, m_fieldFilter);
+
       return m_project;
    }
 
@@ -251,14 +263,32 @@ public class MerlinReader implements ProjectReader
     */
    private void processCalendars() throws Exception
    {
+      //
+      // Read all of the calendar rules for this project in one query,
+      // then split them by type and by calendar.
+      //
+      Map<Integer, List<Row>> dayRows = new HashMap<Integer, List<Row>>();
+      Map<Integer, List<Row>> exceptionRows = new HashMap<Integer, List<Row>>();
+      for (Row row : getRows("select * from zcalendarrule where (z_ent=13 and zcalendar1 in (select z_pk from zcalendar where zproject=?)) or (z_ent=12 and zcalendar in (select z_pk from zcalendar where zproject=?))", m_projectID, m_projectID))
+      {
+         if (row.getInt("Z_ENT") == 13)
+         {
+            addRow(dayRows, row.getInteger("ZCALENDAR1"), row);
+         }
+         else
+         {
+            addRow(exceptionRows, row.getInteger("ZCALENDAR"), row);
+         }
+      }
+
       List<Row> rows = getRows("select * from zcalendar where zproject=?", m_projectID);
       for (Row row : rows)
       {
          ProjectCalendar calendar = m_project.addCalendar();
          calendar.setUniqueID(row.getInteger("Z_PK"));
          calendar.setName(row.getString("ZTITLE"));
-         processDays(calendar);
-         processExceptions(calendar);
+         processDays(calendar, dayRows.get(calendar.getUniqueID()));
+         processExceptions(calendar, exceptionRows.get(calendar.getUniqueID()));
          m_eventManager.fireCalendarReadEvent(calendar);
       }
    }
@@ -267,8 +297,9 @@ public class MerlinReader implements ProjectReader
     * Process normal calendar working and non-working days.
     *
     * @param calendar parent calendar
+    * @param rows day rules for this calendar, may be null
     */
-   private void processDays(ProjectCalendar calendar) throws Exception
+   private void processDays(ProjectCalendar calendar, List<Row> rows) throws Exception
    {
       // Default all days to non-working
       for (Day day : Day.values())
@@ -276,7 +307,11 @@ public class MerlinReader implements ProjectReader
          calendar.setWorkingDay(day, false);
       }
 
-      List<Row> rows = getRows("select * from zcalendarrule where zcalendar1=? and z_ent=13", calendar.getUniqueID());
+      if (rows == null)
+      {
+         return;
+      }
+
       for (Row row : rows)
       {
          Day day = row.getDay("ZWEEKDAY");
@@ -288,25 +323,7 @@ public class MerlinReader implements ProjectReader
          else
          {
             ProjectCalendarHours hours = calendar.addCalendarHours(day);
-            NodeList nodes = getNodeList(timeIntervals, m_dayTimeIntervals);
-            calendar.setWorkingDay(day, nodes.getLength() > 0);
-
-            for (int loop = 0; loop < nodes.getLength(); loop++)
-            {
-               NamedNodeMap attributes = nodes.item(loop).getAttributes();
-               Date startTime = m_calendarTimeFormat.parse(attributes.getNamedItem("startTime").getTextContent());
-               Date endTime = m_calendarTimeFormat.parse(attributes.getNamedItem("endTime").getTextContent());
-
-               if (startTime.getTime() >= endTime.getTime())
-               {
-                  Calendar cal = Calendar.getInstance();
-                  cal.setTime(endTime);
-                  cal.add(Calendar.DAY_OF_YEAR, 1);
-                  endTime = cal.getTime();
-               }
-
-               hours.addRange(new DateRange(startTime, endTime));
-            }
+            calendar.setWorkingDay(day, processTimeIntervals(timeIntervals, hours) > 0);
          }
       }
    }
@@ -315,10 +332,15 @@ public class MerlinReader implements ProjectReader
     * Process calendar exceptions.
     *
     * @param calendar parent calendar.
+    * @param rows exception rules for this calendar, may be null
     */
-   private void processExceptions(ProjectCalendar calendar) throws Exception
+   private void processExceptions(ProjectCalendar calendar, List<Row> rows) throws Exception
    {
-      List<Row> rows = getRows("select * from zcalendarrule where zcalendar=? and z_ent=12", calendar.getUniqueID());
+      if (rows == null)
+      {
+         return;
+      }
+
       for (Row row : rows)
       {
          Date startDay = row.getDate("ZSTARTDAY");
@@ -328,25 +350,84 @@ public class MerlinReader implements ProjectReader
          String timeIntervals = row.getString("ZTIMEINTERVALS");
          if (timeIntervals != null)
          {
-            NodeList nodes = getNodeList(timeIntervals, m_dayTimeIntervals);
-            for (int loop = 0; loop < nodes.getLength(); loop++)
+            processTimeIntervals(timeIntervals, exception);
+         }
+      }
+   }
+
+   /**
+    * Read the working time ranges from an XML document of the form
+    * {@code <array><dayTimeInterval startTime="..." endTime="..."/></array>}
+    * and add them to a calendar hours or exception instance. The document is
+    * read with a streaming parser as it is short and is only read once.
+    *
+    * @param document XML document
+    * @param ranges container to which the ranges are added
+    * @return number of ranges added
+    */
+   private int processTimeIntervals(String document, ProjectCalendarDateRanges ranges) throws Exception
+   {
+      int count = 0;
+      XMLStreamReader reader = m_xmlInputFactory.createXMLStreamReader(new StringReader(document));
+
+      try
+      {
+         int depth = 0;
+         boolean array = false;
+
+         while (reader.hasNext())
+         {
+            switch (reader.next())
             {
-               NamedNodeMap attributes = nodes.item(loop).getAttributes();
-               Date startTime = m_calendarTimeFormat.parse(attributes.getNamedItem("startTime").getTextContent());
-               Date endTime = m_calendarTimeFormat.parse(attributes.getNamedItem("endTime").getTextContent());
+               case XMLStreamConstants.START_ELEMENT:
+               {
+                  ++depth;
+                  if (depth == 1)
+                  {
+                     array = "array".equals(reader.getLocalName());
+                  }
+                  else
+                  {
+                     if (depth == 2 && array && "dayTimeInterval".equals(reader.getLocalName()))
+                     {
+                        Date startTime = m_calendarTimeFormat.parse(reader.getAttributeValue(null, "startTime"));
+                        Date endTime = m_calendarTimeFormat.parse(reader.getAttributeValue(null, "endTime"));
+
+                        if (startTime.getTime() >= endTime.getTime())
+                        {
+                           Calendar cal = Calendar.getInstance();
+                           cal.setTime(endTime);
+                           cal.add(Calendar.DAY_OF_YEAR, 1);
+                           endTime = cal.getTime();
+                        }
+
+                        ranges.addRange(new DateRange(startTime, endTime));
+                        ++count;
+                     }
+                  }
+                  break;
+               }
 
-               if (startTime.getTime() >= endTime.getTime())
+               case XMLStreamConstants.END_ELEMENT:
                {
-                  Calendar cal = Calendar.getInstance();
-                  cal.setTime(endTime);
-                  cal.add(Calendar.DAY_OF_YEAR, 1);
-                  endTime = cal.getTime();
+                  --depth;
+                  break;
                }
 
-               exception.addRange(new DateRange(startTime, endTime));
+               default:
+               {
+                  break;
+               }
             }
          }
       }
+
+      finally
+      {
+         reader.close();
+      }
+
+      return count;
    }
 
    /**
@@ -392,15 +473,33 @@ public class MerlinReader implements ProjectReader
    private void processTasks() throws SQLException
    {
       //
-      // Yes... we could probably read this in one query in the right order
-      // using a CTE... but life's too short.
+      // Read all of the activities in one query, then build the
+      // hierarchy in memory. Only the top level activities are selected
+      // by project, so the activities beneath them are found by following
+      // the parent links in a recursive query. The query order is
+      // preserved within each parent, so children are added in the
+      // correct order.
       //
-      List<Row> rows = getRows("select * from zscheduleitem where zproject=? and zparentactivity_ is null and z_ent=45 order by zorderinparentactivity", m_projectID);
-      for (Row row : rows)
+      List<Row> topLevelRows = new LinkedList<Row>();
+      Map<Integer, List<Row>> childRows = new HashMap<Integer, List<Row>>();
+      for (Row row : getRows(ACTIVITY_QUERY, m_projectID))
+      {
+         Integer parentID = row.getInteger("ZPARENTACTIVITY_");
+         if (parentID == null)
+         {
+            topLevelRows.add(row);
+         }
+         else
+         {
+            addRow(childRows, parentID, row);
+         }
+      }
+
+      for (Row row : topLevelRows)
       {
          Task task = m_project.addTask();
          populateTask(row, task);
-         processChildTasks(task);
+         processChildTasks(task, childRows);
       }
    }
 
@@ -408,15 +507,19 @@ public class MerlinReader implements ProjectReader
     * Read all child tasks for a given parent.
     *
     * @param parentTask parent task
+    * @param childRows activity rows keyed by parent activity
     */
-   private void processChildTasks(Task parentTask) throws SQLException
+   private void processChildTasks(Task parentTask, Map<Integer, List<Row>> childRows)
    {
-      List<Row> rows = getRows("select * from zscheduleitem where zparentactivity_=? and z_ent=45 order by zorderinparentactivity", parentTask.getUniqueID());
-      for (Row row : rows)
+      List<Row> rows = childRows.get(parentTask.getUniqueID());
+      if (rows != null)
       {
-         Task task = parentTask.addTask();
-         populateTask(row, task);
-         processChildTasks(task);
+         for (Row row : rows)
+         {
+            Task task = parentTask.addTask();
+            populateTask(row, task);
+            processChildTasks(task, childRows);
+         }
       }
    }
 
@@ -600,30 +703,62 @@ public class MerlinReader implements ProjectReader
    }
 
    /**
-    * Retrieve a number of rows matching the supplied query
-    * which takes a single parameter.
+    * Retrieve a number of rows matching the supplied query,
+    * which may take any number of integer parameters.
     *
     * @param sql query statement
-    * @param var bind variable value
+    * @param vars bind variable values
     * @return result set
     * @throws SQLException
     */
-   private List<Row> getRows(String sql, Integer var) throws SQLException
+   private List<Row> getRows(String sql, Integer... vars) throws SQLException
    {
       List<Row> result = new LinkedList<Row>();
 
       m_ps = m_connection.prepareStatement(sql);
-      m_ps.setInt(1, NumberHelper.getInt(var));
-      m_rs = m_ps.executeQuery();
-      populateMetaData();
-      while (m_rs.next())
+      try
       {
-         result.add(new SqliteResultSetRow(m_rs, m_meta));
+         for (int index = 0; index < vars.length; index++)
+         {
+            m_ps.setInt(index + 1, NumberHelper.getInt(vars[index]));
+         }
+
+         m_rs = m_ps.executeQuery();
+         populateMetaData();
+         while (m_rs.next())
+         {
+            result.add(new SqliteResultSetRow(m_rs, m_meta));
+         }
+      }
+
+      finally
+      {
+         m_ps.close();
+         m_ps = null;
+         m_rs = null;
       }
 
       return (result);
    }
 
+   /**
+    * Add a row to a list of rows held in a map.
+    *
+    * @param map map of row lists
+    * @param key key of the list to add to
+    * @param row row to add
+    */
+   private void addRow(Map<Integer, List<Row>> map, Integer key, Row row)
+   {
+      List<Row> rows = map.get(key);
+      if (rows == null)
+      {
+         rows = new LinkedList<Row>();
+         map.put(key, rows);
+      }
+      rows.add(row);
+   }
+
    /**
     * Retrieves basic meta data from the result set.
     *
@@ -643,19 +778,6 @@ public class MerlinReader implements ProjectReader
       }
    }
 
-   /**
-    * Retrieve a node list based on an XPath expression.
-    *
-    * @param document XML document to process
-    * @param expression compiled XPath expression
-    * @return node list
-    */
-   private NodeList getNodeList(String document, XPathExpression expression) throws Exception
-   {
-      Document doc = m_documentBuilder.parse(new InputSource(new StringReader(document)));
-      return (NodeList) expression.evaluate(doc, XPathConstants.NODESET);
-   }
-
    private ProjectFile m_project;
    private EventManager m_eventManager;
    private Integer m_projectID = Integer.valueOf(1);
@@ -664,7 +786,14 @@ public class MerlinReader implements ProjectReader
    private ResultSet m_rs;
    private Map<String, Integer> m_meta = new HashMap<String, Integer>();
    private List<ProjectListener> m_projectListeners;
-   private DocumentBuilder m_documentBuilder;
+   private Set<FieldType> m_fieldFilter;
+   private FieldStorageFactory m_fieldStorageFactory;
+   private XMLInputFactory m_xmlInputFactory;
    private DateFormat m_calendarTimeFormat = new SimpleDateFormat("HH:mm:ss");
-   private XPathExpression m_dayTimeIntervals;
+
+   private static final String ACTIVITY_QUERY = "with recursive activity(z_pk) as ("
+      + "select z_pk from zscheduleitem where zproject=? and zparentactivity_ is null and z_ent=45 "
+      + "union all "
+      + "select zscheduleitem.z_pk from zscheduleitem, activity where zscheduleitem.zparentactivity_=activity.z_pk and zscheduleitem.z_ent=45) "
+      + "select * from zscheduleitem where z_pk in (select z_pk from activity) order by zorderinparentactivity";
 }
@@ -588,9 +588,14 @@ abstract class MPD9AbstractReader
          {
             if (m_preserveNoteFormatting == false)
             {
-               notes = RtfHelper.strip(notes);
+               resource.disableEvents();
+               resource.set(ResourceField.NOTES, RtfHelper.deferStrip(notes));
+               resource.enableEvents();
+            }
+            else
+            {
+               resource.setNotes(notes);
             }
-            resource.setNotes(notes);
          }
 
          resource.setResourceCalendar(m_project.getCalendarByUniqueID(row.getInteger("RES_CAL_UID")));
@@ -1045,9 +1050,14 @@ abstract class MPD9AbstractReader
          {
             if (m_preserveNoteFormatting == false)
             {
-               notes = RtfHelper.strip(notes);
+               task.disableEvents();
+               task.set(TaskField.NOTES, RtfHelper.deferStrip(notes));
+               task.enableEvents();
+            }
+            else
+            {
+               task.setNotes(notes);
             }
-            task.setNotes(notes);
          }
 
          //
@@ -1199,9 +1209,14 @@ abstract class MPD9AbstractReader
          {
             if (m_preserveNoteFormatting == false)
             {
-               notes = RtfHelper.strip(notes);
+               assignment.disableEvents();
+               assignment.set(AssignmentField.NOTES, RtfHelper.deferStrip(notes));
+               assignment.enableEvents();
+            }
+            else
+            {
+               assignment.setNotes(notes);
             }
-            assignment.setNotes(notes);
          }
 
          m_eventManager.fireAssignmentReadEvent(assignment);
@@ -1330,6 +1345,17 @@ abstract class MPD9AbstractReader
       m_preserveNoteFormatting = preserveNoteFormatting;
    }
 
+   /**
+    * Retrieve the flag indicating whether the RTF formatting associated
+    * with notes is preserved.
+    *
+    * @return true if note formatting is preserved
+    */
+   public boolean getPreserveNoteFormatting()
+   {
+      return m_preserveNoteFormatting;
+   }
+
    protected Integer m_projectID;
    protected ProjectFile m_project;
    protected EventManager m_eventManager;
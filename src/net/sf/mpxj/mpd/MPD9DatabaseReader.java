@@ -29,8 +29,12 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -38,6 +42,7 @@ import java.util.Set;
 
 import javax.sql.DataSource;
 
+import net.sf.mpxj.FieldStorageFactory;
 import net.sf.mpxj.MPXJException;
 import net.sf.mpxj.ProjectCalendar;
 import net.sf.mpxj.ProjectConfig;
@@ -49,6 +54,9 @@ import net.sf.mpxj.listener.ProjectListener;
 
 /**
  * This class reads project data from an MPD9 format database.
+ * Each table is queried once for a batch of projects, and the rows
+ * are passed on to the relevant project as they are read from the
+ * result set.
  */
 public final class MPD9DatabaseReader extends MPD9AbstractReader
 {
@@ -79,10 +87,18 @@ public final class MPD9DatabaseReader extends MPD9AbstractReader
       {
          Map<Integer, String> result = new HashMap<Integer, String>();
 
-         List<ResultSetRow> rows = getRows("SELECT PROJ_ID, PROJ_NAME FROM MSP_PROJECTS");
-         for (ResultSetRow row : rows)
+         executeQuery("SELECT PROJ_ID, PROJ_NAME FROM MSP_PROJECTS", Collections.<Integer> emptyList());
+         try
          {
-            processProjectListItem(result, row);
+            while (m_rs.next())
+            {
+               processProjectListItem(result, new ResultSetRow(m_rs, m_meta));
+            }
+         }
+
+         finally
+         {
+            releaseConnection();
          }
 
          return result;
@@ -101,42 +117,44 @@ public final class MPD9DatabaseReader extends MPD9AbstractReader
     * @throws MPXJException
     */
    public ProjectFile read() throws MPXJException
+   {
+      return readAll(Collections.singletonList(m_projectID)).get(0);
+   }
+
+   /**
+    * Read all projects available in the current data source.
+    * The projects are returned in order of their IDs.
+    *
+    * @return list of ProjectFile instances
+    * @throws MPXJException
+    */
+   public List<ProjectFile> readAll() throws MPXJException
+   {
+      List<Integer> projectIDs = new ArrayList<Integer>(listProjects().keySet());
+      Collections.sort(projectIDs);
+      return readAll(projectIDs);
+   }
+
+   /**
+    * Read a number of projects from the current data source. The
+    * projects are read in batches, with each table queried once per
+    * batch rather than once per project. The projects are returned in
+    * the same order as the supplied IDs.
+    *
+    * @param projectIDs IDs of the projects to read
+    * @return list of ProjectFile instances
+    * @throws MPXJException
+    */
+   public List<ProjectFile> readAll(List<Integer> projectIDs) throws MPXJException
    {
       try
       {
-         m_project = new ProjectFile();
-         m_eventManager = m_project.getEventManager();
-
-         ProjectConfig config = m_project.getProjectConfig();
-         config.setAutoTaskID(false);
-         config.setAutoTaskUniqueID(false);
-         config.setAutoResourceID(false);
-         config.setAutoResourceUniqueID(false);
-         config.setAutoOutlineLevel(false);
-         config.setAutoOutlineNumber(false);
-         config.setAutoWBS(false);
-         config.setAutoCalendarUniqueID(false);
-         config.setAutoAssignmentUniqueID(false);
-
-         m_project.getProjectProperties().setFileApplication("Microsoft");
-         m_project.getProjectProperties().setFileType("MPD");
-
-         m_project.getEventManager().addProjectListeners(m_projectListeners);
-
-         processProjectProperties();
-         processCalendars();
-         processResources();
-         processResourceBaselines();
-         processTasks();
-         processTaskBaselines();
-         processLinks();
-         processAssignments();
-         processAssignmentBaselines();
-         processExtendedAttributes();
-         processSubProjects();
-         postProcessing();
-
-         return (m_project);
+         List<ProjectFile> result = new ArrayList<ProjectFile>(projectIDs.size());
+         for (int index = 0; index < projectIDs.size(); index += m_batchSize)
+         {
+            result.addAll(readBatch(projectIDs.subList(index, Math.min(index + m_batchSize, projectIDs.size()))));
+         }
+         return result;
       }
 
       catch (SQLException ex)
@@ -166,176 +184,300 @@ public final class MPD9DatabaseReader extends MPD9AbstractReader
    }
 
    /**
-    * Select the project properties from the database.
+    * Set the number of rows the JDBC driver should fetch from the
+    * database each time more rows are needed. A value of zero,
+    * the default, leaves the choice to the driver.
     *
-    * @throws SQLException
+    * @param fetchSize fetch size
     */
-   private void processProjectProperties() throws SQLException
+   public void setFetchSize(int fetchSize)
    {
-      List<ResultSetRow> rows = getRows("SELECT * FROM MSP_PROJECTS WHERE PROJ_ID=?", m_projectID);
-      if (rows.isEmpty() == false)
-      {
-         processProjectProperties(rows.get(0));
-      }
+      m_fetchSize = fetchSize;
    }
 
    /**
-    * Select calendar data from the database.
+    * Set the maximum number of projects read together when more than
+    * one project is read. Larger batches mean fewer queries, but more
+    * projects held in memory while the batch is read.
     *
-    * @throws SQLException
+    * @param batchSize batch size
     */
-   private void processCalendars() throws SQLException
+   public void setBatchSize(int batchSize)
    {
-      for (ResultSetRow row : getRows("SELECT * FROM MSP_CALENDARS WHERE PROJ_ID=?", m_projectID))
+      if (batchSize < 1)
       {
-         processCalendar(row);
+         throw new IllegalArgumentException("Batch size must be at least 1");
       }
-
-      updateBaseCalendarNames();
-
-      processCalendarData(m_project.getCalendars());
+      m_batchSize = batchSize;
    }
 
    /**
-    * Process calendar hours and exception data from the database.
+    * Set the factory used to create field storage for the tasks,
+    * resources and assignments read.
     *
-    * @param calendars all calendars for the project
+    * @param factory field storage factory, or null to use the default
     */
-   private void processCalendarData(List<ProjectCalendar> calendars) throws SQLException
+   public void setFieldStorageFactory(FieldStorageFactory factory)
    {
-      for (ProjectCalendar calendar : calendars)
-      {
-         processCalendarData(calendar, getRows("SELECT * FROM MSP_CALENDAR_DATA WHERE PROJ_ID=? AND CAL_UID=?", m_projectID, calendar.getUniqueID()));
-      }
+      m_fieldStorageFactory = factory;
    }
 
    /**
-    * Process the hours and exceptions for an individual calendar.
+    * Read a batch of projects.
     *
-    * @param calendar project calendar
-    * @param calendarData hours and exception rows for this calendar
+    * @param projectIDs IDs of the projects in this batch
+    * @return list of ProjectFile instances
+    * @throws SQLException
     */
-   private void processCalendarData(ProjectCalendar calendar, List<ResultSetRow> calendarData)
+   private List<ProjectFile> readBatch(List<Integer> projectIDs) throws SQLException
    {
-      for (ResultSetRow row : calendarData)
+      Map<Integer, MPD9DatabaseReader> readers = new LinkedHashMap<Integer, MPD9DatabaseReader>();
+      for (Integer projectID : projectIDs)
       {
-         processCalendarData(calendar, row);
+         readers.put(projectID, createProjectReader(projectID));
       }
-   }
 
-   /**
-    * Process resources.
-    *
-    * @throws SQLException
-    */
-   private void processResources() throws SQLException
-   {
-      for (ResultSetRow row : getRows("SELECT * FROM MSP_RESOURCES WHERE PROJ_ID=?", m_projectID))
+      processRows(Table.PROJECTS, readers);
+      processRows(Table.CALENDARS, readers);
+      for (MPD9DatabaseReader reader : readers.values())
       {
-         processResource(row);
+         reader.updateBaseCalendarNames();
       }
-   }
+      processRows(Table.CALENDAR_DATA, readers);
 
-   /**
-    * Process resource baseline values.
-    *
-    * @throws SQLException
-    */
-   private void processResourceBaselines() throws SQLException
-   {
+      processRows(Table.RESOURCES, readers);
       if (m_hasResourceBaselines)
       {
-         for (ResultSetRow row : getRows("SELECT * FROM MSP_RESOURCE_BASELINES WHERE PROJ_ID=?", m_projectID))
-         {
-            processResourceBaseline(row);
-         }
+         processRows(Table.RESOURCE_BASELINES, readers);
       }
-   }
 
-   /**
-    * Process tasks.
-    *
-    * @throws SQLException
-    */
-   private void processTasks() throws SQLException
-   {
-      for (ResultSetRow row : getRows("SELECT * FROM MSP_TASKS WHERE PROJ_ID=?", m_projectID))
+      processRows(Table.TASKS, readers);
+      if (m_hasTaskBaselines)
       {
-         processTask(row);
+         processRows(Table.TASK_BASELINES, readers);
       }
-   }
 
-   /**
-    * Process task baseline values.
-    *
-    * @throws SQLException
-    */
-   private void processTaskBaselines() throws SQLException
-   {
-      if (m_hasTaskBaselines)
+      processRows(Table.LINKS, readers);
+
+      processRows(Table.ASSIGNMENTS, readers);
+      if (m_hasAssignmentBaselines)
       {
-         for (ResultSetRow row : getRows("SELECT * FROM MSP_TASK_BASELINES WHERE PROJ_ID=?", m_projectID))
-         {
-            processTaskBaseline(row);
-         }
+         processRows(Table.ASSIGNMENT_BASELINES, readers);
       }
-   }
 
-   /**
-    * Process links.
-    *
-    * @throws SQLException
-    */
-   private void processLinks() throws SQLException
-   {
-      for (ResultSetRow row : getRows("SELECT * FROM MSP_LINKS WHERE PROJ_ID=?", m_projectID))
+      processRows(Table.TEXT_FIELDS, readers);
+      processRows(Table.NUMBER_FIELDS, readers);
+      processRows(Table.FLAG_FIELDS, readers);
+      processRows(Table.DURATION_FIELDS, readers);
+      processRows(Table.DATE_FIELDS, readers);
+      processRows(Table.OUTLINE_CODES, readers);
+      processRows(Table.CODE_FIELDS, readers);
+
+      List<ProjectFile> result = new ArrayList<ProjectFile>(readers.size());
+      for (MPD9DatabaseReader reader : readers.values())
       {
-         processLink(row);
+         reader.processSubProjects();
+         reader.postProcessing();
+         result.add(reader.m_project);
       }
+      return result;
    }
 
    /**
-    * Process resource assignments.
+    * Create a reader to hold the state of a single project while
+    * a batch is read.
     *
-    * @throws SQLException
+    * @param projectID project ID
+    * @return reader instance
     */
-   private void processAssignments() throws SQLException
+   private MPD9DatabaseReader createProjectReader(Integer projectID)
    {
-      for (ResultSetRow row : getRows("SELECT * FROM MSP_ASSIGNMENTS WHERE PROJ_ID=?", m_projectID))
-      {
-         processAssignment(row);
-      }
+      MPD9DatabaseReader reader = new MPD9DatabaseReader();
+      reader.setProjectID(projectID);
+      reader.setPreserveNoteFormatting(getPreserveNoteFormatting());
+
+      reader.m_project = new ProjectFile();
+      reader.m_eventManager = reader.m_project.getEventManager();
+
+      ProjectConfig config = reader.m_project.getProjectConfig();
+      config.setFieldStorageFactory(m_fieldStorageFactory);
+      config.setAutoTaskID(false);
+      config.setAutoTaskUniqueID(false);
+      config.setAutoResourceID(false);
+      config.setAutoResourceUniqueID(false);
+      config.setAutoOutlineLevel(false);
+      config.setAutoOutlineNumber(false);
+      config.setAutoWBS(false);
+      config.setAutoCalendarUniqueID(false);
+      config.setAutoAssignmentUniqueID(false);
+
+      reader.m_project.getProjectProperties().setFileApplication("Microsoft");
+      reader.m_project.getProjectProperties().setFileType("MPD");
+
+      reader.m_eventManager.addProjectListeners(m_projectListeners);
+
+      return reader;
    }
 
    /**
-    * Process resource assignment baseline values.
+    * Read the rows of a table belonging to a batch of projects, passing
+    * each row to the reader for the project it belongs to.
     *
+    * @param table table to read
+    * @param readers readers for the projects in this batch, keyed by project ID
     * @throws SQLException
     */
-   private void processAssignmentBaselines() throws SQLException
+   private void processRows(Table table, Map<Integer, MPD9DatabaseReader> readers) throws SQLException
    {
-      if (m_hasAssignmentBaselines)
+      StringBuilder sql = new StringBuilder("SELECT * FROM ");
+      sql.append(table.getName());
+      sql.append(" WHERE PROJ_ID IN (");
+      for (int index = 0; index < readers.size(); index++)
+      {
+         sql.append(index == 0 ? "?" : ",?");
+      }
+      sql.append(')');
+
+      executeQuery(sql.toString(), readers.keySet());
+      try
       {
-         for (ResultSetRow row : getRows("SELECT * FROM MSP_ASSIGNMENT_BASELINES WHERE PROJ_ID=?", m_projectID))
+         while (m_rs.next())
          {
-            processAssignmentBaseline(row);
+            ResultSetRow row = new ResultSetRow(m_rs, m_meta);
+            MPD9DatabaseReader reader = readers.get(row.getInteger("PROJ_ID"));
+            if (reader != null)
+            {
+               reader.processRow(table, row);
+            }
          }
       }
+
+      finally
+      {
+         releaseConnection();
+      }
    }
 
    /**
-    * This method reads the extended task and resource attributes.
+    * Process a single row read from one of the project tables.
     *
-    * @throws SQLException
+    * @param table table the row was read from
+    * @param row row data
     */
-   private void processExtendedAttributes() throws SQLException
+   private void processRow(Table table, Row row)
    {
-      processTextFields();
-      processNumberFields();
-      processFlagFields();
-      processDurationFields();
-      processDateFields();
-      processOutlineCodeFields();
+      switch (table)
+      {
+         case PROJECTS:
+         {
+            processProjectProperties(row);
+            break;
+         }
+
+         case CALENDARS:
+         {
+            processCalendar(row);
+            break;
+         }
+
+         case CALENDAR_DATA:
+         {
+            ProjectCalendar calendar = m_project.getCalendarByUniqueID(row.getInteger("CAL_UID"));
+            if (calendar != null)
+            {
+               processCalendarData(calendar, row);
+            }
+            break;
+         }
+
+         case RESOURCES:
+         {
+            processResource(row);
+            break;
+         }
+
+         case RESOURCE_BASELINES:
+         {
+            processResourceBaseline(row);
+            break;
+         }
+
+         case TASKS:
+         {
+            processTask(row);
+            break;
+         }
+
+         case TASK_BASELINES:
+         {
+            processTaskBaseline(row);
+            break;
+         }
+
+         case LINKS:
+         {
+            processLink(row);
+            break;
+         }
+
+         case ASSIGNMENTS:
+         {
+            processAssignment(row);
+            break;
+         }
+
+         case ASSIGNMENT_BASELINES:
+         {
+            processAssignmentBaseline(row);
+            break;
+         }
+
+         case TEXT_FIELDS:
+         {
+            processTextField(row);
+            break;
+         }
+
+         case NUMBER_FIELDS:
+         {
+            processNumberField(row);
+            break;
+         }
+
+         case FLAG_FIELDS:
+         {
+            processFlagField(row);
+            break;
+         }
+
+         case DURATION_FIELDS:
+         {
+            processDurationField(row);
+            break;
+         }
+
+         case DATE_FIELDS:
+         {
+            processDateField(row);
+            break;
+         }
+
+         case OUTLINE_CODES:
+         {
+            m_outlineCodes.put(row.getInteger("CODE_UID"), row);
+            break;
+         }
+
+         case CODE_FIELDS:
+         {
+            Row outlineCode = m_outlineCodes.get(row.getInteger("CODE_UID"));
+            if (outlineCode != null)
+            {
+               processOutlineCodeField(row.getInteger("CODE_REF_UID"), outlineCode);
+            }
+            break;
+         }
+      }
    }
 
    /**
@@ -372,201 +514,40 @@ public final class MPD9DatabaseReader extends MPD9AbstractReader
    }
 
    /**
-    * Reads text field extended attributes.
-    *
-    * @throws SQLException
-    */
-   private void processTextFields() throws SQLException
-   {
-      for (ResultSetRow row : getRows("SELECT * FROM MSP_TEXT_FIELDS WHERE PROJ_ID=?", m_projectID))
-      {
-         processTextField(row);
-      }
-   }
-
-   /**
-    * Reads number field extended attributes.
-    *
-    * @throws SQLException
-    */
-   private void processNumberFields() throws SQLException
-   {
-      for (ResultSetRow row : getRows("SELECT * FROM MSP_NUMBER_FIELDS WHERE PROJ_ID=?", m_projectID))
-      {
-         processNumberField(row);
-      }
-   }
-
-   /**
-    * Reads flag field extended attributes.
-    *
-    * @throws SQLException
-    */
-   private void processFlagFields() throws SQLException
-   {
-      for (ResultSetRow row : getRows("SELECT * FROM MSP_FLAG_FIELDS WHERE PROJ_ID=?", m_projectID))
-      {
-         processFlagField(row);
-      }
-   }
-
-   /**
-    * Reads duration field extended attributes.
-    *
-    * @throws SQLException
-    */
-   private void processDurationFields() throws SQLException
-   {
-      for (ResultSetRow row : getRows("SELECT * FROM MSP_DURATION_FIELDS WHERE PROJ_ID=?", m_projectID))
-      {
-         processDurationField(row);
-      }
-   }
-
-   /**
-    * Reads date field extended attributes.
-    *
-    * @throws SQLException
-    */
-   private void processDateFields() throws SQLException
-   {
-      for (ResultSetRow row : getRows("SELECT * FROM MSP_DATE_FIELDS WHERE PROJ_ID=?", m_projectID))
-      {
-         processDateField(row);
-      }
-   }
-
-   /**
-    * Process outline code fields.
-    *
-    * @throws SQLException
-    */
-   private void processOutlineCodeFields() throws SQLException
-   {
-      for (ResultSetRow row : getRows("SELECT * FROM MSP_CODE_FIELDS WHERE PROJ_ID=?", m_projectID))
-      {
-         processOutlineCodeFields(row);
-      }
-   }
-
-   /**
-    * Process a single outline code.
-    *
-    * @param parentRow outline code to task mapping table
-    * @throws SQLException
-    */
-   private void processOutlineCodeFields(Row parentRow) throws SQLException
-   {
-      Integer entityID = parentRow.getInteger("CODE_REF_UID");
-      Integer outlineCodeEntityID = parentRow.getInteger("CODE_UID");
-
-      for (ResultSetRow row : getRows("SELECT * FROM MSP_OUTLINE_CODES WHERE CODE_UID=?", outlineCodeEntityID))
-      {
-         processOutlineCodeField(entityID, row);
-      }
-   }
-
-   /**
-    * Retrieve a number of rows matching the supplied query.
+    * Execute a query, leaving the result set ready to be read.
+    * The caller is responsible for calling releaseConnection once
+    * the rows have been read.
     *
     * @param sql query statement
-    * @return result set
+    * @param vars bind variable values
     * @throws SQLException
     */
-   private List<ResultSetRow> getRows(String sql) throws SQLException
+   private void executeQuery(String sql, Collection<Integer> vars) throws SQLException
    {
       allocateConnection();
 
       try
       {
-         List<ResultSetRow> result = new LinkedList<ResultSetRow>();
-
          m_ps = m_connection.prepareStatement(sql);
-         m_rs = m_ps.executeQuery();
-         populateMetaData();
-         while (m_rs.next())
+         if (m_fetchSize > 0)
          {
-            result.add(new ResultSetRow(m_rs, m_meta));
+            m_ps.setFetchSize(m_fetchSize);
          }
 
-         return (result);
-      }
-
-      finally
-      {
-         releaseConnection();
-      }
-   }
-
-   /**
-    * Retrieve a number of rows matching the supplied query
-    * which takes a single parameter.
-    *
-    * @param sql query statement
-    * @param var bind variable value
-    * @return result set
-    * @throws SQLException
-    */
-   private List<ResultSetRow> getRows(String sql, Integer var) throws SQLException
-   {
-      allocateConnection();
-
-      try
-      {
-         List<ResultSetRow> result = new LinkedList<ResultSetRow>();
-
-         m_ps = m_connection.prepareStatement(sql);
-         m_ps.setInt(1, NumberHelper.getInt(var));
-         m_rs = m_ps.executeQuery();
-         populateMetaData();
-         while (m_rs.next())
+         int index = 1;
+         for (Integer var : vars)
          {
-            result.add(new ResultSetRow(m_rs, m_meta));
+            m_ps.setInt(index++, NumberHelper.getInt(var));
          }
 
-         return (result);
-      }
-
-      finally
-      {
-         releaseConnection();
-      }
-   }
-
-   /**
-    * Retrieve a number of rows matching the supplied query
-    * which takes two parameters.
-    *
-    * @param sql query statement
-    * @param var1 bind variable value
-    * @param var2 bind variable value
-    * @return result set
-    * @throws SQLException
-    */
-   private List<ResultSetRow> getRows(String sql, Integer var1, Integer var2) throws SQLException
-   {
-      allocateConnection();
-
-      try
-      {
-         List<ResultSetRow> result = new LinkedList<ResultSetRow>();
-
-         m_ps = m_connection.prepareStatement(sql);
-         m_ps.setInt(1, NumberHelper.getInt(var1));
-         m_ps.setInt(2, NumberHelper.getInt(var2));
          m_rs = m_ps.executeQuery();
          populateMetaData();
-         while (m_rs.next())
-         {
-            result.add(new ResultSetRow(m_rs, m_meta));
-         }
-
-         return (result);
       }
 
-      finally
+      catch (SQLException ex)
       {
          releaseConnection();
+         throw ex;
       }
    }
 
@@ -718,4 +699,56 @@ public final class MPD9DatabaseReader extends MPD9AbstractReader
    private boolean m_hasResourceBaselines;
    private boolean m_hasTaskBaselines;
    private boolean m_hasAssignmentBaselines;
-}
\ No newline at end of file
+   private int m_fetchSize;
+   private int m_batchSize = DEFAULT_BATCH_SIZE;
+   private FieldStorageFactory m_fieldStorageFactory;
+   private Map<Integer, Row> m_outlineCodes = new HashMap<Integer, Row>();
+
+   static final int DEFAULT_BATCH_SIZE = 50;
+
+   /**
+    * Tables read for each project, in the order in which they are read.
+    */
+   private enum Table
+   {
+      PROJECTS("MSP_PROJECTS"),
+      CALENDARS("MSP_CALENDARS"),
+      CALENDAR_DATA("MSP_CALENDAR_DATA"),
+      RESOURCES("MSP_RESOURCES"),
+      RESOURCE_BASELINES("MSP_RESOURCE_BASELINES"),
+      TASKS("MSP_TASKS"),
+      TASK_BASELINES("MSP_TASK_BASELINES"),
+      LINKS("MSP_LINKS"),
+      ASSIGNMENTS("MSP_ASSIGNMENTS"),
+      ASSIGNMENT_BASELINES("MSP_ASSIGNMENT_BASELINES"),
+      TEXT_FIELDS("MSP_TEXT_FIELDS"),
+      NUMBER_FIELDS("MSP_NUMBER_FIELDS"),
+      FLAG_FIELDS("MSP_FLAG_FIELDS"),
+      DURATION_FIELDS("MSP_DURATION_FIELDS"),
+      DATE_FIELDS("MSP_DATE_FIELDS"),
+      OUTLINE_CODES("MSP_OUTLINE_CODES"),
+      CODE_FIELDS("MSP_CODE_FIELDS");
+
+      /**
+       * Constructor.
+       *
+       * @param name table name
+       */
+      private Table(String name)
+      {
+         m_name = name;
+      }
+
+      /**
+       * Retrieve the table name.
+       *
+       * @return table name
+       */
+      public String getName()
+      {
+         return m_name;
+      }
+
+      private final String m_name;
+   }
+}
@@ -31,11 +31,15 @@ import java.sql.SQLException;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.sql.DataSource;
 
+import net.sf.mpxj.FieldStorageFactory;
+import net.sf.mpxj.FieldType;
 import net.sf.mpxj.MPXJException;
 import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.common.FieldFilterHelper;
 import net.sf.mpxj.listener.ProjectListener;
 import net.sf.mpxj.reader.ProjectReader;
 
@@ -57,6 +61,22 @@ public final class MPDDatabaseReader implements ProjectReader
       m_projectListeners.add(listener);
    }
 
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void setFieldFilter(Set<FieldType> fields)
+   {
+      m_fieldFilter = fields;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void setFieldStorageFactory(FieldStorageFactory factory)
+   {
+      m_fieldStorageFactory = factory;
+   }
+
    /**
     * Populates a Map instance representing the IDs and names of
     * projects available in the current database.
@@ -66,8 +86,7 @@ public final class MPDDatabaseReader implements ProjectReader
     */
    public Map<Integer, String> listProjects() throws MPXJException
    {
-      MPD9DatabaseReader reader = new MPD9DatabaseReader();
-      return reader.listProjects();
+      return createReader().listProjects();
    }
 
    /**
@@ -78,15 +97,82 @@ public final class MPDDatabaseReader implements ProjectReader
     */
    public ProjectFile read() throws MPXJException
    {
-      MPD9DatabaseReader reader = new MPD9DatabaseReader();
+      MPD9DatabaseReader reader = createReader();
       reader.setProjectID(m_projectID);
-      reader.setPreserveNoteFormatting(m_preserveNoteFormatting);
-      reader.setDataSource(m_dataSource);
-      reader.setConnection(m_connection);
       ProjectFile project = reader.read();
+      FieldFilterHelper.applyFilter(project, m_fieldFilter);
       return (project);
    }
 
+   /**
+    * Read all of the projects in the database. Each table is queried
+    * once per batch of projects rather than once per project.
+    *
+    * @return list of ProjectFile instances
+    * @throws MPXJException
+    */
+   public List<ProjectFile> readAll() throws MPXJException
+   {
+      List<ProjectFile> projects = createReader().readAll();
+      for (ProjectFile project : projects)
+      {
+         FieldFilterHelper.applyFilter(project, m_fieldFilter);
+      }
+      return projects;
+   }
+
+   /**
+    * Create and configure the reader used to read from the database.
+    *
+    * @return MPD9DatabaseReader instance
+    */
+   private MPD9DatabaseReader createReader()
+   {
+      MPD9DatabaseReader reader = new MPD9DatabaseReader();
+      reader.setPreserveNoteFormatting(m_preserveNoteFormatting);
+      reader.setDataSource(m_dataSource);
+      if (m_connection != null)
+      {
+         reader.setConnection(m_connection);
+      }
+      reader.setFetchSize(m_fetchSize);
+      reader.setBatchSize(m_batchSize);
+      reader.setFieldStorageFactory(m_fieldStorageFactory);
+      if (m_projectListeners != null)
+      {
+         for (ProjectListener listener : m_projectListeners)
+         {
+            reader.addProjectListener(listener);
+         }
+      }
+      return reader;
+   }
+
+   /**
+    * Set the number of rows the JDBC driver should fetch each time
+    * more rows are needed. Zero leaves the choice to the driver.
+    *
+    * @param fetchSize fetch size
+    */
+   public void setFetchSize(int fetchSize)
+   {
+      m_fetchSize = fetchSize;
+   }
+
+   /**
+    * Set the maximum number of projects read together by readAll.
+    *
+    * @param batchSize batch size, which must be at least 1
+    */
+   public void setBatchSize(int batchSize)
+   {
+      if (batchSize < 1)
+      {
+         throw new IllegalArgumentException("Batch size must be at least 1");
+      }
+      m_batchSize = batchSize;
+   }
+
    /**
     * Set the ID of the project to be read.
     *
@@ -198,4 +284,8 @@ public final class MPDDatabaseReader implements ProjectReader
    private Connection m_connection;
    private boolean m_preserveNoteFormatting;
    private List<ProjectListener> m_projectListeners;
+   private Set<FieldType> m_fieldFilter;
+   private FieldStorageFactory m_fieldStorageFactory;
+   private int m_fetchSize;
+   private int m_batchSize = MPD9DatabaseReader.DEFAULT_BATCH_SIZE;
 }
\ No newline at end of file
@@ -32,6 +32,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import net.sf.mpxj.AccrueType;
 import net.sf.mpxj.BookingType;
@@ -42,6 +43,7 @@ import net.sf.mpxj.Duration;
 import net.sf.mpxj.EarnedValueMethod;
 import net.sf.mpxj.FieldContainer;
 import net.sf.mpxj.FieldType;
+import net.sf.mpxj.LazyFieldValue;
 import net.sf.mpxj.Priority;
 import net.sf.mpxj.ProjectProperties;
 import net.sf.mpxj.Rate;
@@ -49,6 +51,7 @@ import net.sf.mpxj.ResourceRequestType;
 import net.sf.mpxj.TaskType;
 import net.sf.mpxj.TimeUnit;
 import net.sf.mpxj.WorkGroup;
+import net.sf.mpxj.common.FieldFilterHelper;
 import net.sf.mpxj.common.NumberHelper;
 
 /**
@@ -406,9 +409,48 @@ abstract class FieldMap
       }
    }
 
+   /**
+    * Retrieve the flag which determines if field values are decoded
+    * when the container is populated, or when they are first requested.
+    *
+    * @return true if field values are decoded on demand
+    */
+   public boolean getLazyDecoding()
+   {
+      return m_lazyDecoding;
+   }
+
+   /**
+    * Set the flag which determines if field values are decoded
+    * when the container is populated, or when they are first requested.
+    *
+    * @param lazyDecoding true if field values are decoded on demand
+    */
+   public void setLazyDecoding(boolean lazyDecoding)
+   {
+      m_lazyDecoding = lazyDecoding;
+   }
+
+   /**
+    * Set the fields to be read. Any other fields are populated with
+    * a placeholder, so they are only decoded if they are requested
+    * while the file is being read.
+    *
+    * @param fieldFilter fields to read, or null to read all fields
+    */
+   public void setFieldFilter(Set<FieldType> fieldFilter)
+   {
+      m_fieldFilter = fieldFilter;
+   }
+
    /**
     * Given a container, and a set of raw data blocks, this method extracts
-    * the field data and writes it into the container.
+    * the field data and writes it into the container. If lazy decoding
+    * is enabled, or a field has been filtered out, the field is populated
+    * with a placeholder which holds a reference to the raw data, and the
+    * value itself is only decoded when the container first retrieves it.
+    * Note that the container must have events disabled while it is
+    * being populated.
     *
     * @param type expected type
     * @param container field container
@@ -419,12 +461,25 @@ abstract class FieldMap
    public void populateContainer(Class<? extends FieldType> type, FieldContainer container, Integer id, byte[][] fixedData, Var2Data varData)
    {
       //System.out.println(container.getClass().getSimpleName()+": " + id);
+      LazyValue lazyValue = null;
       for (FieldItem item : m_map.values())
       {
          if (item.getType().getClass().equals(type))
          {
             //System.out.println(item.m_type);
-            Object value = item.read(id, fixedData, varData);
+            Object value;
+            if (!m_lazyDecoding && FieldFilterHelper.includeField(m_fieldFilter, item.getType()))
+            {
+               value = item.read(id, fixedData, varData);
+            }
+            else
+            {
+               if (lazyValue == null)
+               {
+                  lazyValue = new LazyValue(id, fixedData, varData);
+               }
+               value = lazyValue;
+            }
             //System.out.println(item.m_type.getClass().getSimpleName() + "." + item.m_type +  ": " + value);
             container.set(item.getType(), value);
          }
@@ -684,6 +739,41 @@ abstract class FieldMap
       pw.close();
       return sw.toString();
    }
+
+   /**
+    * Placeholder stored in a container in place of the field values
+    * for a single entity. Retains the raw data for the entity so that
+    * individual values can be decoded on demand.
+    */
+   private class LazyValue implements LazyFieldValue
+   {
+      /**
+       * Constructor.
+       *
+       * @param id entity ID
+       * @param fixedData fixed data block
+       * @param varData var data block
+       */
+      public LazyValue(Integer id, byte[][] fixedData, Var2Data varData)
+      {
+         m_id = id;
+         m_fixedData = fixedData;
+         m_varData = varData;
+      }
+
+      /**
+       * {@inheritDoc}
+       */
+      @Override public Object getValue(FieldType field)
+      {
+         return getFieldData(m_id, field, m_fixedData, m_varData);
+      }
+
+      private final Integer m_id;
+      private final byte[][] m_fixedData;
+      private final Var2Data m_varData;
+   }
+
    /**
     * Enumeration representing the location of field data.
     */
@@ -1432,6 +1522,8 @@ abstract class FieldMap
    protected CustomFieldContainer m_customFields;
    private Map<FieldType, FieldItem> m_map = new HashMap<FieldType, FieldItem>();
    private int[] m_maxFixedDataSize = new int[MAX_FIXED_DATA_BLOCKS];
+   private boolean m_lazyDecoding;
+   private Set<FieldType> m_fieldFilter;
 
    private static final Integer[] TASK_KEYS =
    {
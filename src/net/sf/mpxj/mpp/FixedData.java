@@ -27,6 +27,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 /**
  * This class is used to represent the "FixedData" file entries that are
@@ -34,6 +36,10 @@ import java.io.StringWriter;
  * refer to the fact that the items held in these blocks have a known maximum
  * size, rather than all of the items being identically sized records.
  *
+ * The data for the block is read once into a single buffer, and each
+ * item is represented by its offset and size within that buffer. Items
+ * can be retrieved either as a copy, or as a view over the buffer.
+ *
  * Note that this class has package level access only, and is not intended
  * for use outside of this context.
  */
@@ -100,8 +106,9 @@ final class FixedData extends MPPComponent
       is.read(buffer);
 
       int itemCount = meta.getAdjustedItemCount();
-      m_array = new Object[itemCount];
+      m_buffer = buffer;
       m_offset = new int[itemCount];
+      m_size = createSizeArray(itemCount);
 
       int available;
 
@@ -160,7 +167,7 @@ final class FixedData extends MPPComponent
 
          if (itemSize > 0)
          {
-            m_array[loop] = MPPUtility.cloneSubArray(buffer, itemOffset, itemSize);
+            m_size[loop] = itemSize;
             m_offset[loop] = itemOffset;
          }
       }
@@ -183,8 +190,9 @@ final class FixedData extends MPPComponent
       is.read(buffer);
 
       int itemCount = meta.getAdjustedItemCount();
-      m_array = new Object[itemCount];
+      m_buffer = buffer;
       m_offset = new int[itemCount];
+      m_size = createSizeArray(itemCount);
 
       byte[] metaData;
       int itemOffset;
@@ -214,7 +222,7 @@ final class FixedData extends MPPComponent
             }
          }
 
-         m_array[loop] = MPPUtility.cloneSubArray(buffer, itemOffset, itemSize);
+         m_size[loop] = itemSize;
          m_offset[loop] = itemOffset;
       }
    }
@@ -251,26 +259,24 @@ final class FixedData extends MPPComponent
    FixedData(int itemSize, InputStream is, boolean readRemainderBlock)
       throws IOException
    {
+      byte[] buffer = new byte[is.available()];
+      is.read(buffer);
+
       int offset = 0;
-      int itemCount = is.available() / itemSize;
-      if (readRemainderBlock == true && is.available() % itemSize != 0)
+      int itemCount = buffer.length / itemSize;
+      if (readRemainderBlock == true && buffer.length % itemSize != 0)
       {
          ++itemCount;
       }
 
-      m_array = new Object[itemCount];
+      m_buffer = buffer;
       m_offset = new int[itemCount];
+      m_size = new int[itemCount];
 
       for (int loop = 0; loop < itemCount; loop++)
       {
          m_offset[loop] = offset;
-
-         int currentItemSize = itemSize;
-         if (readRemainderBlock == true && is.available() < itemSize)
-         {
-            currentItemSize = is.available();
-         }
-         m_array[loop] = readByteArray(is, currentItemSize);
+         m_size[loop] = Math.min(itemSize, buffer.length - offset);
          offset += itemSize;
       }
    }
@@ -287,9 +293,49 @@ final class FixedData extends MPPComponent
    {
       byte[] result = null;
 
-      if (index >= 0 && index < m_array.length && m_array[index] != null)
+      if (index >= 0 && index < m_size.length && m_size[index] != -1)
+      {
+         result = MPPUtility.cloneSubArray(m_buffer, m_offset[index], m_size[index]);
+      }
+
+      return (result);
+   }
+
+   /**
+    * This method retrieves a view of the data at the given index in the
+    * block. The view shares the underlying buffer, so no data is copied.
+    * Offsets used to read from the view are relative to the start of the
+    * item. If no data is found at the given index this method returns null.
+    *
+    * @param index index of the data item to be retrieved
+    * @return read only buffer containing the requested data
+    */
+   public ByteBuffer getByteBufferValue(int index)
+   {
+      ByteBuffer result = null;
+
+      if (index >= 0 && index < m_size.length && m_size[index] != -1)
+      {
+         result = ByteBuffer.wrap(m_buffer, m_offset[index], m_size[index]).slice().asReadOnlyBuffer();
+      }
+
+      return (result);
+   }
+
+   /**
+    * Retrieve the size of the data item at the given index in the block.
+    * If no data is found at the given index this method returns -1.
+    *
+    * @param index index of the data item
+    * @return item size in bytes
+    */
+   public int getItemSize(int index)
+   {
+      int result = -1;
+
+      if (index >= 0 && index < m_size.length)
       {
-         result = (byte[]) m_array[index];
+         result = m_size[index];
       }
 
       return (result);
@@ -304,7 +350,7 @@ final class FixedData extends MPPComponent
     */
    public int getItemCount()
    {
-      return (m_array.length);
+      return (m_size.length);
    }
 
    /**
@@ -328,7 +374,7 @@ final class FixedData extends MPPComponent
     */
    public boolean isValidOffset(int offset)
    {
-      return (offset >= 0 && offset < m_array.length);
+      return (offset >= 0 && offset < m_size.length);
    }
 
    /**
@@ -367,10 +413,10 @@ final class FixedData extends MPPComponent
       PrintWriter pw = new PrintWriter(sw);
 
       pw.println("BEGIN FixedData");
-      for (int loop = 0; loop < m_array.length; loop++)
+      for (int loop = 0; loop < m_size.length; loop++)
       {
          pw.println("   Data at index: " + loop + " offset: " + m_offset[loop]);
-         pw.println("  " + MPPUtility.hexdump((byte[]) m_array[loop], true));
+         pw.println("  " + MPPUtility.hexdump(getByteArrayValue(loop), true));
       }
       pw.println("END FixedData");
 
@@ -380,13 +426,32 @@ final class FixedData extends MPPComponent
    }
 
    /**
-    * An array containing all of the items of data held in this block.
+    * Create an array of item sizes, initially marking each
+    * item as having no data.
+    *
+    * @param itemCount number of items
+    * @return array of item sizes
+    */
+   private static int[] createSizeArray(int itemCount)
+   {
+      int[] result = new int[itemCount];
+      Arrays.fill(result, -1);
+      return result;
+   }
+
+   /**
+    * Buffer containing all of the data held in this block.
     */
-   private Object[] m_array;
+   private byte[] m_buffer;
 
    /**
-    * Array containing offset values for each item in the array.
+    * Array containing offset values for each item in the buffer.
     */
    private int[] m_offset;
 
+   /**
+    * Array containing the size of each item, or -1 if there is no data for an item.
+    */
+   private int[] m_size;
+
 }
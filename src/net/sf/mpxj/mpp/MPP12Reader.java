@@ -25,6 +25,7 @@ package net.sf.mpxj.mpp;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -813,7 +814,7 @@ final class MPP12Reader implements MPPVariantReader
       //
       for (int loop = 3; loop < itemCount; loop++)
       {
-         byte[] data = taskFixedData.getByteArrayValue(loop);
+         ByteBuffer data = taskFixedData.getByteBufferValue(loop);
          if (data != null)
          {
             byte[] metaData = taskFixedMeta.getByteArrayValue(loop);
@@ -844,7 +845,7 @@ final class MPP12Reader implements MPPVariantReader
                //
                // Do we have a null task?
                //
-               if (data.length == NULL_TASK_BLOCK_SIZE)
+               if (data.limit() == NULL_TASK_BLOCK_SIZE)
                {
                   uniqueID = MPPUtility.getInt(data, TASK_UNIQUE_ID_FIXED_OFFSET);
                   key = Integer.valueOf(uniqueID);
@@ -860,7 +861,7 @@ final class MPP12Reader implements MPPVariantReader
                   // the task is valid.
                   //
                   int maxSize = fieldMap.getMaxFixedDataSize(0);
-                  if (maxSize == 0 || ((data.length * 100) / maxSize) > 75)
+                  if (maxSize == 0 || ((data.limit() * 100) / maxSize) > 75)
                   {
                      uniqueID = MPPUtility.getInt(data, uniqueIdOffset);
                      key = Integer.valueOf(uniqueID);
@@ -895,8 +896,8 @@ final class MPP12Reader implements MPPVariantReader
 
       for (int loop = 0; loop < itemCount; loop++)
       {
-         byte[] data = rscFixedData.getByteArrayValue(loop);
-         if (data == null || data.length < fieldMap.getMaxFixedDataSize(0))
+         ByteBuffer data = rscFixedData.getByteBufferValue(loop);
+         if (data == null || data.limit() < fieldMap.getMaxFixedDataSize(0))
          {
             continue;
          }
@@ -939,9 +940,13 @@ final class MPP12Reader implements MPPVariantReader
    {
       FieldMap fieldMap = new FieldMap12(m_file.getProjectProperties(), m_file.getCustomFields());
       fieldMap.createTaskFieldMap(m_projectProps);
+      fieldMap.setLazyDecoding(m_reader.getLazyFieldDecoding());
+      fieldMap.setFieldFilter(m_reader.getFieldFilter());
 
       FieldMap enterpriseCustomFieldMap = new FieldMap12(m_file.getProjectProperties(), m_file.getCustomFields());
       enterpriseCustomFieldMap.createEnterpriseCustomFieldMap(m_projectProps, TaskField.class);
+      enterpriseCustomFieldMap.setLazyDecoding(m_reader.getLazyFieldDecoding());
+      enterpriseCustomFieldMap.setFieldFilter(m_reader.getFieldFilter());
 
       DirectoryEntry taskDir = (DirectoryEntry) m_projectDir.getEntry("TBkndTask");
       VarMeta taskVarMeta = new VarMeta12(new DocumentInputStream(((DocumentEntry) taskDir.getEntry("VarMeta"))));
@@ -1177,9 +1182,14 @@ final class MPP12Reader implements MPPVariantReader
          notes = task.getNotes();
          if (!m_reader.getPreserveNoteFormatting())
          {
-            notes = RtfHelper.strip(notes);
+            task.disableEvents();
+            task.set(TaskField.NOTES, RtfHelper.deferStrip(notes));
+            task.enableEvents();
+         }
+         else
+         {
+            task.setNotes(notes);
          }
-         task.setNotes(notes);
 
          //
          // Set the calendar name
@@ -1687,9 +1697,13 @@ final class MPP12Reader implements MPPVariantReader
    {
       FieldMap fieldMap = new FieldMap12(m_file.getProjectProperties(), m_file.getCustomFields());
       fieldMap.createResourceFieldMap(m_projectProps);
+      fieldMap.setLazyDecoding(m_reader.getLazyFieldDecoding());
+      fieldMap.setFieldFilter(m_reader.getFieldFilter());
 
       FieldMap enterpriseCustomFieldMap = new FieldMap12(m_file.getProjectProperties(), m_file.getCustomFields());
       enterpriseCustomFieldMap.createEnterpriseCustomFieldMap(m_projectProps, ResourceField.class);
+      enterpriseCustomFieldMap.setLazyDecoding(m_reader.getLazyFieldDecoding());
+      enterpriseCustomFieldMap.setFieldFilter(m_reader.getFieldFilter());
 
       DirectoryEntry rscDir = (DirectoryEntry) m_projectDir.getEntry("TBkndRsc");
       VarMeta rscVarMeta = new VarMeta12(new DocumentInputStream(((DocumentEntry) rscDir.getEntry("VarMeta"))));
@@ -1797,9 +1811,14 @@ final class MPP12Reader implements MPPVariantReader
          notes = resource.getNotes();
          if (m_reader.getPreserveNoteFormatting() == false)
          {
-            notes = RtfHelper.strip(notes);
+            resource.disableEvents();
+            resource.set(ResourceField.NOTES, RtfHelper.deferStrip(notes));
+            resource.enableEvents();
+         }
+         else
+         {
+            resource.setNotes(notes);
          }
-         resource.setNotes(notes);
 
          //
          // Configure the resource calendar
@@ -1840,9 +1859,13 @@ final class MPP12Reader implements MPPVariantReader
    {
       FieldMap fieldMap = new FieldMap12(m_file.getProjectProperties(), m_file.getCustomFields());
       fieldMap.createAssignmentFieldMap(m_projectProps);
+      fieldMap.setLazyDecoding(m_reader.getLazyFieldDecoding());
+      fieldMap.setFieldFilter(m_reader.getFieldFilter());
 
       FieldMap enterpriseCustomFieldMap = new FieldMap12(m_file.getProjectProperties(), m_file.getCustomFields());
       enterpriseCustomFieldMap.createEnterpriseCustomFieldMap(m_projectProps, AssignmentField.class);
+      enterpriseCustomFieldMap.setLazyDecoding(m_reader.getLazyFieldDecoding());
+      enterpriseCustomFieldMap.setFieldFilter(m_reader.getFieldFilter());
 
       DirectoryEntry assnDir = (DirectoryEntry) m_projectDir.getEntry("TBkndAssn");
       VarMeta assnVarMeta = new VarMeta12(new DocumentInputStream(((DocumentEntry) assnDir.getEntry("VarMeta"))));
@@ -1853,7 +1876,7 @@ final class MPP12Reader implements MPPVariantReader
       FixedData assnFixedData = new FixedData(assnFixedMeta, m_inputStreamFactory.getInstance(assnDir, "FixedData"));
       FixedData assnFixedData2 = new FixedData(48, m_inputStreamFactory.getInstance(assnDir, "Fixed2Data"));
       ResourceAssignmentFactory factory = new ResourceAssignmentFactory();
-      factory.process(m_file, fieldMap, enterpriseCustomFieldMap, m_reader.getUseRawTimephasedData(), m_reader.getPreserveNoteFormatting(), assnVarMeta, assnVarData, assnFixedMeta, assnFixedData, assnFixedData2, assnFixedMeta.getAdjustedItemCount());
+      factory.process(m_file, fieldMap, enterpriseCustomFieldMap, m_reader.getUseRawTimephasedData(), m_reader.getLazyTimephasedData(), m_reader.getPreserveNoteFormatting(), assnVarMeta, assnVarData, assnFixedMeta, assnFixedData, assnFixedData2, assnFixedMeta.getAdjustedItemCount());
    }
 
    /**
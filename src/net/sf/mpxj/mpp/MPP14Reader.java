@@ -26,6 +26,7 @@ package net.sf.mpxj.mpp;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -821,7 +822,7 @@ final class MPP14Reader implements MPPVariantReader
       //
       for (int loop = 3; loop < itemCount; loop++)
       {
-         byte[] data = taskFixedData.getByteArrayValue(loop);
+         ByteBuffer data = taskFixedData.getByteBufferValue(loop);
          if (data != null)
          {
             byte[] metaData = taskFixedMeta.getByteArrayValue(loop);
@@ -852,7 +853,7 @@ final class MPP14Reader implements MPPVariantReader
                //
                // Do we have a null task?
                //
-               if (data.length == NULL_TASK_BLOCK_SIZE)
+               if (data.limit() == NULL_TASK_BLOCK_SIZE)
                {
                   uniqueID = MPPUtility.getInt(data, TASK_UNIQUE_ID_FIXED_OFFSET);
                   key = Integer.valueOf(uniqueID);
@@ -868,7 +869,7 @@ final class MPP14Reader implements MPPVariantReader
                   // the task is valid.
                   //
                   int maxSize = fieldMap.getMaxFixedDataSize(0);
-                  if (maxSize == 0 || ((data.length * 100) / maxSize) > 75)
+                  if (maxSize == 0 || ((data.limit() * 100) / maxSize) > 75)
                   {
                      uniqueID = MPPUtility.getInt(data, uniqueIdOffset);
                      key = Integer.valueOf(uniqueID);
@@ -905,8 +906,8 @@ final class MPP14Reader implements MPPVariantReader
 
       for (int loop = 0; loop < itemCount; loop++)
       {
-         byte[] data = rscFixedData.getByteArrayValue(loop);
-         if (data == null || data.length < maxFixedDataSize)
+         ByteBuffer data = rscFixedData.getByteBufferValue(loop);
+         if (data == null || data.limit() < maxFixedDataSize)
          {
             continue;
          }
@@ -949,9 +950,13 @@ final class MPP14Reader implements MPPVariantReader
    {
       FieldMap fieldMap = new FieldMap14(m_file.getProjectProperties(), m_file.getCustomFields());
       fieldMap.createTaskFieldMap(m_projectProps);
+      fieldMap.setLazyDecoding(m_reader.getLazyFieldDecoding());
+      fieldMap.setFieldFilter(m_reader.getFieldFilter());
 
       FieldMap enterpriseCustomFieldMap = new FieldMap14(m_file.getProjectProperties(), m_file.getCustomFields());
       enterpriseCustomFieldMap.createEnterpriseCustomFieldMap(m_projectProps, TaskField.class);
+      enterpriseCustomFieldMap.setLazyDecoding(m_reader.getLazyFieldDecoding());
+      enterpriseCustomFieldMap.setFieldFilter(m_reader.getFieldFilter());
 
       DirectoryEntry taskDir = (DirectoryEntry) m_projectDir.getEntry("TBkndTask");
       VarMeta taskVarMeta = new VarMeta12(new DocumentInputStream(((DocumentEntry) taskDir.getEntry("VarMeta"))));
@@ -1185,15 +1190,20 @@ final class MPP14Reader implements MPPVariantReader
          }
 
          //
-         // Retrieve the task notes.
+         // Retrieve the task notes. Any RTF formatting is removed
+         // when the notes are first requested rather than here.
          //
          notes = task.getNotes();
          if (m_reader.getPreserveNoteFormatting() == false)
          {
-            notes = RtfHelper.strip(notes);
+            task.disableEvents();
+            task.set(TaskField.NOTES, RtfHelper.deferStrip(notes));
+            task.enableEvents();
+         }
+         else
+         {
+            task.setNotes(notes);
          }
-
-         task.setNotes(notes);
 
          //
          // Set the calendar name
@@ -1579,9 +1589,13 @@ final class MPP14Reader implements MPPVariantReader
    {
       FieldMap fieldMap = new FieldMap14(m_file.getProjectProperties(), m_file.getCustomFields());
       fieldMap.createResourceFieldMap(m_projectProps);
+      fieldMap.setLazyDecoding(m_reader.getLazyFieldDecoding());
+      fieldMap.setFieldFilter(m_reader.getFieldFilter());
 
       FieldMap enterpriseCustomFieldMap = new FieldMap14(m_file.getProjectProperties(), m_file.getCustomFields());
       enterpriseCustomFieldMap.createEnterpriseCustomFieldMap(m_projectProps, ResourceField.class);
+      enterpriseCustomFieldMap.setLazyDecoding(m_reader.getLazyFieldDecoding());
+      enterpriseCustomFieldMap.setFieldFilter(m_reader.getFieldFilter());
 
       DirectoryEntry rscDir = (DirectoryEntry) m_projectDir.getEntry("TBkndRsc");
       VarMeta rscVarMeta = new VarMeta12(new DocumentInputStream(((DocumentEntry) rscDir.getEntry("VarMeta"))));
@@ -1688,10 +1702,14 @@ final class MPP14Reader implements MPPVariantReader
          notes = resource.getNotes();
          if (m_reader.getPreserveNoteFormatting() == false)
          {
-            notes = RtfHelper.strip(notes);
+            resource.disableEvents();
+            resource.set(ResourceField.NOTES, RtfHelper.deferStrip(notes));
+            resource.enableEvents();
+         }
+         else
+         {
+            resource.setNotes(notes);
          }
-
-         resource.setNotes(notes);
 
          //
          // Configure the resource calendar
@@ -1732,9 +1750,13 @@ final class MPP14Reader implements MPPVariantReader
    {
       FieldMap fieldMap = new FieldMap14(m_file.getProjectProperties(), m_file.getCustomFields());
       fieldMap.createAssignmentFieldMap(m_projectProps);
+      fieldMap.setLazyDecoding(m_reader.getLazyFieldDecoding());
+      fieldMap.setFieldFilter(m_reader.getFieldFilter());
 
       FieldMap enterpriseCustomFieldMap = new FieldMap14(m_file.getProjectProperties(), m_file.getCustomFields());
       enterpriseCustomFieldMap.createEnterpriseCustomFieldMap(m_projectProps, AssignmentField.class);
+      enterpriseCustomFieldMap.setLazyDecoding(m_reader.getLazyFieldDecoding());
+      enterpriseCustomFieldMap.setFieldFilter(m_reader.getFieldFilter());
 
       DirectoryEntry assnDir = (DirectoryEntry) m_projectDir.getEntry("TBkndAssn");
       VarMeta assnVarMeta = new VarMeta12(new DocumentInputStream(((DocumentEntry) assnDir.getEntry("VarMeta"))));
@@ -1746,7 +1768,7 @@ final class MPP14Reader implements MPPVariantReader
       //Props props = new Props14(new DocumentInputStream(((DocumentEntry) assnDir.getEntry("Props"))));
 
       ResourceAssignmentFactory factory = new ResourceAssignmentFactory();
-      factory.process(m_file, fieldMap, enterpriseCustomFieldMap, m_reader.getUseRawTimephasedData(), m_reader.getPreserveNoteFormatting(), assnVarMeta, assnVarData, assnFixedMeta, assnFixedData, assnFixedData2, assnFixedMeta.getItemCount());
+      factory.process(m_file, fieldMap, enterpriseCustomFieldMap, m_reader.getUseRawTimephasedData(), m_reader.getLazyTimephasedData(), m_reader.getPreserveNoteFormatting(), assnVarMeta, assnVarData, assnFixedMeta, assnFixedData, assnFixedData2, assnFixedMeta.getItemCount());
    }
 
    /**
@@ -51,9 +51,11 @@ import net.sf.mpxj.Relation;
 import net.sf.mpxj.RelationType;
 import net.sf.mpxj.Resource;
 import net.sf.mpxj.ResourceAssignment;
+import net.sf.mpxj.ResourceField;
 import net.sf.mpxj.Table;
 import net.sf.mpxj.TableContainer;
 import net.sf.mpxj.Task;
+import net.sf.mpxj.TaskField;
 import net.sf.mpxj.TaskType;
 import net.sf.mpxj.TimeUnit;
 import net.sf.mpxj.View;
@@ -710,10 +712,14 @@ final class MPP8Reader implements MPPVariantReader
          {
             if (m_reader.getPreserveNoteFormatting() == false)
             {
-               notes = RtfHelper.strip(notes);
+               task.disableEvents();
+               task.set(TaskField.NOTES, RtfHelper.deferStrip(notes));
+               task.enableEvents();
+            }
+            else
+            {
+               task.setNotes(notes);
             }
-
-            task.setNotes(notes);
          }
 
          //
@@ -1045,10 +1051,14 @@ final class MPP8Reader implements MPPVariantReader
          {
             if (m_reader.getPreserveNoteFormatting() == false)
             {
-               notes = RtfHelper.strip(notes);
+               resource.disableEvents();
+               resource.set(ResourceField.NOTES, RtfHelper.deferStrip(notes));
+               resource.enableEvents();
+            }
+            else
+            {
+               resource.setNotes(notes);
             }
-
-            resource.setNotes(notes);
          }
 
          m_eventManager.fireResourceReadEvent(resource);
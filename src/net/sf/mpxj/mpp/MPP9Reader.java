@@ -25,6 +25,7 @@ package net.sf.mpxj.mpp;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -909,7 +910,7 @@ final class MPP9Reader implements MPPVariantReader
       //
       for (int loop = 3; loop < itemCount; loop++)
       {
-         byte[] data = taskFixedData.getByteArrayValue(loop);
+         ByteBuffer data = taskFixedData.getByteBufferValue(loop);
          if (data != null)
          {
             byte[] metaData = taskFixedMeta.getByteArrayValue(loop);
@@ -940,7 +941,7 @@ final class MPP9Reader implements MPPVariantReader
                //
                // Do we have a null task?
                //
-               if (data.length == NULL_TASK_BLOCK_SIZE)
+               if (data.limit() == NULL_TASK_BLOCK_SIZE)
                {
                   uniqueID = MPPUtility.getInt(data, TASK_UNIQUE_ID_FIXED_OFFSET);
                   key = Integer.valueOf(uniqueID);
@@ -956,7 +957,7 @@ final class MPP9Reader implements MPPVariantReader
                   // the task is valid.
                   //
                   int maxSize = fieldMap.getMaxFixedDataSize(0);
-                  if (maxSize == 0 || ((data.length * 100) / maxSize) > 75)
+                  if (maxSize == 0 || ((data.limit() * 100) / maxSize) > 75)
                   {
                      uniqueID = MPPUtility.getInt(data, uniqueIdOffset);
                      key = Integer.valueOf(uniqueID);
@@ -990,8 +991,8 @@ final class MPP9Reader implements MPPVariantReader
 
       for (int loop = 0; loop < itemCount; loop++)
       {
-         byte[] data = rscFixedData.getByteArrayValue(loop);
-         if (data == null || data.length < fieldMap.getMaxFixedDataSize(0))
+         ByteBuffer data = rscFixedData.getByteBufferValue(loop);
+         if (data == null || data.limit() < fieldMap.getMaxFixedDataSize(0))
          {
             continue;
          }
@@ -1031,6 +1032,8 @@ final class MPP9Reader implements MPPVariantReader
    {
       FieldMap fieldMap = new FieldMap9(m_file.getProjectProperties(), m_file.getCustomFields());
       fieldMap.createTaskFieldMap(m_projectProps);
+      fieldMap.setLazyDecoding(m_reader.getLazyFieldDecoding());
+      fieldMap.setFieldFilter(m_reader.getFieldFilter());
 
       DirectoryEntry taskDir = (DirectoryEntry) m_projectDir.getEntry("TBkndTask");
       VarMeta taskVarMeta = new VarMeta9(new DocumentInputStream(((DocumentEntry) taskDir.getEntry("VarMeta"))));
@@ -1239,9 +1242,14 @@ final class MPP9Reader implements MPPVariantReader
          notes = task.getNotes();
          if (!m_reader.getPreserveNoteFormatting())
          {
-            notes = RtfHelper.strip(notes);
+            task.disableEvents();
+            task.set(TaskField.NOTES, RtfHelper.deferStrip(notes));
+            task.enableEvents();
+         }
+         else
+         {
+            task.setNotes(notes);
          }
-         task.setNotes(notes);
 
          //
          // Set the calendar name
@@ -1721,6 +1729,8 @@ final class MPP9Reader implements MPPVariantReader
    {
       FieldMap fieldMap = new FieldMap9(m_file.getProjectProperties(), m_file.getCustomFields());
       fieldMap.createResourceFieldMap(m_projectProps);
+      fieldMap.setLazyDecoding(m_reader.getLazyFieldDecoding());
+      fieldMap.setFieldFilter(m_reader.getFieldFilter());
 
       DirectoryEntry rscDir = (DirectoryEntry) m_projectDir.getEntry("TBkndRsc");
       VarMeta rscVarMeta = new VarMeta9(new DocumentInputStream(((DocumentEntry) rscDir.getEntry("VarMeta"))));
@@ -1807,10 +1817,14 @@ final class MPP9Reader implements MPPVariantReader
          notes = resource.getNotes();
          if (m_reader.getPreserveNoteFormatting() == false)
          {
-            notes = RtfHelper.strip(notes);
+            resource.disableEvents();
+            resource.set(ResourceField.NOTES, RtfHelper.deferStrip(notes));
+            resource.enableEvents();
+         }
+         else
+         {
+            resource.setNotes(notes);
          }
-
-         resource.setNotes(notes);
 
          //
          // Configure the resource calendar
@@ -1851,6 +1865,8 @@ final class MPP9Reader implements MPPVariantReader
    {
       FieldMap fieldMap = new FieldMap9(m_file.getProjectProperties(), m_file.getCustomFields());
       fieldMap.createAssignmentFieldMap(m_projectProps);
+      fieldMap.setLazyDecoding(m_reader.getLazyFieldDecoding());
+      fieldMap.setFieldFilter(m_reader.getFieldFilter());
 
       DirectoryEntry assnDir = (DirectoryEntry) m_projectDir.getEntry("TBkndAssn");
       VarMeta assnVarMeta = new VarMeta9(new DocumentInputStream(((DocumentEntry) assnDir.getEntry("VarMeta"))));
@@ -1864,7 +1880,7 @@ final class MPP9Reader implements MPPVariantReader
       }
 
       ResourceAssignmentFactory factory = new ResourceAssignmentFactory();
-      factory.process(m_file, fieldMap, null, m_reader.getUseRawTimephasedData(), m_reader.getPreserveNoteFormatting(), assnVarMeta, assnVarData, assnFixedMeta, assnFixedData, null, assnFixedMeta.getAdjustedItemCount());
+      factory.process(m_file, fieldMap, null, m_reader.getUseRawTimephasedData(), m_reader.getLazyTimephasedData(), m_reader.getPreserveNoteFormatting(), assnVarMeta, assnVarData, assnFixedMeta, assnFixedData, null, assnFixedMeta.getAdjustedItemCount());
    }
 
    /**
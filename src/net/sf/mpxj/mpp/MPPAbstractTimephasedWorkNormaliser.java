@@ -25,12 +25,12 @@ package net.sf.mpxj.mpp;
 
 import java.util.Calendar;
 import java.util.Date;
-import java.util.LinkedList;
 
 import net.sf.mpxj.Duration;
 import net.sf.mpxj.ProjectCalendar;
 import net.sf.mpxj.TimeUnit;
 import net.sf.mpxj.TimephasedWork;
+import net.sf.mpxj.TimephasedWorkSeries;
 import net.sf.mpxj.common.AbstractTimephasedWorkNormaliser;
 import net.sf.mpxj.common.DateHelper;
 
@@ -48,7 +48,7 @@ public abstract class MPPAbstractTimephasedWorkNormaliser extends AbstractTimeph
     * @param calendar current calendar
     * @param list list of assignment data
     */
-   @Override public void normalise(ProjectCalendar calendar, LinkedList<TimephasedWork> list)
+   @Override public void normalise(ProjectCalendar calendar, TimephasedWorkSeries list)
    {
       if (!list.isEmpty())
       {
@@ -70,9 +70,9 @@ public abstract class MPPAbstractTimephasedWorkNormaliser extends AbstractTimeph
     * @param calendar current project calendar
     * @param list list of assignment data
     */
-   private void splitDays(ProjectCalendar calendar, LinkedList<TimephasedWork> list)
+   private void splitDays(ProjectCalendar calendar, TimephasedWorkSeries list)
    {
-      LinkedList<TimephasedWork> result = new LinkedList<TimephasedWork>();
+      TimephasedWorkSeries result = new TimephasedWorkSeries(list.size());
       boolean remainderInserted = false;
       Calendar cal = Calendar.getInstance();
 
@@ -145,8 +145,7 @@ public abstract class MPPAbstractTimephasedWorkNormaliser extends AbstractTimeph
          }
       }
 
-      list.clear();
-      list.addAll(result);
+      list.replaceWith(result);
    }
 
    /**
@@ -257,7 +256,7 @@ public abstract class MPPAbstractTimephasedWorkNormaliser extends AbstractTimeph
     * @param calendar current calendar
     * @param list assignment data
     */
-   protected abstract void mergeSameDay(ProjectCalendar calendar, LinkedList<TimephasedWork> list);
+   protected abstract void mergeSameDay(ProjectCalendar calendar, TimephasedWorkSeries list);
 
    /**
     * Retrieves the pro-rata work carried out on a given day.
@@ -286,7 +285,7 @@ public abstract class MPPAbstractTimephasedWorkNormaliser extends AbstractTimeph
    }
 
    /*
-      private void dumpList(LinkedList<TimephasedWork> list)
+      private void dumpList(TimephasedWorkSeries list)
       {
          System.out.println();
          for (TimephasedWork assignment : list)
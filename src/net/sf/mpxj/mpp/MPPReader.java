@@ -43,6 +43,7 @@ import net.sf.mpxj.ProjectFile;
 import net.sf.mpxj.ProjectProperties;
 import net.sf.mpxj.Relation;
 import net.sf.mpxj.Task;
+import net.sf.mpxj.common.FieldFilterHelper;
 import net.sf.mpxj.listener.ProjectListener;
 import net.sf.mpxj.reader.AbstractProjectReader;
 
@@ -123,6 +124,7 @@ public final class MPPReader extends AbstractProjectReader
       {
          ProjectFile projectFile = new ProjectFile();
          ProjectConfig config = projectFile.getProjectConfig();
+         config.setFieldStorageFactory(getFieldStorageFactory());
 
          config.setAutoTaskID(false);
          config.setAutoTaskUniqueID(false);
@@ -186,6 +188,11 @@ public final class MPPReader extends AbstractProjectReader
          //
          config.updateUniqueCounters();
 
+         //
+         // Discard any fields which have been filtered out
+         //
+         FieldFilterHelper.applyFilter(projectFile, getFieldFilter());
+
          //
          // Add some analytics
          //
@@ -297,6 +304,35 @@ public final class MPPReader extends AbstractProjectReader
       m_useRawTimephasedData = useRawTimephasedData;
    }
 
+   /**
+    * Retrieves a flag which indicates whether timephased assignment data
+    * is decoded as it is read, or when it is first requested.
+    *
+    * @return true if timephased data is decoded on demand
+    */
+   public boolean getLazyTimephasedData()
+   {
+      return m_lazyTimephasedData;
+   }
+
+   /**
+    * Flag to allow time to be saved when timephased assignment data is
+    * not required, or is only required for some assignments. When this
+    * flag is set, each assignment retains a reference to its raw
+    * timephased data from the MPP file, which is decoded the first time the
+    * timephased data, or the actual start or work contour of the assignment,
+    * is retrieved. Note that the data is decoded using the assignment
+    * attributes and calendars in effect at the point it is retrieved.
+    * Timephased data for assignments to split tasks is always decoded as it
+    * is read, as it is used to determine the task's splits.
+    *
+    * @param lazyTimephasedData set to true to decode timephased data on demand
+    */
+   public void setLazyTimephasedData(boolean lazyTimephasedData)
+   {
+      m_lazyTimephasedData = lazyTimephasedData;
+   }
+
    /**
     * Retrieves a flag which indicates whether presentation data will
     * be read from the MPP file. Not reading this data saves time and memory.
@@ -319,6 +355,35 @@ public final class MPPReader extends AbstractProjectReader
       m_readPresentationData = readPresentationData;
    }
 
+   /**
+    * Retrieves a flag which indicates whether task, resource and
+    * assignment field values are decoded as they are read, or
+    * when they are first requested.
+    *
+    * @return true if field values are decoded on demand
+    */
+   public boolean getLazyFieldDecoding()
+   {
+      return m_lazyFieldDecoding;
+   }
+
+   /**
+    * Flag to allow time and memory to be saved when only a subset of
+    * task, resource and assignment fields are required. When this flag
+    * is set, each entity retains a reference to its raw data from the
+    * MPP file, and individual field values are decoded the first time they
+    * are retrieved. Note that values are decoded using the project
+    * properties in effect at the point they are retrieved, and that the
+    * raw data is retained until the corresponding field values
+    * have been decoded.
+    *
+    * @param lazyFieldDecoding set to true to decode field values on demand
+    */
+   public void setLazyFieldDecoding(boolean lazyFieldDecoding)
+   {
+      m_lazyFieldDecoding = lazyFieldDecoding;
+   }
+
    /**
     * Flag to determine if the reader should only read the project properties.
     * This allows for rapid access to the document properties, without the
@@ -401,6 +466,11 @@ public final class MPPReader extends AbstractProjectReader
     */
    private boolean m_useRawTimephasedData;
 
+   /**
+    * Flag to allow timephased data to be decoded on demand.
+    */
+   private boolean m_lazyTimephasedData;
+
    /**
     * Flag to allow time and memory to be saved by not reading
     * presentation data from the MPP file.
@@ -408,6 +478,11 @@ public final class MPPReader extends AbstractProjectReader
    private boolean m_readPresentationData = true;
    private boolean m_readPropertiesOnly;
 
+   /**
+    * Flag to allow field values to be decoded on demand.
+    */
+   private boolean m_lazyFieldDecoding;
+
    private String m_readPassword;
    private String m_writePassword;
    private List<ProjectListener> m_projectListeners;
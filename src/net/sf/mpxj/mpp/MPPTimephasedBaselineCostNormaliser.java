@@ -25,12 +25,12 @@ package net.sf.mpxj.mpp;
 
 import java.util.Calendar;
 import java.util.Date;
-import java.util.LinkedList;
 
 import net.sf.mpxj.Duration;
 import net.sf.mpxj.ProjectCalendar;
 import net.sf.mpxj.TimeUnit;
 import net.sf.mpxj.TimephasedCost;
+import net.sf.mpxj.TimephasedCostSeries;
 import net.sf.mpxj.common.DateHelper;
 import net.sf.mpxj.common.NumberHelper;
 import net.sf.mpxj.common.TimephasedCostNormaliser;
@@ -48,7 +48,7 @@ public class MPPTimephasedBaselineCostNormaliser implements TimephasedCostNormal
     * @param calendar current calendar
     * @param list list of assignment data
     */
-   @Override public void normalise(ProjectCalendar calendar, LinkedList<TimephasedCost> list)
+   @Override public void normalise(ProjectCalendar calendar, TimephasedCostSeries list)
    {
       if (!list.isEmpty())
       {
@@ -68,9 +68,9 @@ public class MPPTimephasedBaselineCostNormaliser implements TimephasedCostNormal
     * @param calendar current project calendar
     * @param list list of assignment data
     */
-   private void splitDays(ProjectCalendar calendar, LinkedList<TimephasedCost> list)
+   private void splitDays(ProjectCalendar calendar, TimephasedCostSeries list)
    {
-      LinkedList<TimephasedCost> result = new LinkedList<TimephasedCost>();
+      TimephasedCostSeries result = new TimephasedCostSeries(list.size());
       boolean remainderInserted = false;
       Calendar cal = Calendar.getInstance();
 
@@ -118,8 +118,7 @@ public class MPPTimephasedBaselineCostNormaliser implements TimephasedCostNormal
          }
       }
 
-      list.clear();
-      list.addAll(result);
+      list.replaceWith(result);
    }
 
    /**
@@ -199,48 +198,35 @@ public class MPPTimephasedBaselineCostNormaliser implements TimephasedCostNormal
     *
     * @param list assignment data
     */
-   private void mergeSameDay(LinkedList<TimephasedCost> list)
+   private void mergeSameDay(TimephasedCostSeries list)
    {
-      LinkedList<TimephasedCost> result = new LinkedList<TimephasedCost>();
+      TimephasedCostSeries result = new TimephasedCostSeries(list.size());
 
-      TimephasedCost previousAssignment = null;
-      for (TimephasedCost assignment : list)
+      for (int index = 0; index < list.size(); index++)
       {
-         if (previousAssignment == null)
+         int resultIndex;
+
+         //
+         // The previous assignment is always the last item in the result.
+         //
+         int previousIndex = result.size() - 1;
+         if (previousIndex != -1 && getDayStart(result.getStartTime(previousIndex)) == getDayStart(list.getStartTime(index)))
          {
-            assignment.setAmountPerDay(assignment.getTotalAmount());
-            result.add(assignment);
+            double cost = result.getTotalAmountValue(previousIndex) + list.getTotalAmountValue(index);
+            result.setFinishTime(previousIndex, list.getFinishTime(index));
+            result.setTotalAmount(previousIndex, cost);
+            result.setModified(previousIndex, false);
+            resultIndex = previousIndex;
          }
          else
          {
-            Date previousAssignmentStart = previousAssignment.getStart();
-            Date previousAssignmentStartDay = DateHelper.getDayStartDate(previousAssignmentStart);
-            Date assignmentStart = assignment.getStart();
-            Date assignmentStartDay = DateHelper.getDayStartDate(assignmentStart);
-
-            if (previousAssignmentStartDay.getTime() == assignmentStartDay.getTime())
-            {
-               result.removeLast();
-
-               double cost = previousAssignment.getTotalAmount().doubleValue();
-               cost += assignment.getTotalAmount().doubleValue();
-
-               TimephasedCost merged = new TimephasedCost();
-               merged.setStart(previousAssignment.getStart());
-               merged.setFinish(assignment.getFinish());
-               merged.setTotalAmount(Double.valueOf(cost));
-               assignment = merged;
-            }
-
-            assignment.setAmountPerDay(assignment.getTotalAmount());
-            result.add(assignment);
+            resultIndex = result.add(list, index);
          }
 
-         previousAssignment = assignment;
+         result.setAmountPerDay(resultIndex, result.getTotalAmountValue(resultIndex));
       }
 
-      list.clear();
-      list.addAll(result);
+      list.replaceWith(result);
    }
 
    /**
@@ -248,55 +234,48 @@ public class MPPTimephasedBaselineCostNormaliser implements TimephasedCostNormal
     *
     * @param list assignment data
     */
-   protected void mergeSameCost(LinkedList<TimephasedCost> list)
+   protected void mergeSameCost(TimephasedCostSeries list)
    {
-      LinkedList<TimephasedCost> result = new LinkedList<TimephasedCost>();
+      TimephasedCostSeries result = new TimephasedCostSeries(list.size());
 
-      TimephasedCost previousAssignment = null;
-      for (TimephasedCost assignment : list)
+      for (int index = 0; index < list.size(); index++)
       {
-         if (previousAssignment == null)
+         double assignmentCost = list.getTotalAmountValue(index);
+
+         //
+         // The previous assignment is always the last item in the result.
+         //
+         int previousIndex = result.size() - 1;
+         if (previousIndex != -1 && NumberHelper.equals(result.getAmountPerDayValue(previousIndex), assignmentCost, 0.01))
          {
-            assignment.setAmountPerDay(assignment.getTotalAmount());
-            result.add(assignment);
+            result.setFinishTime(previousIndex, list.getFinishTime(index));
+            result.setTotalAmount(previousIndex, result.getTotalAmountValue(previousIndex) + assignmentCost);
+            result.setAmountPerDay(previousIndex, assignmentCost);
+            result.setModified(previousIndex, false);
          }
          else
          {
-            Number previousAssignmentCost = previousAssignment.getAmountPerDay();
-            Number assignmentCost = assignment.getTotalAmount();
-
-            if (NumberHelper.equals(previousAssignmentCost.doubleValue(), assignmentCost.doubleValue(), 0.01))
-            {
-               Date assignmentStart = previousAssignment.getStart();
-               Date assignmentFinish = assignment.getFinish();
-               double total = previousAssignment.getTotalAmount().doubleValue();
-               total += assignmentCost.doubleValue();
-
-               TimephasedCost merged = new TimephasedCost();
-               merged.setStart(assignmentStart);
-               merged.setFinish(assignmentFinish);
-               merged.setAmountPerDay(assignmentCost);
-               merged.setTotalAmount(Double.valueOf(total));
-
-               result.removeLast();
-               assignment = merged;
-            }
-            else
-            {
-               assignment.setAmountPerDay(assignment.getTotalAmount());
-            }
-            result.add(assignment);
+            int resultIndex = result.add(list, index);
+            result.setAmountPerDay(resultIndex, assignmentCost);
          }
-
-         previousAssignment = assignment;
       }
 
-      list.clear();
-      list.addAll(result);
+      list.replaceWith(result);
+   }
+
+   /**
+    * Retrieve the start of the day containing the supplied date.
+    *
+    * @param date date in milliseconds
+    * @return start of day in milliseconds
+    */
+   private long getDayStart(long date)
+   {
+      return DateHelper.getDayStartDate(new Date(date)).getTime();
    }
 
    /*
-   private void dumpList(LinkedList<TimephasedCost> list)
+   private void dumpList(TimephasedCostSeries list)
    {
       System.out.println();
       for (TimephasedCost assignment : list)
@@ -24,12 +24,10 @@
 package net.sf.mpxj.mpp;
 
 import java.util.Date;
-import java.util.LinkedList;
 
-import net.sf.mpxj.Duration;
 import net.sf.mpxj.ProjectCalendar;
 import net.sf.mpxj.TimeUnit;
-import net.sf.mpxj.TimephasedWork;
+import net.sf.mpxj.TimephasedWorkSeries;
 import net.sf.mpxj.common.DateHelper;
 
 /**
@@ -43,48 +41,45 @@ public class MPPTimephasedBaselineWorkNormaliser extends MPPAbstractTimephasedWo
     * @param calendar current calendar
     * @param list assignment data
     */
-   @Override protected void mergeSameDay(ProjectCalendar calendar, LinkedList<TimephasedWork> list)
+   @Override protected void mergeSameDay(ProjectCalendar calendar, TimephasedWorkSeries list)
    {
-      LinkedList<TimephasedWork> result = new LinkedList<TimephasedWork>();
+      TimephasedWorkSeries result = new TimephasedWorkSeries(list.size());
 
-      TimephasedWork previousAssignment = null;
-      for (TimephasedWork assignment : list)
+      for (int index = 0; index < list.size(); index++)
       {
-         if (previousAssignment == null)
+         int resultIndex;
+
+         //
+         // The previous assignment is always the last item in the result.
+         //
+         int previousIndex = result.size() - 1;
+         if (previousIndex != -1 && getDayStart(result.getStartTime(previousIndex)) == getDayStart(list.getStartTime(index)))
          {
-            assignment.setAmountPerDay(assignment.getTotalAmount());
-            result.add(assignment);
+            double work = result.getTotalAmountValue(previousIndex) + list.getTotalAmountValue(index);
+            result.setFinishTime(previousIndex, list.getFinishTime(index));
+            result.setTotalAmount(previousIndex, work, TimeUnit.MINUTES);
+            result.setModified(previousIndex, false);
+            resultIndex = previousIndex;
          }
          else
          {
-            Date previousAssignmentStart = previousAssignment.getStart();
-            Date previousAssignmentStartDay = DateHelper.getDayStartDate(previousAssignmentStart);
-            Date assignmentStart = assignment.getStart();
-            Date assignmentStartDay = DateHelper.getDayStartDate(assignmentStart);
-
-            if (previousAssignmentStartDay.getTime() == assignmentStartDay.getTime())
-            {
-               result.removeLast();
-
-               double work = previousAssignment.getTotalAmount().getDuration();
-               work += assignment.getTotalAmount().getDuration();
-               Duration totalWork = Duration.getInstance(work, TimeUnit.MINUTES);
-
-               TimephasedWork merged = new TimephasedWork();
-               merged.setStart(previousAssignment.getStart());
-               merged.setFinish(assignment.getFinish());
-               merged.setTotalAmount(totalWork);
-               assignment = merged;
-            }
-
-            assignment.setAmountPerDay(assignment.getTotalAmount());
-            result.add(assignment);
+            resultIndex = result.add(list, index);
          }
 
-         previousAssignment = assignment;
+         result.setAmountPerDay(resultIndex, result.getTotalAmountValue(resultIndex), result.getTotalAmountUnits(resultIndex));
       }
 
-      list.clear();
-      list.addAll(result);
+      list.replaceWith(result);
+   }
+
+   /**
+    * Retrieve the start of the day containing the supplied date.
+    *
+    * @param date date in milliseconds
+    * @return start of day in milliseconds
+    */
+   private long getDayStart(long date)
+   {
+      return DateHelper.getDayStartDate(new Date(date)).getTime();
    }
 }
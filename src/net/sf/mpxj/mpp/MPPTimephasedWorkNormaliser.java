@@ -24,12 +24,11 @@
 package net.sf.mpxj.mpp;
 
 import java.util.Date;
-import java.util.LinkedList;
 
 import net.sf.mpxj.Duration;
 import net.sf.mpxj.ProjectCalendar;
 import net.sf.mpxj.TimeUnit;
-import net.sf.mpxj.TimephasedWork;
+import net.sf.mpxj.TimephasedWorkSeries;
 import net.sf.mpxj.common.DateHelper;
 
 /**
@@ -43,80 +42,82 @@ public class MPPTimephasedWorkNormaliser extends MPPAbstractTimephasedWorkNormal
     * @param calendar current calendar
     * @param list assignment data
     */
-   @Override protected void mergeSameDay(ProjectCalendar calendar, LinkedList<TimephasedWork> list)
+   @Override protected void mergeSameDay(ProjectCalendar calendar, TimephasedWorkSeries list)
    {
-      LinkedList<TimephasedWork> result = new LinkedList<TimephasedWork>();
+      TimephasedWorkSeries result = new TimephasedWorkSeries(list.size());
 
-      TimephasedWork previousAssignment = null;
-      for (TimephasedWork assignment : list)
+      for (int index = 0; index < list.size(); index++)
       {
-         if (previousAssignment == null)
-         {
-            assignment.setAmountPerDay(assignment.getTotalAmount());
-            result.add(assignment);
-         }
-         else
-         {
-            Date previousAssignmentStart = previousAssignment.getStart();
-            Date previousAssignmentStartDay = DateHelper.getDayStartDate(previousAssignmentStart);
-            Date assignmentStart = assignment.getStart();
-            Date assignmentStartDay = DateHelper.getDayStartDate(assignmentStart);
+         long assignmentStart = list.getStartTime(index);
+         long assignmentFinish = list.getFinishTime(index);
+         double assignmentWork = list.getTotalAmountValue(index);
+         int resultIndex;
 
-            if (previousAssignmentStartDay.getTime() == assignmentStartDay.getTime())
+         //
+         // The previous assignment is always the last item in the result.
+         //
+         int previousIndex = result.size() - 1;
+         if (previousIndex != -1 && getDayStart(result.getStartTime(previousIndex)) == getDayStart(assignmentStart))
+         {
+            double previousAssignmentWork = result.getTotalAmountValue(previousIndex);
+            if (previousAssignmentWork != 0 && assignmentWork == 0)
             {
-               Duration previousAssignmentWork = previousAssignment.getTotalAmount();
-               Duration assignmentWork = assignment.getTotalAmount();
+               continue;
+            }
 
-               if (previousAssignmentWork.getDuration() != 0 && assignmentWork.getDuration() == 0)
+            long previousAssignmentFinish = result.getFinishTime(previousIndex);
+            if (previousAssignmentFinish == assignmentStart || calendar.getNextWorkStart(new Date(previousAssignmentFinish)).getTime() == assignmentStart)
+            {
+               if (previousAssignmentWork != 0 && assignmentWork != 0)
                {
-                  continue;
+                  result.setFinishTime(previousIndex, assignmentFinish);
+                  result.setTotalAmount(previousIndex, previousAssignmentWork + assignmentWork, TimeUnit.MINUTES);
+                  result.setModified(previousIndex, false);
+                  resultIndex = previousIndex;
                }
-
-               Date previousAssignmentFinish = previousAssignment.getFinish();
-
-               if (previousAssignmentFinish.getTime() == assignmentStart.getTime() || calendar.getNextWorkStart(previousAssignmentFinish).getTime() == assignmentStart.getTime())
+               else
                {
-                  result.removeLast();
-
-                  if (previousAssignmentWork.getDuration() != 0 && assignmentWork.getDuration() != 0)
+                  if (assignmentWork == 0)
                   {
-                     double work = previousAssignment.getTotalAmount().getDuration();
-                     work += assignment.getTotalAmount().getDuration();
-                     Duration totalWork = Duration.getInstance(work, TimeUnit.MINUTES);
-
-                     TimephasedWork merged = new TimephasedWork();
-                     merged.setStart(previousAssignment.getStart());
-                     merged.setFinish(assignment.getFinish());
-                     merged.setTotalAmount(totalWork);
-                     assignment = merged;
+                     resultIndex = previousIndex;
                   }
                   else
                   {
-                     if (assignmentWork.getDuration() == 0)
-                     {
-                        assignment = previousAssignment;
-                     }
+                     result.removeLast();
+                     resultIndex = result.add(list, index);
                   }
                }
             }
-
-            assignment.setAmountPerDay(assignment.getTotalAmount());
-            result.add(assignment);
+            else
+            {
+               resultIndex = result.add(list, index);
+            }
          }
-
-         Duration calendarWork = calendar.getWork(assignment.getStart(), assignment.getFinish(), TimeUnit.MINUTES);
-         Duration assignmentWork = assignment.getTotalAmount();
-         if (calendarWork.getDuration() == 0 && assignmentWork.getDuration() == 0)
+         else
          {
-            result.removeLast();
+            resultIndex = result.add(list, index);
          }
-         else
+
+         result.setAmountPerDay(resultIndex, result.getTotalAmountValue(resultIndex), result.getTotalAmountUnits(resultIndex));
+
+         Duration calendarWork = calendar.getWork(new Date(result.getStartTime(resultIndex)), new Date(result.getFinishTime(resultIndex)), TimeUnit.MINUTES);
+         if (calendarWork.getDuration() == 0 && result.getTotalAmountValue(resultIndex) == 0)
          {
-            previousAssignment = assignment;
+            result.removeLast();
          }
       }
 
-      list.clear();
-      list.addAll(result);
+      list.replaceWith(result);
+   }
+
+   /**
+    * Retrieve the start of the day containing the supplied date.
+    *
+    * @param date date in milliseconds
+    * @return start of day in milliseconds
+    */
+   private long getDayStart(long date)
+   {
+      return DateHelper.getDayStartDate(new Date(date)).getTime();
    }
 }
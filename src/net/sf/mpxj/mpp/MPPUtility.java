@@ -27,6 +27,7 @@ import java.awt.Color;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.text.DecimalFormat;
 import java.util.Calendar;
 import java.util.Date;
@@ -263,6 +264,95 @@ public final class MPPUtility
       return result;
    }
 
+   /**
+    * This method reads a single byte from a buffer. Note that the
+    * offset is an absolute index into the buffer, and the buffer's
+    * position is not changed.
+    *
+    * @param data buffer of data
+    * @param offset offset of byte data in the buffer
+    * @return byte value
+    */
+   public static final int getByte(ByteBuffer data, int offset)
+   {
+      int result = (data.get(offset) & 0xFF);
+      return result;
+   }
+
+   /**
+    * This method reads a two byte integer from a buffer.
+    *
+    * @param data the input buffer
+    * @param offset offset of integer data in the buffer
+    * @return integer value
+    */
+   public static final int getShort(ByteBuffer data, int offset)
+   {
+      int result = 0;
+      int i = offset;
+      for (int shiftBy = 0; shiftBy < 16; shiftBy += 8)
+      {
+         result |= ((data.get(i) & 0xff)) << shiftBy;
+         ++i;
+      }
+      return result;
+   }
+
+   /**
+    * This method reads a four byte integer from a buffer.
+    *
+    * @param data the input buffer
+    * @param offset offset of integer data in the buffer
+    * @return integer value
+    */
+   public static final int getInt(ByteBuffer data, int offset)
+   {
+      int result = 0;
+      int i = offset;
+      for (int shiftBy = 0; shiftBy < 32; shiftBy += 8)
+      {
+         result |= ((data.get(i) & 0xff)) << shiftBy;
+         ++i;
+      }
+      return result;
+   }
+
+   /**
+    * This method reads an eight byte integer from a buffer.
+    *
+    * @param data the input buffer
+    * @param offset offset of integer data in the buffer
+    * @return integer value
+    */
+   public static final long getLong(ByteBuffer data, int offset)
+   {
+      long result = 0;
+      int i = offset;
+      for (int shiftBy = 0; shiftBy < 64; shiftBy += 8)
+      {
+         result |= ((long) (data.get(i) & 0xff)) << shiftBy;
+         ++i;
+      }
+      return result;
+   }
+
+   /**
+    * This method reads an eight byte double from a buffer.
+    *
+    * @param data the input buffer
+    * @param offset offset of double data in the buffer
+    * @return double value
+    */
+   public static final double getDouble(ByteBuffer data, int offset)
+   {
+      double result = Double.longBitsToDouble(getLong(data, offset));
+      if (Double.isNaN(result))
+      {
+         result = 0;
+      }
+      return result;
+   }
+
    /**
     * Reads a UUID/GUID from a data block.
     *
@@ -367,10 +457,33 @@ public final class MPPUtility
     * @return time value
     */
    public static final Date getTimestamp(byte[] data, int offset)
+   {
+      return getTimestamp(getShort(data, offset), getShort(data, offset + 2));
+   }
+
+   /**
+    * Reads a combined date and time value.
+    *
+    * @param data buffer of data
+    * @param offset absolute offset of the data in the buffer
+    * @return time value
+    */
+   public static final Date getTimestamp(ByteBuffer data, int offset)
+   {
+      return getTimestamp(getShort(data, offset), getShort(data, offset + 2));
+   }
+
+   /**
+    * Converts the time and day components of a timestamp into a Date instance.
+    *
+    * @param time time component, in tenths of a minute
+    * @param days day component, in days since the epoch
+    * @return time value
+    */
+   private static final Date getTimestamp(long time, long days)
    {
       Date result;
 
-      long days = getShort(data, offset + 2);
       if (days < 100)
       {
          // We are seeing some files which have very small values for the number of days.
@@ -385,7 +498,6 @@ public final class MPPUtility
       }
       else
       {
-         long time = getShort(data, offset);
          if (time == 65535)
          {
             time = 0;
@@ -509,6 +621,76 @@ public final class MPPUtility
       return (buffer.toString());
    }
 
+   /**
+    * Reads a string of two byte characters from a buffer.
+    * This method assumes that the string finishes either at the
+    * limit of the buffer, or when char zero is encountered.
+    * The value starts at the position specified by the offset
+    * parameter.
+    *
+    * @param data buffer of data
+    * @param offset start point of unicode string
+    * @return string value
+    */
+   public static final String getUnicodeString(ByteBuffer data, int offset)
+   {
+      int limit = data.limit();
+      int length = limit > offset ? limit - offset : 0;
+      for (int loop = offset; loop < (limit - 1); loop += 2)
+      {
+         if (data.get(loop) == 0 && data.get(loop + 1) == 0)
+         {
+            length = loop - offset;
+            break;
+         }
+      }
+
+      String result;
+      if (length == 0)
+      {
+         result = "";
+      }
+      else
+      {
+         byte[] bytes = new byte[length];
+         ByteBuffer source = data.duplicate();
+         source.position(offset);
+         source.get(bytes);
+         result = new String(bytes, CharsetHelper.UTF16LE);
+      }
+      return result;
+   }
+
+   /**
+    * Reads a string of single byte characters from a buffer.
+    * This method assumes that the string finishes either at the
+    * limit of the buffer, or when char zero is encountered.
+    * Reading begins at the supplied offset into the buffer.
+    *
+    * @param data buffer of data
+    * @param offset offset into the buffer
+    * @return string value
+    */
+   public static final String getString(ByteBuffer data, int offset)
+   {
+      StringBuilder buffer = new StringBuilder();
+      char c;
+
+      for (int loop = 0; offset + loop < data.limit(); loop++)
+      {
+         c = (char) data.get(offset + loop);
+
+         if (c == 0)
+         {
+            break;
+         }
+
+         buffer.append(c);
+      }
+
+      return (buffer.toString());
+   }
+
    /**
     * Reads a duration value. This method relies on the fact that
     * the units of the duration have been specified elsewhere.
@@ -23,11 +23,13 @@
 
 package net.sf.mpxj.mpp;
 
-import java.util.List;
+import java.util.Date;
 import java.util.Set;
 
 import net.sf.mpxj.AssignmentField;
 import net.sf.mpxj.Duration;
+import net.sf.mpxj.FieldType;
+import net.sf.mpxj.LazyFieldValue;
 import net.sf.mpxj.ProjectCalendar;
 import net.sf.mpxj.ProjectFile;
 import net.sf.mpxj.Resource;
@@ -36,12 +38,14 @@ import net.sf.mpxj.ResourceType;
 import net.sf.mpxj.Task;
 import net.sf.mpxj.TimeUnit;
 import net.sf.mpxj.TimephasedWork;
+import net.sf.mpxj.TimephasedWorkSeries;
 import net.sf.mpxj.WorkContour;
 import net.sf.mpxj.common.DefaultTimephasedWorkContainer;
 import net.sf.mpxj.common.NumberHelper;
 import net.sf.mpxj.common.RtfHelper;
 import net.sf.mpxj.common.SplitTaskFactory;
 import net.sf.mpxj.common.TimephasedCostNormaliser;
+import net.sf.mpxj.common.TimephasedWorkDecoder;
 import net.sf.mpxj.common.TimephasedWorkNormaliser;
 
 /**
@@ -57,6 +61,7 @@ public class ResourceAssignmentFactory
     * @param fieldMap assignment field map
     * @param enterpriseCustomFieldMap enterprise custom field map
     * @param useRawTimephasedData use raw timephased data flag
+    * @param lazyTimephasedData decode timephased data on demand flag
     * @param preserveNoteFormatting preserve note formatting flag
     * @param assnVarMeta var meta
     * @param assnVarData var data
@@ -65,7 +70,7 @@ public class ResourceAssignmentFactory
     * @param assnFixedData2 fixed data
     * @param count expected number of assignments
     */
-   public void process(ProjectFile file, FieldMap fieldMap, FieldMap enterpriseCustomFieldMap, boolean useRawTimephasedData, boolean preserveNoteFormatting, VarMeta assnVarMeta, Var2Data assnVarData, FixedMeta assnFixedMeta, FixedData assnFixedData, FixedData assnFixedData2, int count)
+   public void process(ProjectFile file, FieldMap fieldMap, FieldMap enterpriseCustomFieldMap, boolean useRawTimephasedData, boolean lazyTimephasedData, boolean preserveNoteFormatting, VarMeta assnVarMeta, Var2Data assnVarData, FixedMeta assnFixedMeta, FixedData assnFixedData, FixedData assnFixedData2, int count)
    {
       Set<Integer> set = assnVarMeta.getUniqueIdentifierSet();
       TimephasedDataFactory timephasedFactory = new TimephasedDataFactory();
@@ -168,9 +173,14 @@ public class ResourceAssignmentFactory
          String notes = assignment.getNotes();
          if (!preserveNoteFormatting)
          {
-            notes = RtfHelper.strip(notes);
+            assignment.disableEvents();
+            assignment.set(AssignmentField.NOTES, RtfHelper.deferStrip(notes));
+            assignment.enableEvents();
+         }
+         else
+         {
+            assignment.setNotes(notes);
          }
-         assignment.setNotes(notes);
 
          Task task = file.getTaskByUniqueID(assignment.getTaskUniqueID());
          if (task != null)
@@ -189,68 +199,92 @@ public class ResourceAssignmentFactory
                calendar = task.getEffectiveCalendar();
             }
 
-            assignment.setTimephasedBaselineWork(0, timephasedFactory.getBaselineWork(assignment, baselineCalendar, baselineWorkNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE_WORK)), !useRawTimephasedData));
-            assignment.setTimephasedBaselineWork(1, timephasedFactory.getBaselineWork(assignment, baselineCalendar, baselineWorkNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE1_WORK)), !useRawTimephasedData));
-            assignment.setTimephasedBaselineWork(2, timephasedFactory.getBaselineWork(assignment, baselineCalendar, baselineWorkNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE2_WORK)), !useRawTimephasedData));
-            assignment.setTimephasedBaselineWork(3, timephasedFactory.getBaselineWork(assignment, baselineCalendar, baselineWorkNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE3_WORK)), !useRawTimephasedData));
-            assignment.setTimephasedBaselineWork(4, timephasedFactory.getBaselineWork(assignment, baselineCalendar, baselineWorkNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE4_WORK)), !useRawTimephasedData));
-            assignment.setTimephasedBaselineWork(5, timephasedFactory.getBaselineWork(assignment, baselineCalendar, baselineWorkNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE5_WORK)), !useRawTimephasedData));
-            assignment.setTimephasedBaselineWork(6, timephasedFactory.getBaselineWork(assignment, baselineCalendar, baselineWorkNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE6_WORK)), !useRawTimephasedData));
-            assignment.setTimephasedBaselineWork(7, timephasedFactory.getBaselineWork(assignment, baselineCalendar, baselineWorkNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE7_WORK)), !useRawTimephasedData));
-            assignment.setTimephasedBaselineWork(8, timephasedFactory.getBaselineWork(assignment, baselineCalendar, baselineWorkNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE8_WORK)), !useRawTimephasedData));
-            assignment.setTimephasedBaselineWork(9, timephasedFactory.getBaselineWork(assignment, baselineCalendar, baselineWorkNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE9_WORK)), !useRawTimephasedData));
-            assignment.setTimephasedBaselineWork(10, timephasedFactory.getBaselineWork(assignment, baselineCalendar, baselineWorkNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE10_WORK)), !useRawTimephasedData));
-
-            assignment.setTimephasedBaselineCost(0, timephasedFactory.getBaselineCost(baselineCalendar, baselineCostNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE_COST)), !useRawTimephasedData));
-            assignment.setTimephasedBaselineCost(1, timephasedFactory.getBaselineCost(baselineCalendar, baselineCostNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE1_COST)), !useRawTimephasedData));
-            assignment.setTimephasedBaselineCost(2, timephasedFactory.getBaselineCost(baselineCalendar, baselineCostNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE2_COST)), !useRawTimephasedData));
-            assignment.setTimephasedBaselineCost(3, timephasedFactory.getBaselineCost(baselineCalendar, baselineCostNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE3_COST)), !useRawTimephasedData));
-            assignment.setTimephasedBaselineCost(4, timephasedFactory.getBaselineCost(baselineCalendar, baselineCostNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE4_COST)), !useRawTimephasedData));
-            assignment.setTimephasedBaselineCost(5, timephasedFactory.getBaselineCost(baselineCalendar, baselineCostNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE5_COST)), !useRawTimephasedData));
-            assignment.setTimephasedBaselineCost(6, timephasedFactory.getBaselineCost(baselineCalendar, baselineCostNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE6_COST)), !useRawTimephasedData));
-            assignment.setTimephasedBaselineCost(7, timephasedFactory.getBaselineCost(baselineCalendar, baselineCostNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE7_COST)), !useRawTimephasedData));
-            assignment.setTimephasedBaselineCost(8, timephasedFactory.getBaselineCost(baselineCalendar, baselineCostNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE8_COST)), !useRawTimephasedData));
-            assignment.setTimephasedBaselineCost(9, timephasedFactory.getBaselineCost(baselineCalendar, baselineCostNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE9_COST)), !useRawTimephasedData));
-            assignment.setTimephasedBaselineCost(10, timephasedFactory.getBaselineCost(baselineCalendar, baselineCostNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE10_COST)), !useRawTimephasedData));
+            assignment.setTimephasedBaselineWork(0, timephasedFactory.getBaselineWork(assignment, baselineCalendar, baselineWorkNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE_WORK)), !useRawTimephasedData, lazyTimephasedData));
+            assignment.setTimephasedBaselineWork(1, timephasedFactory.getBaselineWork(assignment, baselineCalendar, baselineWorkNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE1_WORK)), !useRawTimephasedData, lazyTimephasedData));
+            assignment.setTimephasedBaselineWork(2, timephasedFactory.getBaselineWork(assignment, baselineCalendar, baselineWorkNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE2_WORK)), !useRawTimephasedData, lazyTimephasedData));
+            assignment.setTimephasedBaselineWork(3, timephasedFactory.getBaselineWork(assignment, baselineCalendar, baselineWorkNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE3_WORK)), !useRawTimephasedData, lazyTimephasedData));
+            assignment.setTimephasedBaselineWork(4, timephasedFactory.getBaselineWork(assignment, baselineCalendar, baselineWorkNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE4_WORK)), !useRawTimephasedData, lazyTimephasedData));
+            assignment.setTimephasedBaselineWork(5, timephasedFactory.getBaselineWork(assignment, baselineCalendar, baselineWorkNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE5_WORK)), !useRawTimephasedData, lazyTimephasedData));
+            assignment.setTimephasedBaselineWork(6, timephasedFactory.getBaselineWork(assignment, baselineCalendar, baselineWorkNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE6_WORK)), !useRawTimephasedData, lazyTimephasedData));
+            assignment.setTimephasedBaselineWork(7, timephasedFactory.getBaselineWork(assignment, baselineCalendar, baselineWorkNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE7_WORK)), !useRawTimephasedData, lazyTimephasedData));
+            assignment.setTimephasedBaselineWork(8, timephasedFactory.getBaselineWork(assignment, baselineCalendar, baselineWorkNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE8_WORK)), !useRawTimephasedData, lazyTimephasedData));
+            assignment.setTimephasedBaselineWork(9, timephasedFactory.getBaselineWork(assignment, baselineCalendar, baselineWorkNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE9_WORK)), !useRawTimephasedData, lazyTimephasedData));
+            assignment.setTimephasedBaselineWork(10, timephasedFactory.getBaselineWork(assignment, baselineCalendar, baselineWorkNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE10_WORK)), !useRawTimephasedData, lazyTimephasedData));
+
+            assignment.setTimephasedBaselineCost(0, timephasedFactory.getBaselineCost(baselineCalendar, baselineCostNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE_COST)), !useRawTimephasedData, lazyTimephasedData));
+            assignment.setTimephasedBaselineCost(1, timephasedFactory.getBaselineCost(baselineCalendar, baselineCostNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE1_COST)), !useRawTimephasedData, lazyTimephasedData));
+            assignment.setTimephasedBaselineCost(2, timephasedFactory.getBaselineCost(baselineCalendar, baselineCostNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE2_COST)), !useRawTimephasedData, lazyTimephasedData));
+            assignment.setTimephasedBaselineCost(3, timephasedFactory.getBaselineCost(baselineCalendar, baselineCostNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE3_COST)), !useRawTimephasedData, lazyTimephasedData));
+            assignment.setTimephasedBaselineCost(4, timephasedFactory.getBaselineCost(baselineCalendar, baselineCostNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE4_COST)), !useRawTimephasedData, lazyTimephasedData));
+            assignment.setTimephasedBaselineCost(5, timephasedFactory.getBaselineCost(baselineCalendar, baselineCostNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE5_COST)), !useRawTimephasedData, lazyTimephasedData));
+            assignment.setTimephasedBaselineCost(6, timephasedFactory.getBaselineCost(baselineCalendar, baselineCostNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE6_COST)), !useRawTimephasedData, lazyTimephasedData));
+            assignment.setTimephasedBaselineCost(7, timephasedFactory.getBaselineCost(baselineCalendar, baselineCostNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE7_COST)), !useRawTimephasedData, lazyTimephasedData));
+            assignment.setTimephasedBaselineCost(8, timephasedFactory.getBaselineCost(baselineCalendar, baselineCostNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE8_COST)), !useRawTimephasedData, lazyTimephasedData));
+            assignment.setTimephasedBaselineCost(9, timephasedFactory.getBaselineCost(baselineCalendar, baselineCostNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE9_COST)), !useRawTimephasedData, lazyTimephasedData));
+            assignment.setTimephasedBaselineCost(10, timephasedFactory.getBaselineCost(baselineCalendar, baselineCostNormaliser, assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_BASELINE10_COST)), !useRawTimephasedData, lazyTimephasedData));
 
             byte[] timephasedActualWorkData = assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_ACTUAL_WORK));
             byte[] timephasedWorkData = assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_WORK));
             byte[] timephasedActualOvertimeWorkData = assnVarData.getByteArray(varDataId, fieldMap.getVarDataKey(AssignmentField.TIMEPHASED_ACTUAL_OVERTIME_WORK));
+            final TimephasedAssignmentData timephasedData = new TimephasedAssignmentData(file, timephasedFactory, assignment, calendar, timephasedWorkData, timephasedActualWorkData, timephasedActualOvertimeWorkData);
 
-            List<TimephasedWork> timephasedActualWork = timephasedFactory.getCompleteWork(calendar, assignment, timephasedActualWorkData);
-            List<TimephasedWork> timephasedWork = timephasedFactory.getPlannedWork(calendar, assignment.getStart(), assignment.getUnits().doubleValue(), timephasedWorkData, timephasedActualWork);
-            List<TimephasedWork> timephasedActualOvertimeWork = timephasedFactory.getCompleteWork(calendar, assignment, timephasedActualOvertimeWorkData);
-
-            assignment.setActualStart(timephasedActualWork.isEmpty() ? null : assignment.getStart());
             assignment.setActualFinish((assignment.getRemainingWork().getDuration() == 0 && resource != null) ? assignment.getFinish() : null);
 
-            if (task.getSplits() != null && task.getSplits().isEmpty())
-            {
-               splitFactory.processSplitData(task, timephasedActualWork, timephasedWork);
-            }
-
-            createTimephasedData(file, assignment, timephasedWork, timephasedActualWork);
-
-            assignment.setTimephasedWork(new DefaultTimephasedWorkContainer(calendar, normaliser, timephasedWork, !useRawTimephasedData));
-            assignment.setTimephasedActualWork(new DefaultTimephasedWorkContainer(calendar, normaliser, timephasedActualWork, !useRawTimephasedData));
-            assignment.setTimephasedActualOvertimeWork(new DefaultTimephasedWorkContainer(calendar, normaliser, timephasedActualOvertimeWork, !useRawTimephasedData));
-
-            if (timephasedWorkData != null)
+            //
+            // Split tasks are derived from the timephased data,
+            // so this data is always decoded for tasks which may be split.
+            //
+            boolean processSplits = task.getSplits() != null && task.getSplits().isEmpty();
+            if (lazyTimephasedData && !processSplits)
             {
-               if (timephasedFactory.getWorkModified(timephasedWork))
+               assignment.disableEvents();
+               assignment.set(AssignmentField.ACTUAL_START, timephasedData);
+               if (timephasedWorkData != null)
                {
-                  assignment.setWorkContour(WorkContour.CONTOURED);
+                  assignment.set(AssignmentField.WORK_CONTOUR, timephasedData);
                }
-               else
+               assignment.enableEvents();
+
+               assignment.setTimephasedWork(new DefaultTimephasedWorkContainer(calendar, normaliser, new TimephasedWorkDecoder()
+               {
+                  @Override public TimephasedWorkSeries decode()
+                  {
+                     return timephasedData.getWork();
+                  }
+               }, !useRawTimephasedData));
+
+               assignment.setTimephasedActualWork(new DefaultTimephasedWorkContainer(calendar, normaliser, new TimephasedWorkDecoder()
                {
-                  if (timephasedWorkData.length >= 30)
+                  @Override public TimephasedWorkSeries decode()
                   {
-                     assignment.setWorkContour(WorkContour.getInstance(MPPUtility.getShort(timephasedWorkData, 28)));
+                     return timephasedData.getActualWork();
                   }
-                  else
+               }, !useRawTimephasedData));
+
+               assignment.setTimephasedActualOvertimeWork(new DefaultTimephasedWorkContainer(calendar, normaliser, new TimephasedWorkDecoder()
+               {
+                  @Override public TimephasedWorkSeries decode()
                   {
-                     assignment.setWorkContour(WorkContour.FLAT);
+                     return timephasedData.getActualOvertimeWork();
                   }
+               }, !useRawTimephasedData));
+            }
+            else
+            {
+               assignment.setActualStart(timephasedData.getActualStart());
+
+               if (processSplits)
+               {
+                  splitFactory.processSplitData(task, timephasedData.getActualWork(), timephasedData.getWork());
+               }
+
+               assignment.setTimephasedWork(new DefaultTimephasedWorkContainer(calendar, normaliser, timephasedData.getWork(), !useRawTimephasedData));
+               assignment.setTimephasedActualWork(new DefaultTimephasedWorkContainer(calendar, normaliser, timephasedData.getActualWork(), !useRawTimephasedData));
+               assignment.setTimephasedActualOvertimeWork(new DefaultTimephasedWorkContainer(calendar, normaliser, timephasedData.getActualOvertimeWork(), !useRawTimephasedData));
+
+               if (timephasedWorkData != null)
+               {
+                  assignment.setWorkContour(timephasedData.getWorkContour());
                }
             }
 
@@ -301,7 +335,7 @@ public class ResourceAssignmentFactory
     * @param timephasedPlanned planned timephased data
     * @param timephasedComplete complete timephased data
     */
-   private void createTimephasedData(ProjectFile file, ResourceAssignment assignment, List<TimephasedWork> timephasedPlanned, List<TimephasedWork> timephasedComplete)
+   private void createTimephasedData(ProjectFile file, ResourceAssignment assignment, TimephasedWorkSeries timephasedPlanned, TimephasedWorkSeries timephasedComplete)
    {
       if (timephasedPlanned.isEmpty() && timephasedComplete.isEmpty())
       {
@@ -355,6 +389,143 @@ public class ResourceAssignmentFactory
       }
    }
 
+   /**
+    * Holds the raw planned and complete work data for an assignment,
+    * and decodes it the first time any of the timephased data, or any
+    * assignment field derived from it, is required. The planned and
+    * complete work are decoded together, as the planned work depends on
+    * the complete work. Note that the data is decoded using the
+    * assignment attributes in effect at the point it is first required.
+    */
+   private class TimephasedAssignmentData implements LazyFieldValue
+   {
+      /**
+       * Constructor.
+       *
+       * @param file parent project file
+       * @param factory timephased data factory
+       * @param assignment parent assignment
+       * @param calendar calendar on which date calculations are based
+       * @param workData planned work data block
+       * @param actualWorkData complete work data block
+       * @param actualOvertimeWorkData complete overtime work data block
+       */
+      public TimephasedAssignmentData(ProjectFile file, TimephasedDataFactory factory, ResourceAssignment assignment, ProjectCalendar calendar, byte[] workData, byte[] actualWorkData, byte[] actualOvertimeWorkData)
+      {
+         m_file = file;
+         m_factory = factory;
+         m_assignment = assignment;
+         m_calendar = calendar;
+         m_workData = workData;
+         m_actualWorkData = actualWorkData;
+         m_actualOvertimeWorkData = actualOvertimeWorkData;
+      }
+
+      /**
+       * Retrieve the planned work.
+       *
+       * @return timephased planned work
+       */
+      public TimephasedWorkSeries getWork()
+      {
+         decode();
+         return m_work;
+      }
+
+      /**
+       * Retrieve the complete work.
+       *
+       * @return timephased complete work
+       */
+      public TimephasedWorkSeries getActualWork()
+      {
+         decode();
+         return m_actualWork;
+      }
+
+      /**
+       * Retrieve the complete overtime work.
+       *
+       * @return timephased complete overtime work
+       */
+      public TimephasedWorkSeries getActualOvertimeWork()
+      {
+         decode();
+         return m_actualOvertimeWork;
+      }
+
+      /**
+       * Retrieve the actual start of the assignment.
+       *
+       * @return actual start date
+       */
+      public Date getActualStart()
+      {
+         return getActualWork().isEmpty() ? null : m_assignment.getStart();
+      }
+
+      /**
+       * Retrieve the work contour of the assignment. This should only
+       * be called if planned work data is present.
+       *
+       * @return work contour
+       */
+      public WorkContour getWorkContour()
+      {
+         WorkContour result;
+         if (m_factory.getWorkModified(getWork()))
+         {
+            result = WorkContour.CONTOURED;
+         }
+         else
+         {
+            if (m_workData.length >= 30)
+            {
+               result = WorkContour.getInstance(MPPUtility.getShort(m_workData, 28));
+            }
+            else
+            {
+               result = WorkContour.FLAT;
+            }
+         }
+         return result;
+      }
+
+      /**
+       * {@inheritDoc}
+       */
+      @Override public Object getValue(FieldType field)
+      {
+         return field == AssignmentField.WORK_CONTOUR ? getWorkContour() : getActualStart();
+      }
+
+      /**
+       * Decode the planned and complete work, if this has not
+       * already been done.
+       */
+      private void decode()
+      {
+         if (m_work == null)
+         {
+            m_actualWork = m_factory.getCompleteWork(m_calendar, m_assignment, m_actualWorkData);
+            m_work = m_factory.getPlannedWork(m_calendar, m_assignment.getStart(), m_assignment.getUnits().doubleValue(), m_workData, m_actualWork);
+            m_actualOvertimeWork = m_factory.getCompleteWork(m_calendar, m_assignment, m_actualOvertimeWorkData);
+            createTimephasedData(m_file, m_assignment, m_work, m_actualWork);
+         }
+      }
+
+      private final ProjectFile m_file;
+      private final TimephasedDataFactory m_factory;
+      private final ResourceAssignment m_assignment;
+      private final ProjectCalendar m_calendar;
+      private final byte[] m_workData;
+      private final byte[] m_actualWorkData;
+      private final byte[] m_actualOvertimeWorkData;
+      private TimephasedWorkSeries m_work;
+      private TimephasedWorkSeries m_actualWork;
+      private TimephasedWorkSeries m_actualOvertimeWork;
+   }
+
    private static final Integer MPP9_CREATION_DATA = Integer.valueOf(138);
 
    private static final MppBitFlag[] ASSIGNMENT_META_DATA_BIT_FLAGS =
@@ -24,21 +24,22 @@
 package net.sf.mpxj.mpp;
 
 import java.util.Date;
-import java.util.LinkedList;
-import java.util.List;
 
 import net.sf.mpxj.Duration;
 import net.sf.mpxj.ProjectCalendar;
 import net.sf.mpxj.ResourceAssignment;
 import net.sf.mpxj.TimeUnit;
-import net.sf.mpxj.TimephasedCost;
 import net.sf.mpxj.TimephasedCostContainer;
+import net.sf.mpxj.TimephasedCostSeries;
 import net.sf.mpxj.TimephasedWork;
 import net.sf.mpxj.TimephasedWorkContainer;
+import net.sf.mpxj.TimephasedWorkSeries;
 import net.sf.mpxj.common.DefaultTimephasedCostContainer;
 import net.sf.mpxj.common.DefaultTimephasedWorkContainer;
 import net.sf.mpxj.common.NumberHelper;
+import net.sf.mpxj.common.TimephasedCostDecoder;
 import net.sf.mpxj.common.TimephasedCostNormaliser;
+import net.sf.mpxj.common.TimephasedWorkDecoder;
 import net.sf.mpxj.common.TimephasedWorkNormaliser;
 
 /**
@@ -55,11 +56,11 @@ final class TimephasedDataFactory
     * @param calendar calendar on which date calculations are based
     * @param resourceAssignment resource assignment
     * @param data completed work data block
-    * @return list of TimephasedWork instances
+    * @return timephased work
     */
-   public List<TimephasedWork> getCompleteWork(ProjectCalendar calendar, ResourceAssignment resourceAssignment, byte[] data)
+   public TimephasedWorkSeries getCompleteWork(ProjectCalendar calendar, ResourceAssignment resourceAssignment, byte[] data)
    {
-      LinkedList<TimephasedWork> list = new LinkedList<TimephasedWork>();
+      TimephasedWorkSeries list = new TimephasedWorkSeries();
 
       if (calendar != null && data != null && data.length > 0)
       {
@@ -68,7 +69,6 @@ final class TimephasedDataFactory
 
          int blockCount = MPPUtility.getShort(data, 0);
          double previousCumulativeWork = 0;
-         TimephasedWork previousAssignment = null;
 
          int index = 32;
          int currentBlock = 0;
@@ -110,37 +110,24 @@ final class TimephasedDataFactory
                start = calendar.getDate(startDate, startWork, true);
             }
 
-            TimephasedWork assignment = new TimephasedWork();
-            assignment.setStart(start);
-            assignment.setAmountPerDay(workPerDay);
-            assignment.setTotalAmount(totalWork);
-
-            if (previousAssignment != null)
+            if (!list.isEmpty())
             {
                Date finish = calendar.getDate(startDate, startWork, false);
-               previousAssignment.setFinish(finish);
-               if (previousAssignment.getStart().getTime() == previousAssignment.getFinish().getTime())
-               {
-                  list.removeLast();
-               }
+               setPreviousFinish(list, finish);
             }
 
-            list.add(assignment);
-            previousAssignment = assignment;
+            // The finish date is populated once the next block has been read
+            list.add(start.getTime(), start.getTime(), totalWork.getDuration(), workPerDay.getDuration(), TimeUnit.MINUTES);
 
             index += 20;
             ++currentBlock;
          }
 
-         if (previousAssignment != null)
+         if (!list.isEmpty())
          {
             Duration finishWork = Duration.getInstance(finishTime / 80, TimeUnit.MINUTES);
             Date finish = calendar.getDate(startDate, finishWork, false);
-            previousAssignment.setFinish(finish);
-            if (previousAssignment.getStart().getTime() == previousAssignment.getFinish().getTime())
-            {
-               list.removeLast();
-            }
+            setPreviousFinish(list, finish);
          }
       }
 
@@ -157,11 +144,11 @@ final class TimephasedDataFactory
     * @param units assignment units
     * @param data planned work data block
     * @param timephasedComplete list of complete work
-    * @return list of TimephasedWork instances
+    * @return timephased work
     */
-   public List<TimephasedWork> getPlannedWork(ProjectCalendar calendar, Date startDate, double units, byte[] data, List<TimephasedWork> timephasedComplete)
+   public TimephasedWorkSeries getPlannedWork(ProjectCalendar calendar, Date startDate, double units, byte[] data, TimephasedWorkSeries timephasedComplete)
    {
-      LinkedList<TimephasedWork> list = new LinkedList<TimephasedWork>();
+      TimephasedWorkSeries list = new TimephasedWorkSeries();
 
       if (calendar != null && data != null && data.length > 0)
       {
@@ -170,9 +157,9 @@ final class TimephasedDataFactory
          {
             if (!timephasedComplete.isEmpty() && units != 0)
             {
-               TimephasedWork lastComplete = timephasedComplete.get(timephasedComplete.size() - 1);
+               Date lastCompleteFinish = new Date(timephasedComplete.getFinishTime(timephasedComplete.size() - 1));
 
-               Date startWork = calendar.getNextWorkStart(lastComplete.getFinish());
+               Date startWork = calendar.getNextWorkStart(lastCompleteFinish);
                double time = MPPUtility.getDouble(data, 16);
                time /= 1000;
                Duration totalWork = Duration.getInstance(time, TimeUnit.MINUTES);
@@ -184,16 +171,9 @@ final class TimephasedDataFactory
                time *= 6;
                Duration workPerDay = Duration.getInstance(time, TimeUnit.MINUTES);
 
-               TimephasedWork assignment = new TimephasedWork();
-               assignment.setStart(startWork);
-               assignment.setAmountPerDay(workPerDay);
-               assignment.setModified(false);
-               assignment.setFinish(finish);
-               assignment.setTotalAmount(totalWork);
-
-               if (assignment.getStart().getTime() != assignment.getFinish().getTime())
+               if (startWork.getTime() != finish.getTime())
                {
-                  list.add(assignment);
+                  list.add(startWork.getTime(), finish.getTime(), totalWork.getDuration(), workPerDay.getDuration(), TimeUnit.MINUTES);
                }
             }
          }
@@ -203,13 +183,11 @@ final class TimephasedDataFactory
 
             if (!timephasedComplete.isEmpty())
             {
-               TimephasedWork lastComplete = timephasedComplete.get(timephasedComplete.size() - 1);
-               offset = lastComplete.getFinish();
+               offset = new Date(timephasedComplete.getFinishTime(timephasedComplete.size() - 1));
             }
 
             int index = 40;
             double previousCumulativeWork = 0;
-            TimephasedWork previousAssignment = null;
             int currentBlock = 0;
             int previousModifiedFlag = 0;
 
@@ -243,40 +221,27 @@ final class TimephasedDataFactory
                boolean modified = (currentBlock > 0 && previousModifiedFlag != 0 && currentModifiedFlag == 0) || ((currentModifiedFlag & 0x3000) != 0);
                previousModifiedFlag = currentModifiedFlag;
 
-               TimephasedWork assignment = new TimephasedWork();
-               assignment.setStart(start);
-               assignment.setAmountPerDay(workPerDay);
-               assignment.setModified(modified);
-               assignment.setTotalAmount(totalWork);
-
-               if (previousAssignment != null)
+               if (!list.isEmpty())
                {
                   Date finish = calendar.getDate(offset, blockDuration, false);
-                  previousAssignment.setFinish(finish);
-                  if (previousAssignment.getStart().getTime() == previousAssignment.getFinish().getTime())
-                  {
-                     list.removeLast();
-                  }
+                  setPreviousFinish(list, finish);
                }
 
-               list.add(assignment);
-               previousAssignment = assignment;
+               // The finish date is populated once the next block has been read
+               int assignmentIndex = list.add(start.getTime(), start.getTime(), totalWork.getDuration(), workPerDay.getDuration(), TimeUnit.MINUTES);
+               list.setModified(assignmentIndex, modified);
 
                index += 28;
                ++currentBlock;
             }
 
-            if (previousAssignment != null)
+            if (!list.isEmpty())
             {
                double time = MPPUtility.getInt(data, 24);
                time /= 80;
                Duration blockDuration = Duration.getInstance(time, TimeUnit.MINUTES);
                Date finish = calendar.getDate(offset, blockDuration, false);
-               previousAssignment.setFinish(finish);
-               if (previousAssignment.getStart().getTime() == previousAssignment.getFinish().getTime())
-               {
-                  list.removeLast();
-               }
+               setPreviousFinish(list, finish);
             }
          }
       }
@@ -288,15 +253,15 @@ final class TimephasedDataFactory
     * Test the list of TimephasedWork instances to see
     * if any of them have been modified.
     *
-    * @param list list of TimephasedWork instances
+    * @param list timephased work
     * @return boolean flag
     */
-   public boolean getWorkModified(List<TimephasedWork> list)
+   public boolean getWorkModified(TimephasedWorkSeries list)
    {
       boolean result = false;
-      for (TimephasedWork assignment : list)
+      for (int index = 0; index < list.size(); index++)
       {
-         result = assignment.getModified();
+         result = list.getModified(index);
          if (result)
          {
             break;
@@ -315,16 +280,82 @@ final class TimephasedDataFactory
     * @param normaliser normaliser associated with this data
     * @param data timephased baseline work data block
     * @param raw flag indicating if this data is to be treated as raw
+    * @param lazy flag indicating if decoding is deferred until the data is first required
     * @return timephased work
     */
-   public TimephasedWorkContainer getBaselineWork(ResourceAssignment assignment, ProjectCalendar calendar, TimephasedWorkNormaliser normaliser, byte[] data, boolean raw)
+   public TimephasedWorkContainer getBaselineWork(final ResourceAssignment assignment, ProjectCalendar calendar, TimephasedWorkNormaliser normaliser, final byte[] data, boolean raw, boolean lazy)
    {
       TimephasedWorkContainer result = null;
 
+      if (lazy)
+      {
+         if (hasBaselineWork(data))
+         {
+            result = new DefaultTimephasedWorkContainer(calendar, normaliser, new TimephasedWorkDecoder()
+            {
+               @Override public TimephasedWorkSeries decode()
+               {
+                  return getBaselineWork(assignment, data);
+               }
+            }, raw);
+         }
+      }
+      else
+      {
+         TimephasedWorkSeries list = getBaselineWork(assignment, data);
+         if (list != null)
+         {
+            result = new DefaultTimephasedWorkContainer(calendar, normaliser, list, raw);
+         }
+      }
+
+      return result;
+   }
+
+   /**
+    * Determine if a baseline work data block contains any work, without
+    * decoding the timephased data.
+    *
+    * @param data timephased baseline work data block
+    * @return true if the block contains baseline work
+    */
+   private boolean hasBaselineWork(byte[] data)
+   {
+      boolean result = false;
+
       if (data != null && data.length > 0)
       {
-         LinkedList<TimephasedWork> list = null;
+         int blockSize = 40;
+         int index = 8 + blockSize;
+
+         while (index + blockSize <= data.length)
+         {
+            double cumulativeWorkInMinutes = (double) ((long) MPPUtility.getDouble(data, index + 20)) / 1000;
+            if (!Duration.durationValueEquals(cumulativeWorkInMinutes, 0))
+            {
+               result = true;
+               break;
+            }
+            index += blockSize;
+         }
+      }
+
+      return result;
+   }
 
+   /**
+    * Decode a baseline work data block.
+    *
+    * @param assignment parent assignment
+    * @param data timephased baseline work data block
+    * @return timephased work, or null if no baseline work is present
+    */
+   private TimephasedWorkSeries getBaselineWork(ResourceAssignment assignment, byte[] data)
+   {
+      TimephasedWorkSeries list = null;
+
+      if (data != null && data.length > 0)
+      {
          //System.out.println(MPPUtility.hexdump(data, false));
          int index = 8; // 8 byte header
          int blockSize = 40;
@@ -332,7 +363,6 @@ final class TimephasedDataFactory
 
          Date blockStartDate = MPPUtility.getTimestampFromTenths(data, index + 36);
          index += blockSize;
-         TimephasedWork work = null;
 
          while (index + blockSize <= data.length)
          {
@@ -349,20 +379,15 @@ final class TimephasedDataFactory
                double normalWorkPerDayInMinutes = 480;
                double overtimeWorkPerDayInMinutes = normalWorkPerDayInMinutes * overtimeFactor;
 
-               work = new TimephasedWork();
-               work.setFinish(MPPUtility.getTimestampFromTenths(data, index + 16));
-               work.setStart(blockStartDate);
-               work.setTotalAmount(Duration.getInstance(workThisPeriodInMinutes, TimeUnit.MINUTES));
-               work.setAmountPerDay(Duration.getInstance(normalWorkPerDayInMinutes + overtimeWorkPerDayInMinutes, TimeUnit.MINUTES));
+               Date finish = MPPUtility.getTimestampFromTenths(data, index + 16);
 
                previousCumulativeWorkPerformedInMinutes = cumulativeWorkInMinutes;
 
                if (list == null)
                {
-                  list = new LinkedList<TimephasedWork>();
+                  list = new TimephasedWorkSeries();
                }
-               list.add(work);
-               //System.out.println(work);
+               list.add(blockStartDate.getTime(), finish.getTime(), workThisPeriodInMinutes, normalWorkPerDayInMinutes + overtimeWorkPerDayInMinutes, TimeUnit.MINUTES);
             }
             blockStartDate = MPPUtility.getTimestampFromTenths(data, index + 36);
             index += blockSize;
@@ -370,15 +395,13 @@ final class TimephasedDataFactory
 
          if (list != null)
          {
-            if (work != null)
-            {
-               work.setFinish(assignment.getFinish());
-            }
-            result = new DefaultTimephasedWorkContainer(calendar, normaliser, list, raw);
+            TimephasedWork work = list.get(list.size() - 1);
+            work.setFinish(assignment.getFinish());
+            list.set(list.size() - 1, work);
          }
       }
 
-      return result;
+      return list;
    }
 
    /**
@@ -390,16 +413,81 @@ final class TimephasedDataFactory
     * @param normaliser normaliser associated with this data
     * @param data timephased baseline work data block
     * @param raw flag indicating if this data is to be treated as raw
+    * @param lazy flag indicating if decoding is deferred until the data is first required
     * @return timephased work
     */
-   public TimephasedCostContainer getBaselineCost(ProjectCalendar calendar, TimephasedCostNormaliser normaliser, byte[] data, boolean raw)
+   public TimephasedCostContainer getBaselineCost(ProjectCalendar calendar, TimephasedCostNormaliser normaliser, final byte[] data, boolean raw, boolean lazy)
    {
       TimephasedCostContainer result = null;
 
+      if (lazy)
+      {
+         if (hasBaselineCost(data))
+         {
+            result = new DefaultTimephasedCostContainer(calendar, normaliser, new TimephasedCostDecoder()
+            {
+               @Override public TimephasedCostSeries decode()
+               {
+                  return getBaselineCost(data);
+               }
+            }, raw);
+         }
+      }
+      else
+      {
+         TimephasedCostSeries list = getBaselineCost(data);
+         if (list != null)
+         {
+            result = new DefaultTimephasedCostContainer(calendar, normaliser, list, raw);
+         }
+      }
+
+      return result;
+   }
+
+   /**
+    * Determine if a baseline cost data block contains any cost, without
+    * decoding the timephased data.
+    *
+    * @param data timephased baseline cost data block
+    * @return true if the block contains baseline cost
+    */
+   private boolean hasBaselineCost(byte[] data)
+   {
+      boolean result = false;
+
       if (data != null && data.length > 0)
       {
-         LinkedList<TimephasedCost> list = null;
+         int blockSize = 20;
+         int index = 16 + blockSize;
+
+         while (index + blockSize <= data.length)
+         {
+            double currentTotalCost = (double) ((long) MPPUtility.getDouble(data, index + 8)) / 100;
+            if (!costEquals(0, currentTotalCost))
+            {
+               result = true;
+               break;
+            }
+            index += blockSize;
+         }
+      }
 
+      return result;
+   }
+
+   /**
+    * Decode a baseline cost data block.
+    *
+    * @param data timephased baseline cost data block
+    * @return timephased cost, or null if no baseline cost is present
+    */
+   private TimephasedCostSeries getBaselineCost(byte[] data)
+   {
+      TimephasedCostSeries list = null;
+
+      if (data != null && data.length > 0)
+      {
          //System.out.println(MPPUtility.hexdump(data, false));
          int index = 16; // 16 byte header
          int blockSize = 20;
@@ -414,17 +502,11 @@ final class TimephasedDataFactory
             double currentTotalCost = (double) ((long) MPPUtility.getDouble(data, index + 8)) / 100;
             if (!costEquals(previousTotalCost, currentTotalCost))
             {
-               TimephasedCost cost = new TimephasedCost();
-               cost.setStart(blockStartDate);
-               cost.setFinish(blockEndDate);
-               cost.setTotalAmount(Double.valueOf(currentTotalCost - previousTotalCost));
-
                if (list == null)
                {
-                  list = new LinkedList<TimephasedCost>();
+                  list = new TimephasedCostSeries();
                }
-               list.add(cost);
-               //System.out.println(cost);
+               list.add(blockStartDate.getTime(), blockEndDate.getTime(), currentTotalCost - previousTotalCost, Double.NaN);
 
                previousTotalCost = currentTotalCost;
             }
@@ -432,14 +514,26 @@ final class TimephasedDataFactory
             blockStartDate = blockEndDate;
             index += blockSize;
          }
-
-         if (list != null)
-         {
-            result = new DefaultTimephasedCostContainer(calendar, normaliser, list, raw);
-         }
       }
 
-      return result;
+      return list;
+   }
+
+   /**
+    * Set the finish date of the last item in a list of timephased work,
+    * discarding the item if it has zero duration.
+    *
+    * @param list timephased work
+    * @param finish finish date
+    */
+   private void setPreviousFinish(TimephasedWorkSeries list, Date finish)
+   {
+      int index = list.size() - 1;
+      list.setFinishTime(index, finish.getTime());
+      if (list.getStartTime(index) == list.getFinishTime(index))
+      {
+         list.removeLast();
+      }
    }
 
    /**
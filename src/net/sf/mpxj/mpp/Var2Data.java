@@ -27,17 +27,21 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.Map;
 import java.util.TreeMap;
 
-import net.sf.mpxj.common.StreamHelper;
-
 /**
  * This class represents a block of variable data. Each block of
  * data is represented by a 4 byte size, followed by the data itself.
  * Each Var2Data block should be associated with a MetaData block
  * which describes the layout of the data in the Var2Data block.
+ *
+ * The block is read once into a single buffer, and items are
+ * retrieved by reading directly from that buffer rather than
+ * holding a separate copy of each item.
  */
 final class Var2Data extends MPPComponent
 {
@@ -53,58 +57,92 @@ final class Var2Data extends MPPComponent
       throws IOException
    {
       m_meta = meta;
-      byte[] data;
-
-      int currentOffset = 0;
-      int available = is.available();
+      m_buffer = readBuffer(is);
 
       for (int itemOffset : meta.getOffsets())
       {
-         if (itemOffset >= available)
+         if (itemOffset < 0 || itemOffset + 4 > m_buffer.length)
          {
             continue;
          }
 
-         if (currentOffset > itemOffset)
-         {
-            is.reset();
-            StreamHelper.skip(is, itemOffset);
-         }
-         else
-         {
-            if (currentOffset < itemOffset)
-            {
-               StreamHelper.skip(is, itemOffset - currentOffset);
-            }
-         }
-
-         int size = readInt(is);
+         int size = MPPUtility.getInt(m_buffer, itemOffset);
 
          //
          // Try our best to handle corrupt files gracefully
          //
-         if (size < 0 || size > is.available())
+         if (size < 0 || size > m_buffer.length - (itemOffset + 4))
          {
             continue;
          }
 
-         try
+         m_map.put(Integer.valueOf(itemOffset), Integer.valueOf(size));
+      }
+   }
+
+   /**
+    * Read the content of the block into a buffer.
+    *
+    * @param is input stream
+    * @return buffer containing the block data
+    * @throws IOException on file read error
+    */
+   private byte[] readBuffer(InputStream is) throws IOException
+   {
+      byte[] buffer = new byte[is.available()];
+      int offset = 0;
+
+      try
+      {
+         while (offset < buffer.length)
          {
-            data = readByteArray(is, size);
+            int count = is.read(buffer, offset, buffer.length - offset);
+            if (count == -1)
+            {
+               break;
+            }
+            offset += count;
          }
+      }
 
-         catch (IndexOutOfBoundsException ex)
+      catch (IndexOutOfBoundsException ex)
+      {
+         // POI fails to read certain MPP files with this exception:
+         // https://bz.apache.org/bugzilla/show_bug.cgi?id=61677
+         // There is no fix presently, we just have to bail out at
+         // this point - we're unable to read any more data.
+      }
+
+      if (offset < buffer.length)
+      {
+         buffer = Arrays.copyOf(buffer, offset);
+      }
+
+      return buffer;
+   }
+
+   /**
+    * Retrieve a view of the data at the given offset in the block.
+    * The view shares the underlying buffer, so no data is copied.
+    * If no data is found at the given offset this method returns null.
+    *
+    * @param offset offset of required data
+    * @return read only buffer containing required data
+    */
+   public ByteBuffer getByteBuffer(Integer offset)
+   {
+      ByteBuffer result = null;
+
+      if (offset != null)
+      {
+         Integer size = m_map.get(offset);
+         if (size != null)
          {
-            // POI fails to read certain MPP files with this exception:
-            // https://bz.apache.org/bugzilla/show_bug.cgi?id=61677
-            // There is no fix presently, we just have to bail out at
-            // this point - we're unable to read any more data.
-            break;
+            result = ByteBuffer.wrap(m_buffer, offset.intValue() + 4, size.intValue()).slice().asReadOnlyBuffer();
          }
-
-         m_map.put(Integer.valueOf(itemOffset), data);
-         currentOffset = itemOffset + 4 + size;
       }
+
+      return (result);
    }
 
    /**
@@ -121,7 +159,11 @@ final class Var2Data extends MPPComponent
 
       if (offset != null)
       {
-         result = m_map.get(offset);
+         Integer size = m_map.get(offset);
+         if (size != null)
+         {
+            result = MPPUtility.cloneSubArray(m_buffer, offset.intValue() + 4, size.intValue());
+         }
       }
 
       return (result);
@@ -154,7 +196,7 @@ final class Var2Data extends MPPComponent
 
       if (offset != null)
       {
-         byte[] value = m_map.get(offset);
+         ByteBuffer value = getByteBuffer(offset);
          if (value != null)
          {
             result = MPPUtility.getUnicodeString(value, 0);
@@ -193,8 +235,8 @@ final class Var2Data extends MPPComponent
 
       if (offset != null)
       {
-         byte[] value = m_map.get(offset);
-         if (value != null && value.length >= 4)
+         ByteBuffer value = getByteBuffer(offset);
+         if (value != null && value.limit() >= 4)
          {
             result = MPPUtility.getTimestamp(value, 0);
          }
@@ -217,7 +259,7 @@ final class Var2Data extends MPPComponent
 
       if (offset != null)
       {
-         byte[] value = m_map.get(offset);
+         ByteBuffer value = getByteBuffer(offset);
          if (value != null)
          {
             result = MPPUtility.getString(value, 0);
@@ -256,9 +298,9 @@ final class Var2Data extends MPPComponent
 
       if (offset != null)
       {
-         byte[] value = m_map.get(offset);
+         ByteBuffer value = getByteBuffer(offset);
 
-         if (value != null && value.length >= 2)
+         if (value != null && value.limit() >= 2)
          {
             result = MPPUtility.getShort(value, 0);
          }
@@ -283,7 +325,7 @@ final class Var2Data extends MPPComponent
 
       if (offset != null)
       {
-         byte[] value = m_map.get(offset);
+         ByteBuffer value = getByteBuffer(offset);
 
          if (value != null)
          {
@@ -310,9 +352,9 @@ final class Var2Data extends MPPComponent
 
       if (offset != null)
       {
-         byte[] value = m_map.get(offset);
+         ByteBuffer value = getByteBuffer(offset);
 
-         if (value != null && value.length >= 4)
+         if (value != null && value.limit() >= 4)
          {
             result = MPPUtility.getInt(value, 0);
          }
@@ -340,9 +382,9 @@ final class Var2Data extends MPPComponent
 
       if (metaOffset != null)
       {
-         byte[] value = m_map.get(metaOffset);
+         ByteBuffer value = getByteBuffer(metaOffset);
 
-         if (value != null && value.length >= offset + 4)
+         if (value != null && value.limit() >= offset + 4)
          {
             result = MPPUtility.getInt(value, offset);
          }
@@ -367,9 +409,9 @@ final class Var2Data extends MPPComponent
 
       if (offset != null)
       {
-         byte[] value = m_map.get(offset);
+         ByteBuffer value = getByteBuffer(offset);
 
-         if (value != null && value.length >= 8)
+         if (value != null && value.limit() >= 8)
          {
             result = MPPUtility.getLong(value, 0);
          }
@@ -419,10 +461,10 @@ final class Var2Data extends MPPComponent
       PrintWriter pw = new PrintWriter(sw);
 
       pw.println("BEGIN Var2Data");
-      for (Map.Entry<Integer, byte[]> entry : m_map.entrySet())
+      for (Map.Entry<Integer, Integer> entry : m_map.entrySet())
       {
-         pw.println("   Data at offset: " + entry.getKey() + " size: " + entry.getValue().length);
-         pw.println(MPPUtility.hexdump(entry.getValue(), true, 16, "   "));
+         pw.println("   Data at offset: " + entry.getKey() + " size: " + entry.getValue());
+         pw.println(MPPUtility.hexdump(getByteArray(entry.getKey()), true, 16, "   "));
       }
 
       pw.println("END Var2Data");
@@ -447,7 +489,7 @@ final class Var2Data extends MPPComponent
       for (Integer type : m_meta.getTypes(id))
       {
          Integer offset = m_meta.getOffset(id, type);
-         byte[] data = m_map.get(offset);
+         byte[] data = getByteArray(offset);
          pw.println("   Data at offset: " + offset + " size: " + data.length);
          pw.println(MPPUtility.hexdump(data, true, 16, "   "));
       }
@@ -458,9 +500,14 @@ final class Var2Data extends MPPComponent
    }
 
    /**
-    * Map containing data items indexed by offset.
+    * Buffer containing the data held in this block.
+    */
+   private byte[] m_buffer;
+
+   /**
+    * Map containing data item sizes indexed by offset.
     */
-   private TreeMap<Integer, byte[]> m_map = new TreeMap<Integer, byte[]>();
+   private TreeMap<Integer, Integer> m_map = new TreeMap<Integer, Integer>();
 
    /**
     * Reference to the meta data associated with this block.
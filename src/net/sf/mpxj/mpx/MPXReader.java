@@ -58,6 +58,7 @@ import net.sf.mpxj.Task;
 import net.sf.mpxj.TaskField;
 import net.sf.mpxj.TaskType;
 import net.sf.mpxj.TimeUnit;
+import net.sf.mpxj.common.FieldFilterHelper;
 import net.sf.mpxj.common.InputStreamTokenizer;
 import net.sf.mpxj.common.NumberHelper;
 import net.sf.mpxj.common.ReaderTokenizer;
@@ -67,9 +68,37 @@ import net.sf.mpxj.reader.AbstractProjectReader;
 
 /**
  * This class creates a new ProjectFile instance by reading an MPX file.
+ * Once configured, an instance may be shared between threads: each call
+ * to read works with its own copy of the configuration and parse state.
  */
 public final class MPXReader extends AbstractProjectReader
 {
+   /**
+    * Default constructor.
+    */
+   public MPXReader()
+   {
+      // Default constructor
+   }
+
+   /**
+    * Copy constructor. Creates an instance with the same configuration
+    * as the source instance, used to hold the state for a single read.
+    *
+    * @param source source instance
+    */
+   private MPXReader(MPXReader source)
+   {
+      setFieldFilter(source.getFieldFilter());
+      setFieldStorageFactory(source.getFieldStorageFactory());
+      m_locale = source.m_locale;
+      m_ignoreTextModels = source.m_ignoreTextModels;
+      if (source.m_projectListeners != null)
+      {
+         m_projectListeners = new LinkedList<ProjectListener>(source.m_projectListeners);
+      }
+   }
+
    /**
     * {@inheritDoc}
     */
@@ -86,6 +115,18 @@ public final class MPXReader extends AbstractProjectReader
     * {@inheritDoc}
     */
    @Override public ProjectFile read(InputStream is) throws MPXJException
+   {
+      return new MPXReader(this).readFile(is);
+   }
+
+   /**
+    * Read an MPX file. This method is called on an instance created
+    * for this read, so the state held while reading is not shared.
+    *
+    * @param is input stream
+    * @return ProjectFile instance
+    */
+   private ProjectFile readFile(InputStream is) throws MPXJException
    {
       int line = 1;
 
@@ -112,6 +153,7 @@ public final class MPXReader extends AbstractProjectReader
          }
 
          m_projectFile = new ProjectFile();
+         m_projectFile.getProjectConfig().setFieldStorageFactory(getFieldStorageFactory());
          m_eventManager = m_projectFile.getEventManager();
 
          m_projectConfig = m_projectFile.getProjectConfig();
@@ -194,6 +236,11 @@ public final class MPXReader extends AbstractProjectReader
          //
          m_projectConfig.updateUniqueCounters();
 
+         //
+         // Discard any fields which have been filtered out
+         //
+         FieldFilterHelper.applyFilter(m_projectFile, getFieldFilter());
+
          m_projectConfig.setAutoCalendarUniqueID(false);
 
          return (m_projectFile);
@@ -64,14 +64,47 @@ import net.sf.mpxj.writer.AbstractProjectWriter;
 
 /**
  * This class creates a new MPX file from the contents of
- * a ProjectFile instance.
+ * a ProjectFile instance. Each call to write uses its own copy of the
+ * writer's settings, so a configured writer may be shared between threads.
  */
 public final class MPXWriter extends AbstractProjectWriter
 {
+   /**
+    * Default constructor.
+    */
+   public MPXWriter()
+   {
+      // Default constructor
+   }
+
+   /**
+    * Copy constructor. Creates an instance with the same configuration
+    * as the source instance, used to hold the state for a single write.
+    *
+    * @param source source instance
+    */
+   private MPXWriter(MPXWriter source)
+   {
+      m_locale = source.m_locale;
+      m_useLocaleDefaults = source.m_useLocaleDefaults;
+   }
+
    /**
     * {@inheritDoc}
     */
    @Override public void write(ProjectFile projectFile, OutputStream out) throws IOException
+   {
+      new MPXWriter(this).writeFile(projectFile, out);
+   }
+
+   /**
+    * Write an MPX file. This method is called on an instance created
+    * for this write, so the state held while writing is not shared.
+    *
+    * @param projectFile project to write
+    * @param out output stream
+    */
+   private void writeFile(ProjectFile projectFile, OutputStream out) throws IOException
    {
       m_projectFile = projectFile;
       m_eventManager = projectFile.getEventManager();
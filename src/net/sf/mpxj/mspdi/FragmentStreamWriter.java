@@ -0,0 +1,597 @@
+/*
+ * file:       FragmentStreamWriter.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       16/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.mspdi;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Wraps an XMLStreamWriter to allow a document to be assembled from
+ * fragments marshalled individually by JAXB. The root element remains open
+ * until it is explicitly closed, namespace declarations repeated by each
+ * fragment are suppressed, and the output is optionally indented.
+ * Each start element is held back until the next event, so that an
+ * element without content can be written as an empty element, matching
+ * the output of the JAXB marshaller.
+ */
+final class FragmentStreamWriter implements XMLStreamWriter
+{
+   /**
+    * Constructor.
+    *
+    * @param writer target writer
+    * @param indent true if the output should be indented
+    */
+   public FragmentStreamWriter(XMLStreamWriter writer, boolean indent)
+   {
+      m_writer = writer;
+      m_indent = indent;
+   }
+
+   /**
+    * Close the root element. Attempts to close the root element
+    * using writeEndElement are ignored.
+    */
+   public void writeEndRootElement() throws XMLStreamException
+   {
+      m_closeRoot = true;
+      writeEndElement();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void writeStartElement(String localName) throws XMLStreamException
+   {
+      beginElement();
+      m_pendingElement = new PendingItem(PendingItem.ELEMENT, null, null, localName, null);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void writeStartElement(String namespaceURI, String localName) throws XMLStreamException
+   {
+      beginElement();
+      m_pendingElement = new PendingItem(PendingItem.ELEMENT, null, namespaceURI, localName, null);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void writeStartElement(String prefix, String localName, String namespaceURI) throws XMLStreamException
+   {
+      beginElement();
+      m_pendingElement = new PendingItem(PendingItem.ELEMENT, prefix, namespaceURI, localName, null);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void writeEmptyElement(String namespaceURI, String localName) throws XMLStreamException
+   {
+      beginEmptyElement();
+      m_writer.writeEmptyElement(namespaceURI, localName);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void writeEmptyElement(String prefix, String localName, String namespaceURI) throws XMLStreamException
+   {
+      beginEmptyElement();
+      m_writer.writeEmptyElement(prefix, localName, namespaceURI);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void writeEmptyElement(String localName) throws XMLStreamException
+   {
+      beginEmptyElement();
+      m_writer.writeEmptyElement(localName);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void writeEndElement() throws XMLStreamException
+   {
+      if (m_depth == 1 && !m_closeRoot)
+      {
+         writePendingElement(false);
+         return;
+      }
+
+      --m_depth;
+      if (m_pendingElement == null)
+      {
+         if (m_lastEvent == END_ELEMENT)
+         {
+            writeIndent();
+         }
+         m_writer.writeEndElement();
+      }
+      else
+      {
+         writePendingElement(true);
+      }
+      m_lastEvent = END_ELEMENT;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void writeEndDocument() throws XMLStreamException
+   {
+      writePendingElement(false);
+      m_writer.writeEndDocument();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void close() throws XMLStreamException
+   {
+      writePendingElement(false);
+      m_writer.close();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void flush() throws XMLStreamException
+   {
+      writePendingElement(false);
+      m_writer.flush();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void writeAttribute(String localName, String value) throws XMLStreamException
+   {
+      writeAttribute(new PendingItem(PendingItem.ATTRIBUTE, null, null, localName, value));
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void writeAttribute(String prefix, String namespaceURI, String localName, String value) throws XMLStreamException
+   {
+      writeAttribute(new PendingItem(PendingItem.ATTRIBUTE, prefix, namespaceURI, localName, value));
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void writeAttribute(String namespaceURI, String localName, String value) throws XMLStreamException
+   {
+      writeAttribute(new PendingItem(PendingItem.ATTRIBUTE, null, namespaceURI, localName, value));
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void writeNamespace(String prefix, String namespaceURI) throws XMLStreamException
+   {
+      if (prefix == null || prefix.length() == 0 || prefix.equals("xmlns"))
+      {
+         writeDefaultNamespace(namespaceURI);
+      }
+      else
+      {
+         writeAttribute(new PendingItem(PendingItem.NAMESPACE, prefix, namespaceURI, null, null));
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void writeDefaultNamespace(String namespaceURI) throws XMLStreamException
+   {
+      if (m_depth == 1)
+      {
+         m_defaultNamespace = namespaceURI;
+         writeAttribute(new PendingItem(PendingItem.DEFAULT_NAMESPACE, null, namespaceURI, null, null));
+      }
+      else
+      {
+         if (!namespaceURI.equals(m_defaultNamespace))
+         {
+            writeAttribute(new PendingItem(PendingItem.DEFAULT_NAMESPACE, null, namespaceURI, null, null));
+         }
+      }
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void writeComment(String data) throws XMLStreamException
+   {
+      writePendingElement(false);
+      m_writer.writeComment(data);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void writeProcessingInstruction(String target) throws XMLStreamException
+   {
+      writePendingElement(false);
+      m_writer.writeProcessingInstruction(target);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void writeProcessingInstruction(String target, String data) throws XMLStreamException
+   {
+      writePendingElement(false);
+      m_writer.writeProcessingInstruction(target, data);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void writeCData(String data) throws XMLStreamException
+   {
+      writePendingElement(false);
+      m_lastEvent = CHARACTERS;
+      m_writer.writeCData(data);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void writeDTD(String dtd) throws XMLStreamException
+   {
+      writePendingElement(false);
+      m_writer.writeDTD(dtd);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void writeEntityRef(String name) throws XMLStreamException
+   {
+      writePendingElement(false);
+      m_lastEvent = CHARACTERS;
+      m_writer.writeEntityRef(name);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void writeStartDocument() throws XMLStreamException
+   {
+      writePendingElement(false);
+      m_writer.writeStartDocument();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void writeStartDocument(String version) throws XMLStreamException
+   {
+      writePendingElement(false);
+      m_writer.writeStartDocument(version);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void writeStartDocument(String encoding, String version) throws XMLStreamException
+   {
+      writePendingElement(false);
+      m_writer.writeStartDocument(encoding, version);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void writeCharacters(String text) throws XMLStreamException
+   {
+      writePendingElement(false);
+      m_lastEvent = CHARACTERS;
+      m_writer.writeCharacters(text);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void writeCharacters(char[] text, int start, int len) throws XMLStreamException
+   {
+      writePendingElement(false);
+      m_lastEvent = CHARACTERS;
+      m_writer.writeCharacters(text, start, len);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public String getPrefix(String uri) throws XMLStreamException
+   {
+      return m_writer.getPrefix(uri);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void setPrefix(String prefix, String uri) throws XMLStreamException
+   {
+      writePendingElement(false);
+      m_writer.setPrefix(prefix, uri);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void setDefaultNamespace(String uri) throws XMLStreamException
+   {
+      writePendingElement(false);
+      m_writer.setDefaultNamespace(uri);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void setNamespaceContext(NamespaceContext context) throws XMLStreamException
+   {
+      writePendingElement(false);
+      m_writer.setNamespaceContext(context);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public NamespaceContext getNamespaceContext()
+   {
+      return m_writer.getNamespaceContext();
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public Object getProperty(String name)
+   {
+      return m_writer.getProperty(name);
+   }
+
+   /**
+    * Called before an element is started.
+    */
+   private void beginElement() throws XMLStreamException
+   {
+      writePendingElement(false);
+      writeIndent();
+      ++m_depth;
+      m_lastEvent = START_ELEMENT;
+   }
+
+   /**
+    * Called before an empty element is written.
+    */
+   private void beginEmptyElement() throws XMLStreamException
+   {
+      writePendingElement(false);
+      writeIndent();
+      m_lastEvent = END_ELEMENT;
+   }
+
+   /**
+    * Write an attribute or namespace declaration. If the element it belongs
+    * to has not been written yet, the attribute is held until it is.
+    *
+    * @param attribute attribute or namespace declaration
+    */
+   private void writeAttribute(PendingItem attribute) throws XMLStreamException
+   {
+      if (m_pendingElement == null)
+      {
+         attribute.write(m_writer);
+      }
+      else
+      {
+         m_pendingAttributes.add(attribute);
+      }
+   }
+
+   /**
+    * If a start element has been held back, write it, followed by its
+    * attributes and namespace declarations.
+    *
+    * @param empty true if the element has no content
+    */
+   private void writePendingElement(boolean empty) throws XMLStreamException
+   {
+      if (m_pendingElement != null)
+      {
+         m_pendingElement.writeElement(m_writer, empty);
+         for (PendingItem attribute : m_pendingAttributes)
+         {
+            attribute.write(m_writer);
+         }
+         m_pendingElement = null;
+         m_pendingAttributes.clear();
+      }
+   }
+
+   /**
+    * If the output is being indented, write a new line followed by
+    * the indent for the current depth.
+    */
+   private void writeIndent() throws XMLStreamException
+   {
+      if (m_indent)
+      {
+         m_writer.writeCharacters(INDENT, 0, Math.min(m_depth * INDENT_SIZE + 1, INDENT.length));
+      }
+   }
+
+   private final XMLStreamWriter m_writer;
+   private final boolean m_indent;
+   private int m_depth;
+   private int m_lastEvent;
+   private boolean m_closeRoot;
+   private String m_defaultNamespace;
+   private PendingItem m_pendingElement;
+   private final List<PendingItem> m_pendingAttributes = new ArrayList<PendingItem>();
+
+   private static final int START_ELEMENT = 1;
+   private static final int END_ELEMENT = 2;
+   private static final int CHARACTERS = 3;
+   private static final int INDENT_SIZE = 4;
+   private static final char[] INDENT = ("\n" + "                                                                                ").toCharArray();
+
+   /**
+    * An element, attribute or namespace declaration which has not yet been
+    * passed to the underlying writer. A null prefix or namespace URI
+    * indicates which variant of the XMLStreamWriter method was called.
+    */
+   private static final class PendingItem
+   {
+      /**
+       * Constructor.
+       *
+       * @param type item type
+       * @param prefix prefix, or null
+       * @param namespaceURI namespace URI, or null
+       * @param localName local name, or null for a namespace declaration
+       * @param value attribute value, or null
+       */
+      public PendingItem(int type, String prefix, String namespaceURI, String localName, String value)
+      {
+         m_type = type;
+         m_prefix = prefix;
+         m_namespaceURI = namespaceURI;
+         m_localName = localName;
+         m_value = value;
+      }
+
+      /**
+       * Write this item as a start element or an empty element.
+       *
+       * @param writer target writer
+       * @param empty true if an empty element should be written
+       */
+      public void writeElement(XMLStreamWriter writer, boolean empty) throws XMLStreamException
+      {
+         if (m_prefix != null)
+         {
+            if (empty)
+            {
+               writer.writeEmptyElement(m_prefix, m_localName, m_namespaceURI);
+            }
+            else
+            {
+               writer.writeStartElement(m_prefix, m_localName, m_namespaceURI);
+            }
+         }
+         else
+         {
+            if (m_namespaceURI != null)
+            {
+               if (empty)
+               {
+                  writer.writeEmptyElement(m_namespaceURI, m_localName);
+               }
+               else
+               {
+                  writer.writeStartElement(m_namespaceURI, m_localName);
+               }
+            }
+            else
+            {
+               if (empty)
+               {
+                  writer.writeEmptyElement(m_localName);
+               }
+               else
+               {
+                  writer.writeStartElement(m_localName);
+               }
+            }
+         }
+      }
+
+      /**
+       * Write this item as an attribute or namespace declaration.
+       *
+       * @param writer target writer
+       */
+      public void write(XMLStreamWriter writer) throws XMLStreamException
+      {
+         switch (m_type)
+         {
+            case NAMESPACE:
+            {
+               writer.writeNamespace(m_prefix, m_namespaceURI);
+               break;
+            }
+
+            case DEFAULT_NAMESPACE:
+            {
+               writer.writeDefaultNamespace(m_namespaceURI);
+               break;
+            }
+
+            default:
+            {
+               if (m_prefix != null)
+               {
+                  writer.writeAttribute(m_prefix, m_namespaceURI, m_localName, m_value);
+               }
+               else
+               {
+                  if (m_namespaceURI != null)
+                  {
+                     writer.writeAttribute(m_namespaceURI, m_localName, m_value);
+                  }
+                  else
+                  {
+                     writer.writeAttribute(m_localName, m_value);
+                  }
+               }
+               break;
+            }
+         }
+      }
+
+      private final int m_type;
+      private final String m_prefix;
+      private final String m_namespaceURI;
+      private final String m_localName;
+      private final String m_value;
+
+      public static final int ELEMENT = 1;
+      public static final int ATTRIBUTE = 2;
+      public static final int NAMESPACE = 3;
+      public static final int DEFAULT_NAMESPACE = 4;
+   }
+}
@@ -27,6 +27,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.math.BigInteger;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
@@ -84,10 +85,11 @@ import net.sf.mpxj.Task;
 import net.sf.mpxj.TaskField;
 import net.sf.mpxj.TaskMode;
 import net.sf.mpxj.TimeUnit;
-import net.sf.mpxj.TimephasedWork;
+import net.sf.mpxj.TimephasedWorkSeries;
 import net.sf.mpxj.common.BooleanHelper;
 import net.sf.mpxj.common.CharsetHelper;
 import net.sf.mpxj.common.DefaultTimephasedWorkContainer;
+import net.sf.mpxj.common.FieldFilterHelper;
 import net.sf.mpxj.common.FieldTypeHelper;
 import net.sf.mpxj.common.MPPAssignmentField;
 import net.sf.mpxj.common.MPPResourceField;
@@ -111,9 +113,40 @@ import net.sf.mpxj.reader.AbstractProjectReader;
 
 /**
  * This class creates a new ProjectFile instance by reading an MSPDI file.
+ * A configured instance can be used to read several files concurrently,
+ * as the state for each read is held separately. Parsers and unmarshallers
+ * are reused by each thread rather than being created for every file.
  */
 public final class MSPDIReader extends AbstractProjectReader
 {
+   /**
+    * Default constructor.
+    */
+   public MSPDIReader()
+   {
+      // Default constructor
+   }
+
+   /**
+    * Copy constructor. Creates an instance with the same configuration
+    * as the source instance, used to hold the state for a single read.
+    *
+    * @param source source instance
+    */
+   private MSPDIReader(MSPDIReader source)
+   {
+      setFieldFilter(source.getFieldFilter());
+      setFieldStorageFactory(source.getFieldStorageFactory());
+      m_compatibleInput = source.m_compatibleInput;
+      m_streaming = source.m_streaming;
+      m_encoding = source.m_encoding;
+      m_charset = source.m_charset;
+      if (source.m_projectListeners != null)
+      {
+         m_projectListeners = new LinkedList<ProjectListener>(source.m_projectListeners);
+      }
+   }
+
    /**
     * Sets the character encoding used when reading an XER file.
     *
@@ -167,6 +200,21 @@ public final class MSPDIReader extends AbstractProjectReader
     */
    @Override public ProjectFile read(InputStream stream) throws MPXJException
    {
+      return new MSPDIReader(this).readFile(stream);
+   }
+
+   /**
+    * Read an MSPDI file. This method is called on an instance created
+    * for this read, so the state held while reading is not shared.
+    *
+    * @param stream input stream
+    * @return ProjectFile instance
+    */
+   private ProjectFile readFile(InputStream stream) throws MPXJException
+   {
+      SAXParser saxParser = null;
+      Unmarshaller unmarshaller = null;
+
       try
       {
          //
@@ -176,6 +224,7 @@ public final class MSPDIReader extends AbstractProjectReader
          InputStream namespaceCorrectedStream = new ReplaceOnceStream(stream, NAMESPACE_REGEX, NAMESPACE_REPLACEMENT, NAMESPACE_SCOPE, getCharset());
 
          m_projectFile = new ProjectFile();
+         m_projectFile.getProjectConfig().setFieldStorageFactory(getFieldStorageFactory());
          m_eventManager = m_projectFile.getEventManager();
 
          ProjectConfig config = m_projectFile.getProjectConfig();
@@ -191,19 +240,11 @@ public final class MSPDIReader extends AbstractProjectReader
 
          m_eventManager.addProjectListeners(m_projectListeners);
 
-         SAXParserFactory factory = SAXParserFactory.newInstance();
-         factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
-         factory.setNamespaceAware(true);
-         SAXParser saxParser = factory.newSAXParser();
+         saxParser = borrowParser();
          XMLReader xmlReader = saxParser.getXMLReader();
          SAXSource doc = new SAXSource(xmlReader, new InputSource(new InputStreamReader(namespaceCorrectedStream, getCharset())));
 
-         if (CONTEXT == null)
-         {
-            throw CONTEXT_EXCEPTION;
-         }
-
-         Unmarshaller unmarshaller = CONTEXT.createUnmarshaller();
+         unmarshaller = borrowUnmarshaller();
 
          //
          // If we are matching the behaviour of MS project, then we need to
@@ -221,22 +262,38 @@ public final class MSPDIReader extends AbstractProjectReader
          }
 
          DatatypeConverter.setParentFile(m_projectFile);
-         Project project = (Project) unmarshaller.unmarshal(doc);
-
          HashMap<BigInteger, ProjectCalendar> calendarMap = new HashMap<BigInteger, ProjectCalendar>();
+         Project project;
 
-         readProjectProperties(project);
-         readProjectExtendedAttributes(project);
-         readCalendars(project, calendarMap);
-         readResources(project, calendarMap);
-         readTasks(project);
-         readAssignments(project);
+         if (m_streaming)
+         {
+            StreamingListener listener = new StreamingListener(calendarMap);
+            unmarshaller.setListener(listener);
+            project = (Project) unmarshaller.unmarshal(doc);
+            listener.finish(project);
+         }
+         else
+         {
+            project = (Project) unmarshaller.unmarshal(doc);
+
+            readProjectProperties(project);
+            readProjectExtendedAttributes(project);
+            readCalendars(project, calendarMap);
+            readResources(project, calendarMap);
+            readTasks(project);
+            readAssignments(project);
+         }
 
          //
          // Ensure that the unique ID counters are correct
          //
          config.updateUniqueCounters();
 
+         //
+         // Discard any fields which have been filtered out
+         //
+         FieldFilterHelper.applyFilter(m_projectFile, getFieldFilter());
+
          //
          // Ensure that the default calendar name is set in the project properties
          //
@@ -266,8 +323,72 @@ public final class MSPDIReader extends AbstractProjectReader
 
       finally
       {
+         DatatypeConverter.setParentFile(null);
          m_projectFile = null;
+
+         if (saxParser != null)
+         {
+            PARSER.set(saxParser);
+         }
+
+         if (unmarshaller != null)
+         {
+            UNMARSHALLER.set(unmarshaller);
+         }
+      }
+   }
+
+   /**
+    * Retrieve the current thread's SAX parser, or create one if it doesn't
+    * have one. The parser is removed from the pool while in use, so a nested
+    * read on the same thread creates its own parser.
+    *
+    * @return SAXParser instance
+    */
+   private static SAXParser borrowParser() throws ParserConfigurationException, SAXException
+   {
+      SAXParser parser = PARSER.get();
+      if (parser == null)
+      {
+         SAXParserFactory factory = SAXParserFactory.newInstance();
+         factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+         factory.setNamespaceAware(true);
+         parser = factory.newSAXParser();
+      }
+      else
+      {
+         PARSER.remove();
+         parser.reset();
       }
+      return parser;
+   }
+
+   /**
+    * Retrieve the current thread's unmarshaller, or create one if it doesn't
+    * have one. The unmarshaller is removed from the pool while in use, and
+    * any event handler or listener set by a previous read is cleared.
+    *
+    * @return Unmarshaller instance
+    */
+   private static Unmarshaller borrowUnmarshaller() throws JAXBException
+   {
+      if (CONTEXT == null)
+      {
+         throw CONTEXT_EXCEPTION;
+      }
+
+      Unmarshaller unmarshaller = UNMARSHALLER.get();
+      if (unmarshaller == null)
+      {
+         unmarshaller = CONTEXT.createUnmarshaller();
+      }
+      else
+      {
+         UNMARSHALLER.remove();
+         unmarshaller.setEventHandler(null);
+         unmarshaller.setListener(null);
+      }
+      return unmarshaller;
    }
 
    /**
@@ -1012,8 +1133,11 @@ public final class MSPDIReader extends AbstractProjectReader
       {
          int xmlFieldID = Integer.parseInt(attrib.getFieldID()) & 0x0000FFFF;
          ResourceField mpxFieldID = MPPResourceField.getInstance(xmlFieldID);
-         TimeUnit durationFormat = DatatypeConverter.parseDurationTimeUnits(attrib.getDurationFormat(), null);
-         DatatypeConverter.parseExtendedAttribute(m_projectFile, mpx, attrib.getValue(), mpxFieldID, durationFormat);
+         if (FieldFilterHelper.includeField(getFieldFilter(), mpxFieldID))
+         {
+            TimeUnit durationFormat = DatatypeConverter.parseDurationTimeUnits(attrib.getDurationFormat(), null);
+            DatatypeConverter.parseExtendedAttribute(m_projectFile, mpx, attrib.getValue(), mpxFieldID, durationFormat);
+         }
       }
    }
 
@@ -1449,8 +1573,11 @@ public final class MSPDIReader extends AbstractProjectReader
       {
          int xmlFieldID = Integer.parseInt(attrib.getFieldID()) & 0x0000FFFF;
          TaskField mpxFieldID = MPPTaskField.getInstance(xmlFieldID);
-         TimeUnit durationFormat = DatatypeConverter.parseDurationTimeUnits(attrib.getDurationFormat(), null);
-         DatatypeConverter.parseExtendedAttribute(m_projectFile, mpx, attrib.getValue(), mpxFieldID, durationFormat);
+         if (FieldFilterHelper.includeField(getFieldFilter(), mpxFieldID))
+         {
+            TimeUnit durationFormat = DatatypeConverter.parseDurationTimeUnits(attrib.getDurationFormat(), null);
+            DatatypeConverter.parseExtendedAttribute(m_projectFile, mpx, attrib.getValue(), mpxFieldID, durationFormat);
+         }
       }
    }
 
@@ -1587,8 +1714,8 @@ public final class MSPDIReader extends AbstractProjectReader
                calendar = task.getEffectiveCalendar();
             }
 
-            LinkedList<TimephasedWork> timephasedComplete = readTimephasedAssignment(calendar, assignment, 2);
-            LinkedList<TimephasedWork> timephasedPlanned = readTimephasedAssignment(calendar, assignment, 1);
+            TimephasedWorkSeries timephasedComplete = readTimephasedAssignment(calendar, assignment, 2);
+            TimephasedWorkSeries timephasedPlanned = readTimephasedAssignment(calendar, assignment, 1);
             boolean raw = true;
 
             if (isSplit(calendar, timephasedComplete) || isSplit(calendar, timephasedPlanned))
@@ -1719,8 +1846,11 @@ public final class MSPDIReader extends AbstractProjectReader
       {
          int xmlFieldID = Integer.parseInt(attrib.getFieldID()) & 0x0000FFFF;
          AssignmentField mpxFieldID = MPPAssignmentField.getInstance(xmlFieldID);
-         TimeUnit durationFormat = DatatypeConverter.parseDurationTimeUnits(attrib.getDurationFormat(), null);
-         DatatypeConverter.parseExtendedAttribute(m_projectFile, mpx, attrib.getValue(), mpxFieldID, durationFormat);
+         if (FieldFilterHelper.includeField(getFieldFilter(), mpxFieldID))
+         {
+            TimeUnit durationFormat = DatatypeConverter.parseDurationTimeUnits(attrib.getDurationFormat(), null);
+            DatatypeConverter.parseExtendedAttribute(m_projectFile, mpx, attrib.getValue(), mpxFieldID, durationFormat);
+         }
       }
    }
 
@@ -1731,14 +1861,14 @@ public final class MSPDIReader extends AbstractProjectReader
     * @param list timephased resource assignment list
     * @return boolean flag
     */
-   private boolean isSplit(ProjectCalendar calendar, List<TimephasedWork> list)
+   private boolean isSplit(ProjectCalendar calendar, TimephasedWorkSeries list)
    {
       boolean result = false;
-      for (TimephasedWork assignment : list)
+      for (int index = 0; index < list.size(); index++)
       {
-         if (calendar != null && assignment.getTotalAmount().getDuration() == 0)
+         if (calendar != null && list.getTotalAmountValue(index) == 0)
          {
-            Duration calendarWork = calendar.getWork(assignment.getStart(), assignment.getFinish(), TimeUnit.MINUTES);
+            Duration calendarWork = calendar.getWork(new Date(list.getStartTime(index)), new Date(list.getFinishTime(index)), TimeUnit.MINUTES);
             if (calendarWork.getDuration() != 0)
             {
                result = true;
@@ -1755,11 +1885,11 @@ public final class MSPDIReader extends AbstractProjectReader
     * @param calendar current calendar
     * @param assignment assignment data
     * @param type flag indicating if this is planned or complete work
-    * @return list of timephased resource assignment instances
+    * @return timephased resource assignment data
     */
-   private LinkedList<TimephasedWork> readTimephasedAssignment(ProjectCalendar calendar, Project.Assignments.Assignment assignment, int type)
+   private TimephasedWorkSeries readTimephasedAssignment(ProjectCalendar calendar, Project.Assignments.Assignment assignment, int type)
    {
-      LinkedList<TimephasedWork> result = new LinkedList<TimephasedWork>();
+      TimephasedWorkSeries result = new TimephasedWorkSeries();
 
       for (TimephasedDataType item : assignment.getTimephasedData())
       {
@@ -1771,21 +1901,9 @@ public final class MSPDIReader extends AbstractProjectReader
          Date startDate = DatatypeConverter.parseDate(item.getStart());
          Date finishDate = DatatypeConverter.parseDate(item.getFinish());
          Duration work = DatatypeConverter.parseDuration(m_projectFile, TimeUnit.MINUTES, item.getValue());
-         if (work == null)
-         {
-            work = Duration.getInstance(0, TimeUnit.MINUTES);
-         }
-         else
-         {
-            work = Duration.getInstance(NumberHelper.round(work.getDuration(), 2), TimeUnit.MINUTES);
-         }
-
-         TimephasedWork tra = new TimephasedWork();
-         tra.setStart(startDate);
-         tra.setFinish(finishDate);
-         tra.setTotalAmount(work);
+         double workMinutes = work == null ? 0 : NumberHelper.round(work.getDuration(), 2);
 
-         result.add(tra);
+         result.add(startDate.getTime(), finishDate.getTime(), workMinutes, Double.NaN, TimeUnit.MINUTES);
       }
 
       return result;
@@ -1817,6 +1935,185 @@ public final class MSPDIReader extends AbstractProjectReader
       return (m_compatibleInput);
    }
 
+   /**
+    * Sets a flag indicating that tasks, resources and assignments should be
+    * processed as they are parsed, and then discarded, rather than
+    * unmarshalling the complete document before processing it. This
+    * reduces the memory required to read large files. Streaming relies on
+    * the elements in the file appearing in the order defined by the schema:
+    * project properties and calendars, then tasks, resources and assignments.
+    *
+    * @param flag true if streaming is enabled
+    */
+   public void setStreaming(boolean flag)
+   {
+      m_streaming = flag;
+   }
+
+   /**
+    * Retrieves a flag indicating that tasks, resources and assignments
+    * will be processed as they are parsed.
+    *
+    * @return true if streaming is enabled
+    */
+   public boolean getStreaming()
+   {
+      return m_streaming;
+   }
+
+   /**
+    * Receives notifications from the unmarshaller as each element is
+    * parsed. This allows each task, resource and assignment to be processed
+    * as soon as it has been unmarshalled. Once processed, these elements are
+    * removed from their parent so that they can be garbage collected.
+    */
+   private class StreamingListener extends Unmarshaller.Listener
+   {
+      /**
+       * Constructor.
+       *
+       * @param calendarMap map of calendar UIDs to calendars
+       */
+      public StreamingListener(HashMap<BigInteger, ProjectCalendar> calendarMap)
+      {
+         m_calendarMap = calendarMap;
+      }
+
+      /**
+       * {@inheritDoc}
+       */
+      @Override public void beforeUnmarshal(Object target, Object parent)
+      {
+         if (target instanceof Project.Tasks || target instanceof Project.Resources)
+         {
+            readHeader((Project) parent);
+         }
+         else
+         {
+            if (target instanceof Project.Assignments)
+            {
+               readHeader((Project) parent);
+               updateTasks();
+            }
+         }
+      }
+
+      /**
+       * {@inheritDoc}
+       */
+      @Override public void afterUnmarshal(Object target, Object parent)
+      {
+         if (target instanceof Project.Tasks.Task)
+         {
+            Project.Tasks.Task xml = (Project.Tasks.Task) target;
+            Task task = readTask(xml);
+            ++m_taskCount;
+            if (task.getID() == null)
+            {
+               ++m_tasksWithoutIDCount;
+            }
+
+            //
+            // Retain just the predecessor links, these are read
+            // once all of the tasks are present.
+            //
+            if (!xml.getPredecessorLink().isEmpty())
+            {
+               Project.Tasks.Task links = new Project.Tasks.Task();
+               links.setUID(xml.getUID());
+               links.getPredecessorLink().addAll(xml.getPredecessorLink());
+               m_predecessors.add(links);
+            }
+
+            ((Project.Tasks) parent).getTask().clear();
+         }
+         else
+         {
+            if (target instanceof Project.Resources.Resource)
+            {
+               readResource((Project.Resources.Resource) target, m_calendarMap);
+               ((Project.Resources) parent).getResource().clear();
+            }
+            else
+            {
+               if (target instanceof Project.Assignments.Assignment)
+               {
+                  readAssignment((Project.Assignments.Assignment) target, m_splitFactory, m_normaliser);
+                  ((Project.Assignments) parent).getAssignment().clear();
+               }
+            }
+         }
+      }
+
+      /**
+       * Called once the unmarshaller has finished, to complete any
+       * processing which has not already taken place.
+       *
+       * @param project Root node of the MSPDI file
+       */
+      public void finish(Project project)
+      {
+         readHeader(project);
+         updateTasks();
+      }
+
+      /**
+       * Read the project properties, extended attributes and calendars.
+       * These elements precede the tasks, resources and assignments.
+       *
+       * @param project Root node of the MSPDI file
+       */
+      private void readHeader(Project project)
+      {
+         if (!m_headerRead)
+         {
+            m_headerRead = true;
+            readProjectProperties(project);
+            readProjectExtendedAttributes(project);
+            readCalendars(project, m_calendarMap);
+         }
+      }
+
+      /**
+       * Once all tasks have been read, add the predecessors and update
+       * the task structure. This must happen before assignments are read.
+       */
+      private void updateTasks()
+      {
+         if (!m_tasksUpdated)
+         {
+            m_tasksUpdated = true;
+
+            for (Project.Tasks.Task task : m_predecessors)
+            {
+               readPredecessors(task);
+            }
+            m_predecessors = null;
+
+            //
+            // MS Project will happily read tasks from an MSPDI file without IDs,
+            // it will just generate ID values based on the task order in the file.
+            // If we find that there are no ID values present, we'll do the same.
+            //
+            if (m_taskCount != 0 && m_tasksWithoutIDCount == m_taskCount)
+            {
+               m_projectFile.renumberTaskIDs();
+            }
+
+            m_projectFile.updateStructure();
+         }
+      }
+
+      private final HashMap<BigInteger, ProjectCalendar> m_calendarMap;
+      private final SplitTaskFactory m_splitFactory = new SplitTaskFactory();
+      private final TimephasedWorkNormaliser m_normaliser = new MSPDITimephasedWorkNormaliser();
+      private List<Project.Tasks.Task> m_predecessors = new ArrayList<Project.Tasks.Task>();
+      private boolean m_headerRead;
+      private boolean m_tasksUpdated;
+      private int m_taskCount;
+      private int m_tasksWithoutIDCount;
+   }
+
    /**
     * Cached context to minimise construction cost.
     */
@@ -1827,6 +2124,16 @@ public final class MSPDIReader extends AbstractProjectReader
     */
    private static JAXBException CONTEXT_EXCEPTION;
 
+   /**
+    * SAX parser reused by each thread.
+    */
+   private static final ThreadLocal<SAXParser> PARSER = new ThreadLocal<SAXParser>();
+
+   /**
+    * Unmarshaller reused by each thread.
+    */
+   private static final ThreadLocal<Unmarshaller> UNMARSHALLER = new ThreadLocal<Unmarshaller>();
+
    static
    {
       try
@@ -1850,6 +2157,7 @@ public final class MSPDIReader extends AbstractProjectReader
    }
 
    private boolean m_compatibleInput = true;
+   private boolean m_streaming;
    private String m_encoding;
    private Charset m_charset;
    private ProjectFile m_projectFile;
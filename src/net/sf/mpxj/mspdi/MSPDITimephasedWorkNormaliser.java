@@ -25,12 +25,12 @@ package net.sf.mpxj.mspdi;
 
 import java.util.Calendar;
 import java.util.Date;
-import java.util.LinkedList;
 
 import net.sf.mpxj.Duration;
 import net.sf.mpxj.ProjectCalendar;
 import net.sf.mpxj.TimeUnit;
 import net.sf.mpxj.TimephasedWork;
+import net.sf.mpxj.TimephasedWorkSeries;
 import net.sf.mpxj.common.AbstractTimephasedWorkNormaliser;
 import net.sf.mpxj.common.DateHelper;
 import net.sf.mpxj.common.NumberHelper;
@@ -49,7 +49,7 @@ public class MSPDITimephasedWorkNormaliser extends AbstractTimephasedWorkNormali
     * @param calendar current calendar
     * @param list list of assignment data
     */
-   @Override public void normalise(ProjectCalendar calendar, LinkedList<TimephasedWork> list)
+   @Override public void normalise(ProjectCalendar calendar, TimephasedWorkSeries list)
    {
       //dumpList("raw", result);
       splitDays(calendar, list);
@@ -63,7 +63,7 @@ public class MSPDITimephasedWorkNormaliser extends AbstractTimephasedWorkNormali
    }
 
    /*
-      private void dumpList(String label, LinkedList<TimephasedWork> list)
+      private void dumpList(String label, TimephasedWorkSeries list)
       {
          System.out.println(label);
          for (TimephasedWork assignment : list)
@@ -79,9 +79,9 @@ public class MSPDITimephasedWorkNormaliser extends AbstractTimephasedWorkNormali
     * @param calendar current project calendar
     * @param list list of assignment data
     */
-   private void splitDays(ProjectCalendar calendar, LinkedList<TimephasedWork> list)
+   private void splitDays(ProjectCalendar calendar, TimephasedWorkSeries list)
    {
-      LinkedList<TimephasedWork> result = new LinkedList<TimephasedWork>();
+      TimephasedWorkSeries result = new TimephasedWorkSeries(list.size());
       Calendar cal = Calendar.getInstance();
 
       for (TimephasedWork assignment : list)
@@ -114,8 +114,7 @@ public class MSPDITimephasedWorkNormaliser extends AbstractTimephasedWorkNormali
          }
       }
 
-      list.clear();
-      list.addAll(result);
+      list.replaceWith(result);
    }
 
    /**
@@ -202,76 +201,75 @@ public class MSPDITimephasedWorkNormaliser extends AbstractTimephasedWorkNormali
     * @param calendar current calendar
     * @param list assignment data
     */
-   private void mergeSameDay(ProjectCalendar calendar, LinkedList<TimephasedWork> list)
+   private void mergeSameDay(ProjectCalendar calendar, TimephasedWorkSeries list)
    {
-      LinkedList<TimephasedWork> result = new LinkedList<TimephasedWork>();
+      TimephasedWorkSeries result = new TimephasedWorkSeries(list.size());
 
-      TimephasedWork previousAssignment = null;
-      for (TimephasedWork assignment : list)
+      for (int index = 0; index < list.size(); index++)
       {
-         if (previousAssignment == null)
-         {
-            assignment.setAmountPerDay(assignment.getTotalAmount());
-            result.add(assignment);
-         }
-         else
-         {
-            Date previousAssignmentStart = previousAssignment.getStart();
-            Date previousAssignmentStartDay = DateHelper.getDayStartDate(previousAssignmentStart);
-            Date assignmentStart = assignment.getStart();
-            Date assignmentStartDay = DateHelper.getDayStartDate(assignmentStart);
+         long assignmentStart = list.getStartTime(index);
+         long assignmentFinish = list.getFinishTime(index);
+         double assignmentWork = list.getTotalAmountValue(index);
+         int resultIndex;
 
-            if (previousAssignmentStartDay.getTime() == assignmentStartDay.getTime())
+         //
+         // The previous assignment is always the last item in the result.
+         //
+         int previousIndex = result.size() - 1;
+         if (previousIndex != -1 && getDayStart(result.getStartTime(previousIndex)) == getDayStart(assignmentStart))
+         {
+            double previousAssignmentWork = result.getTotalAmountValue(previousIndex);
+            if (previousAssignmentWork != 0 && assignmentWork == 0)
             {
-               Duration previousAssignmentWork = previousAssignment.getTotalAmount();
-               Duration assignmentWork = assignment.getTotalAmount();
-
-               if (previousAssignmentWork.getDuration() != 0 && assignmentWork.getDuration() == 0)
-               {
-                  continue;
-               }
-
-               result.removeLast();
+               continue;
+            }
 
-               if (previousAssignmentWork.getDuration() != 0 && assignmentWork.getDuration() != 0)
+            if (previousAssignmentWork != 0 && assignmentWork != 0)
+            {
+               result.setFinishTime(previousIndex, assignmentFinish);
+               result.setTotalAmount(previousIndex, previousAssignmentWork + assignmentWork, TimeUnit.MINUTES);
+               result.setModified(previousIndex, false);
+               resultIndex = previousIndex;
+            }
+            else
+            {
+               if (assignmentWork == 0)
                {
-                  double work = previousAssignment.getTotalAmount().getDuration();
-                  work += assignment.getTotalAmount().getDuration();
-                  Duration totalWork = Duration.getInstance(work, TimeUnit.MINUTES);
-
-                  TimephasedWork merged = new TimephasedWork();
-                  merged.setStart(previousAssignment.getStart());
-                  merged.setFinish(assignment.getFinish());
-                  merged.setTotalAmount(totalWork);
-                  assignment = merged;
+                  resultIndex = previousIndex;
                }
                else
                {
-                  if (assignmentWork.getDuration() == 0)
-                  {
-                     assignment = previousAssignment;
-                  }
+                  result.removeLast();
+                  resultIndex = result.add(list, index);
                }
             }
-
-            assignment.setAmountPerDay(assignment.getTotalAmount());
-            result.add(assignment);
          }
-
-         Duration calendarWork = calendar.getWork(assignment.getStart(), assignment.getFinish(), TimeUnit.MINUTES);
-         Duration assignmentWork = assignment.getTotalAmount();
-         if (calendarWork.getDuration() == 0 && assignmentWork.getDuration() == 0)
+         else
          {
-            result.removeLast();
+            resultIndex = result.add(list, index);
          }
-         else
+
+         result.setAmountPerDay(resultIndex, result.getTotalAmountValue(resultIndex), result.getTotalAmountUnits(resultIndex));
+
+         Duration calendarWork = calendar.getWork(new Date(result.getStartTime(resultIndex)), new Date(result.getFinishTime(resultIndex)), TimeUnit.MINUTES);
+         if (calendarWork.getDuration() == 0 && result.getTotalAmountValue(resultIndex) == 0)
          {
-            previousAssignment = assignment;
+            result.removeLast();
          }
       }
 
-      list.clear();
-      list.addAll(result);
+      list.replaceWith(result);
+   }
+
+   /**
+    * Retrieve the start of the day containing the supplied date.
+    *
+    * @param date date in milliseconds
+    * @return start of day in milliseconds
+    */
+   private long getDayStart(long date)
+   {
+      return DateHelper.getDayStartDate(new Date(date)).getTime();
    }
 
    /**
@@ -281,24 +279,24 @@ public class MSPDITimephasedWorkNormaliser extends AbstractTimephasedWorkNormali
     * @param calendar current calendar
     * @param list assignment data
     */
-   private void validateSameDay(ProjectCalendar calendar, LinkedList<TimephasedWork> list)
+   private void validateSameDay(ProjectCalendar calendar, TimephasedWorkSeries list)
    {
-      for (TimephasedWork assignment : list)
+      for (int index = 0; index < list.size(); index++)
       {
-         Date assignmentStart = assignment.getStart();
+         Date assignmentStart = new Date(list.getStartTime(index));
          Date calendarStartTime = calendar.getStartTime(assignmentStart);
          Date assignmentStartTime = DateHelper.getCanonicalTime(assignmentStart);
-         Date assignmentFinish = assignment.getFinish();
+         Date assignmentFinish = new Date(list.getFinishTime(index));
          Date calendarFinishTime = calendar.getFinishTime(assignmentFinish);
          Date assignmentFinishTime = DateHelper.getCanonicalTime(assignmentFinish);
-         double totalWork = assignment.getTotalAmount().getDuration();
+         double totalWork = list.getTotalAmountValue(index);
 
          if (assignmentStartTime != null && calendarStartTime != null)
          {
             if ((totalWork == 0 && assignmentStartTime.getTime() != calendarStartTime.getTime()) || (assignmentStartTime.getTime() < calendarStartTime.getTime()))
             {
                assignmentStart = DateHelper.setTime(assignmentStart, calendarStartTime);
-               assignment.setStart(assignmentStart);
+               list.setStartTime(index, assignmentStart.getTime());
             }
          }
 
@@ -307,7 +305,7 @@ public class MSPDITimephasedWorkNormaliser extends AbstractTimephasedWorkNormali
             if ((totalWork == 0 && assignmentFinishTime.getTime() != calendarFinishTime.getTime()) || (assignmentFinishTime.getTime() > calendarFinishTime.getTime()))
             {
                assignmentFinish = DateHelper.setTime(assignmentFinish, calendarFinishTime);
-               assignment.setFinish(assignmentFinish);
+               list.setFinishTime(index, assignmentFinish.getTime());
             }
          }
       }
@@ -32,13 +32,18 @@ import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 
 import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
 
 import net.sf.mpxj.AccrueType;
 import net.sf.mpxj.AssignmentField;
@@ -51,6 +56,7 @@ import net.sf.mpxj.Day;
 import net.sf.mpxj.DayType;
 import net.sf.mpxj.Duration;
 import net.sf.mpxj.EventManager;
+import net.sf.mpxj.FieldContainer;
 import net.sf.mpxj.FieldType;
 import net.sf.mpxj.ProjectCalendar;
 import net.sf.mpxj.ProjectCalendarException;
@@ -73,6 +79,7 @@ import net.sf.mpxj.TaskMode;
 import net.sf.mpxj.TimeUnit;
 import net.sf.mpxj.TimephasedWork;
 import net.sf.mpxj.common.AssignmentFieldLists;
+import net.sf.mpxj.common.CharsetHelper;
 import net.sf.mpxj.common.DateHelper;
 import net.sf.mpxj.common.FieldTypeHelper;
 import net.sf.mpxj.common.MPPAssignmentField;
@@ -96,9 +103,35 @@ import net.sf.mpxj.writer.AbstractProjectWriter;
 
 /**
  * This class creates a new MSPDI file from the contents of an ProjectFile instance.
+ * Each write works on its own copy of the writer's settings, so one configured
+ * writer can be used by several threads at once. Marshallers are reused
+ * by each thread.
  */
 public final class MSPDIWriter extends AbstractProjectWriter
 {
+   /**
+    * Default constructor.
+    */
+   public MSPDIWriter()
+   {
+      // Default constructor
+   }
+
+   /**
+    * Copy constructor. Creates an instance with the same configuration
+    * as the source instance, used to hold the state for a single write.
+    *
+    * @param source source instance
+    */
+   private MSPDIWriter(MSPDIWriter source)
+   {
+      m_splitTimephasedAsDays = source.m_splitTimephasedAsDays;
+      m_writeTimphasedData = source.m_writeTimphasedData;
+      m_streaming = source.m_streaming;
+      m_formatOutput = source.m_formatOutput;
+      m_saveVersion = source.m_saveVersion;
+   }
+
    /**
     * Sets a flag to control whether timephased assignment data is split
     * into days. The default is true.
@@ -163,39 +196,106 @@ public final class MSPDIWriter extends AbstractProjectWriter
       return m_saveVersion;
    }
 
+   /**
+    * Sets a flag to control whether each task, resource and assignment is
+    * written to the output as soon as it has been converted, rather than
+    * building the complete document in memory before writing it. This
+    * reduces the memory required to write large projects. The default
+    * is false.
+    *
+    * @param flag boolean flag
+    */
+   public void setStreaming(boolean flag)
+   {
+      m_streaming = flag;
+   }
+
+   /**
+    * Retrieves the flag which controls whether each task, resource and
+    * assignment is written as soon as it has been converted.
+    * The default is false.
+    *
+    * @return boolean flag
+    */
+   public boolean getStreaming()
+   {
+      return m_streaming;
+   }
+
+   /**
+    * Sets a flag to control whether the output is indented to make it
+    * easier to read. The default is true.
+    *
+    * @param flag boolean flag
+    */
+   public void setFormatOutput(boolean flag)
+   {
+      m_formatOutput = flag;
+   }
+
+   /**
+    * Retrieves the flag which controls whether the output is indented
+    * to make it easier to read. The default is true.
+    *
+    * @return boolean flag
+    */
+   public boolean getFormatOutput()
+   {
+      return m_formatOutput;
+   }
+
    /**
     * {@inheritDoc}
     */
    @Override public void write(ProjectFile projectFile, OutputStream stream) throws IOException
    {
+      new MSPDIWriter(this).writeFile(projectFile, stream);
+   }
+
+   /**
+    * Write an MSPDI file. This method is called on an instance created
+    * for this write, so the state held while writing is not shared.
+    *
+    * @param projectFile project to write
+    * @param stream output stream
+    */
+   private void writeFile(ProjectFile projectFile, OutputStream stream) throws IOException
+   {
+      Marshaller marshaller = null;
+
       try
       {
-         if (CONTEXT == null)
-         {
-            throw CONTEXT_EXCEPTION;
-         }
-
          m_projectFile = projectFile;
          m_projectFile.validateUniqueIDsForMicrosoftProject();
          m_eventManager = m_projectFile.getEventManager();
 
-         Marshaller marshaller = CONTEXT.createMarshaller();
-         marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+         marshaller = borrowMarshaller();
+         marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.valueOf(m_formatOutput));
+         marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.FALSE);
 
          m_extendedAttributesInUse = new HashSet<FieldType>();
 
          m_factory = new ObjectFactory();
-         Project project = m_factory.createProject();
 
-         writeProjectProperties(project);
-         writeCalendars(project);
-         writeResources(project);
-         writeTasks(project);
-         writeAssignments(project);
-         writeProjectExtendedAttributes(project);
+         if (m_streaming)
+         {
+            DatatypeConverter.setParentFile(m_projectFile);
+            writeStreaming(marshaller, stream);
+         }
+         else
+         {
+            Project project = m_factory.createProject();
+
+            writeProjectProperties(project);
+            writeCalendars(project);
+            writeResources(project);
+            writeTasks(project);
+            writeAssignments(project);
+            writeProjectExtendedAttributes(project);
 
-         DatatypeConverter.setParentFile(m_projectFile);
-         marshaller.marshal(project, stream);
+            DatatypeConverter.setParentFile(m_projectFile);
+            marshaller.marshal(project, stream);
+         }
       }
 
       catch (JAXBException ex)
@@ -203,11 +303,149 @@ public final class MSPDIWriter extends AbstractProjectWriter
          throw new IOException(ex.toString());
       }
 
+      catch (XMLStreamException ex)
+      {
+         throw new IOException(ex.toString());
+      }
+
       finally
       {
+         DatatypeConverter.setParentFile(null);
          m_projectFile = null;
          m_factory = null;
          m_extendedAttributesInUse = null;
+
+         if (marshaller != null)
+         {
+            MARSHALLER.set(marshaller);
+         }
+      }
+   }
+
+   /**
+    * Retrieve the current thread's marshaller, or create one if it doesn't
+    * have one. The marshaller is removed from the pool while in use.
+    *
+    * @return Marshaller instance
+    */
+   private static Marshaller borrowMarshaller() throws JAXBException
+   {
+      if (CONTEXT == null)
+      {
+         throw CONTEXT_EXCEPTION;
+      }
+
+      Marshaller marshaller = MARSHALLER.get();
+      if (marshaller == null)
+      {
+         marshaller = CONTEXT.createMarshaller();
+      }
+      else
+      {
+         MARSHALLER.remove();
+      }
+      return marshaller;
+   }
+
+   /**
+    * Write the project as a series of fragments. The project properties,
+    * extended attributes and calendars are marshalled first, followed by
+    * each task, resource and assignment in turn. Only a single task,
+    * resource or assignment is held in memory at any one time.
+    *
+    * @param marshaller JAXB marshaller
+    * @param stream output stream
+    */
+   private void writeStreaming(Marshaller marshaller, OutputStream stream) throws IOException, JAXBException, XMLStreamException
+   {
+      marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+
+      //
+      // XMLStreamWriter can't write the standalone attribute, so we write
+      // the same XML declaration as the JAXB marshaller directly.
+      //
+      stream.write(XML_DECLARATION);
+      FragmentStreamWriter writer = new FragmentStreamWriter(XMLOutputFactory.newInstance().createXMLStreamWriter(stream, "UTF-8"), m_formatOutput);
+
+      //
+      // The extended attribute definitions precede the tasks, resources
+      // and assignments, so we need to find the attributes in use first.
+      //
+      findExtendedAttributesInUse();
+
+      Project project = m_factory.createProject();
+      writeProjectProperties(project);
+      writeCalendars(project);
+      writeProjectExtendedAttributes(project);
+
+      marshaller.marshal(project, writer);
+
+      writer.writeStartElement("", "Tasks", NAMESPACE);
+      for (Task task : m_projectFile.getTasks())
+      {
+         marshaller.marshal(new JAXBElement<Project.Tasks.Task>(TASK_QNAME, Project.Tasks.Task.class, writeTask(task)), writer);
+      }
+      writer.writeEndElement();
+
+      writer.writeStartElement("", "Resources", NAMESPACE);
+      for (Resource resource : m_projectFile.getResources())
+      {
+         marshaller.marshal(new JAXBElement<Project.Resources.Resource>(RESOURCE_QNAME, Project.Resources.Resource.class, writeResource(resource)), writer);
+      }
+      writer.writeEndElement();
+
+      writer.writeStartElement("", "Assignments", NAMESPACE);
+      for (ResourceAssignment assignment : m_projectFile.getResourceAssignments())
+      {
+         marshaller.marshal(new JAXBElement<Project.Assignments.Assignment>(ASSIGNMENT_QNAME, Project.Assignments.Assignment.class, writeAssignment(assignment)), writer);
+      }
+
+      for (ResourceAssignment assignment : createDummyAssignments())
+      {
+         marshaller.marshal(new JAXBElement<Project.Assignments.Assignment>(ASSIGNMENT_QNAME, Project.Assignments.Assignment.class, writeAssignment(assignment)), writer);
+      }
+      writer.writeEndElement();
+
+      writer.writeEndRootElement();
+      writer.writeEndDocument();
+      writer.flush();
+
+      if (m_formatOutput)
+      {
+         stream.write('\n');
+      }
+   }
+
+   /**
+    * Populate the set of extended attributes in use, without writing
+    * any tasks, resources or assignments.
+    */
+   private void findExtendedAttributesInUse()
+   {
+      findExtendedAttributesInUse(m_projectFile.getTasks(), getAllTaskExtendedAttributes());
+      findExtendedAttributesInUse(m_projectFile.getResources(), getAllResourceExtendedAttributes());
+      findExtendedAttributesInUse(m_projectFile.getResourceAssignments(), getAllAssignmentExtendedAttributes());
+   }
+
+   /**
+    * Add any of the supplied extended attributes which have a non-default
+    * value to the set of extended attributes in use.
+    *
+    * @param containers entities to test
+    * @param fields extended attributes
+    */
+   private void findExtendedAttributesInUse(List<? extends FieldContainer> containers, List<? extends FieldType> fields)
+   {
+      for (FieldType field : fields)
+      {
+         for (FieldContainer container : containers)
+         {
+            if (FieldTypeHelper.valueIsNotDefault(field, container.getCachedValue(field)))
+            {
+               m_extendedAttributesInUse.add(field);
+               break;
+            }
+         }
       }
    }
 
@@ -296,7 +534,7 @@ public final class MSPDIWriter extends AbstractProjectWriter
       project.setExtendedAttributes(attributes);
       List<Project.ExtendedAttributes.ExtendedAttribute> list = attributes.getExtendedAttribute();
 
-      Set<FieldType> customFields = new HashSet<FieldType>();
+      Set<FieldType> customFields = new LinkedHashSet<FieldType>();
       for (CustomField customField : m_projectFile.getCustomFields())
       {
          FieldType fieldType = customField.getFieldType();
@@ -306,7 +544,14 @@ public final class MSPDIWriter extends AbstractProjectWriter
          }
       }
 
-      customFields.addAll(m_extendedAttributesInUse);
+      //
+      // Add the attributes in use in a fixed order, rather than the order
+      // in which they were found, so that streaming and non-streaming
+      // output match.
+      //
+      addExtendedAttributesInUse(customFields, getAllTaskExtendedAttributes());
+      addExtendedAttributesInUse(customFields, getAllResourceExtendedAttributes());
+      addExtendedAttributesInUse(customFields, getAllAssignmentExtendedAttributes());
 
       for (FieldType fieldType : customFields)
       {
@@ -323,6 +568,23 @@ public final class MSPDIWriter extends AbstractProjectWriter
       }
    }
 
+   /**
+    * Add those extended attributes from the supplied list which are in use.
+    *
+    * @param customFields set of fields to update
+    * @param fields extended attributes
+    */
+   private void addExtendedAttributesInUse(Set<FieldType> customFields, List<? extends FieldType> fields)
+   {
+      for (FieldType field : fields)
+      {
+         if (m_extendedAttributesInUse.contains(field))
+         {
+            customFields.add(field);
+         }
+      }
+   }
+
    /**
     * This method writes calendar data to an MSPDI file.
     *
@@ -1426,12 +1688,23 @@ public final class MSPDIWriter extends AbstractProjectWriter
          list.add(writeAssignment(assignment));
       }
 
-      //
-      // Check to see if we have any tasks that have a percent complete value
-      // but do not have resource assignments. If any exist, then we must
-      // write a dummy resource assignment record to ensure that the MSPDI
-      // file shows the correct percent complete amount for the task.
-      //
+      for (ResourceAssignment assignment : createDummyAssignments())
+      {
+         list.add(writeAssignment(assignment));
+      }
+   }
+
+   /**
+    * Check to see if we have any tasks that have a percent complete value
+    * but do not have resource assignments. If any exist, then we must
+    * write a dummy resource assignment record to ensure that the MSPDI
+    * file shows the correct percent complete amount for the task.
+    *
+    * @return dummy resource assignments
+    */
+   private List<ResourceAssignment> createDummyAssignments()
+   {
+      List<ResourceAssignment> list = new ArrayList<ResourceAssignment>();
       ProjectConfig config = m_projectFile.getProjectConfig();
       boolean autoUniqueID = config.getAutoAssignmentUniqueID();
       if (!autoUniqueID)
@@ -1460,11 +1733,13 @@ public final class MSPDIWriter extends AbstractProjectWriter
             dummy.setActualWork(Duration.getInstance(actualWork, durationUnits));
             dummy.setRemainingWork(Duration.getInstance(remainingWork, durationUnits));
 
-            list.add(writeAssignment(dummy));
+            list.add(dummy);
          }
       }
 
       config.setAutoAssignmentUniqueID(autoUniqueID);
+
+      return list;
    }
 
    /**
@@ -1977,6 +2252,11 @@ public final class MSPDIWriter extends AbstractProjectWriter
     */
    private static JAXBException CONTEXT_EXCEPTION;
 
+   /**
+    * Marshaller reused by each thread.
+    */
+   private static final ThreadLocal<Marshaller> MARSHALLER = new ThreadLocal<Marshaller>();
+
    static
    {
       try
@@ -2024,9 +2304,19 @@ public final class MSPDIWriter extends AbstractProjectWriter
 
    private boolean m_writeTimphasedData;
 
+   private boolean m_streaming;
+
+   private boolean m_formatOutput = true;
+
    private SaveVersion m_saveVersion = SaveVersion.Project2016;
 
    private static final BigInteger BIGINTEGER_ZERO = BigInteger.valueOf(0);
 
    private static final Integer NULL_RESOURCE_ID = Integer.valueOf(-65535);
+
+   private static final String NAMESPACE = "http://schemas.microsoft.com/project";
+   private static final byte[] XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>".getBytes(CharsetHelper.UTF8);
+   private static final QName TASK_QNAME = new QName(NAMESPACE, "Task");
+   private static final QName RESOURCE_QNAME = new QName(NAMESPACE, "Resource");
+   private static final QName ASSIGNMENT_QNAME = new QName(NAMESPACE, "Assignment");
 }
@@ -65,6 +65,7 @@ import net.sf.mpxj.TaskField;
 import net.sf.mpxj.TimeUnit;
 import net.sf.mpxj.common.AlphanumComparator;
 import net.sf.mpxj.common.DateHelper;
+import net.sf.mpxj.common.FieldFilterHelper;
 import net.sf.mpxj.common.NumberHelper;
 import net.sf.mpxj.listener.ProjectListener;
 import net.sf.mpxj.phoenix.schema.Project;
@@ -109,6 +110,7 @@ public final class PhoenixReader extends AbstractProjectReader
       try
       {
          m_projectFile = new ProjectFile();
+         m_projectFile.getProjectConfig().setFieldStorageFactory(getFieldStorageFactory());
          m_activityMap = new HashMap<String, Task>();
          m_activityCodeValues = new HashMap<UUID, String>();
          m_activityCodeSequence = new HashMap<UUID, Integer>();
@@ -155,6 +157,11 @@ public final class PhoenixReader extends AbstractProjectReader
          //
          config.updateUniqueCounters();
 
+         //
+         // Discard any fields which have been filtered out
+         //
+         FieldFilterHelper.applyFilter(m_projectFile, getFieldFilter());
+
          return (m_projectFile);
       }
 
@@ -67,6 +67,7 @@ import net.sf.mpxj.ResourceType;
 import net.sf.mpxj.Task;
 import net.sf.mpxj.TaskType;
 import net.sf.mpxj.TimeUnit;
+import net.sf.mpxj.common.FieldFilterHelper;
 import net.sf.mpxj.common.NumberHelper;
 import net.sf.mpxj.listener.ProjectListener;
 import net.sf.mpxj.planner.schema.Allocation;
@@ -114,6 +115,7 @@ public final class PlannerReader extends AbstractProjectReader
       try
       {
          m_projectFile = new ProjectFile();
+         m_projectFile.getProjectConfig().setFieldStorageFactory(getFieldStorageFactory());
          m_eventManager = m_projectFile.getEventManager();
 
          ProjectConfig config = m_projectFile.getProjectConfig();
@@ -155,6 +157,11 @@ public final class PlannerReader extends AbstractProjectReader
          //
          config.updateUniqueCounters();
 
+         //
+         // Discard any fields which have been filtered out
+         //
+         FieldFilterHelper.applyFilter(m_projectFile, getFieldFilter());
+
          return (m_projectFile);
       }
 
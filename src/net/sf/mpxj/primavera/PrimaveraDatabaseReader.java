@@ -32,18 +32,26 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import javax.sql.DataSource;
 
 import net.sf.mpxj.Day;
+import net.sf.mpxj.FieldStorageFactory;
 import net.sf.mpxj.FieldType;
 import net.sf.mpxj.MPXJException;
 import net.sf.mpxj.ProjectFile;
 import net.sf.mpxj.ProjectProperties;
+import net.sf.mpxj.common.FieldFilterHelper;
 import net.sf.mpxj.common.NumberHelper;
 import net.sf.mpxj.listener.ProjectListener;
 import net.sf.mpxj.reader.ProjectReader;
@@ -66,6 +74,22 @@ public final class PrimaveraDatabaseReader implements ProjectReader
       m_projectListeners.add(listener);
    }
 
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void setFieldFilter(Set<FieldType> fields)
+   {
+      m_fieldFilter = fields;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void setFieldStorageFactory(FieldStorageFactory factory)
+   {
+      m_fieldStorageFactory = factory;
+   }
+
    /**
     * Populates a Map instance representing the IDs and names of
     * projects available in the current database.
@@ -104,9 +128,189 @@ public final class PrimaveraDatabaseReader implements ProjectReader
     */
    public ProjectFile read() throws MPXJException
    {
+      return readProject().getProject();
+   }
+
+   /**
+    * Convenience method which allows all projects in the database to
+    * be read in a single operation. External relationships are not linked.
+    *
+    * @return list of ProjectFile instances
+    * @throws MPXJException
+    */
+   public List<ProjectFile> readAll() throws MPXJException
+   {
+      return readAll(false);
+   }
+
+   /**
+    * Convenience method which allows all projects in the database to
+    * be read in a single operation.
+    *
+    * @param linkCrossProjectRelations add Relation links that cross ProjectFile boundaries
+    * @return list of ProjectFile instances
+    * @throws MPXJException
+    */
+   public List<ProjectFile> readAll(boolean linkCrossProjectRelations) throws MPXJException
+   {
+      return readAll(linkCrossProjectRelations, null);
+   }
+
+   /**
+    * Convenience method which allows all projects in the database to
+    * be read in a single operation. If an ExecutorService is supplied, each
+    * project is read as a separate task using the executor, allowing projects
+    * to be read concurrently. Each task obtains its own connection, so
+    * concurrent reads are only possible when a DataSource has been supplied
+    * to this reader. If a Connection has been supplied the projects are read
+    * sequentially. Cross project relations are linked once all of the projects
+    * have been read. Note that when an executor is used, any project listeners
+    * registered with this reader may be called from multiple threads. The
+    * caller remains responsible for shutting down the executor.
+    *
+    * @param linkCrossProjectRelations add Relation links that cross ProjectFile boundaries
+    * @param executor executor used to read projects concurrently, or null to read projects sequentially
+    * @return list of ProjectFile instances
+    * @throws MPXJException
+    */
+   public List<ProjectFile> readAll(boolean linkCrossProjectRelations, ExecutorService executor) throws MPXJException
+   {
+      Map<Integer, String> projects = listProjects();
+      List<PrimaveraReader> readers;
+      if (executor == null || m_dataSource == null)
+      {
+         readers = new ArrayList<PrimaveraReader>(projects.keySet().size());
+         for (Integer id : projects.keySet())
+         {
+            setProjectID(id.intValue());
+            readers.add(readProject());
+         }
+      }
+      else
+      {
+         readers = readProjects(projects.keySet(), executor);
+      }
+
+      List<ProjectFile> result = new ArrayList<ProjectFile>(readers.size());
+      List<ExternalPredecessorRelation> externalPredecessors = new ArrayList<ExternalPredecessorRelation>();
+      for (PrimaveraReader reader : readers)
+      {
+         result.add(reader.getProject());
+         externalPredecessors.addAll(reader.getExternalPredecessors());
+      }
+
+      if (linkCrossProjectRelations)
+      {
+         PrimaveraReader.linkExternalPredecessors(result, externalPredecessors);
+      }
+
+      return result;
+   }
+
+   /**
+    * Read each project as a separate task using the supplied executor.
+    * Each task uses its own reader instance configured in the same way
+    * as this reader, and obtains its own connection from the data source.
+    * Results are returned in the same order as the project IDs.
+    *
+    * @param projectIDs IDs of the projects to read
+    * @param executor executor used to run each task
+    * @return list of PrimaveraReader instances, one per project
+    * @throws MPXJException
+    */
+   private List<PrimaveraReader> readProjects(Collection<Integer> projectIDs, ExecutorService executor) throws MPXJException
+   {
+      List<Future<PrimaveraReader>> futures = new ArrayList<Future<PrimaveraReader>>(projectIDs.size());
+      for (Integer id : projectIDs)
+      {
+         final PrimaveraDatabaseReader reader = createProjectReader(id);
+         futures.add(executor.submit(new Callable<PrimaveraReader>()
+         {
+            @Override public PrimaveraReader call() throws MPXJException
+            {
+               return reader.readProject();
+            }
+         }));
+      }
+
+      List<PrimaveraReader> result = new ArrayList<PrimaveraReader>(futures.size());
       try
       {
-         m_reader = new PrimaveraReader(m_taskUdfCounters, m_resourceUdfCounters, m_assignmentUdfCounters, m_resourceFields, m_wbsFields, m_taskFields, m_assignmentFields, m_aliases, m_matchPrimaveraWBS);
+         for (Future<PrimaveraReader> future : futures)
+         {
+            result.add(future.get());
+         }
+      }
+
+      catch (InterruptedException ex)
+      {
+         Thread.currentThread().interrupt();
+         throw new MPXJException(MPXJException.READ_ERROR, ex);
+      }
+
+      catch (ExecutionException ex)
+      {
+         Throwable cause = ex.getCause();
+         if (cause instanceof MPXJException)
+         {
+            throw (MPXJException) cause;
+         }
+         throw new MPXJException(MPXJException.READ_ERROR, cause instanceof Exception ? (Exception) cause : ex);
+      }
+
+      finally
+      {
+         if (result.size() != futures.size())
+         {
+            for (Future<PrimaveraReader> future : futures)
+            {
+               future.cancel(true);
+            }
+         }
+      }
+
+      return result;
+   }
+
+   /**
+    * Create a reader for a single project, configured in the same
+    * way as this reader.
+    *
+    * @param projectID project ID
+    * @return new reader instance
+    */
+   private PrimaveraDatabaseReader createProjectReader(Integer projectID)
+   {
+      PrimaveraDatabaseReader reader = new PrimaveraDatabaseReader();
+      reader.m_projectID = projectID;
+      reader.m_schema = m_schema;
+      reader.m_dataSource = m_dataSource;
+      reader.m_projectListeners = m_projectListeners;
+      reader.m_fieldFilter = m_fieldFilter;
+      reader.m_fieldStorageFactory = m_fieldStorageFactory;
+      reader.m_taskUdfCounters = new UserFieldCounters(m_taskUdfCounters);
+      reader.m_resourceUdfCounters = new UserFieldCounters(m_resourceUdfCounters);
+      reader.m_assignmentUdfCounters = new UserFieldCounters(m_assignmentUdfCounters);
+      reader.m_matchPrimaveraWBS = m_matchPrimaveraWBS;
+      reader.m_resourceFields = m_resourceFields;
+      reader.m_wbsFields = m_wbsFields;
+      reader.m_taskFields = m_taskFields;
+      reader.m_assignmentFields = m_assignmentFields;
+      reader.m_aliases = m_aliases;
+      return reader;
+   }
+
+   /**
+    * Read a project from the current data source.
+    *
+    * @return PrimaveraReader instance holding the project
+    * @throws MPXJException
+    */
+   private PrimaveraReader readProject() throws MPXJException
+   {
+      try
+      {
+         m_reader = new PrimaveraReader(m_taskUdfCounters, m_resourceUdfCounters, m_assignmentUdfCounters, m_resourceFields, m_wbsFields, m_taskFields, m_assignmentFields, m_aliases, m_matchPrimaveraWBS, m_fieldStorageFactory);
          ProjectFile project = m_reader.getProject();
          project.getEventManager().addProjectListeners(m_projectListeners);
 
@@ -119,10 +323,12 @@ public final class PrimaveraDatabaseReader implements ProjectReader
          processPredecessors();
          processAssignments();
 
+         PrimaveraReader reader = m_reader;
          m_reader = null;
          project.updateStructure();
+         FieldFilterHelper.applyFilter(project, m_fieldFilter);
 
-         return (project);
+         return (reader);
       }
 
       catch (SQLException ex)
@@ -149,25 +355,6 @@ public final class PrimaveraDatabaseReader implements ProjectReader
       }
    }
 
-   /**
-    * Convenience method which allows all projects in the database to
-    * be read in a single operation.
-    *
-    * @return list of ProjectFile instances
-    * @throws MPXJException
-    */
-   public List<ProjectFile> readAll() throws MPXJException
-   {
-      Map<Integer, String> projects = listProjects();
-      List<ProjectFile> result = new ArrayList<ProjectFile>(projects.keySet().size());
-      for (Integer id : projects.keySet())
-      {
-         setProjectID(id.intValue());
-         result.add(read());
-      }
-      return result;
-   }
-
    /**
     * Populate data for analytics.
     */
@@ -685,6 +872,8 @@ public final class PrimaveraDatabaseReader implements ProjectReader
    private ResultSet m_rs;
    private Map<String, Integer> m_meta = new HashMap<String, Integer>();
    private List<ProjectListener> m_projectListeners;
+   private Set<FieldType> m_fieldFilter;
+   private FieldStorageFactory m_fieldStorageFactory;
    private UserFieldCounters m_taskUdfCounters = new UserFieldCounters();
    private UserFieldCounters m_resourceUdfCounters = new UserFieldCounters();
    private UserFieldCounters m_assignmentUdfCounters = new UserFieldCounters();
@@ -197,6 +197,7 @@ public final class PrimaveraPMFileWriter extends AbstractProjectWriter
 
       finally
       {
+         DatatypeConverter.setParentFile(null);
          m_projectFile = null;
          m_factory = null;
          m_apibo = null;
@@ -54,6 +54,7 @@ import net.sf.mpxj.DayType;
 import net.sf.mpxj.Duration;
 import net.sf.mpxj.EventManager;
 import net.sf.mpxj.FieldContainer;
+import net.sf.mpxj.FieldStorageFactory;
 import net.sf.mpxj.FieldType;
 import net.sf.mpxj.FieldTypeClass;
 import net.sf.mpxj.Priority;
@@ -97,13 +98,15 @@ final class PrimaveraReader
     * @param assignmentFields assignment field mapping
     * @param aliases alias mapping
     * @param matchPrimaveraWBS determine WBS behaviour
+    * @param fieldStorageFactory field storage factory, or null to use the default
     */
-   public PrimaveraReader(UserFieldCounters taskUdfCounters, UserFieldCounters resourceUdfCounters, UserFieldCounters assignmentUdfCounters, Map<FieldType, String> resourceFields, Map<FieldType, String> wbsFields, Map<FieldType, String> taskFields, Map<FieldType, String> assignmentFields, Map<FieldType, String> aliases, boolean matchPrimaveraWBS)
+   public PrimaveraReader(UserFieldCounters taskUdfCounters, UserFieldCounters resourceUdfCounters, UserFieldCounters assignmentUdfCounters, Map<FieldType, String> resourceFields, Map<FieldType, String> wbsFields, Map<FieldType, String> taskFields, Map<FieldType, String> assignmentFields, Map<FieldType, String> aliases, boolean matchPrimaveraWBS, FieldStorageFactory fieldStorageFactory)
    {
       m_project = new ProjectFile();
       m_eventManager = m_project.getEventManager();
 
       ProjectConfig config = m_project.getProjectConfig();
+      config.setFieldStorageFactory(fieldStorageFactory);
       config.setAutoTaskUniqueID(false);
       config.setAutoResourceUniqueID(false);
       config.setAutoCalendarUniqueID(true);
@@ -147,6 +150,35 @@ final class PrimaveraReader
       return m_externalPredecessors;
    }
 
+   /**
+    * Link relations which cross project boundaries. Predecessors are located
+    * by searching each of the supplied projects in turn. Predecessors which
+    * are not found in any of the projects are outside the data being read,
+    * and are ignored.
+    *
+    * @param projects projects which may contain predecessor tasks
+    * @param externalPredecessors external predecessor relations to link
+    */
+   public static void linkExternalPredecessors(List<ProjectFile> projects, List<ExternalPredecessorRelation> externalPredecessors)
+   {
+      for (ExternalPredecessorRelation externalRelation : externalPredecessors)
+      {
+         Task predecessorTask;
+         // we could aggregate the project task id maps but that's likely more work
+         // than just looping through the projects
+         for (ProjectFile proj : projects)
+         {
+            predecessorTask = proj.getTaskByUniqueID(externalRelation.getSourceUniqueID());
+            if (predecessorTask != null)
+            {
+               externalRelation.getTargetTask().addPredecessor(predecessorTask, externalRelation.getType(), externalRelation.getLag());
+               break;
+            }
+         }
+         // if predecessorTask not found the external task is outside of the file so ignore
+      }
+   }
+
    /**
     * Process project properties.
     *
@@ -406,6 +438,7 @@ final class PrimaveraReader
     */
    public void processResources(List<Row> rows, List<Row> udfVals)
    {
+      Map<Integer, List<Row>> udfMap = getContainerUDFMap(udfVals);
       for (Row row : rows)
       {
          Resource resource = m_project.addResource();
@@ -420,7 +453,7 @@ final class PrimaveraReader
 
          // Add User Defined Fields
          Integer uniqueID = resource.getUniqueID();
-         List<Row> udf = getContainerUDF(uniqueID, udfVals);
+         List<Row> udf = getContainerUDF(uniqueID, udfMap);
          for (Row r : udf)
          {
             addUDFValue(FieldTypeClass.RESOURCE, resource, r);
@@ -576,6 +609,7 @@ final class PrimaveraReader
       ProjectProperties projectProperties = m_project.getProjectProperties();
       String projectName = projectProperties.getName();
       Set<Integer> uniqueIDs = new HashSet<Integer>();
+      Map<Integer, List<Row>> udfMap = getContainerUDFMap(udfVals);
 
       //
       // We set the project name when we read the project properties, but that's just
@@ -689,7 +723,7 @@ final class PrimaveraReader
          task.setWork(work);
 
          // Add User Defined Fields
-         List<Row> udf = getContainerUDF(uniqueID, udfVals);
+         List<Row> udf = getContainerUDF(uniqueID, udfMap);
          for (Row r : udf)
          {
             addUDFValue(FieldTypeClass.TASK, task, r);
@@ -880,28 +914,46 @@ final class PrimaveraReader
    }
 
    /**
-    * Retrieve the user defined values for a given container.
+    * Group user defined field values by the ID of the container they belong to,
+    * so that the values for each container can be retrieved without scanning
+    * the complete list.
     *
-    * @param id target container ID
     * @param udfs user defined fields
-    * @return user defined fields for the target container
+    * @return map of container ID to user defined field values
     */
-   private List<Row> getContainerUDF(Integer id, List<Row> udfs)
+   private Map<Integer, List<Row>> getContainerUDFMap(List<Row> udfs)
    {
-      List<Row> udf = new LinkedList<Row>();
+      Map<Integer, List<Row>> result = new HashMap<Integer, List<Row>>();
 
       if (udfs != null)
       {
          for (Row row : udfs)
          {
-            if (id.equals(row.getInteger("fk_id")))
+            Integer id = row.getInteger("fk_id");
+            List<Row> list = result.get(id);
+            if (list == null)
             {
-               udf.add(row);
+               list = new LinkedList<Row>();
+               result.put(id, list);
             }
+            list.add(row);
          }
       }
 
-      return udf;
+      return result;
+   }
+
+   /**
+    * Retrieve the user defined values for a given container.
+    *
+    * @param id target container ID
+    * @param udfs user defined fields, grouped by container ID
+    * @return user defined fields for the target container
+    */
+   private List<Row> getContainerUDF(Integer id, Map<Integer, List<Row>> udfs)
+   {
+      List<Row> udf = udfs.get(id);
+      return udf == null ? Collections.<Row> emptyList() : udf;
    }
 
    /*
@@ -1250,6 +1302,7 @@ final class PrimaveraReader
     */
    public void processAssignments(List<Row> rows, List<Row> udfVals)
    {
+      Map<Integer, List<Row>> udfMap = getContainerUDFMap(udfVals);
       for (Row row : rows)
       {
          Task task = m_project.getTaskByUniqueID(mapTaskID(row.getInteger("task_id")));
@@ -1293,7 +1346,7 @@ final class PrimaveraReader
 
             // Add User Defined Fields
             Integer uniqueID = assignment.getUniqueID();
-            List<Row> udf = getContainerUDF(uniqueID, udfVals);
+            List<Row> udf = getContainerUDF(uniqueID, udfMap);
             for (Row r : udf)
             {
                addUDFValue(FieldTypeClass.ASSIGNMENT, assignment, r);
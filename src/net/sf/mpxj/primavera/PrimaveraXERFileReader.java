@@ -40,14 +40,17 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import net.sf.mpxj.FieldType;
 import net.sf.mpxj.MPXJException;
 import net.sf.mpxj.ProjectFile;
-import net.sf.mpxj.Task;
 import net.sf.mpxj.common.CharsetHelper;
+import net.sf.mpxj.common.FieldFilterHelper;
 import net.sf.mpxj.common.MultiDateFormat;
-import net.sf.mpxj.common.NumberHelper;
 import net.sf.mpxj.common.ReaderTokenizer;
 import net.sf.mpxj.common.Tokenizer;
 import net.sf.mpxj.listener.ProjectListener;
@@ -55,9 +58,47 @@ import net.sf.mpxj.reader.AbstractProjectReader;
 
 /**
  * This class creates a new ProjectFile instance by reading a Primavera XER file.
+ * The tables and formats used while reading a file belong to that read alone,
+ * so a single configured reader can serve concurrent callers.
  */
 public final class PrimaveraXERFileReader extends AbstractProjectReader
 {
+   /**
+    * Default constructor.
+    */
+   public PrimaveraXERFileReader()
+   {
+      // Default constructor
+   }
+
+   /**
+    * Copy constructor. Creates an instance with the same configuration
+    * as the source instance, used to hold the state for a single read.
+    *
+    * @param source source instance
+    */
+   private PrimaveraXERFileReader(PrimaveraXERFileReader source)
+   {
+      setFieldFilter(source.getFieldFilter());
+      setFieldStorageFactory(source.getFieldStorageFactory());
+      m_encoding = source.m_encoding;
+      m_charset = source.m_charset;
+      m_projectID = source.m_projectID;
+      if (source.m_projectListeners != null)
+      {
+         m_projectListeners = new LinkedList<ProjectListener>(source.m_projectListeners);
+      }
+      m_taskUdfCounters = new UserFieldCounters(source.m_taskUdfCounters);
+      m_resourceUdfCounters = new UserFieldCounters(source.m_resourceUdfCounters);
+      m_assignmentUdfCounters = new UserFieldCounters(source.m_assignmentUdfCounters);
+      m_resourceFields = source.m_resourceFields;
+      m_wbsFields = source.m_wbsFields;
+      m_taskFields = source.m_taskFields;
+      m_assignmentFields = source.m_assignmentFields;
+      m_aliases = source.m_aliases;
+      m_matchPrimaveraWBS = source.m_matchPrimaveraWBS;
+   }
+
    /**
     * {@inheritDoc}
     */
@@ -105,47 +146,38 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
     * {@inheritDoc}
     */
    @Override public ProjectFile read(InputStream is) throws MPXJException
+   {
+      return new PrimaveraXERFileReader(this).readFile(is);
+   }
+
+   /**
+    * Read a single project from an XER file. This method is called on an
+    * instance created for this read, so the state held while reading is
+    * not shared.
+    *
+    * @param is input stream
+    * @return ProjectFile instance
+    */
+   private ProjectFile readFile(InputStream is) throws MPXJException
    {
       try
       {
-         m_tables = new HashMap<String, List<Row>>();
+         m_tables = new HashMap<String, XerTable>();
          m_numberFormat = new DecimalFormat();
 
          processFile(is);
+         processProjectID();
 
-         m_reader = new PrimaveraReader(m_taskUdfCounters, m_resourceUdfCounters, m_assignmentUdfCounters, m_resourceFields, m_wbsFields, m_taskFields, m_assignmentFields, m_aliases, m_matchPrimaveraWBS);
-         ProjectFile project = m_reader.getProject();
+         ProjectFile project = readProject(m_projectID, m_taskUdfCounters, m_resourceUdfCounters, m_assignmentUdfCounters).getProject();
          project.getProjectProperties().setFileApplication("Primavera");
          project.getProjectProperties().setFileType("XER");
-         project.getEventManager().addProjectListeners(m_projectListeners);
-
-         processProjectID();
-         processProjectProperties();
-         processUserDefinedFields();
-         processCalendars();
-         processResources();
-         processResourceRates();
-         processTasks();
-         processPredecessors();
-         processAssignments();
-
-         m_reader = null;
-         project.updateStructure();
 
          return (project);
       }
 
       finally
       {
-         m_reader = null;
-         m_tables = null;
-         m_currentTableName = null;
-         m_currentTable = null;
-         m_currentFieldNames = null;
-         m_defaultCurrencyName = null;
-         m_currencyMap.clear();
-         m_numberFormat = null;
-         m_defaultCurrencyData = null;
+         cleanup();
       }
    }
 
@@ -173,77 +205,210 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
     * @throws MPXJException
     */
    public List<ProjectFile> readAll(InputStream is, boolean linkCrossProjectRelations) throws MPXJException
+   {
+      return readAll(is, linkCrossProjectRelations, null);
+   }
+
+   /**
+    * This is a convenience method which allows all projects in an
+    * XER file to be read in a single pass. If an ExecutorService is supplied,
+    * once the file has been parsed each project is built as a separate task
+    * using the executor, allowing projects to be built concurrently. Cross
+    * project relations are linked once all of the projects have been built.
+    * Note that when an executor is used, any project listeners registered
+    * with this reader may be called from multiple threads. The caller remains
+    * responsible for shutting down the executor.
+    *
+    * @param is input stream
+    * @param linkCrossProjectRelations add Relation links that cross ProjectFile boundaries
+    * @param executor executor used to build projects concurrently, or null to build projects sequentially
+    * @return list of ProjectFile instances
+    * @throws MPXJException
+    */
+   public List<ProjectFile> readAll(InputStream is, boolean linkCrossProjectRelations, ExecutorService executor) throws MPXJException
+   {
+      return new PrimaveraXERFileReader(this).readAllFile(is, linkCrossProjectRelations, executor);
+   }
+
+   /**
+    * Read all of the projects from an XER file. This method is called on an
+    * instance created for this read, so the state held while reading is
+    * not shared.
+    *
+    * @param is input stream
+    * @param linkCrossProjectRelations add Relation links that cross ProjectFile boundaries
+    * @param executor executor used to build projects concurrently, or null to build projects sequentially
+    * @return list of ProjectFile instances
+    */
+   private List<ProjectFile> readAllFile(InputStream is, boolean linkCrossProjectRelations, ExecutorService executor) throws MPXJException
    {
       try
       {
-         m_tables = new HashMap<String, List<Row>>();
+         m_tables = new HashMap<String, XerTable>();
          m_numberFormat = new DecimalFormat();
 
          processFile(is);
 
          List<Row> rows = getRows("project", null, null);
-         List<ProjectFile> result = new ArrayList<ProjectFile>(rows.size());
+         List<PrimaveraReader> readers;
+         if (executor == null)
+         {
+            readers = new ArrayList<PrimaveraReader>(rows.size());
+            for (Row row : rows)
+            {
+               setProjectID(row.getInt("proj_id"));
+               readers.add(readProject(m_projectID, m_taskUdfCounters, m_resourceUdfCounters, m_assignmentUdfCounters));
+            }
+         }
+         else
+         {
+            readers = readProjects(rows, executor);
+         }
+
+         List<ProjectFile> result = new ArrayList<ProjectFile>(readers.size());
          List<ExternalPredecessorRelation> externalPredecessors = new ArrayList<ExternalPredecessorRelation>();
-         for (Row row : rows)
+         for (PrimaveraReader reader : readers)
          {
-            setProjectID(row.getInt("proj_id"));
+            result.add(reader.getProject());
+            externalPredecessors.addAll(reader.getExternalPredecessors());
+         }
 
-            m_reader = new PrimaveraReader(m_taskUdfCounters, m_resourceUdfCounters, m_assignmentUdfCounters, m_resourceFields, m_wbsFields, m_taskFields, m_assignmentFields, m_aliases, m_matchPrimaveraWBS);
-            ProjectFile project = m_reader.getProject();
-            project.getEventManager().addProjectListeners(m_projectListeners);
+         if (linkCrossProjectRelations)
+         {
+            PrimaveraReader.linkExternalPredecessors(result, externalPredecessors);
+         }
 
-            processProjectProperties();
-            processUserDefinedFields();
-            processCalendars();
-            processResources();
-            processResourceRates();
-            processTasks();
-            processPredecessors();
-            processAssignments();
+         return result;
+      }
 
-            externalPredecessors.addAll(m_reader.getExternalPredecessors());
+      finally
+      {
+         cleanup();
+      }
+   }
 
-            m_reader = null;
-            project.updateStructure();
+   /**
+    * Build each project as a separate task using the supplied executor.
+    * The tables read from the file are not modified once parsing is complete,
+    * and each request for rows returns a new list, so the tables can safely
+    * be shared between tasks. Each task is given its own
+    * user defined field counters. Results are returned in the same order
+    * as the project rows.
+    *
+    * @param rows project rows
+    * @param executor executor used to run each task
+    * @return list of PrimaveraReader instances, one per project
+    * @throws MPXJException
+    */
+   private List<PrimaveraReader> readProjects(List<Row> rows, ExecutorService executor) throws MPXJException
+   {
+      List<Future<PrimaveraReader>> futures = new ArrayList<Future<PrimaveraReader>>(rows.size());
+      for (Row row : rows)
+      {
+         final Integer projectID = row.getInteger("proj_id");
+         futures.add(executor.submit(new Callable<PrimaveraReader>()
+         {
+            @Override public PrimaveraReader call()
+            {
+               return readProject(projectID, new UserFieldCounters(m_taskUdfCounters), new UserFieldCounters(m_resourceUdfCounters), new UserFieldCounters(m_assignmentUdfCounters));
+            }
+         }));
+      }
 
-            result.add(project);
+      List<PrimaveraReader> result = new ArrayList<PrimaveraReader>(futures.size());
+      try
+      {
+         for (Future<PrimaveraReader> future : futures)
+         {
+            result.add(future.get());
          }
+      }
 
-         if (linkCrossProjectRelations)
+      catch (InterruptedException ex)
+      {
+         Thread.currentThread().interrupt();
+         throw new MPXJException(MPXJException.READ_ERROR, ex);
+      }
+
+      catch (ExecutionException ex)
+      {
+         Throwable cause = ex.getCause();
+         throw new MPXJException(MPXJException.READ_ERROR, cause instanceof Exception ? (Exception) cause : ex);
+      }
+
+      finally
+      {
+         if (result.size() != futures.size())
          {
-            for (ExternalPredecessorRelation externalRelation : externalPredecessors)
+            for (Future<PrimaveraReader> future : futures)
             {
-               Task predecessorTask;
-               // we could aggregate the project task id maps but that's likely more work
-               // than just looping through the projects
-               for (ProjectFile proj : result)
-               {
-                  predecessorTask = proj.getTaskByUniqueID(externalRelation.getSourceUniqueID());
-                  if (predecessorTask != null)
-                  {
-                     externalRelation.getTargetTask().addPredecessor(predecessorTask, externalRelation.getType(), externalRelation.getLag());
-                     break;
-                  }
-               }
-               // if predecessorTask not found the external task is outside of the file so ignore
+               future.cancel(true);
             }
          }
-
-         return result;
       }
 
-      finally
+      return result;
+   }
+
+   /**
+    * Build a single project from the tables read from the file.
+    *
+    * @param projectID ID of the project to build
+    * @param taskUdfCounters UDF counters for tasks
+    * @param resourceUdfCounters UDF counters for resources
+    * @param assignmentUdfCounters UDF counters for assignments
+    * @return PrimaveraReader instance holding the project
+    */
+   private PrimaveraReader readProject(Integer projectID, UserFieldCounters taskUdfCounters, UserFieldCounters resourceUdfCounters, UserFieldCounters assignmentUdfCounters)
+   {
+      PrimaveraReader reader = new PrimaveraReader(taskUdfCounters, resourceUdfCounters, assignmentUdfCounters, m_resourceFields, m_wbsFields, m_taskFields, m_assignmentFields, m_aliases, m_matchPrimaveraWBS, getFieldStorageFactory());
+      ProjectFile project = reader.getProject();
+      project.getEventManager().addProjectListeners(m_projectListeners);
+
+      processProjectProperties(reader, projectID);
+      processUserDefinedFields(reader);
+      processCalendars(reader);
+      processResources(reader);
+      processResourceRates(reader);
+      processTasks(reader, projectID);
+      processPredecessors(reader, projectID);
+      processAssignments(reader, projectID);
+
+      project.updateStructure();
+      FieldFilterHelper.applyFilter(project, getFieldFilter());
+
+      return reader;
+   }
+
+   /**
+    * Retrieve the date format used by the current thread.
+    *
+    * @return DateFormat instance
+    */
+   private static DateFormat getDateFormat()
+   {
+      DateFormat df = DATE_FORMAT.get();
+      if (df == null)
       {
-         m_reader = null;
-         m_tables = null;
-         m_currentTableName = null;
-         m_currentTable = null;
-         m_currentFieldNames = null;
-         m_defaultCurrencyName = null;
-         m_currencyMap.clear();
-         m_numberFormat = null;
-         m_defaultCurrencyData = null;
+         df = new MultiDateFormat("yyyy-MM-dd HH:mm", "yyyy-MM-dd");
+         DATE_FORMAT.set(df);
       }
+      return df;
+   }
+
+   /**
+    * Release the state held while reading a file.
+    */
+   private void cleanup()
+   {
+      m_tables = null;
+      m_currentTableName = null;
+      m_currentTable = null;
+      m_currentFieldNames = null;
+      m_defaultCurrencyName = null;
+      m_currencyMap.clear();
+      m_numberFormat = null;
+      m_defaultCurrencyData = null;
    }
 
    /**
@@ -368,10 +533,23 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
     * @throws MPXJException
     */
    public Map<Integer, String> listProjects(InputStream is) throws MPXJException
+   {
+      return new PrimaveraXERFileReader(this).listProjectsFile(is);
+   }
+
+   /**
+    * Read the project IDs and names from an XER file. As with
+    * {@link #readFile(InputStream)}, this is called on an instance created
+    * for the purpose, so concurrent callers do not share tables.
+    *
+    * @param is input stream used to read XER file
+    * @return Map instance containing ID and name pairs
+    */
+   private Map<Integer, String> listProjectsFile(InputStream is) throws MPXJException
    {
       try
       {
-         m_tables = new HashMap<String, List<Row>>();
+         m_tables = new HashMap<String, XerTable>();
          processFile(is);
 
          Map<Integer, String> result = new HashMap<Integer, String>();
@@ -397,110 +575,133 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
 
    /**
     * Process project properties.
+    *
+    * @param reader target reader
+    * @param projectID project ID
     */
-   private void processProjectProperties()
+   private void processProjectProperties(PrimaveraReader reader, Integer projectID)
    {
       //
       // Process common attributes
       //
-      List<Row> rows = getRows("project", "proj_id", m_projectID);
-      m_reader.processProjectProperties(rows);
+      List<Row> rows = getRows("project", "proj_id", projectID);
+      reader.processProjectProperties(rows);
 
       //
       // Process XER-specific attributes
       //
       if (m_defaultCurrencyData != null)
       {
-         m_reader.processDefaultCurrency(m_defaultCurrencyData);
+         reader.processDefaultCurrency(m_defaultCurrencyData);
       }
 
-      processScheduleOptions();
+      processScheduleOptions(reader, projectID);
    }
 
    /**
     * Process schedule options from SCHEDOPTIONS. This table only seems to exist
     * in XER files, not P6 databases.
+    *
+    * @param reader target reader
+    * @param projectID project ID
     */
-   private void processScheduleOptions()
+   private void processScheduleOptions(PrimaveraReader reader, Integer projectID)
    {
-      List<Row> rows = getRows("schedoptions", "proj_id", m_projectID);
+      List<Row> rows = getRows("schedoptions", "proj_id", projectID);
       if (rows.isEmpty() == false)
       {
          Row row = rows.get(0);
          Map<String, Object> customProperties = new HashMap<String, Object>();
          customProperties.put("LagCalendar", row.getString("sched_calendar_on_relationship_lag"));
-         m_reader.getProject().getProjectProperties().setCustomProperties(customProperties);
+         reader.getProject().getProjectProperties().setCustomProperties(customProperties);
       }
    }
 
    /**
     * Process user defined fields.
+    *
+    * @param reader target reader
     */
-   private void processUserDefinedFields()
+   private void processUserDefinedFields(PrimaveraReader reader)
    {
       List<Row> udfs = getRows("udftype", null, null);
-      m_reader.processUserDefinedFields(udfs);
+      reader.processUserDefinedFields(udfs);
    }
 
    /**
     * Process project calendars.
+    *
+    * @param reader target reader
     */
-   private void processCalendars()
+   private void processCalendars(PrimaveraReader reader)
    {
       List<Row> rows = getRows("calendar", null, null);
-      m_reader.processCalendars(rows);
+      reader.processCalendars(rows);
    }
 
    /**
     * Process resources.
+    *
+    * @param reader target reader
     */
-   private void processResources()
+   private void processResources(PrimaveraReader reader)
    {
       List<Row> rows = getRows("rsrc", null, null);
       List<Row> udfVals = getRows("udfvalue", "proj_id", null); // resources don't belong to a project
-      m_reader.processResources(rows, udfVals);
+      reader.processResources(rows, udfVals);
    }
 
    /**
     * Process resource rates.
+    *
+    * @param reader target reader
     */
-   private void processResourceRates()
+   private void processResourceRates(PrimaveraReader reader)
    {
       List<Row> rows = getRows("rsrcrate", null, null);
-      m_reader.processResourceRates(rows);
+      reader.processResourceRates(rows);
    }
 
    /**
     * Process tasks.
+    *
+    * @param reader target reader
+    * @param projectID project ID
     */
-   private void processTasks()
+   private void processTasks(PrimaveraReader reader, Integer projectID)
    {
-      List<Row> wbs = getRows("projwbs", "proj_id", m_projectID);
-      List<Row> tasks = getRows("task", "proj_id", m_projectID);
-      //List<Row> wbsmemos = getRows("wbsmemo", "proj_id", m_projectID);
-      //List<Row> taskmemos = getRows("taskmemo", "proj_id", m_projectID);
-      List<Row> udfVals = getRows("udfvalue", "proj_id", m_projectID);
+      List<Row> wbs = getRows("projwbs", "proj_id", projectID);
+      List<Row> tasks = getRows("task", "proj_id", projectID);
+      //List<Row> wbsmemos = getRows("wbsmemo", "proj_id", projectID);
+      //List<Row> taskmemos = getRows("taskmemo", "proj_id", projectID);
+      List<Row> udfVals = getRows("udfvalue", "proj_id", projectID);
       Collections.sort(wbs, WBS_ROW_COMPARATOR);
-      m_reader.processTasks(wbs, tasks, udfVals/*, wbsmemos, taskmemos*/);
+      reader.processTasks(wbs, tasks, udfVals/*, wbsmemos, taskmemos*/);
    }
 
    /**
     * Process predecessors.
+    *
+    * @param reader target reader
+    * @param projectID project ID
     */
-   private void processPredecessors()
+   private void processPredecessors(PrimaveraReader reader, Integer projectID)
    {
-      List<Row> rows = getRows("taskpred", "proj_id", m_projectID);
-      m_reader.processPredecessors(rows);
+      List<Row> rows = getRows("taskpred", "proj_id", projectID);
+      reader.processPredecessors(rows);
    }
 
    /**
     * Process resource assignments.
+    *
+    * @param reader target reader
+    * @param projectID project ID
     */
-   private void processAssignments()
+   private void processAssignments(PrimaveraReader reader, Integer projectID)
    {
-      List<Row> rows = getRows("taskrsrc", "proj_id", m_projectID);
-      List<Row> udfVals = getRows("udfvalue", "proj_id", m_projectID);
-      m_reader.processAssignments(rows, udfVals);
+      List<Row> rows = getRows("taskrsrc", "proj_id", projectID);
+      List<Row> udfVals = getRows("udfvalue", "proj_id", projectID);
+      reader.processAssignments(rows, udfVals);
    }
 
    /**
@@ -555,7 +756,7 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
             }
             else
             {
-               m_currentTable = new LinkedList<Row>();
+               m_currentTable = new XerTable(m_currentTableName);
                m_tables.put(m_currentTableName, m_currentTable);
             }
             break;
@@ -574,6 +775,7 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
                {
                   m_currentFieldNames[loop] = m_currentFieldNames[loop].toLowerCase();
                }
+               m_currentTable.setColumnNames(m_currentFieldNames);
             }
             break;
          }
@@ -582,7 +784,7 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
          {
             if (!m_skipTable)
             {
-               Map<String, Object> map = new HashMap<String, Object>();
+               Object[] values = new Object[record.size()];
                for (int loop = 1; loop < record.size(); loop++)
                {
                   String fieldName = m_currentFieldNames[loop];
@@ -606,7 +808,7 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
                         {
                            try
                            {
-                              objectValue = m_df.parseObject(fieldValue);
+                              objectValue = getDateFormat().parseObject(fieldValue);
                            }
 
                            catch (ParseException ex)
@@ -647,11 +849,10 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
                      }
                   }
 
-                  map.put(fieldName, objectValue);
+                  values[loop] = objectValue;
                }
 
-               Row currentRow = new MapRow(map);
-               m_currentTable.add(currentRow);
+               Row currentRow = m_currentTable.addRow(values);
 
                //
                // Special case - we need to know the default currency format
@@ -777,7 +978,9 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
    /**
     * Filters a list of rows from the named table. If a column name and a value
     * are supplied, then use this to filter the rows. If no column name is
-    * supplied, then return all rows.
+    * supplied, then return all rows. Foreign key columns are indexed as
+    * the file is read, so filtering on these columns does not require
+    * a scan of the table.
     *
     * @param tableName table name
     * @param columnName filter column name
@@ -787,7 +990,7 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
    private List<Row> getRows(String tableName, String columnName, Integer id)
    {
       List<Row> result;
-      List<Row> table = m_tables.get(tableName);
+      XerTable table = m_tables.get(tableName);
       if (table == null)
       {
          result = Collections.<Row> emptyList();
@@ -796,18 +999,11 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
       {
          if (columnName == null)
          {
-            result = table;
+            result = table.getRows();
          }
          else
          {
-            result = new LinkedList<Row>();
-            for (Row row : table)
-            {
-               if (NumberHelper.equals(id, row.getInteger(columnName)))
-               {
-                  result.add(row);
-               }
-            }
+            result = table.getRows(columnName, id);
          }
       }
       return result;
@@ -839,18 +1035,16 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
 
    private String m_encoding;
    private Charset m_charset;
-   private PrimaveraReader m_reader;
    private Integer m_projectID;
    boolean m_skipTable;
-   private Map<String, List<Row>> m_tables;
+   private Map<String, XerTable> m_tables;
    private String m_currentTableName;
-   private List<Row> m_currentTable;
+   private XerTable m_currentTable;
    private String[] m_currentFieldNames;
    private String m_defaultCurrencyName;
    private Map<String, DecimalFormat> m_currencyMap = new HashMap<String, DecimalFormat>();
    private DecimalFormat m_numberFormat;
    private Row m_defaultCurrencyData;
-   private DateFormat m_df = new MultiDateFormat("yyyy-MM-dd HH:mm", "yyyy-MM-dd");
    private List<ProjectListener> m_projectListeners;
    private UserFieldCounters m_taskUdfCounters = new UserFieldCounters();
    private UserFieldCounters m_resourceUdfCounters = new UserFieldCounters();
@@ -862,6 +1056,8 @@ public final class PrimaveraXERFileReader extends AbstractProjectReader
    private Map<FieldType, String> m_aliases = PrimaveraReader.getDefaultAliases();
    private boolean m_matchPrimaveraWBS = true;
 
+   private static final ThreadLocal<DateFormat> DATE_FORMAT = new ThreadLocal<DateFormat>();
+
    /**
     * Represents expected record types.
     */
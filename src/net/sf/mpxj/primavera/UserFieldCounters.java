@@ -47,6 +47,17 @@ class UserFieldCounters
       }
    }
 
+   /**
+    * Copy constructor. Creates a new instance using the same field names
+    * as the source instance, with counters reset.
+    *
+    * @param source source instance
+    */
+   public UserFieldCounters(UserFieldCounters source)
+   {
+      System.arraycopy(source.m_names, 0, m_names, 0, m_names.length);
+   }
+
    /**
     * Allow the caller to override the default field name assigned
     * to a user defined data type.
@@ -0,0 +1,213 @@
+/*
+ * file:       XerTable.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       16/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.primavera;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.sf.mpxj.common.NumberHelper;
+
+/**
+ * Holds the rows read from a single XER table. The column layout is stored
+ * once for the table, and each row holds just an array of values. Hash
+ * indexes are maintained on the foreign key columns as rows are added,
+ * so that rows can be retrieved by key without scanning the whole table.
+ */
+final class XerTable
+{
+   /**
+    * Constructor.
+    *
+    * @param name table name
+    */
+   public XerTable(String name)
+   {
+      m_name = name;
+   }
+
+   /**
+    * Retrieve the table name.
+    *
+    * @return table name
+    */
+   public String getName()
+   {
+      return m_name;
+   }
+
+   /**
+    * Set the column names for this table. Note that column names are
+    * expected to be in lower case, and that the first entry represents
+    * the record type rather than a column.
+    *
+    * @param columnNames column names
+    */
+   public void setColumnNames(String[] columnNames)
+   {
+      m_columns = new HashMap<String, Integer>();
+      m_indexes.clear();
+
+      for (int loop = 1; loop < columnNames.length; loop++)
+      {
+         String name = columnNames[loop];
+         m_columns.put(name, Integer.valueOf(loop));
+         if (INDEXED_COLUMNS.contains(name))
+         {
+            m_indexes.put(name, new HashMap<Integer, List<Row>>());
+         }
+      }
+   }
+
+   /**
+    * Add a row to the table. The values array is indexed by
+    * column position, as defined by the column names.
+    *
+    * @param values row values
+    * @return new row
+    */
+   public Row addRow(Object[] values)
+   {
+      Row row = new XerRow(m_columns, values);
+      m_rows.add(row);
+
+      for (Map.Entry<String, Map<Integer, List<Row>>> entry : m_indexes.entrySet())
+      {
+         Integer key = row.getInteger(entry.getKey());
+         Map<Integer, List<Row>> index = entry.getValue();
+         List<Row> list = index.get(key);
+         if (list == null)
+         {
+            list = new ArrayList<Row>();
+            index.put(key, list);
+         }
+         list.add(row);
+      }
+
+      return row;
+   }
+
+   /**
+    * Retrieve all rows in this table. The caller receives its own
+    * list, which it is free to sort or otherwise modify, as the table
+    * may be shared by several readers running concurrently.
+    *
+    * @return list of rows
+    */
+   public List<Row> getRows()
+   {
+      return new ArrayList<Row>(m_rows);
+   }
+
+   /**
+    * Retrieve rows where the named column matches the supplied value.
+    * Indexed columns are resolved with a hash lookup, otherwise we
+    * fall back to scanning the table. Note that a null value
+    * will match rows where the column is empty.
+    *
+    * @param columnName column name
+    * @param id column value
+    * @return list of matching rows
+    */
+   public List<Row> getRows(String columnName, Integer id)
+   {
+      List<Row> result;
+      Map<Integer, List<Row>> index = m_indexes.get(columnName);
+      if (index == null)
+      {
+         result = new ArrayList<Row>();
+         for (Row row : m_rows)
+         {
+            if (NumberHelper.equals(id, row.getInteger(columnName)))
+            {
+               result.add(row);
+            }
+         }
+      }
+      else
+      {
+         List<Row> rows = index.get(id);
+         result = rows == null ? new ArrayList<Row>() : new ArrayList<Row>(rows);
+      }
+      return result;
+   }
+
+   /**
+    * Row implementation which looks up values by column position.
+    */
+   private static final class XerRow extends AbstractRow
+   {
+      /**
+       * Constructor.
+       *
+       * @param columns column name to position map, shared by all rows in the table
+       * @param values row values
+       */
+      public XerRow(Map<String, Integer> columns, Object[] values)
+      {
+         m_columns = columns;
+         m_values = values;
+      }
+
+      /**
+       * {@inheritDoc}
+       */
+      @Override protected Object getObject(String name)
+      {
+         Object result = null;
+         Integer index = m_columns.get(name);
+         if (index != null)
+         {
+            int position = index.intValue();
+            if (position < m_values.length)
+            {
+               result = m_values[position];
+            }
+         }
+         return result;
+      }
+
+      private final Map<String, Integer> m_columns;
+      private final Object[] m_values;
+   }
+
+   private final String m_name;
+   private Map<String, Integer> m_columns = Collections.emptyMap();
+   private final List<Row> m_rows = new ArrayList<Row>();
+   private final Map<String, Map<Integer, List<Row>>> m_indexes = new HashMap<String, Map<Integer, List<Row>>>();
+
+   private static final Set<String> INDEXED_COLUMNS = new HashSet<String>();
+   static
+   {
+      INDEXED_COLUMNS.add("proj_id");
+      INDEXED_COLUMNS.add("wbs_id");
+      INDEXED_COLUMNS.add("task_id");
+      INDEXED_COLUMNS.add("rsrc_id");
+      INDEXED_COLUMNS.add("clndr_id");
+   }
+}
@@ -28,6 +28,7 @@ import java.io.IOException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Reads a directory containing a P3 Btrieve database and returns a map
@@ -44,6 +45,20 @@ public class DatabaseReader
     * @return Map of table names to table data
     */
    public Map<String, Table> process(File directory, String prefix) throws IOException
+   {
+      return process(directory, prefix, null);
+   }
+
+   /**
+    * Reads a directory containing a P3 Btrieve database files and returns
+    * a map of table names and table content. Only the named tables are read.
+    *
+    * @param directory directory containing the database
+    * @param prefix file name prefix used to identify files from the same database
+    * @param tableNames names of the tables to read, or null to read all tables
+    * @return Map of table names to table data
+    */
+   public Map<String, Table> process(File directory, String prefix, Set<String> tableNames) throws IOException
    {
       Map<String, Table> tables = new HashMap<String, Table>();
       File[] files = directory.listFiles();
@@ -59,6 +74,11 @@ public class DatabaseReader
 
             int typeIndex = name.lastIndexOf('.') - 3;
             String type = name.substring(typeIndex, typeIndex + 3);
+            if (tableNames != null && !tableNames.contains(type))
+            {
+               continue;
+            }
+
             TableDefinition definition = TABLE_DEFINITIONS.get(type);
             if (definition != null)
             {
@@ -87,9 +107,9 @@ public class DatabaseReader
    //
    //      for (MapRow row : table)
    //      {
-   //         pw.print(row.getObject("ROW_NUMBER"));
+   //         pw.print(row.getRowNumber());
    //         pw.print(',');
-   //         pw.print(row.getObject("ROW_VERSION"));
+   //         pw.print(row.getVersion());
    //         pw.print(',');
    //
    //         for (ColumnDefinition column : definition.getColumns())
@@ -505,9 +525,9 @@ public class DatabaseReader
     */
    private static final RowValidator DIR_ROW_VALIDATOR = new RowValidator()
    {
-      @Override public boolean validRow(Map<String, Object> row)
+      @Override public boolean validRow(MapRow row)
       {
-         Date date = (Date) row.get("PROJECT_START_DATE");
+         Date date = row.getDate("PROJECT_START_DATE");
          return date != null && date.getTime() > EPOCH;
       }
    };
@@ -24,6 +24,7 @@
 package net.sf.mpxj.primavera.p3;
 
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Map;
 
 import net.sf.mpxj.Duration;
@@ -31,21 +32,54 @@ import net.sf.mpxj.RelationType;
 import net.sf.mpxj.common.BooleanHelper;
 
 /**
- * Wraps a simple map which contains name value
- * pairs representing the column values
- * from an individual row. Provides type-specific
- * methods to retrieve the column values.
+ * Represents an individual row from a table. The raw record is retained,
+ * and column values are only decoded when they are first requested.
+ * Provides type-specific methods to retrieve the column values.
  */
 class MapRow
 {
    /**
     * Constructor.
     *
-    * @param map map to be wrapped by this instance
+    * @param definition table definition
+    * @param data raw record data
+    * @param version Btrieve row version
     */
-   public MapRow(Map<String, Object> map)
+   public MapRow(TableDefinition definition, byte[] data, int version)
    {
-      m_map = map;
+      m_definition = definition;
+      m_data = data;
+      m_version = version;
+   }
+
+   /**
+    * Retrieve what we believe is the Btrieve version number of this row.
+    *
+    * @return row version
+    */
+   public int getVersion()
+   {
+      return m_version;
+   }
+
+   /**
+    * Retrieve the position of this row in the table.
+    *
+    * @return row number
+    */
+   public int getRowNumber()
+   {
+      return m_rowNumber;
+   }
+
+   /**
+    * Set the position of this row in the table.
+    *
+    * @param rowNumber row number
+    */
+   public void setRowNumber(int rowNumber)
+   {
+      m_rowNumber = rowNumber;
    }
 
    /**
@@ -128,19 +162,58 @@ class MapRow
     */
    public final Object getObject(String name)
    {
-      return m_map.get(name);
+      if (m_map != null && m_map.containsKey(name))
+      {
+         return m_map.get(name);
+      }
+
+      Integer index = m_definition.getColumnIndex(name);
+      if (index == null)
+      {
+         return null;
+      }
+
+      int columnIndex = index.intValue();
+      if (m_values == null)
+      {
+         m_values = new Object[m_definition.getColumns().length];
+      }
+
+      Object value = m_values[columnIndex];
+      if (value == null)
+      {
+         value = m_definition.getColumns()[columnIndex].read(0, m_data);
+         m_values[columnIndex] = value == null ? NULL_VALUE : value;
+      }
+
+      return value == NULL_VALUE ? null : value;
    }
 
    /**
-    * Set the value for a specific column.
+    * Set the value for a specific column. This value takes
+    * precedence over any value held in the raw record.
     *
     * @param name column name
     * @param value column value
     */
    public void setObject(String name, Object value)
    {
+      if (m_map == null)
+      {
+         m_map = new HashMap<String, Object>();
+      }
       m_map.put(name, value);
    }
 
-   protected Map<String, Object> m_map;
+   private final TableDefinition m_definition;
+   private final byte[] m_data;
+   private final int m_version;
+   private int m_rowNumber;
+   private Object[] m_values;
+   private Map<String, Object> m_map;
+
+   /**
+    * Marks a column which has been decoded and found to be null.
+    */
+   private static final Object NULL_VALUE = new Object();
 }
@@ -28,19 +28,23 @@ import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import net.sf.mpxj.ChildTaskContainer;
 import net.sf.mpxj.ConstraintType;
 import net.sf.mpxj.Duration;
 import net.sf.mpxj.EventManager;
 import net.sf.mpxj.FieldContainer;
+import net.sf.mpxj.FieldStorageFactory;
 import net.sf.mpxj.FieldType;
 import net.sf.mpxj.MPXJException;
 import net.sf.mpxj.ProjectConfig;
@@ -52,6 +56,7 @@ import net.sf.mpxj.ResourceField;
 import net.sf.mpxj.Task;
 import net.sf.mpxj.TaskField;
 import net.sf.mpxj.common.AlphanumComparator;
+import net.sf.mpxj.common.FieldFilterHelper;
 import net.sf.mpxj.listener.ProjectListener;
 import net.sf.mpxj.reader.ProjectReader;
 
@@ -68,6 +73,19 @@ public final class P3DatabaseReader implements ProjectReader
     * @return ProjectFile instance
     */
    public static final ProjectFile setPrefixAndRead(File directory) throws MPXJException
+   {
+      return setPrefixAndRead(directory, null);
+   }
+
+   /**
+    * Convenience method which locates the first P3 database in a directory
+    * and opens it, using the supplied factory to create field storage.
+    *
+    * @param directory directory containing a P3 database
+    * @param fieldStorageFactory field storage factory, or null to use the default
+    * @return ProjectFile instance
+    */
+   public static final ProjectFile setPrefixAndRead(File directory, FieldStorageFactory fieldStorageFactory) throws MPXJException
    {
       File[] files = directory.listFiles(new FilenameFilter()
       {
@@ -83,6 +101,7 @@ public final class P3DatabaseReader implements ProjectReader
          String prefix = fileName.substring(0, fileName.length() - 6);
          P3DatabaseReader reader = new P3DatabaseReader();
          reader.setPrefix(prefix);
+         reader.setFieldStorageFactory(fieldStorageFactory);
          return reader.read(directory);
       }
 
@@ -98,6 +117,22 @@ public final class P3DatabaseReader implements ProjectReader
       m_projectListeners.add(listener);
    }
 
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void setFieldFilter(Set<FieldType> fields)
+   {
+      m_fieldFilter = fields;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void setFieldStorageFactory(FieldStorageFactory factory)
+   {
+      m_fieldStorageFactory = factory;
+   }
+
    @Override public ProjectFile read(String fileName) throws MPXJException
    {
       return read(new File(fileName));
@@ -129,6 +164,7 @@ public final class P3DatabaseReader implements ProjectReader
       try
       {
          m_projectFile = new ProjectFile();
+         m_projectFile.getProjectConfig().setFieldStorageFactory(m_fieldStorageFactory);
          m_eventManager = m_projectFile.getEventManager();
 
          ProjectConfig config = m_projectFile.getProjectConfig();
@@ -148,7 +184,7 @@ public final class P3DatabaseReader implements ProjectReader
 
          m_eventManager.addProjectListeners(m_projectListeners);
 
-         m_tables = new DatabaseReader().process(directory, m_prefix);
+         m_tables = new DatabaseReader().process(directory, m_prefix, TABLE_NAMES);
 
          readProjectHeader();
          readCalendars();
@@ -157,6 +193,8 @@ public final class P3DatabaseReader implements ProjectReader
          readRelationships();
          readResourceAssignments();
 
+         FieldFilterHelper.applyFilter(m_projectFile, m_fieldFilter);
+
          return m_projectFile;
       }
 
@@ -490,12 +528,19 @@ public final class P3DatabaseReader implements ProjectReader
    private ProjectFile m_projectFile;
    private EventManager m_eventManager;
    private List<ProjectListener> m_projectListeners;
+   private Set<FieldType> m_fieldFilter;
+   private FieldStorageFactory m_fieldStorageFactory;
    private Map<String, Table> m_tables;
    private WbsFormat m_wbsFormat;
    private Map<String, Resource> m_resourceMap;
    private Map<String, Task> m_wbsMap;
    private Map<String, Task> m_activityMap;
 
+   /**
+    * The tables we read data from. No other tables are read.
+    */
+   private static final Set<String> TABLE_NAMES = new HashSet<String>(Arrays.asList("DIR", "RLB", "STR", "WBS", "ACT", "REL", "RES"));
+
    private static final Map<String, FieldType> PROJECT_FIELDS = new HashMap<String, FieldType>();
    private static final Map<String, FieldType> RESOURCE_FIELDS = new HashMap<String, FieldType>();
    private static final Map<String, FieldType> TASK_FIELDS = new HashMap<String, FieldType>();
@@ -34,6 +34,7 @@ import java.util.List;
 import net.sf.mpxj.MPXJException;
 import net.sf.mpxj.ProjectFile;
 import net.sf.mpxj.common.Blast;
+import net.sf.mpxj.common.FieldFilterHelper;
 import net.sf.mpxj.common.FileHelper;
 import net.sf.mpxj.common.FixedLengthInputStream;
 import net.sf.mpxj.common.StreamHelper;
@@ -68,7 +69,12 @@ public final class P3PRXFileReader extends AbstractProjectReader
             extractFile(stream, tempDir);
          }
 
-         return P3DatabaseReader.setPrefixAndRead(tempDir);
+         ProjectFile project = P3DatabaseReader.setPrefixAndRead(tempDir, getFieldStorageFactory());
+         if (project != null)
+         {
+            FieldFilterHelper.applyFilter(project, getFieldFilter());
+         }
+         return project;
       }
 
       catch (IOException ex)
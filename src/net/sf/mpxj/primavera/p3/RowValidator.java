@@ -23,8 +23,6 @@
 
 package net.sf.mpxj.primavera.p3;
 
-import java.util.Map;
-
 /**
  * Implementations of this interface allow additional
  * validation checks to be supplied in order to determine
@@ -38,5 +36,5 @@ public interface RowValidator
     * @param row row data
     * @return true if row is valid
     */
-   boolean validRow(Map<String, Object> row);
+   boolean validRow(MapRow row);
 }
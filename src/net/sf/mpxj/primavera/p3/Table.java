@@ -58,37 +58,27 @@ class Table implements Iterable<MapRow>
     * to try to ensure that we only have the latest rows.
     *
     * @param primaryKeyColumnName primary key column name
-    * @param map Map containing row data
+    * @param newRow row data
     */
-   public void addRow(String primaryKeyColumnName, Map<String, Object> map)
+   public void addRow(String primaryKeyColumnName, MapRow newRow)
    {
-      Integer rowNumber = Integer.valueOf(m_rowNumber++);
-      map.put("ROW_NUMBER", rowNumber);
+      int rowNumber = m_rowNumber++;
+      newRow.setRowNumber(rowNumber);
       Object primaryKey;
       if (primaryKeyColumnName == null)
       {
-         primaryKey = rowNumber;
+         primaryKey = Integer.valueOf(rowNumber);
       }
       else
       {
-         primaryKey = map.get(primaryKeyColumnName);
+         primaryKey = newRow.getObject(primaryKeyColumnName);
       }
 
-      MapRow newRow = new MapRow(map);
       MapRow oldRow = m_rows.get(primaryKey);
-      if (oldRow == null)
+      if (oldRow == null || newRow.getVersion() > oldRow.getVersion())
       {
          m_rows.put(primaryKey, newRow);
       }
-      else
-      {
-         int oldVersion = oldRow.getInteger("ROW_VERSION").intValue();
-         int newVersion = newRow.getInteger("ROW_VERSION").intValue();
-         if (newVersion > oldVersion)
-         {
-            m_rows.put(primaryKey, newRow);
-         }
-      }
    }
 
    private final Map<Object, MapRow> m_rows = new TreeMap<Object, MapRow>();
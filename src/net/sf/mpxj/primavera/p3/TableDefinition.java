@@ -23,6 +23,9 @@
 
 package net.sf.mpxj.primavera.p3;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Represents the structure of a Btrieve table.
  */
@@ -56,6 +59,12 @@ public class TableDefinition
       m_primaryKeyColumnName = primaryKeyColumnName;
       m_rowValidator = rowValidator;
       m_columns = columns;
+
+      m_columnIndexes = new HashMap<String, Integer>();
+      for (int index = 0; index < columns.length; index++)
+      {
+         m_columnIndexes.put(columns[index].getName(), Integer.valueOf(index));
+      }
    }
 
    /**
@@ -108,9 +117,21 @@ public class TableDefinition
       return m_columns;
    }
 
+   /**
+    * Retrieve the index of a column in the array of column definitions.
+    *
+    * @param name column name
+    * @return column index, or null if the table does not have this column
+    */
+   public Integer getColumnIndex(String name)
+   {
+      return m_columnIndexes.get(name);
+   }
+
    private final int m_pageSize;
    private final int m_recordSize;
    private final String m_primaryKeyColumnName;
    private final RowValidator m_rowValidator;
    private final ColumnDefinition[] m_columns;
+   private final Map<String, Integer> m_columnIndexes;
 }
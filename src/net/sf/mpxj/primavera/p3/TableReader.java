@@ -26,9 +26,8 @@ package net.sf.mpxj.primavera.p3;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 import net.sf.mpxj.common.StreamHelper;
 
@@ -56,11 +55,11 @@ public class TableReader
    public void read(File file, Table table) throws IOException
    {
       //System.out.println("Reading " + file.getName());
-      InputStream is = null;
+      FileInputStream is = null;
       try
       {
          is = new FileInputStream(file);
-         read(is, table);
+         read(is.getChannel(), table);
       }
 
       finally
@@ -70,23 +69,32 @@ public class TableReader
    }
 
    /**
-    * Read the table from an input stream and populate the supplied Table instance.
+    * Read the table a page at a time from a file channel and populate the
+    * supplied Table instance. The same page buffer is used for every page.
+    * We don't memory map the file, as P3PRXFileReader needs to be able to
+    * delete the file as soon as it has been read.
     *
-    * @param is input stream from table file
+    * @param channel file channel
     * @param table Table instance
     */
-   private void read(InputStream is, Table table) throws IOException
+   private void read(FileChannel channel, Table table) throws IOException
    {
       byte[] buffer = new byte[m_definition.getPageSize()];
+      ByteBuffer page = ByteBuffer.wrap(buffer);
       while (true)
       {
-         int bytesRead = is.read(buffer);
-         if (bytesRead == -1)
+         page.clear();
+         while (page.hasRemaining() && channel.read(page) != -1)
+         {
+            // Keep reading until the page is full or we reach the end of the file
+         }
+
+         if (page.position() == 0)
          {
             break;
          }
 
-         if (bytesRead != buffer.length)
+         if (page.hasRemaining())
          {
             throw new IOException("Unexpected end of file");
          }
@@ -118,14 +126,9 @@ public class TableReader
             int btrieveValue = getShort(buffer, index);
             if (btrieveValue != 0)
             {
-               Map<String, Object> row = new HashMap<String, Object>();
-               row.put("ROW_VERSION", Integer.valueOf(btrieveValue));
-               for (ColumnDefinition column : m_definition.getColumns())
-               {
-                  Object value = column.read(index, buffer);
-                  //System.out.println(column.getName() + ": " + value);
-                  row.put(column.getName(), value);
-               }
+               byte[] data = new byte[recordSize];
+               System.arraycopy(buffer, index, data, 0, recordSize);
+               MapRow row = new MapRow(m_definition, data, btrieveValue);
 
                if (rowValidator == null || rowValidator.validRow(row))
                {
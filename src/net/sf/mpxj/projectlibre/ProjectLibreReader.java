@@ -45,6 +45,8 @@ public class ProjectLibreReader extends AbstractProjectReader
 
    @Override public ProjectFile read(InputStream inputStream) throws MPXJException
    {
+      m_reader.setFieldFilter(getFieldFilter());
+      m_reader.setFieldStorageFactory(getFieldStorageFactory());
       ProjectFile file = m_reader.read(new SearchableInputStream(inputStream, "@@@@@@@@@@ProjectLibreSeparator_MSXML@@@@@@@@@@"));
       file.getProjectProperties().setFileApplication("ProjectLibre");
       file.getProjectProperties().setFileType("POD");
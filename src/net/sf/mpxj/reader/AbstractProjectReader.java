@@ -26,7 +26,10 @@ package net.sf.mpxj.reader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.Set;
 
+import net.sf.mpxj.FieldStorageFactory;
+import net.sf.mpxj.FieldType;
 import net.sf.mpxj.MPXJException;
 import net.sf.mpxj.ProjectFile;
 import net.sf.mpxj.common.StreamHelper;
@@ -37,6 +40,42 @@ import net.sf.mpxj.common.StreamHelper;
  */
 public abstract class AbstractProjectReader implements ProjectReader
 {
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void setFieldFilter(Set<FieldType> fields)
+   {
+      m_fieldFilter = fields;
+   }
+
+   /**
+    * Retrieve the field filter.
+    *
+    * @return field filter, or null if all fields are to be read
+    */
+   public Set<FieldType> getFieldFilter()
+   {
+      return m_fieldFilter;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void setFieldStorageFactory(FieldStorageFactory factory)
+   {
+      m_fieldStorageFactory = factory;
+   }
+
+   /**
+    * Retrieve the field storage factory.
+    *
+    * @return field storage factory, or null if the default is to be used
+    */
+   public FieldStorageFactory getFieldStorageFactory()
+   {
+      return m_fieldStorageFactory;
+   }
+
    /**
     * {@inheritDoc}
     */
@@ -89,4 +128,7 @@ public abstract class AbstractProjectReader implements ProjectReader
          StreamHelper.closeQuietly(fis);
       }
    }
+
+   private Set<FieldType> m_fieldFilter;
+   private FieldStorageFactory m_fieldStorageFactory;
 }
@@ -0,0 +1,45 @@
+/*
+ * file:       ProjectBatchHandler.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       17/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.reader;
+
+import java.io.File;
+
+import net.sf.mpxj.ProjectFile;
+
+/**
+ * Implemented by classes which process each project read by a
+ * ProjectBatchProcessor, for example to convert it to another format.
+ */
+public interface ProjectBatchHandler
+{
+   /**
+    * Process a project. When the batch processor is used with an executor,
+    * this method may be called concurrently from multiple threads.
+    *
+    * @param file file the project was read from
+    * @param project project read from the file
+    * @throws Exception
+    */
+   public void process(File file, ProjectFile project) throws Exception;
+}
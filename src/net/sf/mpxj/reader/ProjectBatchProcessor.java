@@ -0,0 +1,272 @@
+/*
+ * file:       ProjectBatchProcessor.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       17/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.reader;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import net.sf.mpxj.FieldStorageFactory;
+import net.sf.mpxj.FieldType;
+import net.sf.mpxj.MPXJException;
+import net.sf.mpxj.ProjectFile;
+
+/**
+ * Reads a batch of project files using the universal project reader, and
+ * passes each project to a handler, for example to convert it to another
+ * format. Files can be read and processed concurrently using an executor.
+ * A failure to read or process one file does not prevent the remaining
+ * files from being processed: the outcome and timings for each file are
+ * reported in a list of results.
+ */
+public final class ProjectBatchProcessor
+{
+   /**
+    * Restrict the task, resource and assignment fields read to those
+    * in the supplied set.
+    *
+    * @param fields fields to read, or null to read all fields
+    */
+   public void setFieldFilter(Set<FieldType> fields)
+   {
+      m_fieldFilter = fields;
+   }
+
+   /**
+    * Set the factory used to create field storage for the tasks,
+    * resources and assignments read.
+    *
+    * @param factory field storage factory, or null to use the default
+    */
+   public void setFieldStorageFactory(FieldStorageFactory factory)
+   {
+      m_fieldStorageFactory = factory;
+   }
+
+   /**
+    * Set the maximum number of files which have been submitted to the
+    * executor but whose results have not yet been collected. Once this limit
+    * is reached, no further files are retrieved from the source until the
+    * oldest outstanding file has been processed. This bounds the amount of
+    * work queued by the executor, and the number of files retrieved from the
+    * source ahead of being processed. The default is four times the number
+    * of available processors.
+    *
+    * @param maximumPendingFiles maximum number of pending files
+    */
+   public void setMaximumPendingFiles(int maximumPendingFiles)
+   {
+      if (maximumPendingFiles < 1)
+      {
+         throw new IllegalArgumentException("Maximum pending files must be at least 1");
+      }
+      m_maximumPendingFiles = maximumPendingFiles;
+   }
+
+   /**
+    * Retrieve the maximum number of files which have been submitted to the
+    * executor but whose results have not yet been collected.
+    *
+    * @return maximum number of pending files
+    */
+   public int getMaximumPendingFiles()
+   {
+      return m_maximumPendingFiles;
+   }
+
+   /**
+    * Process the files in a directory which match a filter. Files are
+    * processed in name order.
+    *
+    * @param directory directory containing the files to process
+    * @param filter filter used to select files, or null to process all files
+    * @param handler handler called for each project read
+    * @param executor executor used to process files concurrently, or null to process files sequentially
+    * @return list of results, in name order
+    * @throws MPXJException
+    */
+   public List<ProjectBatchResult> process(File directory, FileFilter filter, ProjectBatchHandler handler, ExecutorService executor) throws MPXJException
+   {
+      File[] files = directory.listFiles(filter);
+      if (files == null)
+      {
+         throw new MPXJException(MPXJException.READ_ERROR + ": " + directory + " is not a directory");
+      }
+      Arrays.sort(files);
+      return process(Arrays.asList(files).iterator(), handler, executor);
+   }
+
+   /**
+    * Process each of the files supplied. Files are retrieved from the
+    * iterator on the calling thread as capacity becomes available, so the
+    * iterator may generate file names on demand. If an ExecutorService is
+    * supplied, each file is read and processed as a separate task using the
+    * executor. Each thread reuses its own reader instance. The caller remains
+    * responsible for shutting down the executor.
+    *
+    * @param files files to process
+    * @param handler handler called for each project read
+    * @param executor executor used to process files concurrently, or null to process files sequentially
+    * @return list of results, in the same order as the files
+    * @throws MPXJException
+    */
+   public List<ProjectBatchResult> process(Iterator<File> files, final ProjectBatchHandler handler, ExecutorService executor) throws MPXJException
+   {
+      List<ProjectBatchResult> result = new ArrayList<ProjectBatchResult>();
+
+      if (executor == null)
+      {
+         while (files.hasNext())
+         {
+            result.add(processFile(files.next(), handler));
+         }
+      }
+      else
+      {
+         LinkedList<Future<ProjectBatchResult>> futures = new LinkedList<Future<ProjectBatchResult>>();
+         try
+         {
+            while (files.hasNext())
+            {
+               if (futures.size() >= m_maximumPendingFiles)
+               {
+                  result.add(futures.removeFirst().get());
+               }
+
+               final File file = files.next();
+               futures.add(executor.submit(new Callable<ProjectBatchResult>()
+               {
+                  @Override public ProjectBatchResult call()
+                  {
+                     return processFile(file, handler);
+                  }
+               }));
+            }
+
+            while (!futures.isEmpty())
+            {
+               result.add(futures.removeFirst().get());
+            }
+         }
+
+         catch (InterruptedException ex)
+         {
+            Thread.currentThread().interrupt();
+            throw new MPXJException(MPXJException.READ_ERROR, ex);
+         }
+
+         catch (ExecutionException ex)
+         {
+            Throwable cause = ex.getCause();
+            throw new MPXJException(MPXJException.READ_ERROR, cause instanceof Exception ? (Exception) cause : ex);
+         }
+
+         finally
+         {
+            for (Future<ProjectBatchResult> future : futures)
+            {
+               future.cancel(true);
+            }
+         }
+      }
+
+      return result;
+   }
+
+   /**
+    * Read and process a single file.
+    *
+    * @param file file to process
+    * @param handler handler called for the project read
+    * @return result
+    */
+   private ProjectBatchResult processFile(File file, ProjectBatchHandler handler)
+   {
+      long readTime = 0;
+      long processTime = 0;
+      Exception exception = null;
+      long start = System.nanoTime();
+
+      try
+      {
+         ProjectFile project = getReader().read(file);
+         readTime = System.nanoTime() - start;
+         if (project == null)
+         {
+            throw new MPXJException(MPXJException.INVALID_FILE);
+         }
+
+         start = System.nanoTime();
+         handler.process(file, project);
+         processTime = System.nanoTime() - start;
+      }
+
+      catch (Exception ex)
+      {
+         if (readTime == 0)
+         {
+            readTime = System.nanoTime() - start;
+         }
+         else
+         {
+            processTime = System.nanoTime() - start;
+         }
+         exception = ex;
+      }
+
+      return new ProjectBatchResult(file, readTime / 1000000, processTime / 1000000, exception);
+   }
+
+   /**
+    * Retrieve the reader instance used by the current thread.
+    *
+    * @return reader instance
+    */
+   private UniversalProjectReader getReader()
+   {
+      UniversalProjectReader reader = m_readers.get();
+      if (reader == null)
+      {
+         reader = new UniversalProjectReader();
+         m_readers.set(reader);
+      }
+      reader.setFieldFilter(m_fieldFilter);
+      reader.setFieldStorageFactory(m_fieldStorageFactory);
+      return reader;
+   }
+
+   private Set<FieldType> m_fieldFilter;
+   private FieldStorageFactory m_fieldStorageFactory;
+   private int m_maximumPendingFiles = Runtime.getRuntime().availableProcessors() * 4;
+   private final ThreadLocal<UniversalProjectReader> m_readers = new ThreadLocal<UniversalProjectReader>();
+}
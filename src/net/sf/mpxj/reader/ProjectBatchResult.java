@@ -0,0 +1,109 @@
+/*
+ * file:       ProjectBatchResult.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       17/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.reader;
+
+import java.io.File;
+
+/**
+ * Records the outcome of processing a single file as part of a batch.
+ */
+public final class ProjectBatchResult
+{
+   /**
+    * Constructor.
+    *
+    * @param file file processed
+    * @param readTime time taken to read the file in milliseconds
+    * @param processTime time taken to process the project in milliseconds
+    * @param exception exception raised while reading or processing the file, or null
+    */
+   ProjectBatchResult(File file, long readTime, long processTime, Exception exception)
+   {
+      m_file = file;
+      m_readTime = readTime;
+      m_processTime = processTime;
+      m_exception = exception;
+   }
+
+   /**
+    * Retrieve the file processed.
+    *
+    * @return file
+    */
+   public File getFile()
+   {
+      return m_file;
+   }
+
+   /**
+    * Retrieve the time taken to read the file, in milliseconds.
+    *
+    * @return read time
+    */
+   public long getReadTime()
+   {
+      return m_readTime;
+   }
+
+   /**
+    * Retrieve the time taken by the batch handler to process
+    * the project, in milliseconds.
+    *
+    * @return process time
+    */
+   public long getProcessTime()
+   {
+      return m_processTime;
+   }
+
+   /**
+    * Retrieve the exception raised while reading or processing the file.
+    *
+    * @return exception, or null if the file was processed successfully
+    */
+   public Exception getException()
+   {
+      return m_exception;
+   }
+
+   /**
+    * Determine if the file was processed successfully.
+    *
+    * @return true if the file was processed successfully
+    */
+   public boolean getSuccess()
+   {
+      return m_exception == null;
+   }
+
+   @Override public String toString()
+   {
+      return "[ProjectBatchResult file=" + m_file + " readTime=" + m_readTime + " processTime=" + m_processTime + " exception=" + m_exception + "]";
+   }
+
+   private final File m_file;
+   private final long m_readTime;
+   private final long m_processTime;
+   private final Exception m_exception;
+}
@@ -0,0 +1,52 @@
+/*
+ * file:       ProjectFileFormat.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       17/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.reader;
+
+/**
+ * Instances of this class represent the file formats which can be identified
+ * from the first few hundred bytes of a file. Some formats are containers
+ * (for example OLE compound documents, databases and zip files) whose content
+ * must be examined to determine which reader, if any, can process them.
+ */
+public enum ProjectFileFormat
+{
+   UNKNOWN,
+   OLE_COMPOUND_DOCUMENT,
+   MSPDI,
+   ASTA_PP,
+   MPX,
+   XER,
+   PLANNER,
+   PMXML,
+   MDB,
+   SQLITE,
+   ZIP,
+   PHOENIX,
+   PHOENIX_XML,
+   FASTTRACK,
+   PROJECTLIBRE,
+   GANTTPROJECT,
+   TURBOPROJECT,
+   DOS_EXE
+}
@@ -0,0 +1,538 @@
+/*
+ * file:       ProjectFileFormatDetector.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       17/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.reader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+import net.sf.mpxj.common.BytePatternMatcher;
+import net.sf.mpxj.common.CharsetHelper;
+
+/**
+ * Identifies the format of a schedule file from its first few hundred bytes,
+ * without reading the whole file. All of the fingerprints we recognise are
+ * matched in a single pass over the sampled bytes.
+ */
+public final class ProjectFileFormatDetector
+{
+   /**
+    * Private constructor to prevent instantiation.
+    */
+   private ProjectFileFormatDetector()
+   {
+      // Private constructor to prevent instantiation
+   }
+
+   /**
+    * Identify the format of the data in a stream. At most
+    * {@value #BUFFER_SIZE} bytes, plus any byte order mark, are read
+    * from the stream. If the stream supports mark and reset, it is
+    * returned to its original position, otherwise the caller is
+    * responsible for discarding it. The stream is not closed.
+    *
+    * @param stream schedule data
+    * @return file format, or UNKNOWN if the format is not recognised
+    * @throws IOException
+    */
+   public static ProjectFileFormat detect(InputStream stream) throws IOException
+   {
+      int maxLength = BUFFER_SIZE + MAX_BYTE_ORDER_MARK_LENGTH;
+      byte[] buffer = new byte[maxLength];
+      int bytesRead;
+
+      boolean markSupported = stream.markSupported();
+      if (markSupported)
+      {
+         stream.mark(maxLength);
+      }
+
+      try
+      {
+         bytesRead = read(stream, buffer);
+      }
+
+      finally
+      {
+         if (markSupported)
+         {
+            stream.reset();
+         }
+      }
+
+      int offset = 0;
+      Charset charset = null;
+      int byteOrderMark = getByteOrderMark(buffer);
+      if (byteOrderMark != -1)
+      {
+         offset = BYTE_ORDER_MARKS[byteOrderMark].length;
+         charset = BYTE_ORDER_MARK_CHARSETS[byteOrderMark];
+      }
+
+      //
+      // If the file is smaller than the buffer we are peeking into,
+      // it's probably not a valid schedule file.
+      //
+      if (bytesRead - offset < BUFFER_SIZE)
+      {
+         return ProjectFileFormat.UNKNOWN;
+      }
+
+      return getFormat(Arrays.copyOfRange(buffer, offset, offset + BUFFER_SIZE), charset);
+   }
+
+   /**
+    * Determine if the buffer starts with a byte order mark.
+    *
+    * @param buffer bytes from file
+    * @return index into BYTE_ORDER_MARKS, or -1 if there is no byte order mark
+    */
+   static int getByteOrderMark(byte[] buffer)
+   {
+      for (int index = 0; index < BYTE_ORDER_MARKS.length; index++)
+      {
+         byte[] fingerprint = BYTE_ORDER_MARKS[index];
+         if (buffer.length >= fingerprint.length && Arrays.equals(fingerprint, Arrays.copyOf(buffer, fingerprint.length)))
+         {
+            return index;
+         }
+      }
+      return -1;
+   }
+
+   /**
+    * Identify the format of a buffer sampled from the start of a file.
+    * Any byte order mark should already have been removed. Where the data
+    * could match more than one format, the first format in the order
+    * tested historically by the universal project reader is chosen.
+    *
+    * @param buffer bytes from file
+    * @param charset charset indicated by a byte order mark, or null
+    * @return file format
+    */
+   static ProjectFileFormat getFormat(byte[] buffer, Charset charset)
+   {
+      int[] first = new int[FINGERPRINTS.length];
+      int[] last = new int[FINGERPRINTS.length];
+      Arrays.fill(first, -1);
+      Arrays.fill(last, -1);
+
+      if (charset == null || isAsciiCompatible(charset))
+      {
+         match(buffer, true, true, first, last);
+      }
+      else
+      {
+         //
+         // Binary fingerprints are matched against the raw bytes, text
+         // fingerprints against the text re-encoded as single bytes.
+         //
+         match(buffer, true, false, first, last);
+         byte[] text = new String(buffer, charset).getBytes(CharsetHelper.ISO_8859_1);
+         match(text, false, true, first, last);
+      }
+
+      if (first[OLE_COMPOUND_DOC] != -1)
+      {
+         return ProjectFileFormat.OLE_COMPOUND_DOCUMENT;
+      }
+
+      if (first[MSPDI_NAMESPACE] != -1)
+      {
+         return ProjectFileFormat.MSPDI;
+      }
+
+      if (first[PP] != -1)
+      {
+         return ProjectFileFormat.ASTA_PP;
+      }
+
+      if (first[MPX] != -1)
+      {
+         return ProjectFileFormat.MPX;
+      }
+
+      if (first[XER] != -1)
+      {
+         return ProjectFileFormat.XER;
+      }
+
+      if (follows(first, last, PROJECT_ELEMENT, MRPROJECT_VERSION))
+      {
+         return ProjectFileFormat.PLANNER;
+      }
+
+      if (first[API_BUSINESS_OBJECTS] != -1)
+      {
+         return ProjectFileFormat.PMXML;
+      }
+
+      if (first[MDB] != -1)
+      {
+         return ProjectFileFormat.MDB;
+      }
+
+      if (first[SQLITE] != -1)
+      {
+         return ProjectFileFormat.SQLITE;
+      }
+
+      if (first[ZIP] != -1)
+      {
+         return ProjectFileFormat.ZIP;
+      }
+
+      if (first[PHOENIX] != -1)
+      {
+         return ProjectFileFormat.PHOENIX;
+      }
+
+      //
+      // The Phoenix XML fingerprint includes value constraints the automaton
+      // can't express, so we confirm candidates using the full expression.
+      //
+      if (follows(first, last, PROJECT_ELEMENT, UPDATE_MODE) && PHOENIX_XML_FINGERPRINT.matcher(charset == null ? new String(buffer) : new String(buffer, charset)).matches())
+      {
+         return ProjectFileFormat.PHOENIX_XML;
+      }
+
+      if (first[FASTTRACK] != -1)
+      {
+         return ProjectFileFormat.FASTTRACK;
+      }
+
+      if (first[PROJECTLIBRE] != -1)
+      {
+         return ProjectFileFormat.PROJECTLIBRE;
+      }
+
+      if (follows(first, last, PROJECT_ELEMENT, WEB_LINK))
+      {
+         return ProjectFileFormat.GANTTPROJECT;
+      }
+
+      if (first[DWBSTAB] != -1)
+      {
+         return ProjectFileFormat.TURBOPROJECT;
+      }
+
+      if (first[DOS_EXE] != -1)
+      {
+         return ProjectFileFormat.DOS_EXE;
+      }
+
+      return ProjectFileFormat.UNKNOWN;
+   }
+
+   /**
+    * Match the fingerprints against a buffer, recording the offset of the
+    * first and last occurrence of each fingerprint. Anchored fingerprints
+    * only match at the start of the buffer. Offsets for fingerprints which
+    * are not found are left unchanged, so the results of more than one
+    * buffer can be combined.
+    *
+    * @param buffer data to scan
+    * @param matchAnchored true if anchored fingerprints should be matched
+    * @param matchUnanchored true if unanchored fingerprints should be matched
+    * @param first offset of the first occurrence of each fingerprint
+    * @param last offset of the last occurrence of each fingerprint
+    */
+   private static void match(byte[] buffer, boolean matchAnchored, boolean matchUnanchored, int[] first, int[] last)
+   {
+      int[] bufferFirst = new int[FINGERPRINTS.length];
+      int[] bufferLast = new int[FINGERPRINTS.length];
+      Arrays.fill(bufferFirst, -1);
+      MATCHER.findFirstAndLast(buffer, buffer.length, bufferFirst, bufferLast);
+
+      for (int index = 0; index < FINGERPRINTS.length; index++)
+      {
+         if (bufferFirst[index] == -1)
+         {
+            continue;
+         }
+
+         if (ANCHORED[index])
+         {
+            if (matchAnchored && bufferFirst[index] == 0)
+            {
+               first[index] = 0;
+               last[index] = 0;
+            }
+         }
+         else
+         {
+            if (matchUnanchored)
+            {
+               if (first[index] == -1)
+               {
+                  first[index] = bufferFirst[index];
+               }
+               last[index] = bufferLast[index];
+            }
+         }
+      }
+   }
+
+   /**
+    * Determine if an occurrence of one fingerprint is followed by
+    * an occurrence of another.
+    *
+    * @param first offset of the first occurrence of each fingerprint
+    * @param last offset of the last occurrence of each fingerprint
+    * @param leading fingerprint which must appear first
+    * @param trailing fingerprint which must appear after the leading fingerprint
+    * @return true if the trailing fingerprint follows the leading fingerprint
+    */
+   private static boolean follows(int[] first, int[] last, int leading, int trailing)
+   {
+      return first[leading] != -1 && last[trailing] >= first[leading] + FINGERPRINTS[leading].length;
+   }
+
+   /**
+    * Determine if ASCII characters are represented by the same single
+    * bytes in the supplied charset.
+    *
+    * @param charset charset
+    * @return true if the charset is ASCII compatible
+    */
+   private static boolean isAsciiCompatible(Charset charset)
+   {
+      return Arrays.equals(ASCII_SAMPLE, "<?xml".getBytes(charset));
+   }
+
+   /**
+    * Read from a stream until the buffer is full or there is no more data.
+    *
+    * @param stream input stream
+    * @param buffer buffer to populate
+    * @return number of bytes read
+    */
+   private static int read(InputStream stream, byte[] buffer) throws IOException
+   {
+      int total = 0;
+      while (total < buffer.length)
+      {
+         int bytesRead = stream.read(buffer, total, buffer.length - total);
+         if (bytesRead == -1)
+         {
+            break;
+         }
+         total += bytesRead;
+      }
+      return total;
+   }
+
+   /**
+    * Convert a string to an array of bytes.
+    *
+    * @param text text
+    * @return bytes
+    */
+   private static byte[] bytes(String text)
+   {
+      return text.getBytes(CharsetHelper.ISO_8859_1);
+   }
+
+   /**
+    * Number of bytes sampled from the start of the file.
+    */
+   public static final int BUFFER_SIZE = 512;
+
+   static final byte[][] BYTE_ORDER_MARKS =
+   {
+      {
+         (byte) 0xEF,
+         (byte) 0xBB,
+         (byte) 0xBF
+      },
+
+      {
+         (byte) 0xFE,
+         (byte) 0xFF
+      },
+
+      {
+         (byte) 0xFF,
+         (byte) 0xFE
+      }
+   };
+
+   static final Charset[] BYTE_ORDER_MARK_CHARSETS =
+   {
+      CharsetHelper.UTF8,
+      CharsetHelper.UTF16,
+      CharsetHelper.UTF16LE
+   };
+
+   private static final int MAX_BYTE_ORDER_MARK_LENGTH = 3;
+
+   private static final int OLE_COMPOUND_DOC = 0;
+   private static final int MSPDI_NAMESPACE = 1;
+   private static final int PP = 2;
+   private static final int MPX = 3;
+   private static final int XER = 4;
+   private static final int PROJECT_ELEMENT = 5;
+   private static final int MRPROJECT_VERSION = 6;
+   private static final int API_BUSINESS_OBJECTS = 7;
+   private static final int MDB = 8;
+   private static final int SQLITE = 9;
+   private static final int ZIP = 10;
+   private static final int PHOENIX = 11;
+   private static final int UPDATE_MODE = 12;
+   private static final int FASTTRACK = 13;
+   private static final int PROJECTLIBRE = 14;
+   private static final int WEB_LINK = 15;
+   private static final int DWBSTAB = 16;
+   private static final int DOS_EXE = 17;
+
+   /**
+    * Fingerprints, indexed by the constants above.
+    */
+   private static final byte[][] FINGERPRINTS =
+   {
+      {
+         (byte) 0xD0,
+         (byte) 0xCF,
+         (byte) 0x11,
+         (byte) 0xE0,
+         (byte) 0xA1,
+         (byte) 0xB1,
+         (byte) 0x1A,
+         (byte) 0xE1
+      },
+
+      bytes("xmlns=\"http://schemas.microsoft.com/project"),
+
+      {
+         (byte) 0x00,
+         (byte) 0x00,
+         (byte) 0x30,
+         (byte) 0x30,
+         (byte) 0x30,
+         (byte) 0x30,
+         (byte) 0x30,
+         (byte) 0x30
+      },
+
+      bytes("MPX"),
+
+      bytes("ERMHDR"),
+
+      bytes("<project"),
+
+      bytes("mrproject-version"),
+
+      bytes("<APIBusinessObjects"),
+
+      {
+         (byte) 0x00,
+         (byte) 0x01,
+         (byte) 0x00,
+         (byte) 0x00,
+         (byte) 'S',
+         (byte) 't',
+         (byte) 'a',
+         (byte) 'n',
+         (byte) 'd',
+         (byte) 'a',
+         (byte) 'r',
+         (byte) 'd',
+         (byte) ' ',
+         (byte) 'J',
+         (byte) 'e',
+         (byte) 't',
+         (byte) ' ',
+         (byte) 'D',
+         (byte) 'B',
+      },
+
+      bytes("SQLite format"),
+
+      bytes("PK"),
+
+      bytes("PPX!!!!"),
+
+      bytes("update_mode=\""),
+
+      {
+         (byte) 0x1C,
+         (byte) 0x00,
+         (byte) 0x00,
+         (byte) 0x00,
+         (byte) 0x8B,
+         (byte) 0x00,
+         (byte) 0x00,
+         (byte) 0x00
+      },
+
+      {
+         (byte) 0xAC,
+         (byte) 0xED,
+         (byte) 0x00,
+         (byte) 0x05
+      },
+
+      bytes("webLink"),
+
+      bytes("dWBSTAB"),
+
+      {
+         (byte) 0x4D,
+         (byte) 0x5A
+      }
+   };
+
+   /**
+    * Flags indicating which fingerprints must appear at the start of the file.
+    */
+   private static final boolean[] ANCHORED =
+   {
+      true,
+      false,
+      true,
+      true,
+      true,
+      false,
+      false,
+      false,
+      true,
+      true,
+      true,
+      true,
+      false,
+      true,
+      true,
+      false,
+      false,
+      true
+   };
+
+   private static final BytePatternMatcher MATCHER = new BytePatternMatcher(FINGERPRINTS);
+
+   private static final byte[] ASCII_SAMPLE = bytes("<?xml");
+
+   private static final Pattern PHOENIX_XML_FINGERPRINT = Pattern.compile(".*<project.*version=\"(\\d+|\\d+\\.\\d+)\".*update_mode=\"(true|false)\".*>.*", Pattern.DOTALL);
+}
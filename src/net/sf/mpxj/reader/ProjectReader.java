@@ -25,7 +25,10 @@ package net.sf.mpxj.reader;
 
 import java.io.File;
 import java.io.InputStream;
+import java.util.Set;
 
+import net.sf.mpxj.FieldStorageFactory;
+import net.sf.mpxj.FieldType;
 import net.sf.mpxj.MPXJException;
 import net.sf.mpxj.ProjectFile;
 import net.sf.mpxj.listener.ProjectListener;
@@ -44,6 +47,29 @@ public interface ProjectReader
     */
    public void addProjectListener(ProjectListener listener);
 
+   /**
+    * Restrict the task, resource and assignment fields read to those
+    * in the supplied set. Other fields will not be populated in the
+    * resulting project, and where the file format allows it they will not
+    * be decoded either, which saves time and memory where only a small
+    * number of fields are required. Identifiers and relationships
+    * are always read.
+    *
+    * @param fields fields to read, or null to read all fields
+    */
+   public void setFieldFilter(Set<FieldType> fields);
+
+   /**
+    * Set the factory used to create field storage for the tasks,
+    * resources and assignments read. By default each entity holds an
+    * array with a slot for every field. Supplying
+    * CompactFieldStorage.FACTORY reduces the memory required to hold
+    * large projects, at the cost of slower field access.
+    *
+    * @param factory field storage factory, or null to use the default
+    */
+   public void setFieldStorageFactory(FieldStorageFactory factory);
+
    /**
     * Read a file where the file name is supplied.
     *
@@ -24,16 +24,18 @@
 package net.sf.mpxj.reader;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.nio.charset.Charset;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -41,15 +43,19 @@ import java.util.List;
 import java.util.Properties;
 import java.util.Set;
 import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 
+import net.sf.mpxj.FieldStorageFactory;
+import net.sf.mpxj.FieldType;
 import net.sf.mpxj.MPXJException;
 import net.sf.mpxj.ProjectFile;
 import net.sf.mpxj.asta.AstaDatabaseFileReader;
 import net.sf.mpxj.asta.AstaDatabaseReader;
 import net.sf.mpxj.asta.AstaFileReader;
-import net.sf.mpxj.common.CharsetHelper;
+import net.sf.mpxj.common.FieldFilterHelper;
 import net.sf.mpxj.common.FileHelper;
 import net.sf.mpxj.common.InputStreamHelper;
 import net.sf.mpxj.common.StreamHelper;
@@ -91,6 +97,22 @@ public class UniversalProjectReader implements ProjectReader
       m_projectListeners.add(listener);
    }
 
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void setFieldFilter(Set<FieldType> fields)
+   {
+      m_fieldFilter = fields;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override public void setFieldStorageFactory(FieldStorageFactory factory)
+   {
+      m_fieldStorageFactory = factory;
+   }
+
    /**
     * Package private method used when handling byte order mark.
     * Tells the reader to skip a number of bytes before starting to read from the stream.
@@ -113,6 +135,32 @@ public class UniversalProjectReader implements ProjectReader
       m_charset = charset;
    }
 
+   /**
+    * Set the directory used for temporary files. Some formats, for example
+    * SQLite and MDB databases, can only be read from a file. When these are
+    * supplied as a stream, or found in a zip file, they are written to a
+    * temporary file first. Pointing this at a memory-backed file system
+    * avoids disk I/O. By default the system temporary directory is used.
+    *
+    * @param directory temporary directory, or null to use the system default
+    */
+   public void setTempDirectory(File directory)
+   {
+      m_tempDirectory = directory;
+   }
+
+   /**
+    * Set the maximum size of a zip file supplied as a stream which will
+    * be held in memory while its content is examined. Larger zip files are
+    * written to a temporary file. The default is 32MB.
+    *
+    * @param size maximum size in bytes
+    */
+   public void setMaxInMemorySize(int size)
+   {
+      m_maxInMemorySize = size;
+   }
+
    @Override public ProjectFile read(String fileName) throws MPXJException
    {
       return read(new File(fileName));
@@ -134,7 +182,7 @@ public class UniversalProjectReader implements ProjectReader
             try
             {
                fis = new FileInputStream(file);
-               ProjectFile projectFile = read(fis);
+               ProjectFile projectFile = read(fis, file);
                fis.close();
                return (projectFile);
             }
@@ -158,6 +206,20 @@ public class UniversalProjectReader implements ProjectReader
     * {@inheritDoc}
     */
    @Override public ProjectFile read(InputStream inputStream) throws MPXJException
+   {
+      return read(inputStream, null);
+   }
+
+   /**
+    * Read schedule data from a stream. If the stream was opened from a file,
+    * the file is supplied too, so that formats which must be read from a file
+    * don't need to copy the stream to a temporary file.
+    *
+    * @param inputStream schedule data
+    * @param file file the stream was opened from, or null
+    * @return ProjectFile instance, or null if we can't determine the file type
+    */
+   private ProjectFile read(InputStream inputStream, File file) throws MPXJException
    {
       try
       {
@@ -178,116 +240,115 @@ public class UniversalProjectReader implements ProjectReader
          }
 
          //
-         // Always check for BOM first. Regex-based fingerprints may ignore these otherwise.
+         // Always check for BOM first. Text fingerprints may ignore these otherwise.
          //
-         if (matchesFingerprint(buffer, UTF8_BOM_FINGERPRINT))
-         {
-            return handleByteOrderMark(bis, UTF8_BOM_FINGERPRINT.length, CharsetHelper.UTF8);
-         }
-
-         if (matchesFingerprint(buffer, UTF16_BOM_FINGERPRINT))
+         int byteOrderMark = ProjectFileFormatDetector.getByteOrderMark(buffer);
+         if (byteOrderMark != -1)
          {
-            return handleByteOrderMark(bis, UTF16_BOM_FINGERPRINT.length, CharsetHelper.UTF16);
-         }
-
-         if (matchesFingerprint(buffer, UTF16LE_BOM_FINGERPRINT))
-         {
-            return handleByteOrderMark(bis, UTF16LE_BOM_FINGERPRINT.length, CharsetHelper.UTF16LE);
+            return handleByteOrderMark(bis, ProjectFileFormatDetector.BYTE_ORDER_MARKS[byteOrderMark].length, ProjectFileFormatDetector.BYTE_ORDER_MARK_CHARSETS[byteOrderMark]);
          }
 
          //
          // Now check for file fingerprints
          //
-         if (matchesFingerprint(buffer, OLE_COMPOUND_DOC_FINGERPRINT))
+         switch (ProjectFileFormatDetector.getFormat(buffer, m_charset))
          {
-            return handleOleCompoundDocument(bis);
-         }
+            case OLE_COMPOUND_DOCUMENT:
+            {
+               return handleOleCompoundDocument(bis);
+            }
 
-         if (matchesFingerprint(buffer, MSPDI_FINGERPRINT))
-         {
-            MSPDIReader reader = new MSPDIReader();
-            reader.setCharset(m_charset);
-            return reader.read(bis);
-         }
+            case MSPDI:
+            {
+               MSPDIReader reader = new MSPDIReader();
+               reader.setCharset(m_charset);
+               reader.setFieldFilter(m_fieldFilter);
+               reader.setFieldStorageFactory(m_fieldStorageFactory);
+               return reader.read(bis);
+            }
 
-         if (matchesFingerprint(buffer, PP_FINGERPRINT))
-         {
-            return readProjectFile(new AstaFileReader(), bis);
-         }
+            case ASTA_PP:
+            {
+               return readProjectFile(new AstaFileReader(), bis);
+            }
 
-         if (matchesFingerprint(buffer, MPX_FINGERPRINT))
-         {
-            return readProjectFile(new MPXReader(), bis);
-         }
+            case MPX:
+            {
+               return readProjectFile(new MPXReader(), bis);
+            }
 
-         if (matchesFingerprint(buffer, XER_FINGERPRINT))
-         {
-            PrimaveraXERFileReader reader = new PrimaveraXERFileReader();
-            reader.setCharset(m_charset);
-            return readProjectFile(reader, bis);
-         }
+            case XER:
+            {
+               PrimaveraXERFileReader reader = new PrimaveraXERFileReader();
+               reader.setCharset(m_charset);
+               return readProjectFile(reader, bis);
+            }
 
-         if (matchesFingerprint(buffer, PLANNER_FINGERPRINT))
-         {
-            return readProjectFile(new PlannerReader(), bis);
-         }
+            case PLANNER:
+            {
+               return readProjectFile(new PlannerReader(), bis);
+            }
 
-         if (matchesFingerprint(buffer, PMXML_FINGERPRINT))
-         {
-            return readProjectFile(new PrimaveraPMFileReader(), bis);
-         }
+            case PMXML:
+            {
+               return readProjectFile(new PrimaveraPMFileReader(), bis);
+            }
 
-         if (matchesFingerprint(buffer, MDB_FINGERPRINT))
-         {
-            return handleMDBFile(bis);
-         }
+            case MDB:
+            {
+               return handleMDBFile(bis, file);
+            }
 
-         if (matchesFingerprint(buffer, SQLITE_FINGERPRINT))
-         {
-            return handleSQLiteFile(bis);
-         }
+            case SQLITE:
+            {
+               return handleSQLiteFile(bis, file);
+            }
 
-         if (matchesFingerprint(buffer, ZIP_FINGERPRINT))
-         {
-            return handleZipFile(bis);
-         }
+            case ZIP:
+            {
+               return handleZipFile(bis, file);
+            }
 
-         if (matchesFingerprint(buffer, PHOENIX_FINGERPRINT))
-         {
-            return readProjectFile(new PhoenixReader(), new PhoenixInputStream(bis));
-         }
+            case PHOENIX:
+            {
+               return readProjectFile(new PhoenixReader(), new PhoenixInputStream(bis));
+            }
 
-         if (matchesFingerprint(buffer, PHOENIX_XML_FINGERPRINT))
-         {
-            return readProjectFile(new PhoenixReader(), bis);
-         }
+            case PHOENIX_XML:
+            {
+               return readProjectFile(new PhoenixReader(), bis);
+            }
 
-         if (matchesFingerprint(buffer, FASTTRACK_FINGERPRINT))
-         {
-            return readProjectFile(new FastTrackReader(), bis);
-         }
+            case FASTTRACK:
+            {
+               return readProjectFile(new FastTrackReader(), bis);
+            }
 
-         if (matchesFingerprint(buffer, PROJECTLIBRE_FINGERPRINT))
-         {
-            return readProjectFile(new ProjectLibreReader(), bis);
-         }
+            case PROJECTLIBRE:
+            {
+               return readProjectFile(new ProjectLibreReader(), bis);
+            }
 
-         if (matchesFingerprint(buffer, GANTTPROJECT_FINGERPRINT))
-         {
-            return readProjectFile(new GanttProjectReader(), bis);
-         }
+            case GANTTPROJECT:
+            {
+               return readProjectFile(new GanttProjectReader(), bis);
+            }
 
-         if (matchesFingerprint(buffer, TURBOPROJECT_FINGERPRINT))
-         {
-            return readProjectFile(new TurboProjectReader(), bis);
-         }
+            case TURBOPROJECT:
+            {
+               return readProjectFile(new TurboProjectReader(), bis);
+            }
 
-         if (matchesFingerprint(buffer, DOS_EXE_FINGERPRINT))
-         {
-            return handleDosExeFile(bis);
-         }
+            case DOS_EXE:
+            {
+               return handleDosExeFile(bis, file);
+            }
 
-         return null;
+            default:
+            {
+               return null;
+            }
+         }
       }
 
       catch (Exception ex)
@@ -321,7 +382,7 @@ public class UniversalProjectReader implements ProjectReader
    }
 
    /**
-    * Adds listeners and reads from a stream.
+    * Configures the reader and reads from a stream.
     *
     * @param reader reader for file type
     * @param stream schedule data
@@ -329,12 +390,12 @@ public class UniversalProjectReader implements ProjectReader
     */
    private ProjectFile readProjectFile(ProjectReader reader, InputStream stream) throws MPXJException
    {
-      addListeners(reader);
+      configureReader(reader);
       return reader.read(stream);
    }
 
    /**
-    * Adds listeners and reads from a file.
+    * Configures the reader and reads from a file.
     *
     * @param reader reader for file type
     * @param file schedule data
@@ -342,7 +403,7 @@ public class UniversalProjectReader implements ProjectReader
     */
    private ProjectFile readProjectFile(ProjectReader reader, File file) throws MPXJException
    {
-      addListeners(reader);
+      configureReader(reader);
       return reader.read(file);
    }
 
@@ -359,7 +420,7 @@ public class UniversalProjectReader implements ProjectReader
       String fileFormat = reader.getFileFormat(fs);
       if (fileFormat.startsWith("MSProject"))
       {
-         addListeners(reader);
+         configureReader(reader);
          return reader.read(fs);
       }
       return null;
@@ -371,11 +432,12 @@ public class UniversalProjectReader implements ProjectReader
     * which type this is.
     *
     * @param stream schedule data
+    * @param sourceFile file the stream was opened from, or null
     * @return ProjectFile instance
     */
-   private ProjectFile handleMDBFile(InputStream stream) throws Exception
+   private ProjectFile handleMDBFile(InputStream stream, File sourceFile) throws Exception
    {
-      File file = InputStreamHelper.writeStreamToTempFile(stream, ".mdb");
+      File file = sourceFile == null ? InputStreamHelper.writeStreamToTempFile(stream, ".mdb", m_tempDirectory) : sourceFile;
 
       try
       {
@@ -398,7 +460,10 @@ public class UniversalProjectReader implements ProjectReader
 
       finally
       {
-         FileHelper.deleteQuietly(file);
+         if (file != sourceFile)
+         {
+            FileHelper.deleteQuietly(file);
+         }
       }
    }
 
@@ -408,11 +473,12 @@ public class UniversalProjectReader implements ProjectReader
     * which type this is.
     *
     * @param stream schedule data
+    * @param sourceFile file the stream was opened from, or null
     * @return ProjectFile instance
     */
-   private ProjectFile handleSQLiteFile(InputStream stream) throws Exception
+   private ProjectFile handleSQLiteFile(InputStream stream, File sourceFile) throws Exception
    {
-      File file = InputStreamHelper.writeStreamToTempFile(stream, ".sqlite");
+      File file = sourceFile == null ? InputStreamHelper.writeStreamToTempFile(stream, ".sqlite", m_tempDirectory) : sourceFile;
 
       try
       {
@@ -435,7 +501,7 @@ public class UniversalProjectReader implements ProjectReader
                connection = DriverManager.getConnection(url, props);
                PrimaveraDatabaseReader reader = new PrimaveraDatabaseReader();
                reader.setConnection(connection);
-               addListeners(reader);
+               configureReader(reader);
                return reader.read();
             }
             finally
@@ -457,37 +523,175 @@ public class UniversalProjectReader implements ProjectReader
 
       finally
       {
-         FileHelper.deleteQuietly(file);
+         if (file != sourceFile)
+         {
+            FileHelper.deleteQuietly(file);
+         }
       }
    }
 
    /**
-    * We have identified that we have a zip file. Extract the contents into
-    * a temporary directory and process.
+    * We have identified that we have a zip file. If we have the zip file
+    * itself, or the stream is small enough to hold in memory, we can examine
+    * the entries directly. Otherwise we write the stream to a temporary file.
     *
     * @param stream schedule data
+    * @param sourceFile file the stream was opened from, or null
     * @return ProjectFile instance
     */
-   private ProjectFile handleZipFile(InputStream stream) throws Exception
+   private ProjectFile handleZipFile(InputStream stream, File sourceFile) throws Exception
    {
-      File dir = null;
+      if (sourceFile != null)
+      {
+         return handleZipArchive(null, sourceFile);
+      }
+
+      byte[] data = InputStreamHelper.read(stream, m_maxInMemorySize == Integer.MAX_VALUE ? m_maxInMemorySize : m_maxInMemorySize + 1);
+      if (data.length <= m_maxInMemorySize)
+      {
+         return handleZipArchive(data, null);
+      }
+
+      File file = InputStreamHelper.writeStreamToTempFile(new SequenceInputStream(new ByteArrayInputStream(data), stream), ".zip", m_tempDirectory);
 
       try
       {
-         dir = InputStreamHelper.writeZipStreamToTempDir(stream);
-         ProjectFile result = handleDirectory(dir);
-         if (result != null)
+         return handleZipArchive(null, file);
+      }
+
+      finally
+      {
+         FileHelper.deleteQuietly(file);
+      }
+   }
+
+   /**
+    * Examine the entries in a zip file to determine if any of them contain
+    * a file whose format we understand. As with a directory, the files in
+    * the root of the archive are first checked for a multi-file database,
+    * then each is tried in turn, followed by files in any directories.
+    * Entries are read directly from the archive, unless we find a
+    * multi-file database, in which case we fall back to extracting the
+    * archive to a temporary directory.
+    *
+    * @param data zip file content, or null if the zip file is supplied as a file
+    * @param file zip file, or null if the content is supplied as a byte array
+    * @return ProjectFile instance if we can process anything, or null
+    */
+   private ProjectFile handleZipArchive(byte[] data, File file) throws Exception
+   {
+      boolean hasRootFiles = false;
+      boolean hasDirectories = false;
+
+      for (int pass = ROOT_DATABASE_PASS; pass <= DIRECTORY_PASS; pass++)
+      {
+         boolean directoryPass = pass == DIRECTORY_PASS;
+         if ((pass == ROOT_FILE_PASS && !hasRootFiles) || (directoryPass && !hasDirectories))
+         {
+            continue;
+         }
+
+         ZipInputStream zip = new ZipInputStream(openZipArchive(data, file));
+
+         try
+         {
+            while (true)
+            {
+               ZipEntry entry = zip.getNextEntry();
+               if (entry == null)
+               {
+                  break;
+               }
+
+               if (entry.isDirectory())
+               {
+                  continue;
+               }
+
+               boolean inDirectory = entry.getName().indexOf('/') != -1;
+               hasRootFiles |= !inDirectory;
+               hasDirectories |= inDirectory;
+               if (inDirectory != directoryPass)
+               {
+                  continue;
+               }
+
+               BufferedInputStream stream = new BufferedInputStream(POIFSFileSystem.createNonClosingInputStream(zip));
+               stream.mark(BUFFER_SIZE);
+               byte[] buffer = new byte[BUFFER_SIZE];
+               int bytesRead = stream.read(buffer);
+               stream.reset();
+
+               //
+               // Root entries have already been checked for a database
+               // by the time we reach the root file pass.
+               //
+               if (pass != ROOT_FILE_PASS && bytesRead == BUFFER_SIZE && matchesFingerprint(buffer, BTRIEVE_FINGERPRINT))
+               {
+                  zip.close();
+                  zip = null;
+                  return handleExtractedZipArchive(data, file, directoryPass);
+               }
+
+               if (pass == ROOT_DATABASE_PASS)
+               {
+                  continue;
+               }
+
+               ProjectFile result = createReader().read(stream);
+               if (result != null)
+               {
+                  return result;
+               }
+            }
+         }
+
+         finally
          {
-            return result;
+            StreamHelper.closeQuietly(zip);
          }
       }
 
+      return null;
+   }
+
+   /**
+    * Extract the contents of a zip file into a temporary directory and process.
+    *
+    * @param data zip file content, or null if the zip file is supplied as a file
+    * @param file zip file, or null if the content is supplied as a byte array
+    * @param rootFilesTried true if the files in the root of the archive have already been tried
+    * @return ProjectFile instance if we can process anything, or null
+    */
+   private ProjectFile handleExtractedZipArchive(byte[] data, File file, boolean rootFilesTried) throws Exception
+   {
+      InputStream stream = null;
+      File dir = null;
+
+      try
+      {
+         stream = openZipArchive(data, file);
+         dir = InputStreamHelper.writeZipStreamToTempDir(stream, m_tempDirectory);
+         return rootFilesTried ? handleSubdirectories(dir) : handleDirectory(dir);
+      }
+
       finally
       {
+         StreamHelper.closeQuietly(stream);
          FileHelper.deleteQuietly(dir);
       }
+   }
 
-      return null;
+   /**
+    * Open a stream to read a zip file.
+    *
+    * @param data zip file content, or null if the zip file is supplied as a file
+    * @param file zip file, or null if the content is supplied as a byte array
+    * @return InputStream instance
+    */
+   private InputStream openZipArchive(byte[] data, File file) throws IOException
+   {
+      return data == null ? new BufferedInputStream(new FileInputStream(file)) : new ByteArrayInputStream(data);
    }
 
    /**
@@ -559,7 +763,6 @@ public class UniversalProjectReader implements ProjectReader
     */
    private ProjectFile handleFileInDirectory(File directory) throws Exception
    {
-      List<File> directories = new ArrayList<File>();
       File[] files = directory.listFiles();
 
       if (files != null)
@@ -567,14 +770,9 @@ public class UniversalProjectReader implements ProjectReader
          // Try files first
          for (File file : files)
          {
-            if (file.isDirectory())
+            if (!file.isDirectory())
             {
-               directories.add(file);
-            }
-            else
-            {
-               UniversalProjectReader reader = new UniversalProjectReader();
-               ProjectFile result = reader.read(file);
+               ProjectFile result = createReader().read(file);
                if (result != null)
                {
                   return result;
@@ -583,12 +781,32 @@ public class UniversalProjectReader implements ProjectReader
          }
 
          // Haven't found a file we can read? Try the directories.
-         for (File file : directories)
+         return handleSubdirectories(directory);
+      }
+      return null;
+   }
+
+   /**
+    * Given a directory, determine if any of its subdirectories contain
+    * a file whose format we understand.
+    *
+    * @param directory directory to process
+    * @return ProjectFile instance if we can process anything, or null
+    */
+   private ProjectFile handleSubdirectories(File directory) throws Exception
+   {
+      File[] files = directory.listFiles();
+      if (files != null)
+      {
+         for (File file : files)
          {
-            ProjectFile result = handleDirectory(file);
-            if (result != null)
+            if (file.isDirectory())
             {
-               return result;
+               ProjectFile result = handleDirectory(file);
+               if (result != null)
+               {
+                  return result;
+               }
             }
          }
       }
@@ -603,7 +821,12 @@ public class UniversalProjectReader implements ProjectReader
     */
    private ProjectFile handleP3BtrieveDatabase(File directory) throws Exception
    {
-      return P3DatabaseReader.setPrefixAndRead(directory);
+      ProjectFile project = P3DatabaseReader.setPrefixAndRead(directory, m_fieldStorageFactory);
+      if (project != null)
+      {
+         FieldFilterHelper.applyFilter(project, m_fieldFilter);
+      }
+      return project;
    }
 
    /**
@@ -616,7 +839,7 @@ public class UniversalProjectReader implements ProjectReader
     */
    private ProjectFile handleByteOrderMark(InputStream stream, int length, Charset charset) throws Exception
    {
-      UniversalProjectReader reader = new UniversalProjectReader();
+      UniversalProjectReader reader = createReader();
       reader.setSkipBytes(length);
       reader.setCharset(charset);
       return reader.read(stream);
@@ -627,46 +850,50 @@ public class UniversalProjectReader implements ProjectReader
     * it and check the content for files we can read.
     *
     * @param stream schedule data
+    * @param sourceFile file the stream was opened from, or null
     * @return ProjectFile instance
     * @throws Exception
     */
-   private ProjectFile handleDosExeFile(InputStream stream) throws Exception
+   private ProjectFile handleDosExeFile(InputStream stream, File sourceFile) throws Exception
    {
-      File file = InputStreamHelper.writeStreamToTempFile(stream, ".tmp");
-      InputStream is = null;
+      //
+      // Check the fingerprints before we consider writing a temporary file
+      //
+      stream.mark(DOS_EXE_HEADER_SIZE);
+      byte[] header = InputStreamHelper.read(stream, DOS_EXE_HEADER_SIZE);
+      stream.reset();
 
-      try
+      if (header.length != DOS_EXE_HEADER_SIZE)
       {
-         is = new FileInputStream(file);
-         if (is.available() > 1350)
-         {
-            StreamHelper.skip(is, 1024);
-
-            // Bytes at offset 1024
-            byte[] data = new byte[2];
-            is.read(data);
+         return null;
+      }
 
-            if (matchesFingerprint(data, WINDOWS_NE_EXE_FINGERPRINT))
-            {
-               StreamHelper.skip(is, 286);
+      // Bytes at offset 1024
+      if (!matchesFingerprint(Arrays.copyOfRange(header, 1024, 1026), WINDOWS_NE_EXE_FINGERPRINT))
+      {
+         return null;
+      }
 
-               // Bytes at offset 1312
-               data = new byte[34];
-               is.read(data);
-               if (matchesFingerprint(data, PRX_FINGERPRINT))
-               {
-                  is.close();
-                  is = null;
-                  return readProjectFile(new P3PRXFileReader(), file);
-               }
-            }
-         }
+      // Bytes at offset 1312
+      if (!matchesFingerprint(Arrays.copyOfRange(header, 1312, 1346), PRX_FINGERPRINT))
+      {
          return null;
       }
 
+      if (sourceFile != null)
+      {
+         return readProjectFile(new P3PRXFileReader(), sourceFile);
+      }
+
+      File file = InputStreamHelper.writeStreamToTempFile(stream, ".tmp", m_tempDirectory);
+
+      try
+      {
+         return readProjectFile(new P3PRXFileReader(), file);
+      }
+
       finally
       {
-         StreamHelper.closeQuietly(is);
          FileHelper.deleteQuietly(file);
       }
    }
@@ -711,12 +938,32 @@ public class UniversalProjectReader implements ProjectReader
    }
 
    /**
-    * Adds any listeners attached to this reader to the reader created internally.
+    * Create a reader used to read files found within the file we are reading,
+    * configured in the same way as this reader.
+    *
+    * @return UniversalProjectReader instance
+    */
+   private UniversalProjectReader createReader()
+   {
+      UniversalProjectReader reader = new UniversalProjectReader();
+      reader.setFieldFilter(m_fieldFilter);
+      reader.setFieldStorageFactory(m_fieldStorageFactory);
+      reader.setTempDirectory(m_tempDirectory);
+      reader.setMaxInMemorySize(m_maxInMemorySize);
+      return reader;
+   }
+
+   /**
+    * Passes any listeners and field filter attached to this reader
+    * to the reader created internally.
     *
     * @param reader internal project reader
     */
-   private void addListeners(ProjectReader reader)
+   private void configureReader(ProjectReader reader)
    {
+      reader.setFieldFilter(m_fieldFilter);
+      reader.setFieldStorageFactory(m_fieldStorageFactory);
+
       if (m_projectListeners != null)
       {
          for (ProjectListener listener : m_projectListeners)
@@ -729,126 +976,20 @@ public class UniversalProjectReader implements ProjectReader
    private int m_skipBytes;
    private Charset m_charset;
    private List<ProjectListener> m_projectListeners;
+   private Set<FieldType> m_fieldFilter;
+   private FieldStorageFactory m_fieldStorageFactory;
+   private File m_tempDirectory;
+   private int m_maxInMemorySize = DEFAULT_MAX_IN_MEMORY_SIZE;
 
-   private static final int BUFFER_SIZE = 512;
+   private static final int BUFFER_SIZE = ProjectFileFormatDetector.BUFFER_SIZE;
 
-   private static final byte[] OLE_COMPOUND_DOC_FINGERPRINT =
-   {
-      (byte) 0xD0,
-      (byte) 0xCF,
-      (byte) 0x11,
-      (byte) 0xE0,
-      (byte) 0xA1,
-      (byte) 0xB1,
-      (byte) 0x1A,
-      (byte) 0xE1
-   };
+   private static final int DEFAULT_MAX_IN_MEMORY_SIZE = 32 * 1024 * 1024;
 
-   private static final byte[] PP_FINGERPRINT =
-   {
-      (byte) 0x00,
-      (byte) 0x00,
-      (byte) 0x30,
-      (byte) 0x30,
-      (byte) 0x30,
-      (byte) 0x30,
-      (byte) 0x30,
-      (byte) 0x30
-   };
-
-   private static final byte[] MPX_FINGERPRINT =
-   {
-      (byte) 'M',
-      (byte) 'P',
-      (byte) 'X'
-   };
-
-   private static final byte[] MDB_FINGERPRINT =
-   {
-      (byte) 0x00,
-      (byte) 0x01,
-      (byte) 0x00,
-      (byte) 0x00,
-      (byte) 'S',
-      (byte) 't',
-      (byte) 'a',
-      (byte) 'n',
-      (byte) 'd',
-      (byte) 'a',
-      (byte) 'r',
-      (byte) 'd',
-      (byte) ' ',
-      (byte) 'J',
-      (byte) 'e',
-      (byte) 't',
-      (byte) ' ',
-      (byte) 'D',
-      (byte) 'B',
-   };
+   private static final int DOS_EXE_HEADER_SIZE = 1351;
 
-   private static final byte[] SQLITE_FINGERPRINT =
-   {
-      (byte) 'S',
-      (byte) 'Q',
-      (byte) 'L',
-      (byte) 'i',
-      (byte) 't',
-      (byte) 'e',
-      (byte) ' ',
-      (byte) 'f',
-      (byte) 'o',
-      (byte) 'r',
-      (byte) 'm',
-      (byte) 'a',
-      (byte) 't'
-   };
-
-   private static final byte[] XER_FINGERPRINT =
-   {
-      (byte) 'E',
-      (byte) 'R',
-      (byte) 'M',
-      (byte) 'H',
-      (byte) 'D',
-      (byte) 'R'
-   };
-
-   private static final byte[] ZIP_FINGERPRINT =
-   {
-      (byte) 'P',
-      (byte) 'K'
-   };
-
-   private static final byte[] PHOENIX_FINGERPRINT =
-   {
-      (byte) 'P',
-      (byte) 'P',
-      (byte) 'X',
-      (byte) '!',
-      (byte) '!',
-      (byte) '!',
-      (byte) '!'
-   };
-
-   private static final byte[] FASTTRACK_FINGERPRINT =
-   {
-      (byte) 0x1C,
-      (byte) 0x00,
-      (byte) 0x00,
-      (byte) 0x00,
-      (byte) 0x8B,
-      (byte) 0x00,
-      (byte) 0x00,
-      (byte) 0x00
-   };
-
-   private static final byte[] PROJECTLIBRE_FINGERPRINT =
-   {
-      (byte) 0xAC,
-      (byte) 0xED,
-      (byte) 0x00,
-      (byte) 0x05
-   };
+   private static final int ROOT_DATABASE_PASS = 0;
+   private static final int ROOT_FILE_PASS = 1;
+   private static final int DIRECTORY_PASS = 2;
 
    private static final byte[] BTRIEVE_FINGERPRINT =
    {
@@ -858,48 +999,11 @@ public class UniversalProjectReader implements ProjectReader
       (byte) 0x00
    };
 
-   private static final byte[] DOS_EXE_FINGERPRINT =
-   {
-      (byte) 0x4D,
-      (byte) 0x5A
-   };
-
    private static final byte[] WINDOWS_NE_EXE_FINGERPRINT =
    {
       (byte) 0x4E,
       (byte) 0x45
    };
 
-   private static final byte[] UTF8_BOM_FINGERPRINT =
-   {
-      (byte) 0xEF,
-      (byte) 0xBB,
-      (byte) 0xBF
-   };
-
-   private static final byte[] UTF16_BOM_FINGERPRINT =
-   {
-      (byte) 0xFE,
-      (byte) 0xFF
-   };
-
-   private static final byte[] UTF16LE_BOM_FINGERPRINT =
-   {
-      (byte) 0xFF,
-      (byte) 0xFE
-   };
-
-   private static final Pattern PLANNER_FINGERPRINT = Pattern.compile(".*<project.*mrproject-version.*", Pattern.DOTALL);
-
-   private static final Pattern PMXML_FINGERPRINT = Pattern.compile(".*<APIBusinessObjects.*", Pattern.DOTALL);
-
-   private static final Pattern MSPDI_FINGERPRINT = Pattern.compile(".*xmlns=\"http://schemas\\.microsoft\\.com/project.*", Pattern.DOTALL);
-
-   private static final Pattern PHOENIX_XML_FINGERPRINT = Pattern.compile(".*<project.*version=\"(\\d+|\\d+\\.\\d+)\".*update_mode=\"(true|false)\".*>.*", Pattern.DOTALL);
-
-   private static final Pattern GANTTPROJECT_FINGERPRINT = Pattern.compile(".*<project.*webLink.*", Pattern.DOTALL);
-
-   private static final Pattern TURBOPROJECT_FINGERPRINT = Pattern.compile(".*dWBSTAB.*", Pattern.DOTALL);
-
    private static final Pattern PRX_FINGERPRINT = Pattern.compile("!Self-Extracting Primavera Project", Pattern.DOTALL);
 }
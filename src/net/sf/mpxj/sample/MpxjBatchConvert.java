@@ -25,10 +25,21 @@ package net.sf.mpxj.sample;
 
 import java.io.File;
 import java.io.FileFilter;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.reader.ProjectBatchHandler;
+import net.sf.mpxj.reader.ProjectBatchProcessor;
+import net.sf.mpxj.reader.ProjectBatchResult;
+import net.sf.mpxj.writer.ProjectWriter;
+import net.sf.mpxj.writer.ProjectWriterUtility;
 
 /**
  * This is a general utility designed to multiple files in one directory
- * into a different file format.
+ * into a different file format. Files can optionally be converted
+ * concurrently using the requested number of threads.
  */
 public final class MpxjBatchConvert
 {
@@ -41,35 +52,70 @@ public final class MpxjBatchConvert
    {
       try
       {
-         if (args.length != 4)
+         if (args.length != 4 && args.length != 5)
          {
-            System.out.println("Usage: MpxjBatchConvert <source directory> <source suffix> <target directory> <target suffix>");
+            System.out.println("Usage: MpxjBatchConvert <source directory> <source suffix> <target directory> <target suffix> [threads]");
          }
          else
          {
             File sourceDirectory = new File(args[0]);
             final String sourceSuffix = args[1];
-            String targetDirectory = args[2];
-            String targetSuffix = args[3];
+            final String targetDirectory = args[2];
+            final String targetSuffix = args[3];
+            int threads = args.length == 5 ? Integer.parseInt(args[4]) : 1;
 
-            File[] fileList = sourceDirectory.listFiles(new FileFilter()
+            FileFilter filter = new FileFilter()
             {
                @Override public boolean accept(File pathname)
                {
                   return pathname.getName().endsWith(sourceSuffix);
                }
-            });
+            };
 
-            if (fileList != null)
+            ProjectBatchHandler handler = new ProjectBatchHandler()
             {
-               MpxjConvert convert = new MpxjConvert();
-               for (File file : fileList)
+               @Override public void process(File file, ProjectFile project) throws Exception
                {
                   String oldName = file.getName();
                   String newName = oldName.substring(0, oldName.length() - sourceSuffix.length()) + targetSuffix;
                   File newFile = new File(targetDirectory, newName);
-                  convert.process(file.getCanonicalPath(), newFile.getCanonicalPath());
+                  ProjectWriter writer = ProjectWriterUtility.getProjectWriter(newFile.getName());
+                  writer.write(project, newFile);
+               }
+            };
+
+            ExecutorService executor = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+            List<ProjectBatchResult> results;
+            try
+            {
+               results = new ProjectBatchProcessor().process(sourceDirectory, filter, handler, executor);
+            }
+
+            finally
+            {
+               if (executor != null)
+               {
+                  executor.shutdown();
+               }
+            }
+
+            boolean success = true;
+            for (ProjectBatchResult result : results)
+            {
+               if (result.getSuccess())
+               {
+                  System.out.println(result.getFile().getName() + ": read " + result.getReadTime() + "ms, write " + result.getProcessTime() + "ms");
                }
+               else
+               {
+                  success = false;
+                  System.out.println(result.getFile().getName() + ": failed " + result.getException());
+               }
+            }
+
+            if (!success)
+            {
+               System.exit(1);
             }
          }
 
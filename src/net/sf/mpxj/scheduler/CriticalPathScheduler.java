@@ -0,0 +1,1727 @@
+/*
+ * file:       CriticalPathScheduler.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       17/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.scheduler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import net.sf.mpxj.ConstraintType;
+import net.sf.mpxj.Duration;
+import net.sf.mpxj.FieldContainer;
+import net.sf.mpxj.FieldType;
+import net.sf.mpxj.MPXJException;
+import net.sf.mpxj.ProjectCalendar;
+import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.ProjectProperties;
+import net.sf.mpxj.Relation;
+import net.sf.mpxj.RelationType;
+import net.sf.mpxj.Task;
+import net.sf.mpxj.TaskField;
+import net.sf.mpxj.TimeUnit;
+import net.sf.mpxj.common.DateHelper;
+import net.sf.mpxj.listener.FieldListener;
+
+/**
+ * Calculates early and late dates, slack and criticality for the tasks
+ * in a project using the critical path method. A forward pass from the
+ * project start date determines the early start and finish of each task,
+ * then a backward pass from the resulting project finish date determines
+ * the late start and finish. The results are written to the early and late
+ * date, slack and critical fields of each task. Start and finish dates
+ * are not changed.
+ *
+ * All four relation types are supported, along with working, elapsed and
+ * percentage lags, task calendars, constraints, and actual start and
+ * finish dates. Resource availability is not taken into account.
+ * Relations to or from a summary task are applied to each of the summary
+ * task's leaf tasks, and the dates of summary tasks are rolled up from
+ * their children.
+ *
+ * If an ExecutorService is supplied, the tasks are grouped into levels
+ * such that each task follows all of its predecessors, and the tasks in
+ * each level are processed concurrently.
+ *
+ * A scheduler can also be attached to a project, in which case it retains
+ * the task graph and listens for changes to task durations, calendars,
+ * constraints and actual dates. Calling the update method then recalculates
+ * only the tasks affected by those changes: changes are propagated forward
+ * through successors and backward through predecessors until the dates of
+ * a task are unchanged. Relations are immutable, so changes to relations
+ * are reported by calling the relationsChanged method. Adding or removing
+ * tasks, or changing the outline structure, requires the scheduler to be
+ * attached again.
+ */
+public final class CriticalPathScheduler
+{
+   /**
+    * Schedule a project, processing tasks sequentially.
+    *
+    * @param file project to schedule
+    * @throws MPXJException
+    */
+   public void schedule(ProjectFile file) throws MPXJException
+   {
+      schedule(file, null);
+   }
+
+   /**
+    * Schedule a project. If an ExecutorService is supplied, tasks which
+    * do not depend on each other are processed concurrently. The caller
+    * remains responsible for shutting down the executor.
+    *
+    * @param file project to schedule
+    * @param executor executor used to process tasks concurrently, or null to process tasks sequentially
+    * @throws MPXJException
+    */
+   public void schedule(ProjectFile file, ExecutorService executor) throws MPXJException
+   {
+      detach();
+      m_file = file;
+      m_executor = executor;
+
+      try
+      {
+         scheduleAll();
+      }
+
+      finally
+      {
+         clearState();
+      }
+   }
+
+   /**
+    * Schedule a project, then retain the task graph and listen for
+    * changes to the project's tasks so that it can be updated incrementally.
+    *
+    * @param file project to schedule
+    * @throws MPXJException
+    */
+   public void attach(ProjectFile file) throws MPXJException
+   {
+      attach(file, null);
+   }
+
+   /**
+    * Schedule a project, then retain the task graph and listen for
+    * changes to the project's tasks so that it can be updated incrementally.
+    * If an ExecutorService is supplied it is used whenever a large number
+    * of tasks need to be processed, so it must remain available until
+    * the scheduler is detached.
+    *
+    * @param file project to schedule
+    * @param executor executor used to process tasks concurrently, or null to process tasks sequentially
+    * @throws MPXJException
+    */
+   public void attach(ProjectFile file, ExecutorService executor) throws MPXJException
+   {
+      detach();
+      m_file = file;
+      m_executor = executor;
+
+      boolean attached = false;
+      try
+      {
+         scheduleAll();
+         m_changedTasks = new HashSet<Integer>();
+         m_changedRelations = new HashSet<Integer>();
+         for (Task task : m_tasks)
+         {
+            task.addFieldListener(m_listener);
+         }
+         attached = true;
+      }
+
+      finally
+      {
+         if (!attached)
+         {
+            clearState();
+         }
+      }
+   }
+
+   /**
+    * Stop listening for changes and discard the retained task graph.
+    * This method has no effect if the scheduler is not attached.
+    */
+   public void detach()
+   {
+      if (m_changedTasks != null)
+      {
+         for (Task task : m_tasks)
+         {
+            task.removeFieldListener(m_listener);
+         }
+      }
+      clearState();
+   }
+
+   /**
+    * Notify the scheduler that the predecessors of a task have changed,
+    * either because a relation has been added or removed, or because a
+    * relation has been replaced with one having a different type or lag.
+    *
+    * @param task successor task
+    */
+   public void relationsChanged(Task task)
+   {
+      if (m_changedRelations == null)
+      {
+         throw new IllegalStateException("Scheduler is not attached to a project");
+      }
+
+      Integer index = m_index.get(task);
+      if (index != null)
+      {
+         m_changedRelations.add(index);
+      }
+   }
+
+   /**
+    * Recalculate the tasks affected by the changes made since the project
+    * was attached or last updated. If the changes move the project finish
+    * date, the late dates of every task are recalculated. If an exception
+    * is thrown, for example because a relation has introduced a cycle,
+    * the scheduler is detached.
+    *
+    * @throws MPXJException
+    */
+   public void update() throws MPXJException
+   {
+      if (m_changedTasks == null)
+      {
+         throw new IllegalStateException("Scheduler is not attached to a project");
+      }
+
+      if (m_changedTasks.isEmpty() && m_changedRelations.isEmpty())
+      {
+         return;
+      }
+
+      boolean updated = false;
+      try
+      {
+         updateChangedTasks();
+         m_changedTasks.clear();
+         m_changedRelations.clear();
+         updated = true;
+      }
+
+      finally
+      {
+         if (!updated)
+         {
+            detach();
+         }
+      }
+   }
+
+   /**
+    * Calculate the dates for all tasks.
+    *
+    * @throws MPXJException
+    */
+   private void scheduleAll() throws MPXJException
+   {
+      buildGraph();
+      buildLevels();
+
+      for (int[] level : m_levels)
+      {
+         process(level, Pass.FORWARD);
+      }
+
+      calculateProjectFinish();
+      updateAllLateDates();
+   }
+
+   /**
+    * Calculate the late dates for all tasks, then write the results
+    * to every task.
+    *
+    * @throws MPXJException
+    */
+   private void updateAllLateDates() throws MPXJException
+   {
+      for (int level = m_levels.length - 1; level >= 0; level--)
+      {
+         process(m_levels[level], Pass.BACKWARD);
+      }
+
+      for (int index = m_leafCount; index < m_tasks.length; index++)
+      {
+         rollupSummaryDates(index);
+      }
+
+      int[] all = new int[m_tasks.length];
+      for (int index = 0; index < all.length; index++)
+      {
+         all[index] = index;
+      }
+      process(all, Pass.UPDATE);
+   }
+
+   /**
+    * Recalculate the tasks affected by the recorded changes. Changed tasks
+    * are placed in a queue ordered by level, so each task is recalculated
+    * once all of its affected predecessors have been recalculated.
+    * A successor is only queued if the early dates of a task have changed,
+    * and a predecessor is only queued if the late dates of a task
+    * have changed.
+    *
+    * @throws MPXJException
+    */
+   private void updateChangedTasks() throws MPXJException
+   {
+      TaskQueue forward = new TaskQueue(true);
+      TaskQueue backward = new TaskQueue(false);
+      Set<Integer> updates = new HashSet<Integer>();
+      Set<Integer> relinkTasks = new HashSet<Integer>(m_changedRelations);
+      Map<ProjectCalendar, Date> calendarStart = new HashMap<ProjectCalendar, Date>();
+      long projectFinish = m_projectFinish;
+
+      for (Integer index : m_changedTasks)
+      {
+         readTask(index.intValue(), calendarStart);
+         updates.add(index);
+
+         if (index.intValue() < m_leafCount)
+         {
+            forward.add(index.intValue());
+            backward.add(index.intValue());
+         }
+
+         //
+         // Percentage lags on the successors of this task depend on its duration
+         //
+         for (Relation relation : m_tasks[index.intValue()].getSuccessors())
+         {
+            TimeUnit lagUnits = relation.getLag().getUnits();
+            Integer successor = m_index.get(relation.getTargetTask());
+            if (successor != null && (lagUnits == TimeUnit.PERCENT || lagUnits == TimeUnit.ELAPSED_PERCENT))
+            {
+               relinkTasks.add(successor);
+            }
+         }
+      }
+
+      for (Integer index : relinkTasks)
+      {
+         relink(index.intValue(), forward, backward, updates);
+      }
+
+      while (!forward.isEmpty())
+      {
+         int index = forward.remove();
+         long earlyStart = m_earlyStart[index];
+         long earlyFinish = m_earlyFinish[index];
+         long slackStart = m_slackStart[index];
+
+         calculateEarlyDates(index);
+
+         if (earlyStart != m_earlyStart[index] || earlyFinish != m_earlyFinish[index] || slackStart != m_slackStart[index])
+         {
+            updates.add(Integer.valueOf(index));
+            backward.add(index);
+
+            if (index < m_leafCount && earlyFinish != m_earlyFinish[index])
+            {
+               updateProjectFinish(earlyFinish, m_earlyFinish[index]);
+            }
+
+            for (Link link : m_successors[index])
+            {
+               forward.add(link.m_successor);
+            }
+
+            //
+            // The free slack of a predecessor depends on the early dates of this task
+            //
+            for (Link link : m_predecessors[index])
+            {
+               updates.add(Integer.valueOf(link.m_predecessor));
+            }
+         }
+      }
+
+      if (m_projectFinishCount == 0)
+      {
+         calculateProjectFinish();
+      }
+
+      if (projectFinish != m_projectFinish)
+      {
+         createLevels();
+         updateAllLateDates();
+         return;
+      }
+
+      while (!backward.isEmpty())
+      {
+         int index = backward.remove();
+         long lateStart = m_lateStart[index];
+         long lateFinish = m_lateFinish[index];
+
+         calculateLateDates(index);
+
+         if (lateStart != m_lateStart[index] || lateFinish != m_lateFinish[index])
+         {
+            updates.add(Integer.valueOf(index));
+
+            for (Link link : m_predecessors[index])
+            {
+               backward.add(link.m_predecessor);
+            }
+         }
+      }
+
+      //
+      // Roll up the dates of the summary tasks above the changed tasks
+      //
+      Set<Integer> summaryTasks = new HashSet<Integer>();
+      for (Integer index : updates)
+      {
+         Task parent = m_tasks[index.intValue()].getParentTask();
+         while (parent != null)
+         {
+            Integer parentIndex = m_index.get(parent);
+            if (parentIndex == null || !summaryTasks.add(parentIndex))
+            {
+               break;
+            }
+            parent = parent.getParentTask();
+         }
+      }
+
+      for (Integer index : summaryTasks)
+      {
+         rollupSummaryDates(index.intValue());
+      }
+      updates.addAll(summaryTasks);
+
+      int[] tasks = new int[updates.size()];
+      int taskIndex = 0;
+      for (Integer index : updates)
+      {
+         tasks[taskIndex++] = index.intValue();
+      }
+      process(tasks, Pass.UPDATE);
+   }
+
+   /**
+    * Replace the links created from the predecessors of a task.
+    *
+    * @param index task index
+    * @param forward tasks requiring early dates to be recalculated
+    * @param backward tasks requiring late dates to be recalculated
+    * @param updates tasks to be updated
+    * @throws MPXJException
+    */
+   private void relink(int index, TaskQueue forward, TaskQueue backward, Set<Integer> updates) throws MPXJException
+   {
+      Integer owner = Integer.valueOf(index);
+      for (int leaf : getLeafTasks(index))
+      {
+         for (Link link : m_predecessors[leaf])
+         {
+            if (link.m_owner == index)
+            {
+               m_successors[link.m_predecessor] = removeLinks(m_successors[link.m_predecessor], index);
+               backward.add(link.m_predecessor);
+               updates.add(Integer.valueOf(link.m_predecessor));
+            }
+         }
+         m_predecessors[leaf] = removeLinks(m_predecessors[leaf], index);
+         forward.add(leaf);
+         backward.add(leaf);
+         updates.add(Integer.valueOf(leaf));
+      }
+      updates.add(owner);
+
+      for (Link link : createLinks(index))
+      {
+         m_predecessors[link.m_successor] = addLink(m_predecessors[link.m_successor], link);
+         m_successors[link.m_predecessor] = addLink(m_successors[link.m_predecessor], link);
+         backward.add(link.m_predecessor);
+         updates.add(Integer.valueOf(link.m_predecessor));
+         updateLevels(link);
+      }
+   }
+
+   /**
+    * Ensure that the successor of a new link is at a higher level than
+    * its predecessor, moving tasks which follow the successor to higher
+    * levels where necessary. If the predecessor is reached while doing
+    * this, the new link has introduced a cycle.
+    *
+    * @param link new link
+    * @throws MPXJException
+    */
+   private void updateLevels(Link link) throws MPXJException
+   {
+      if (m_taskLevel[link.m_successor] > m_taskLevel[link.m_predecessor])
+      {
+         return;
+      }
+
+      m_taskLevel[link.m_successor] = m_taskLevel[link.m_predecessor] + 1;
+      Deque<Integer> stack = new ArrayDeque<Integer>();
+      stack.push(Integer.valueOf(link.m_successor));
+
+      while (!stack.isEmpty())
+      {
+         int index = stack.pop().intValue();
+         int level = m_taskLevel[index];
+         if (index == link.m_predecessor || level > m_leafCount)
+         {
+            throw new MPXJException(MPXJException.CYCLIC_DEPENDENCY);
+         }
+
+         for (Link successorLink : m_successors[index])
+         {
+            int successor = successorLink.m_successor;
+            if (m_taskLevel[successor] <= level)
+            {
+               m_taskLevel[successor] = level + 1;
+               stack.push(Integer.valueOf(successor));
+            }
+         }
+      }
+   }
+
+   /**
+    * Calculate the project finish date from the early finish
+    * of the leaf tasks, and count the leaf tasks which finish on that date.
+    */
+   private void calculateProjectFinish()
+   {
+      long result = m_projectStart;
+      int count = 0;
+      for (int index = 0; index < m_leafCount; index++)
+      {
+         long earlyFinish = m_earlyFinish[index];
+         if (earlyFinish > result)
+         {
+            result = earlyFinish;
+            count = 1;
+         }
+         else
+         {
+            if (earlyFinish == result)
+            {
+               ++count;
+            }
+         }
+      }
+      m_projectFinish = result;
+      m_projectFinishCount = count;
+   }
+
+   /**
+    * Update the project finish date when the early finish of a leaf task
+    * changes. As we know how many leaf tasks finish on the project finish
+    * date, the leaf tasks only need to be scanned again once none of
+    * them finish on that date.
+    *
+    * @param oldFinish previous early finish
+    * @param newFinish new early finish
+    */
+   private void updateProjectFinish(long oldFinish, long newFinish)
+   {
+      if (newFinish > m_projectFinish)
+      {
+         m_projectFinish = newFinish;
+         m_projectFinishCount = 1;
+      }
+      else
+      {
+         if (newFinish == m_projectFinish)
+         {
+            ++m_projectFinishCount;
+         }
+
+         if (oldFinish == m_projectFinish)
+         {
+            --m_projectFinishCount;
+         }
+      }
+   }
+
+   /**
+    * Record a change to a task.
+    *
+    * @param task changed task
+    */
+   private void taskChanged(Task task)
+   {
+      Integer index = m_index.get(task);
+      if (index != null)
+      {
+         m_changedTasks.add(index);
+      }
+   }
+
+   /**
+    * Discard the state retained between passes.
+    */
+   private void clearState()
+   {
+      m_file = null;
+      m_executor = null;
+      m_tasks = null;
+      m_index = null;
+      m_calendars = null;
+      m_durations = null;
+      m_actualStart = null;
+      m_actualFinish = null;
+      m_constraintType = null;
+      m_constraintDate = null;
+      m_startLimits = null;
+      m_predecessors = null;
+      m_successors = null;
+      m_leafTasks = null;
+      m_levels = null;
+      m_earlyStart = null;
+      m_earlyFinish = null;
+      m_slackStart = null;
+      m_lateStart = null;
+      m_lateFinish = null;
+      m_taskLevel = null;
+      m_changedTasks = null;
+      m_changedRelations = null;
+   }
+
+   /**
+    * Collect the tasks to be scheduled and the links between them.
+    * Leaf tasks are placed first, followed by summary tasks.
+    *
+    * @throws MPXJException
+    */
+   private void buildGraph() throws MPXJException
+   {
+      List<Task> tasks = new ArrayList<Task>();
+      List<Task> summaryTasks = new ArrayList<Task>();
+      for (Task task : m_file.getTasks())
+      {
+         if (task.getNull())
+         {
+            continue;
+         }
+
+         if (task.getChildTasks().isEmpty())
+         {
+            tasks.add(task);
+         }
+         else
+         {
+            summaryTasks.add(task);
+         }
+      }
+
+      m_leafCount = tasks.size();
+      tasks.addAll(summaryTasks);
+
+      int count = tasks.size();
+      m_tasks = tasks.toArray(new Task[count]);
+      m_index = new HashMap<Task, Integer>(count * 2);
+      m_calendars = new ProjectCalendar[count];
+      m_durations = new Duration[count];
+      m_actualStart = new Date[count];
+      m_actualFinish = new Date[count];
+      m_constraintType = new ConstraintType[count];
+      m_constraintDate = new Date[count];
+      m_startLimits = new long[count];
+      m_leafTasks = new int[count][];
+      m_earlyStart = new long[count];
+      m_earlyFinish = new long[count];
+      m_slackStart = new long[count];
+      m_lateStart = new long[count];
+      m_lateFinish = new long[count];
+
+      Date projectStart = m_file.getProjectProperties().getStartDate();
+      if (projectStart == null)
+      {
+         projectStart = DateHelper.getDayStartDate(new Date());
+      }
+      m_projectStart = projectStart.getTime();
+
+      //
+      // Calculating the first working time for each calendar also ensures
+      // that lazily sorted calendar data is populated before the
+      // calendars are shared between threads.
+      //
+      for (int index = 0; index < count; index++)
+      {
+         m_index.put(m_tasks[index], Integer.valueOf(index));
+      }
+
+      Map<ProjectCalendar, Date> calendarStart = new HashMap<ProjectCalendar, Date>();
+      for (int index = 0; index < count; index++)
+      {
+         readTask(index, calendarStart);
+      }
+
+      ProjectProperties properties = m_file.getProjectProperties();
+      m_minutesPerDay = properties.getMinutesPerDay().doubleValue();
+      m_minutesPerWeek = properties.getMinutesPerWeek().doubleValue();
+      m_daysPerMonth = properties.getDaysPerMonth().doubleValue();
+
+      List<List<Link>> predecessors = createLinkLists();
+      List<List<Link>> successors = createLinkLists();
+      for (int index = 0; index < count; index++)
+      {
+         for (Link link : createLinks(index))
+         {
+            predecessors.get(link.m_successor).add(link);
+            successors.get(link.m_predecessor).add(link);
+         }
+      }
+
+      m_predecessors = toArray(predecessors);
+      m_successors = toArray(successors);
+   }
+
+   /**
+    * Read the attributes of a task used to calculate its dates.
+    *
+    * @param index task index
+    * @param calendarStart cache of the first working time in each calendar
+    * @throws MPXJException
+    */
+   private void readTask(int index, Map<ProjectCalendar, Date> calendarStart) throws MPXJException
+   {
+      Task task = m_tasks[index];
+      ProjectCalendar calendar = task.getEffectiveCalendar();
+      if (calendar == null)
+      {
+         throw new MPXJException(MPXJException.CALENDAR_ERROR);
+      }
+      m_calendars[index] = calendar;
+
+      Date start = calendarStart.get(calendar);
+      if (start == null)
+      {
+         start = calendar.getNextWorkStart(new Date(m_projectStart));
+         calendarStart.put(calendar, start);
+      }
+      m_startLimits[index] = start.getTime();
+
+      Duration duration = task.getDuration();
+      m_durations[index] = duration == null ? Duration.getInstance(0, TimeUnit.DAYS) : duration;
+      m_actualStart[index] = task.getActualStart();
+      m_actualFinish[index] = task.getActualFinish();
+      m_constraintDate[index] = task.getConstraintDate();
+      m_constraintType[index] = m_constraintDate[index] == null ? null : task.getConstraintType();
+   }
+
+   /**
+    * Create the links between leaf tasks represented by the predecessors
+    * of a task.
+    *
+    * @param index task index
+    * @return links
+    */
+   private List<Link> createLinks(int index)
+   {
+      List<Link> result = new ArrayList<Link>();
+      for (Relation relation : m_tasks[index].getPredecessors())
+      {
+         Integer predecessorIndex = m_index.get(relation.getTargetTask());
+         if (predecessorIndex == null)
+         {
+            continue;
+         }
+
+         Duration lag = relation.getLag();
+         double lagDuration = lag.getDuration();
+         TimeUnit lagUnits = lag.getUnits();
+         if (lagUnits == TimeUnit.PERCENT || lagUnits == TimeUnit.ELAPSED_PERCENT)
+         {
+            Duration predecessorDuration = m_durations[predecessorIndex.intValue()];
+            lagDuration = (predecessorDuration.getDuration() * lagDuration) / 100.0;
+            lagUnits = predecessorDuration.getUnits();
+         }
+         double lagMinutes = lagDuration == 0 ? 0 : Duration.convertUnits(lagDuration, lagUnits, TimeUnit.MINUTES, m_minutesPerDay, m_minutesPerWeek, m_daysPerMonth).getDuration();
+         boolean elapsed = isElapsed(lagUnits);
+
+         for (int predecessor : getLeafTasks(predecessorIndex.intValue()))
+         {
+            for (int successor : getLeafTasks(index))
+            {
+               if (predecessor != successor)
+               {
+                  result.add(new Link(index, predecessor, successor, relation.getType(), lagMinutes, elapsed));
+               }
+            }
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Group the leaf tasks into levels. Each task is placed in the level
+    * following that of its latest predecessor, so the tasks in a level
+    * can be processed in any order once the previous levels are complete.
+    *
+    * @throws MPXJException
+    */
+   private void buildLevels() throws MPXJException
+   {
+      int[] predecessorCount = new int[m_leafCount];
+      int[] taskLevel = new int[m_leafCount];
+      m_taskLevel = taskLevel;
+      int[] queue = new int[m_leafCount];
+      int head = 0;
+      int tail = 0;
+
+      for (int index = 0; index < m_leafCount; index++)
+      {
+         predecessorCount[index] = m_predecessors[index].length;
+         if (predecessorCount[index] == 0)
+         {
+            queue[tail++] = index;
+         }
+      }
+
+      while (head < tail)
+      {
+         int index = queue[head++];
+         int level = taskLevel[index];
+
+         for (Link link : m_successors[index])
+         {
+            int successor = link.m_successor;
+            taskLevel[successor] = Math.max(taskLevel[successor], level + 1);
+            if (--predecessorCount[successor] == 0)
+            {
+               queue[tail++] = successor;
+            }
+         }
+      }
+
+      if (tail != m_leafCount)
+      {
+         throw new MPXJException(MPXJException.CYCLIC_DEPENDENCY);
+      }
+
+      createLevels();
+   }
+
+   /**
+    * Group the leaf tasks by level.
+    */
+   private void createLevels()
+   {
+      int levelCount = 0;
+      for (int index = 0; index < m_leafCount; index++)
+      {
+         levelCount = Math.max(levelCount, m_taskLevel[index] + 1);
+      }
+
+      int[] levelSize = new int[levelCount];
+      for (int index = 0; index < m_leafCount; index++)
+      {
+         ++levelSize[m_taskLevel[index]];
+      }
+
+      m_levels = new int[levelCount][];
+      for (int level = 0; level < levelCount; level++)
+      {
+         m_levels[level] = new int[levelSize[level]];
+         levelSize[level] = 0;
+      }
+
+      for (int index = 0; index < m_leafCount; index++)
+      {
+         int level = m_taskLevel[index];
+         m_levels[level][levelSize[level]++] = index;
+      }
+   }
+
+   /**
+    * Apply a pass to a group of independent tasks. If we have an executor,
+    * and there are enough tasks to make it worthwhile, the tasks are
+    * split into batches which are processed concurrently.
+    *
+    * @param tasks indexes of the tasks to process
+    * @param pass pass to apply
+    * @throws MPXJException
+    */
+   private void process(final int[] tasks, final Pass pass) throws MPXJException
+   {
+      if (m_executor == null || tasks.length < MINIMUM_CONCURRENT_TASKS)
+      {
+         process(tasks, 0, tasks.length, pass);
+         return;
+      }
+
+      int batchSize = Math.max(MINIMUM_BATCH_SIZE, tasks.length / (Runtime.getRuntime().availableProcessors() * BATCHES_PER_PROCESSOR));
+      List<Callable<Void>> batches = new ArrayList<Callable<Void>>();
+      for (int start = 0; start < tasks.length; start += batchSize)
+      {
+         final int from = start;
+         final int to = Math.min(tasks.length, start + batchSize);
+         batches.add(new Callable<Void>()
+         {
+            @Override public Void call()
+            {
+               process(tasks, from, to, pass);
+               return null;
+            }
+         });
+      }
+
+      try
+      {
+         for (Future<Void> future : m_executor.invokeAll(batches))
+         {
+            future.get();
+         }
+      }
+
+      catch (InterruptedException ex)
+      {
+         Thread.currentThread().interrupt();
+         throw new MPXJException(MPXJException.SCHEDULE_ERROR, ex);
+      }
+
+      catch (ExecutionException ex)
+      {
+         Throwable cause = ex.getCause();
+         if (cause instanceof RuntimeException)
+         {
+            throw (RuntimeException) cause;
+         }
+         throw new MPXJException(MPXJException.SCHEDULE_ERROR, ex);
+      }
+   }
+
+   /**
+    * Apply a pass to a range of tasks.
+    *
+    * @param tasks indexes of the tasks to process
+    * @param from index of the first entry to process
+    * @param to index after the last entry to process
+    * @param pass pass to apply
+    */
+   private void process(int[] tasks, int from, int to, Pass pass)
+   {
+      for (int index = from; index < to; index++)
+      {
+         switch (pass)
+         {
+            case FORWARD:
+            {
+               calculateEarlyDates(tasks[index]);
+               break;
+            }
+
+            case BACKWARD:
+            {
+               calculateLateDates(tasks[index]);
+               break;
+            }
+
+            default:
+            {
+               updateTask(tasks[index]);
+               break;
+            }
+         }
+      }
+   }
+
+   /**
+    * Calculate the early start and early finish of a leaf task.
+    *
+    * @param index task index
+    */
+   private void calculateEarlyDates(int index)
+   {
+      ProjectCalendar calendar = m_calendars[index];
+      Duration duration = m_durations[index];
+
+      Date actualStart = m_actualStart[index];
+      if (actualStart != null)
+      {
+         Date actualFinish = m_actualFinish[index];
+         m_earlyStart[index] = actualStart.getTime();
+         m_earlyFinish[index] = actualFinish == null ? getFinish(calendar, actualStart.getTime(), duration) : actualFinish.getTime();
+         m_slackStart[index] = m_earlyStart[index];
+         return;
+      }
+
+      //
+      // A milestone immediately follows its predecessors, rather than
+      // moving to the start of the next working period.
+      //
+      boolean milestone = duration.getDuration() == 0;
+      long start = m_startLimits[index];
+      for (Link link : m_predecessors[index])
+      {
+         int predecessor = link.m_predecessor;
+         long date;
+
+         switch (link.m_type)
+         {
+            case START_START:
+            {
+               date = milestone ? addLagToFinish(calendar, m_earlyStart[predecessor], link) : addLagToStart(calendar, m_earlyStart[predecessor], link);
+               break;
+            }
+
+            case FINISH_FINISH:
+            {
+               date = getStart(calendar, addLagToFinish(calendar, m_earlyFinish[predecessor], link), duration);
+               break;
+            }
+
+            case START_FINISH:
+            {
+               date = getStart(calendar, addLagToFinish(calendar, m_earlyStart[predecessor], link), duration);
+               break;
+            }
+
+            default:
+            {
+               date = milestone ? addLagToFinish(calendar, m_earlyFinish[predecessor], link) : addLagToStart(calendar, m_earlyFinish[predecessor], link);
+               break;
+            }
+         }
+
+         start = Math.max(start, date);
+      }
+
+      //
+      // If a hard constraint schedules the task before its predecessors
+      // allow, the task's slack is calculated from the later start to
+      // show the conflict as negative slack.
+      //
+      m_slackStart[index] = start;
+
+      Date constraintDate = m_constraintDate[index];
+      ConstraintType constraintType = m_constraintType[index];
+      if (constraintType != null)
+      {
+         switch (constraintType)
+         {
+            case START_NO_EARLIER_THAN:
+            {
+               start = Math.max(start, calendar.getNextWorkStart(constraintDate).getTime());
+               break;
+            }
+
+            case FINISH_NO_EARLIER_THAN:
+            {
+               start = Math.max(start, getStart(calendar, constraintDate.getTime(), duration));
+               break;
+            }
+
+            case MUST_START_ON:
+            {
+               start = constraintDate.getTime();
+               break;
+            }
+
+            case MUST_FINISH_ON:
+            {
+               start = getStart(calendar, constraintDate.getTime(), duration);
+               break;
+            }
+
+            default:
+            {
+               break;
+            }
+         }
+      }
+
+      m_earlyStart[index] = start;
+      m_earlyFinish[index] = getFinish(calendar, start, duration);
+      m_slackStart[index] = Math.max(m_slackStart[index], start);
+   }
+
+   /**
+    * Calculate the late start and late finish of a leaf task.
+    *
+    * @param index task index
+    */
+   private void calculateLateDates(int index)
+   {
+      ProjectCalendar calendar = m_calendars[index];
+      Duration duration = m_durations[index];
+
+      if (m_actualFinish[index] != null)
+      {
+         m_lateStart[index] = m_earlyStart[index];
+         m_lateFinish[index] = m_earlyFinish[index];
+         return;
+      }
+
+      long finish = getLatestFinish(index, m_lateStart, m_lateFinish);
+
+      Date constraintDate = m_constraintDate[index];
+      ConstraintType constraintType = m_constraintType[index];
+      if (constraintType != null)
+      {
+         switch (constraintType)
+         {
+            case START_NO_LATER_THAN:
+            {
+               finish = Math.min(finish, getFinish(calendar, constraintDate.getTime(), duration));
+               break;
+            }
+
+            case FINISH_NO_LATER_THAN:
+            {
+               finish = Math.min(finish, constraintDate.getTime());
+               break;
+            }
+
+            case MUST_START_ON:
+            {
+               finish = getFinish(calendar, constraintDate.getTime(), duration);
+               break;
+            }
+
+            case MUST_FINISH_ON:
+            {
+               finish = constraintDate.getTime();
+               break;
+            }
+
+            default:
+            {
+               break;
+            }
+         }
+      }
+
+      m_lateFinish[index] = finish;
+      m_lateStart[index] = m_actualStart[index] == null ? getStart(calendar, finish, duration) : m_earlyStart[index];
+   }
+
+   /**
+    * Determine the latest finish of a leaf task permitted by its successors.
+    * When called with the late dates of the successors this gives the late
+    * finish of the task, when called with the early dates of the successors
+    * this gives the latest finish which does not delay any successor, which
+    * is used to calculate free slack.
+    *
+    * @param index task index
+    * @param successorStart start dates of the successors
+    * @param successorFinish finish dates of the successors
+    * @return latest finish date
+    */
+   private long getLatestFinish(int index, long[] successorStart, long[] successorFinish)
+   {
+      ProjectCalendar calendar = m_calendars[index];
+      Duration duration = m_durations[index];
+      long finish = m_projectFinish;
+
+      for (Link link : m_successors[index])
+      {
+         int successor = link.m_successor;
+         ProjectCalendar successorCalendar = m_calendars[successor];
+         long date;
+
+         switch (link.m_type)
+         {
+            case START_START:
+            {
+               date = getFinish(calendar, removeLag(successorCalendar, successorStart[successor], link), duration);
+               break;
+            }
+
+            case FINISH_FINISH:
+            {
+               date = calendar.getLatestWorkFinish(new Date(removeLag(successorCalendar, successorFinish[successor], link))).getTime();
+               break;
+            }
+
+            case START_FINISH:
+            {
+               date = getFinish(calendar, removeLag(successorCalendar, successorFinish[successor], link), duration);
+               break;
+            }
+
+            default:
+            {
+               date = calendar.getLatestWorkFinish(new Date(removeLag(successorCalendar, successorStart[successor], link))).getTime();
+               break;
+            }
+         }
+
+         finish = Math.min(finish, date);
+      }
+
+      return finish;
+   }
+
+   /**
+    * Calculate the dates of a summary task from the dates of its
+    * leaf tasks.
+    *
+    * @param index task index
+    */
+   private void rollupSummaryDates(int index)
+   {
+      long earlyStart = Long.MAX_VALUE;
+      long earlyFinish = Long.MIN_VALUE;
+      long lateStart = Long.MAX_VALUE;
+      long lateFinish = Long.MIN_VALUE;
+
+      for (int leaf : getLeafTasks(index))
+      {
+         earlyStart = Math.min(earlyStart, m_earlyStart[leaf]);
+         earlyFinish = Math.max(earlyFinish, m_earlyFinish[leaf]);
+         lateStart = Math.min(lateStart, m_lateStart[leaf]);
+         lateFinish = Math.max(lateFinish, m_lateFinish[leaf]);
+      }
+
+      if (earlyStart == Long.MAX_VALUE)
+      {
+         earlyStart = earlyFinish = lateStart = lateFinish = m_projectStart;
+      }
+
+      m_earlyStart[index] = earlyStart;
+      m_earlyFinish[index] = earlyFinish;
+      m_slackStart[index] = earlyStart;
+      m_lateStart[index] = lateStart;
+      m_lateFinish[index] = lateFinish;
+   }
+
+   /**
+    * Write the calculated dates, slack and criticality to a task.
+    *
+    * @param index task index
+    */
+   private void updateTask(int index)
+   {
+      Task task = m_tasks[index];
+      ProjectCalendar calendar = m_calendars[index];
+      TimeUnit units = m_durations[index].getUnits();
+
+      Date earlyStart = new Date(m_earlyStart[index]);
+      Date earlyFinish = new Date(m_earlyFinish[index]);
+      Date lateStart = new Date(m_lateStart[index]);
+      Date lateFinish = new Date(m_lateFinish[index]);
+
+      Date slackStart = earlyStart;
+      Date slackFinish = earlyFinish;
+      if (m_slackStart[index] != m_earlyStart[index])
+      {
+         slackStart = new Date(m_slackStart[index]);
+         slackFinish = new Date(getFinish(calendar, m_slackStart[index], m_durations[index]));
+      }
+
+      Duration startSlack = calendar.getWork(slackStart, lateStart, units);
+      Duration finishSlack = calendar.getWork(slackFinish, lateFinish, units);
+      Duration totalSlack = startSlack.getDuration() < finishSlack.getDuration() ? startSlack : finishSlack;
+
+      Duration freeSlack = totalSlack;
+      if (index < m_leafCount)
+      {
+         Duration slack = calendar.getWork(earlyFinish, new Date(getLatestFinish(index, m_earlyStart, m_earlyFinish)), units);
+         if (slack.getDuration() < freeSlack.getDuration())
+         {
+            freeSlack = slack;
+         }
+      }
+
+      task.setEarlyStart(earlyStart);
+      task.setEarlyFinish(earlyFinish);
+      task.setLateStart(lateStart);
+      task.setLateFinish(lateFinish);
+      task.setStartSlack(startSlack);
+      task.setFinishSlack(finishSlack);
+      task.setTotalSlack(totalSlack);
+      task.setFreeSlack(freeSlack);
+
+      //
+      // Criticality is derived from the total slack we've just set
+      //
+      task.set(TaskField.CRITICAL, null);
+      task.getCritical();
+   }
+
+   /**
+    * Calculate the start of a task from its finish date.
+    *
+    * @param calendar task calendar
+    * @param finish finish date
+    * @param duration task duration
+    * @return start date
+    */
+   private long getStart(ProjectCalendar calendar, long finish, Duration duration)
+   {
+      if (duration.getDuration() == 0)
+      {
+         return finish;
+      }
+      return calendar.getNextWorkStart(calendar.getStartDate(new Date(finish), duration)).getTime();
+   }
+
+   /**
+    * Calculate the finish of a task from its start date.
+    *
+    * @param calendar task calendar
+    * @param start start date
+    * @param duration task duration
+    * @return finish date
+    */
+   private long getFinish(ProjectCalendar calendar, long start, Duration duration)
+   {
+      if (duration.getDuration() == 0)
+      {
+         return start;
+      }
+      return calendar.getDate(new Date(start), duration, false).getTime();
+   }
+
+   /**
+    * Add a link's lag to a date, returning the next time work can start.
+    *
+    * @param calendar successor calendar
+    * @param date date
+    * @param link link
+    * @return adjusted date
+    */
+   private long addLagToStart(ProjectCalendar calendar, long date, Link link)
+   {
+      Date result;
+      if (link.m_elapsed)
+      {
+         result = calendar.getNextWorkStart(new Date(date + link.m_elapsedLag));
+      }
+      else
+      {
+         if (link.m_negative)
+         {
+            result = calendar.getNextWorkStart(calendar.getStartDate(new Date(date), link.m_lag));
+         }
+         else
+         {
+            result = calendar.getDate(new Date(date), link.m_lag, true);
+         }
+      }
+      return result.getTime();
+   }
+
+   /**
+    * Add a link's lag to a date, returning the time at which work
+    * could finish.
+    *
+    * @param calendar successor calendar
+    * @param date date
+    * @param link link
+    * @return adjusted date
+    */
+   private long addLagToFinish(ProjectCalendar calendar, long date, Link link)
+   {
+      long result;
+      if (link.m_elapsed)
+      {
+         result = date + link.m_elapsedLag;
+      }
+      else
+      {
+         if (link.m_negative)
+         {
+            result = calendar.getStartDate(new Date(date), link.m_lag).getTime();
+         }
+         else
+         {
+            result = calendar.getDate(new Date(date), link.m_lag, false).getTime();
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Remove a link's lag from a date.
+    *
+    * @param calendar successor calendar
+    * @param date date
+    * @param link link
+    * @return adjusted date
+    */
+   private long removeLag(ProjectCalendar calendar, long date, Link link)
+   {
+      long result;
+      if (link.m_elapsed)
+      {
+         result = date - link.m_elapsedLag;
+      }
+      else
+      {
+         if (link.m_negative)
+         {
+            result = calendar.getDate(new Date(date), link.m_lag, false).getTime();
+         }
+         else
+         {
+            result = calendar.getStartDate(new Date(date), link.m_lag).getTime();
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Retrieve the indexes of the leaf tasks represented by a task. For
+    * a leaf task this is just the task itself, for a summary task this is
+    * all of the leaf tasks below it.
+    *
+    * @param index task index
+    * @return leaf task indexes
+    */
+   private int[] getLeafTasks(int index)
+   {
+      int[] result = m_leafTasks[index];
+      if (result == null)
+      {
+         if (index < m_leafCount)
+         {
+            result = new int[]
+            {
+               index
+            };
+         }
+         else
+         {
+            List<Integer> list = new ArrayList<Integer>();
+            for (Task child : m_tasks[index].getChildTasks())
+            {
+               Integer childIndex = m_index.get(child);
+               if (childIndex != null)
+               {
+                  for (int leaf : getLeafTasks(childIndex.intValue()))
+                  {
+                     list.add(Integer.valueOf(leaf));
+                  }
+               }
+            }
+
+            result = new int[list.size()];
+            for (int item = 0; item < result.length; item++)
+            {
+               result[item] = list.get(item).intValue();
+            }
+         }
+         m_leafTasks[index] = result;
+      }
+      return result;
+   }
+
+   /**
+    * Create an empty list of links for each leaf task.
+    *
+    * @return list of link lists
+    */
+   private List<List<Link>> createLinkLists()
+   {
+      List<List<Link>> result = new ArrayList<List<Link>>(m_leafCount);
+      for (int index = 0; index < m_leafCount; index++)
+      {
+         result.add(new ArrayList<Link>(2));
+      }
+      return result;
+   }
+
+   /**
+    * Convert lists of links into arrays.
+    *
+    * @param lists link lists
+    * @return link arrays
+    */
+   private Link[][] toArray(List<List<Link>> lists)
+   {
+      Link[][] result = new Link[lists.size()][];
+      for (int index = 0; index < result.length; index++)
+      {
+         List<Link> list = lists.get(index);
+         result[index] = list.toArray(new Link[list.size()]);
+      }
+      return result;
+   }
+
+   /**
+    * Remove the links created from the predecessors of a task.
+    *
+    * @param links links
+    * @param owner index of the task whose links are removed
+    * @return remaining links
+    */
+   private Link[] removeLinks(Link[] links, int owner)
+   {
+      List<Link> result = new ArrayList<Link>(links.length);
+      for (Link link : links)
+      {
+         if (link.m_owner != owner)
+         {
+            result.add(link);
+         }
+      }
+      return result.size() == links.length ? links : result.toArray(new Link[result.size()]);
+   }
+
+   /**
+    * Add a link to an array of links.
+    *
+    * @param links links
+    * @param link new link
+    * @return links
+    */
+   private Link[] addLink(Link[] links, Link link)
+   {
+      Link[] result = new Link[links.length + 1];
+      System.arraycopy(links, 0, result, 0, links.length);
+      result[links.length] = link;
+      return result;
+   }
+
+   /**
+    * Determine if a lag expressed in these units is elapsed time.
+    *
+    * @param units time units
+    * @return true if elapsed time
+    */
+   private boolean isElapsed(TimeUnit units)
+   {
+      boolean result;
+      switch (units)
+      {
+         case ELAPSED_MINUTES:
+         case ELAPSED_HOURS:
+         case ELAPSED_DAYS:
+         case ELAPSED_WEEKS:
+         case ELAPSED_MONTHS:
+         case ELAPSED_YEARS:
+         case ELAPSED_PERCENT:
+         {
+            result = true;
+            break;
+         }
+
+         default:
+         {
+            result = false;
+            break;
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Passes applied to the tasks.
+    */
+   private enum Pass
+   {
+      FORWARD,
+      BACKWARD,
+      UPDATE
+   }
+
+   /**
+    * A queue of leaf tasks ordered by level, in which each task
+    * appears at most once.
+    */
+   private final class TaskQueue
+   {
+      /**
+       * Constructor.
+       *
+       * @param ascending true if tasks at lower levels are removed first
+       */
+      public TaskQueue(final boolean ascending)
+      {
+         m_queue = new PriorityQueue<Integer>(11, new Comparator<Integer>()
+         {
+            @Override public int compare(Integer o1, Integer o2)
+            {
+               int result = m_taskLevel[o1.intValue()] - m_taskLevel[o2.intValue()];
+               return ascending ? result : -result;
+            }
+         });
+      }
+
+      /**
+       * Add a task to the queue, if it is not already queued.
+       *
+       * @param index task index
+       */
+      public void add(int index)
+      {
+         Integer value = Integer.valueOf(index);
+         if (m_queued.add(value))
+         {
+            m_queue.add(value);
+         }
+      }
+
+      /**
+       * Remove the next task from the queue.
+       *
+       * @return task index
+       */
+      public int remove()
+      {
+         Integer value = m_queue.remove();
+         m_queued.remove(value);
+         return value.intValue();
+      }
+
+      /**
+       * Determine if the queue is empty.
+       *
+       * @return true if the queue is empty
+       */
+      public boolean isEmpty()
+      {
+         return m_queue.isEmpty();
+      }
+
+      private final PriorityQueue<Integer> m_queue;
+      private final Set<Integer> m_queued = new HashSet<Integer>();
+   }
+
+   /**
+    * A dependency between two leaf tasks, with the lag expressed either
+    * as working time or as elapsed time.
+    */
+   private static final class Link
+   {
+      /**
+       * Constructor.
+       *
+       * @param owner index of the task whose relation created this link
+       * @param predecessor predecessor task index
+       * @param successor successor task index
+       * @param type relation type
+       * @param lagMinutes lag in minutes
+       * @param elapsed true if the lag is elapsed time
+       */
+      public Link(int owner, int predecessor, int successor, RelationType type, double lagMinutes, boolean elapsed)
+      {
+         m_owner = owner;
+         m_predecessor = predecessor;
+         m_successor = successor;
+         m_type = type;
+         m_elapsed = elapsed;
+         m_negative = lagMinutes < 0;
+         m_lag = Duration.getInstance(Math.abs(lagMinutes), TimeUnit.MINUTES);
+         m_elapsedLag = Math.round(lagMinutes * 60000);
+      }
+
+      final int m_owner;
+      final int m_predecessor;
+      final int m_successor;
+      final RelationType m_type;
+      final boolean m_elapsed;
+      final boolean m_negative;
+      final Duration m_lag;
+      final long m_elapsedLag;
+   }
+
+   private ProjectFile m_file;
+   private ExecutorService m_executor;
+   private Task[] m_tasks;
+   private int m_leafCount;
+   private Map<Task, Integer> m_index;
+   private ProjectCalendar[] m_calendars;
+   private Duration[] m_durations;
+   private Date[] m_actualStart;
+   private Date[] m_actualFinish;
+   private ConstraintType[] m_constraintType;
+   private Date[] m_constraintDate;
+   private long[] m_startLimits;
+   private Link[][] m_predecessors;
+   private Link[][] m_successors;
+   private int[][] m_leafTasks;
+   private int[][] m_levels;
+   private long[] m_earlyStart;
+   private long[] m_earlyFinish;
+   private long[] m_slackStart;
+   private long[] m_lateStart;
+   private long[] m_lateFinish;
+   private long m_projectStart;
+   private long m_projectFinish;
+   private int m_projectFinishCount;
+   private double m_minutesPerDay;
+   private double m_minutesPerWeek;
+   private double m_daysPerMonth;
+   private int[] m_taskLevel;
+   private Set<Integer> m_changedTasks;
+   private Set<Integer> m_changedRelations;
+
+   /**
+    * Records changes to the task attributes used to calculate dates.
+    */
+   private final FieldListener m_listener = new FieldListener()
+   {
+      @Override public void fieldChange(FieldContainer container, FieldType type, Object oldValue, Object newValue)
+      {
+         if (type instanceof TaskField)
+         {
+            switch ((TaskField) type)
+            {
+               case DURATION:
+               case CALENDAR:
+               case CALENDAR_UNIQUE_ID:
+               case CONSTRAINT_TYPE:
+               case CONSTRAINT_DATE:
+               case ACTUAL_START:
+               case ACTUAL_FINISH:
+               {
+                  taskChanged((Task) container);
+                  break;
+               }
+
+               default:
+               {
+                  break;
+               }
+            }
+         }
+      }
+   };
+
+   private static final int MINIMUM_CONCURRENT_TASKS = 256;
+   private static final int MINIMUM_BATCH_SIZE = 64;
+   private static final int BATCHES_PER_PROCESSOR = 4;
+}
@@ -0,0 +1,429 @@
+/*
+ * file:       TimephasedAggregator.java
+ * author:     Jon Iles
+ * copyright:  (c) Packwood Software 2026
+ * date:       17/10/2026
+ */
+
+/*
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307, USA.
+ */
+
+package net.sf.mpxj.utility;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import net.sf.mpxj.AbstractTimephasedSeries;
+import net.sf.mpxj.DateRange;
+import net.sf.mpxj.Duration;
+import net.sf.mpxj.MPXJException;
+import net.sf.mpxj.ProjectCalendar;
+import net.sf.mpxj.ProjectProperties;
+import net.sf.mpxj.Resource;
+import net.sf.mpxj.ResourceAssignment;
+import net.sf.mpxj.TimeUnit;
+import net.sf.mpxj.TimephasedCost;
+import net.sf.mpxj.TimephasedCostSeries;
+import net.sf.mpxj.TimephasedWork;
+import net.sf.mpxj.TimephasedWorkSeries;
+import net.sf.mpxj.common.DateHelper;
+
+/**
+ * Allocates the timephased work or cost of many resources to a single
+ * timescale in one pass. The allocation follows the same rules as
+ * TimephasedUtility.segmentWork and segmentCost, but rather than
+ * asking the calendar whether each day in each date range is a working
+ * day, a running count of working days is built once for each calendar
+ * across the whole timescale.
+ *
+ * Retrieving timephased data and reading calendars may update state held
+ * by the project on demand, so this is done on the calling thread. Only
+ * the allocation of the retrieved data to the timescale is shared between
+ * the threads of an executor, if one is supplied.
+ */
+final class TimephasedAggregator
+{
+   /**
+    * Constructor.
+    *
+    * @param dateList timescale date ranges, in date order
+    */
+   public TimephasedAggregator(List<DateRange> dateList)
+   {
+      m_timeZone = TimeZone.getDefault();
+      m_rangeStart = new long[dateList.size()];
+      m_rangeEnd = new long[dateList.size()];
+
+      for (int index = 0; index < m_rangeStart.length; index++)
+      {
+         DateRange range = dateList.get(index);
+         m_rangeStart[index] = range.getStart().getTime();
+         m_rangeEnd[index] = range.getEnd().getTime();
+      }
+
+      if (m_rangeStart.length != 0)
+      {
+         m_firstDay = getDay(m_rangeStart[0]);
+         m_lastDay = getDay(m_rangeEnd[m_rangeEnd.length - 1]);
+      }
+   }
+
+   /**
+    * Allocate the timephased work or cost of each resource to the timescale.
+    *
+    * @param resources resources to process
+    * @param cost true to allocate cost, false to allocate work
+    * @param executor executor used to process resources concurrently, or null to process resources sequentially
+    * @return allocated values, indexed by resource then date range
+    * @throws MPXJException
+    */
+   public double[][] process(List<Resource> resources, boolean cost, ExecutorService executor) throws MPXJException
+   {
+      final Source[][] sources = new Source[resources.size()][];
+      for (int index = 0; index < sources.length; index++)
+      {
+         sources[index] = getSources(resources.get(index), cost);
+      }
+
+      final double[][] result = new double[sources.length][];
+      if (executor == null || sources.length < MINIMUM_CONCURRENT_RESOURCES)
+      {
+         process(sources, result, 0, sources.length);
+      }
+      else
+      {
+         List<Callable<Void>> batches = new ArrayList<Callable<Void>>();
+         int batchSize = Math.max(MINIMUM_CONCURRENT_RESOURCES, (sources.length + BATCHES_PER_REQUEST - 1) / BATCHES_PER_REQUEST);
+         for (int from = 0; from < sources.length; from += batchSize)
+         {
+            final int batchFrom = from;
+            final int batchTo = Math.min(from + batchSize, sources.length);
+            batches.add(new Callable<Void>()
+            {
+               @Override public Void call()
+               {
+                  process(sources, result, batchFrom, batchTo);
+                  return null;
+               }
+            });
+         }
+
+         try
+         {
+            for (Future<Void> future : executor.invokeAll(batches))
+            {
+               future.get();
+            }
+         }
+
+         catch (InterruptedException ex)
+         {
+            Thread.currentThread().interrupt();
+            throw new MPXJException(MPXJException.TIMEPHASED_ERROR, ex);
+         }
+
+         catch (ExecutionException ex)
+         {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException)
+            {
+               throw (RuntimeException) cause;
+            }
+            throw new MPXJException(MPXJException.TIMEPHASED_ERROR, ex);
+         }
+      }
+
+      return result;
+   }
+
+   /**
+    * Retrieve the timephased data for each of a resource's assignments,
+    * along with the working days of the calendar it relates to.
+    *
+    * @param resource resource to process
+    * @param cost true to retrieve cost, false to retrieve work
+    * @return timephased data sources
+    */
+   private Source[] getSources(Resource resource, boolean cost)
+   {
+      List<Source> result = new ArrayList<Source>();
+      for (ResourceAssignment assignment : resource.getTaskAssignments())
+      {
+         AbstractTimephasedSeries<?> series;
+         double[] hoursPerUnit = null;
+
+         if (cost)
+         {
+            List<TimephasedCost> list = assignment.getTimephasedCost();
+            series = list == null || list instanceof TimephasedCostSeries ? (TimephasedCostSeries) list : new TimephasedCostSeries(list);
+         }
+         else
+         {
+            List<TimephasedWork> list = assignment.getTimephasedWork();
+            series = list == null || list instanceof TimephasedWorkSeries ? (TimephasedWorkSeries) list : new TimephasedWorkSeries(list);
+            hoursPerUnit = getHoursPerUnit(assignment.getParentFile().getProjectProperties());
+         }
+
+         if (series != null && !series.isEmpty())
+         {
+            result.add(new Source(series, getWorkingDays(assignment.getCalendar()), hoursPerUnit));
+         }
+      }
+      return result.toArray(new Source[result.size()]);
+   }
+
+   /**
+    * Allocate the timephased data for a range of resources to the timescale.
+    *
+    * @param sources timephased data sources, indexed by resource
+    * @param result allocated values, indexed by resource
+    * @param from index of the first resource to process
+    * @param to index after the last resource to process
+    */
+   private void process(Source[][] sources, double[][] result, int from, int to)
+   {
+      for (int index = from; index < to; index++)
+      {
+         double[] row = new double[m_rangeStart.length];
+         for (Source source : sources[index])
+         {
+            process(source, row);
+         }
+         result[index] = row;
+      }
+   }
+
+   /**
+    * Allocate the timephased data from a single source to the timescale.
+    *
+    * @param source timephased data source
+    * @param row allocated values for the parent resource
+    */
+   private void process(Source source, double[] row)
+   {
+      AbstractTimephasedSeries<?> series = source.m_series;
+      int rangeIndex = 0;
+
+      for (int index = 0; index < series.size(); index++)
+      {
+         double amountPerDay = series.getAmountPerDayValue(index);
+         if (Double.isNaN(amountPerDay) || amountPerDay == 0)
+         {
+            continue;
+         }
+
+         if (source.m_hoursPerUnit != null)
+         {
+            amountPerDay *= source.m_hoursPerUnit[((TimephasedWorkSeries) series).getAmountPerDayUnits(index).ordinal()];
+         }
+
+         long start = series.getStartTime(index);
+         long finish = series.getFinishTime(index);
+
+         //
+         // Skip to the first date range which ends after the start of this item.
+         // Items are in date order, so we never need to move backwards.
+         //
+         while (rangeIndex < m_rangeEnd.length && m_rangeEnd[rangeIndex] <= start)
+         {
+            ++rangeIndex;
+         }
+
+         for (int allocationIndex = rangeIndex; allocationIndex < m_rangeStart.length && m_rangeStart[allocationIndex] < finish; allocationIndex++)
+         {
+            long allocationStart = Math.max(m_rangeStart[allocationIndex], start);
+            long allocationFinish = Math.min(m_rangeEnd[allocationIndex], finish);
+            if (allocationStart < allocationFinish)
+            {
+               row[allocationIndex] += amountPerDay * getWorkingDays(source.m_workingDays, allocationStart, allocationFinish);
+            }
+         }
+      }
+   }
+
+   /**
+    * Count the working days between two dates. As in TimephasedUtility,
+    * this is the number of whole day steps from the start date, including
+    * the start date itself, which fall before the finish date and
+    * on a working day.
+    *
+    * @param workingDays running count of working days, or null if all days are working days
+    * @param start start date
+    * @param finish finish date
+    * @return number of working days
+    */
+   private int getWorkingDays(int[] workingDays, long start, long finish)
+   {
+      long localStart = toLocal(start);
+      long localFinish = toLocal(finish);
+      int startDay = getLocalDay(localStart);
+      int finishDay = getLocalDay(localFinish);
+      long startTime = localStart - ((long) startDay * DateHelper.MS_PER_DAY);
+      long finishTime = localFinish - ((long) finishDay * DateHelper.MS_PER_DAY);
+
+      int days = finishDay - startDay + (startTime < finishTime ? 1 : 0);
+      if (days <= 0)
+      {
+         return 0;
+      }
+
+      if (workingDays == null)
+      {
+         return days;
+      }
+
+      int offset = startDay - m_firstDay;
+      return workingDays[offset + days] - workingDays[offset];
+   }
+
+   /**
+    * Build a running count of working days for a calendar across
+    * the timescale. Counts are shared between all sources using the
+    * same calendar.
+    *
+    * @param calendar calendar, or null if all days are working days
+    * @return running count of working days
+    */
+   private int[] getWorkingDays(ProjectCalendar calendar)
+   {
+      if (calendar == null)
+      {
+         return null;
+      }
+
+      int[] result = m_workingDays.get(calendar);
+      if (result == null)
+      {
+         int dayCount = m_lastDay - m_firstDay + 1;
+         result = new int[dayCount + 1];
+         for (int index = 0; index < dayCount; index++)
+         {
+            //
+            // Use midday to avoid any ambiguity around daylight saving changes
+            //
+            long local = ((long) (m_firstDay + index) * DateHelper.MS_PER_DAY) + (DateHelper.MS_PER_DAY / 2);
+            Date date = new Date(local - m_timeZone.getOffset(local));
+            result[index + 1] = result[index] + (calendar.isWorkingDate(date) ? 1 : 0);
+         }
+         m_workingDays.put(calendar, result);
+      }
+      return result;
+   }
+
+   /**
+    * Retrieve the number of hours represented by one of each time unit.
+    *
+    * @param properties project properties used for the conversion
+    * @return hours per unit, indexed by time unit ordinal
+    */
+   private double[] getHoursPerUnit(ProjectProperties properties)
+   {
+      double[] result = m_hoursPerUnit.get(properties);
+      if (result == null)
+      {
+         TimeUnit[] units = TimeUnit.values();
+         result = new double[units.length];
+         for (TimeUnit unit : units)
+         {
+            result[unit.ordinal()] = Duration.convertUnits(1, unit, TimeUnit.HOURS, properties).getDuration();
+         }
+         m_hoursPerUnit.put(properties, result);
+      }
+      return result;
+   }
+
+   /**
+    * Retrieve the day containing a date.
+    *
+    * @param date date
+    * @return day, as a count of days since the epoch in the local time zone
+    */
+   private int getDay(long date)
+   {
+      return getLocalDay(toLocal(date));
+   }
+
+   /**
+    * Convert a date to local time.
+    *
+    * @param date date
+    * @return local time
+    */
+   private long toLocal(long date)
+   {
+      return date + m_timeZone.getOffset(date);
+   }
+
+   /**
+    * Retrieve the day containing a local time.
+    *
+    * @param local local time
+    * @return day, as a count of days since the epoch
+    */
+   private static int getLocalDay(long local)
+   {
+      long day = local / DateHelper.MS_PER_DAY;
+      if (local < 0 && day * DateHelper.MS_PER_DAY != local)
+      {
+         --day;
+      }
+      return (int) day;
+   }
+
+   /**
+    * Timephased data for one assignment, with the working days
+    * of the calendar it relates to.
+    */
+   private static final class Source
+   {
+      /**
+       * Constructor.
+       *
+       * @param series timephased data
+       * @param workingDays running count of working days, or null if all days are working days
+       * @param hoursPerUnit hours per time unit for work, or null for cost
+       */
+      public Source(AbstractTimephasedSeries<?> series, int[] workingDays, double[] hoursPerUnit)
+      {
+         m_series = series;
+         m_workingDays = workingDays;
+         m_hoursPerUnit = hoursPerUnit;
+      }
+
+      final AbstractTimephasedSeries<?> m_series;
+      final int[] m_workingDays;
+      final double[] m_hoursPerUnit;
+   }
+
+   private final TimeZone m_timeZone;
+   private final long[] m_rangeStart;
+   private final long[] m_rangeEnd;
+   private int m_firstDay;
+   private int m_lastDay;
+   private final Map<ProjectCalendar, int[]> m_workingDays = new IdentityHashMap<ProjectCalendar, int[]>();
+   private final Map<ProjectProperties, double[]> m_hoursPerUnit = new IdentityHashMap<ProjectProperties, double[]>();
+
+   private static final int MINIMUM_CONCURRENT_RESOURCES = 16;
+   private static final int BATCHES_PER_REQUEST = 64;
+}
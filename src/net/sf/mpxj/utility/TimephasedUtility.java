@@ -27,16 +27,20 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
+import net.sf.mpxj.AbstractTimephasedSeries;
 import net.sf.mpxj.DateRange;
 import net.sf.mpxj.Duration;
+import net.sf.mpxj.MPXJException;
 import net.sf.mpxj.ProjectCalendar;
 import net.sf.mpxj.ProjectFile;
+import net.sf.mpxj.Resource;
 import net.sf.mpxj.TimeUnit;
 import net.sf.mpxj.TimephasedCost;
-import net.sf.mpxj.TimephasedItem;
+import net.sf.mpxj.TimephasedCostSeries;
 import net.sf.mpxj.TimephasedWork;
-import net.sf.mpxj.common.DateHelper;
+import net.sf.mpxj.TimephasedWorkSeries;
 import net.sf.mpxj.common.NumberHelper;
 import net.sf.mpxj.mpp.TimescaleUnits;
 
@@ -59,6 +63,7 @@ public final class TimephasedUtility
    public ArrayList<Duration> segmentWork(ProjectCalendar projectCalendar, List<TimephasedWork> work, TimescaleUnits rangeUnits, List<DateRange> dateList)
    {
       ArrayList<Duration> result = new ArrayList<Duration>(dateList.size());
+      TimephasedWorkSeries series = work == null || work instanceof TimephasedWorkSeries ? (TimephasedWorkSeries) work : new TimephasedWorkSeries(work);
       int lastStartIndex = 0;
 
       //
@@ -73,7 +78,7 @@ public final class TimephasedUtility
          // assignment date ranges in the list, then we show a zero
          // duration for this date range.
          //
-         int startIndex = lastStartIndex == -1 ? -1 : getStartIndex(range, work, lastStartIndex);
+         int startIndex = lastStartIndex == -1 ? -1 : getStartIndex(range, series, lastStartIndex);
          if (startIndex == -1)
          {
             result.add(Duration.getInstance(0, TimeUnit.HOURS));
@@ -86,7 +91,7 @@ public final class TimephasedUtility
             // much time from this resource assignment can be allocated
             // to the current date range.
             //
-            result.add(getRangeDuration(projectCalendar, rangeUnits, range, work, startIndex));
+            result.add(getRangeDuration(projectCalendar, rangeUnits, range, series, startIndex));
             lastStartIndex = startIndex;
          }
       }
@@ -124,6 +129,7 @@ public final class TimephasedUtility
    public ArrayList<Double> segmentCost(ProjectCalendar projectCalendar, List<TimephasedCost> cost, TimescaleUnits rangeUnits, ArrayList<DateRange> dateList)
    {
       ArrayList<Double> result = new ArrayList<Double>(dateList.size());
+      TimephasedCostSeries series = cost == null || cost instanceof TimephasedCostSeries ? (TimephasedCostSeries) cost : new TimephasedCostSeries(cost);
       int lastStartIndex = 0;
 
       //
@@ -138,7 +144,7 @@ public final class TimephasedUtility
          // assignment date ranges in the list, then we show a zero
          // duration for this date range.
          //
-         int startIndex = lastStartIndex == -1 ? -1 : getStartIndex(range, cost, lastStartIndex);
+         int startIndex = lastStartIndex == -1 ? -1 : getStartIndex(range, series, lastStartIndex);
          if (startIndex == -1)
          {
             result.add(NumberHelper.DOUBLE_ZERO);
@@ -151,7 +157,7 @@ public final class TimephasedUtility
             // much time from this resource assignment can be allocated
             // to the current date range.
             //
-            result.add(getRangeCost(projectCalendar, rangeUnits, range, cost, startIndex));
+            result.add(getRangeCost(projectCalendar, rangeUnits, range, series, startIndex));
             lastStartIndex = startIndex;
          }
       }
@@ -175,59 +181,150 @@ public final class TimephasedUtility
       return segmentCost(file.getBaselineCalendar(), cost, rangeUnits, dateList);
    }
 
+   /**
+    * Allocates the timephased work of each resource's assignments to
+    * a timescale, for example to produce resource histograms. This gives
+    * the same values as calling segmentWork for each assignment and
+    * summing the results for each resource, but processes all of the
+    * resources in a single pass, and returns work in hours as primitive
+    * values. Each assignment's own calendar is used to determine
+    * working days.
+    *
+    * @param resources resources to process
+    * @param rangeUnits timescale units
+    * @param dateList timescale date ranges, in date order
+    * @return work in hours, indexed by resource then date range
+    */
+   public double[][] segmentResourceWork(List<Resource> resources, TimescaleUnits rangeUnits, List<DateRange> dateList)
+   {
+      return segmentResources(resources, rangeUnits, dateList, false);
+   }
+
+   /**
+    * Allocates the timephased work of each resource's assignments to
+    * a timescale, in the same way as the method above which does not take
+    * an executor. If an executor is supplied, the
+    * allocation is shared between its threads. The caller remains
+    * responsible for shutting down the executor.
+    *
+    * @param resources resources to process
+    * @param rangeUnits timescale units
+    * @param dateList timescale date ranges, in date order
+    * @param executor executor used to process resources concurrently, or null to process resources sequentially
+    * @return work in hours, indexed by resource then date range
+    * @throws MPXJException
+    */
+   public double[][] segmentResourceWork(List<Resource> resources, TimescaleUnits rangeUnits, List<DateRange> dateList, ExecutorService executor) throws MPXJException
+   {
+      checkRangeUnits(rangeUnits);
+      return new TimephasedAggregator(dateList).process(resources, false, executor);
+   }
+
+   /**
+    * Allocates the timephased cost of each resource's assignments to
+    * a timescale. This gives the same values as calling segmentCost for
+    * each assignment and summing the results for each resource, but
+    * processes all of the resources in a single pass.
+    *
+    * @param resources resources to process
+    * @param rangeUnits timescale units
+    * @param dateList timescale date ranges, in date order
+    * @return cost, indexed by resource then date range
+    */
+   public double[][] segmentResourceCost(List<Resource> resources, TimescaleUnits rangeUnits, List<DateRange> dateList)
+   {
+      return segmentResources(resources, rangeUnits, dateList, true);
+   }
+
+   /**
+    * Allocates the timephased cost of each resource's assignments to
+    * a timescale, in the same way as the method above which does not take
+    * an executor. If an executor is supplied, the
+    * allocation is shared between its threads. The caller remains
+    * responsible for shutting down the executor.
+    *
+    * @param resources resources to process
+    * @param rangeUnits timescale units
+    * @param dateList timescale date ranges, in date order
+    * @param executor executor used to process resources concurrently, or null to process resources sequentially
+    * @return cost, indexed by resource then date range
+    * @throws MPXJException
+    */
+   public double[][] segmentResourceCost(List<Resource> resources, TimescaleUnits rangeUnits, List<DateRange> dateList, ExecutorService executor) throws MPXJException
+   {
+      checkRangeUnits(rangeUnits);
+      return new TimephasedAggregator(dateList).process(resources, true, executor);
+   }
+
+   /**
+    * Sequentially allocate the timephased work or cost of each resource
+    * to a timescale.
+    *
+    * @param resources resources to process
+    * @param rangeUnits timescale units
+    * @param dateList timescale date ranges, in date order
+    * @param cost true to allocate cost, false to allocate work
+    * @return allocated values, indexed by resource then date range
+    */
+   private double[][] segmentResources(List<Resource> resources, TimescaleUnits rangeUnits, List<DateRange> dateList, boolean cost)
+   {
+      checkRangeUnits(rangeUnits);
+      try
+      {
+         return new TimephasedAggregator(dateList).process(resources, cost, null);
+      }
+
+      catch (MPXJException ex)
+      {
+         // Only thrown when an executor is used
+         throw new IllegalStateException(ex);
+      }
+   }
+
+   /**
+    * Bulk allocation only supports timescale units of one day or more,
+    * in line with segmentWork and segmentCost.
+    *
+    * @param rangeUnits timescale units
+    */
+   private void checkRangeUnits(TimescaleUnits rangeUnits)
+   {
+      if (rangeUnits == TimescaleUnits.MINUTES || rangeUnits == TimescaleUnits.HOURS)
+      {
+         throw new UnsupportedOperationException("Please request this functionality from the MPXJ maintainer");
+      }
+   }
+
    /**
     * Used to locate the first timephased resource assignment block which
-    * intersects with the target date range.
+    * intersects with the target date range. The blocks are in date order,
+    * so a binary search is used to find the first block finishing on or
+    * after the start of the target range.
     *
-    * @param <T> payload type
     * @param range target date range
     * @param assignments timephased resource assignments
     * @param startIndex index at which to start the search
     * @return index of timephased resource assignment which intersects with the target date range
     */
-   private <T extends TimephasedItem<?>> int getStartIndex(DateRange range, List<T> assignments, int startIndex)
+   private int getStartIndex(DateRange range, AbstractTimephasedSeries<?> assignments, int startIndex)
    {
       int result = -1;
       if (assignments != null)
       {
-         long rangeStart = range.getStart().getTime();
-         long rangeEnd = range.getEnd().getTime();
-
-         for (int loop = startIndex; loop < assignments.size(); loop++)
+         int index = assignments.binarySearch(range.getStart().getTime());
+         if (index < 0)
          {
-            T assignment = assignments.get(loop);
-            int compareResult = DateHelper.compare(assignment.getStart(), assignment.getFinish(), rangeStart);
-
-            //
-            // The start of the target range falls after the assignment end -
-            // move on to test the next assignment.
-            //
-            if (compareResult > 0)
-            {
-               continue;
-            }
-
-            //
-            // The start of the target range  falls within the assignment -
-            // return the index of this assignment to the caller.
-            //
-            if (compareResult == 0)
-            {
-               result = loop;
-               break;
-            }
+            index = -(index + 1);
+         }
 
-            //
-            // At this point, we know that the start of the target range is before
-            // the assignment start. We need to determine if the end of the
-            // target range overlaps the assignment.
-            //
-            compareResult = DateHelper.compare(assignment.getStart(), assignment.getFinish(), rangeEnd);
-            if (compareResult >= 0)
-            {
-               result = loop;
-               break;
-            }
+         //
+         // If the first block finishing after the start of the target range
+         // starts after the end of the target range, there is no intersection.
+         //
+         index = Math.max(index, startIndex);
+         if (index < assignments.size() && assignments.getStartTime(index) <= range.getEnd().getTime())
+         {
+            result = index;
          }
       }
       return result;
@@ -244,7 +341,7 @@ public final class TimephasedUtility
     * @param startIndex index at which to start searching through the timephased resource assignments
     * @return work duration
     */
-   private Duration getRangeDuration(ProjectCalendar projectCalendar, TimescaleUnits rangeUnits, DateRange range, List<TimephasedWork> assignments, int startIndex)
+   private Duration getRangeDuration(ProjectCalendar projectCalendar, TimescaleUnits rangeUnits, DateRange range, TimephasedWorkSeries assignments, int startIndex)
    {
       Duration result;
 
@@ -280,7 +377,7 @@ public final class TimephasedUtility
     * @param startIndex index at which to start searching through the timephased resource assignments
     * @return work duration
     */
-   private Duration getRangeDurationSubDay(ProjectCalendar projectCalendar, TimescaleUnits rangeUnits, DateRange range, List<TimephasedWork> assignments, int startIndex)
+   private Duration getRangeDurationSubDay(ProjectCalendar projectCalendar, TimescaleUnits rangeUnits, DateRange range, TimephasedWorkSeries assignments, int startIndex)
    {
       throw new UnsupportedOperationException("Please request this functionality from the MPXJ maintainer");
    }
@@ -298,7 +395,7 @@ public final class TimephasedUtility
     * @param startIndex index at which to start searching through the timephased resource assignments
     * @return work duration
     */
-   private Duration getRangeDurationWholeDay(ProjectCalendar projectCalendar, TimescaleUnits rangeUnits, DateRange range, List<TimephasedWork> assignments, int startIndex)
+   private Duration getRangeDurationWholeDay(ProjectCalendar projectCalendar, TimescaleUnits rangeUnits, DateRange range, TimephasedWorkSeries assignments, int startIndex)
    {
       // option 1:
       // Our date range starts before the start of the TRA at the start index.
@@ -323,7 +420,6 @@ public final class TimephasedUtility
 
       int totalDays = 0;
       double totalWork = 0;
-      TimephasedWork assignment = assignments.get(startIndex);
       boolean done = false;
 
       do
@@ -332,14 +428,14 @@ public final class TimephasedUtility
          // Select the correct start date
          //
          long startDate = range.getStart().getTime();
-         long assignmentStart = assignment.getStart().getTime();
+         long assignmentStart = assignments.getStartTime(startIndex);
          if (startDate < assignmentStart)
          {
             startDate = assignmentStart;
          }
 
          long rangeEndDate = range.getEnd().getTime();
-         long traEndDate = assignment.getFinish().getTime();
+         long traEndDate = assignments.getFinishTime(startIndex);
 
          Calendar cal = Calendar.getInstance();
          cal.setTimeInMillis(startDate);
@@ -364,21 +460,17 @@ public final class TimephasedUtility
          // check to see if the next TRA can be used.
          //
          done = true;
-         totalWork += (assignment.getAmountPerDay().getDuration() * totalDays);
-         if (startDate < rangeEndDate)
+         totalWork += (assignments.getAmountPerDayValue(startIndex) * totalDays);
+         if (startDate < rangeEndDate && startIndex + 1 < assignments.size())
          {
             ++startIndex;
-            if (startIndex < assignments.size())
-            {
-               assignment = assignments.get(startIndex);
-               totalDays = 0;
-               done = false;
-            }
+            totalDays = 0;
+            done = false;
          }
       }
       while (!done);
 
-      return Duration.getInstance(totalWork, assignment.getAmountPerDay().getUnits());
+      return Duration.getInstance(totalWork, assignments.getAmountPerDayUnits(startIndex));
    }
 
    /**
@@ -392,7 +484,7 @@ public final class TimephasedUtility
     * @param startIndex index at which to start searching through the timephased resource assignments
     * @return work duration
     */
-   private Double getRangeCost(ProjectCalendar projectCalendar, TimescaleUnits rangeUnits, DateRange range, List<TimephasedCost> assignments, int startIndex)
+   private Double getRangeCost(ProjectCalendar projectCalendar, TimescaleUnits rangeUnits, DateRange range, TimephasedCostSeries assignments, int startIndex)
    {
       Double result;
 
@@ -428,11 +520,10 @@ public final class TimephasedUtility
     * @param startIndex index at which to start searching through the timephased resource assignments
     * @return work duration
     */
-   private Double getRangeCostWholeDay(ProjectCalendar projectCalendar, TimescaleUnits rangeUnits, DateRange range, List<TimephasedCost> assignments, int startIndex)
+   private Double getRangeCostWholeDay(ProjectCalendar projectCalendar, TimescaleUnits rangeUnits, DateRange range, TimephasedCostSeries assignments, int startIndex)
    {
       int totalDays = 0;
       double totalCost = 0;
-      TimephasedCost assignment = assignments.get(startIndex);
       boolean done = false;
 
       do
@@ -441,14 +532,14 @@ public final class TimephasedUtility
          // Select the correct start date
          //
          long startDate = range.getStart().getTime();
-         long assignmentStart = assignment.getStart().getTime();
+         long assignmentStart = assignments.getStartTime(startIndex);
          if (startDate < assignmentStart)
          {
             startDate = assignmentStart;
          }
 
          long rangeEndDate = range.getEnd().getTime();
-         long traEndDate = assignment.getFinish().getTime();
+         long traEndDate = assignments.getFinishTime(startIndex);
 
          Calendar cal = Calendar.getInstance();
          cal.setTimeInMillis(startDate);
@@ -473,16 +564,12 @@ public final class TimephasedUtility
          // check to see if the next TRA can be used.
          //
          done = true;
-         totalCost += (assignment.getAmountPerDay().doubleValue() * totalDays);
-         if (startDate < rangeEndDate)
+         totalCost += (assignments.getAmountPerDayValue(startIndex) * totalDays);
+         if (startDate < rangeEndDate && startIndex + 1 < assignments.size())
          {
             ++startIndex;
-            if (startIndex < assignments.size())
-            {
-               assignment = assignments.get(startIndex);
-               totalDays = 0;
-               done = false;
-            }
+            totalDays = 0;
+            done = false;
          }
       }
       while (!done);
@@ -503,7 +590,7 @@ public final class TimephasedUtility
     * @param startIndex index at which to start searching through the timephased resource assignments
     * @return work duration
     */
-   private Double getRangeCostSubDay(ProjectCalendar projectCalendar, TimescaleUnits rangeUnits, DateRange range, List<TimephasedCost> assignments, int startIndex)
+   private Double getRangeCostSubDay(ProjectCalendar projectCalendar, TimescaleUnits rangeUnits, DateRange range, TimephasedCostSeries assignments, int startIndex)
    {
       throw new UnsupportedOperationException("Please request this functionality from the MPXJ maintainer");
    }